@@ -0,0 +1,90 @@
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseListDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseTreeDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.OwnerDto;
+import at.ac.tuwien.sepm.assignment.individual.type.Sex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares encode time and payload size of JSON, CBOR and Smile for the responses of the high-volume endpoints:
+ *  a pedigree of 10 generations and a list of 10k horses.
+ * <p>
+ * The mappers are configured like the ones of the backend (java.time support, dates as ISO strings).
+ * Every payload is encoded for a few seconds to warm up, the reported time is the average of the following measurement.
+ * </p>
+ * Run it with {@code scripts/encoding-benchmark.sh}, it needs the classes of the backend and its dependencies.
+ */
+public class EncodingBenchmark {
+  private static final long WARMUP_NANOS = 3_000_000_000L;
+  private static final long MEASURE_NANOS = 5_000_000_000L;
+
+  public static void main(String[] args) throws Exception {
+    var mappers = Map.<String, ObjectMapper>of(
+        "json", JsonMapper.builder().findAndAddModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build(),
+        "cbor", CBORMapper.builder().findAndAddModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build(),
+        "smile", SmileMapper.builder().findAndAddModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build());
+    var payloads = Map.<String, Object>of(
+        "tree-10-generations", tree(10, new long[] {1}),
+        "list-10k-rows", list(10_000));
+
+    System.out.printf("%-20s %-6s %12s %14s%n", "payload", "format", "bytes", "encode us");
+    for (var payload : List.of("tree-10-generations", "list-10k-rows")) {
+      for (var format : List.of("json", "cbor", "smile")) {
+        var writer = mappers.get(format).writer();
+        var value = payloads.get(payload);
+        var size = writer.writeValueAsBytes(value).length;
+        var until = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < until) {
+          writer.writeValueAsBytes(value);
+        }
+        var iterations = 0;
+        var start = System.nanoTime();
+        until = start + MEASURE_NANOS;
+        long now;
+        do {
+          writer.writeValueAsBytes(value);
+          iterations++;
+          now = System.nanoTime();
+        } while (now < until);
+        System.out.printf("%-20s %-6s %12d %14.1f%n", payload, format, size, (now - start) / 1000.0 / iterations);
+      }
+    }
+  }
+
+  private static HorseTreeDto tree(int generations, long[] nextId) {
+    var id = nextId[0]++;
+    return new HorseTreeDto(
+        id,
+        "Horse " + id,
+        "A horse with a moderately long description, as they are typically entered by breeders " + id,
+        LocalDate.of(2020, 1, 1).minusYears(10 - generations),
+        id % 2 == 0 ? Sex.FEMALE : Sex.MALE,
+        generations == 0 ? null : tree(generations - 1, nextId),
+        generations == 0 ? null : tree(generations - 1, nextId));
+  }
+
+  private static List<HorseListDto> list(int rows) {
+    var owners = new ArrayList<OwnerDto>();
+    for (var i = 0; i < 100; i++) {
+      owners.add(new OwnerDto(i, "First" + i, "Last" + i, "owner" + i + "@example.com"));
+    }
+    var horses = new ArrayList<HorseListDto>(rows);
+    for (var i = 0; i < rows; i++) {
+      horses.add(new HorseListDto(
+          (long) i,
+          "Horse " + i,
+          i % 3 == 0 ? null : "A horse with a moderately long description, as they are typically entered by breeders " + i,
+          LocalDate.of(2000, 1, 1).plusDays(i % 7000),
+          i % 2 == 0 ? Sex.FEMALE : Sex.MALE,
+          i % 4 == 0 ? null : owners.get(i % owners.size())));
+    }
+    return horses;
+  }
+}
@@ -0,0 +1,100 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load generator: every client sends its next request as soon as the previous one is answered.
+ * <p>
+ * The clients are asynchronous requests of one {@link HttpClient}, so even 10k clients need only a few threads here.
+ * Responses received during the warm-up are not counted.
+ * </p>
+ * Run it without compiling: {@code java scripts/LoadTest.java <url> <clients> <seconds> [warm-up seconds]}
+ */
+public class LoadTest {
+  private final HttpClient client = HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_1_1)
+      .connectTimeout(Duration.ofSeconds(30))
+      .build();
+  private final HttpRequest request;
+  private final long measureFrom;
+  private final long measureUntil;
+  private final CountDownLatch finished;
+
+  private final AtomicLong ok = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private long[] latencies = new long[1 << 16];
+  private int latencyCount;
+
+  LoadTest(URI uri, int clients, int seconds, int warmupSeconds) {
+    this.request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+    this.measureFrom = System.nanoTime() + Duration.ofSeconds(warmupSeconds).toNanos();
+    this.measureUntil = measureFrom + Duration.ofSeconds(seconds).toNanos();
+    this.finished = new CountDownLatch(clients);
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    if (args.length < 3) {
+      System.err.println("Usage: java LoadTest.java <url> <clients> <seconds> [warm-up seconds]");
+      System.exit(2);
+    }
+    var clients = Integer.parseInt(args[1]);
+    var seconds = Integer.parseInt(args[2]);
+    var test = new LoadTest(URI.create(args[0]), clients, seconds, args.length > 3 ? Integer.parseInt(args[3]) : 5);
+    for (int i = 0; i < clients; i++) {
+      test.next();
+    }
+    test.finished.await();
+    test.report(clients, seconds);
+  }
+
+  private void next() {
+    var start = System.nanoTime();
+    if (start >= measureUntil) {
+      finished.countDown();
+      return;
+    }
+    client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+      var end = System.nanoTime();
+      if (start >= measureFrom && end <= measureUntil) {
+        if (error != null || response.statusCode() >= 500 && response.statusCode() != 503) {
+          failed.incrementAndGet();
+        } else if (response.statusCode() == 503) {
+          rejected.incrementAndGet();
+        } else {
+          ok.incrementAndGet();
+          record(end - start);
+        }
+      }
+      next();
+    });
+  }
+
+  private synchronized void record(long latency) {
+    if (latencyCount == latencies.length) {
+      latencies = Arrays.copyOf(latencies, latencyCount * 2);
+    }
+    latencies[latencyCount++] = latency;
+  }
+
+  private synchronized void report(int clients, int seconds) {
+    var sorted = Arrays.copyOf(latencies, latencyCount);
+    Arrays.sort(sorted);
+    System.out.printf("clients=%d ok=%d rejected=%d failed=%d throughput=%.1f/s p50=%.1fms p99=%.1fms max=%.1fms%n",
+        clients, ok.get(), rejected.get(), failed.get(), ok.get() / (double) seconds,
+        percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 1.0));
+  }
+
+  private static double percentile(long[] sorted, double percentile) {
+    if (sorted.length == 0) {
+      return Double.NaN;
+    }
+    var index = (int) Math.ceil(percentile * sorted.length) - 1;
+    return sorted[Math.max(0, index)] / 1_000_000.0;
+  }
+}
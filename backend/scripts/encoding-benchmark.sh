@@ -0,0 +1,17 @@
+#!/usr/bin/env bash
+# Benchmark of encode time and payload size of JSON against the binary encodings CBOR and Smile.
+#
+# Usage:
+#   scripts/encoding-benchmark.sh
+#
+# Compiles the backend, resolves its runtime class path and runs scripts/EncodingBenchmark.java with it.
+# Environment: JAVA_OPTS.
+set -euo pipefail
+
+BACKEND_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+JAVA_OPTS="${JAVA_OPTS:-}"
+cd "$BACKEND_DIR"
+
+mvn -B -q compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt -Dmdep.includeScope=runtime
+# shellcheck disable=SC2086
+java $JAVA_OPTS -cp "target/classes:$(cat target/classpath.txt)" scripts/EncodingBenchmark.java
@@ -0,0 +1,65 @@
+#!/usr/bin/env bash
+# Fast-start mode of the backend, for instances that are started under load.
+#
+# Combines three things, that each cut the time until the first request is answered:
+#  - Spring AOT processing, so the bean definitions are generated code instead of being found by reflection at startup,
+#  - the "fast-start" profile, which initializes beans lazily and generates test data in the background,
+#  - an application class data sharing (AppCDS) archive, recorded in a training run, so the JVM maps
+#    the already parsed and verified classes instead of loading them from the jars.
+#
+# Usage (from the backend directory or anywhere else):
+#   scripts/fast-start.sh build          build the jar with AOT processing, unpack it and record the CDS archive
+#   scripts/fast-start.sh run [args...]  start the backend in fast-start mode, args are passed to Spring Boot
+#
+# The AOT processing freezes the active profiles at build time. To build for other profiles than "fast-start",
+#  e.g. with test data: FAST_START_PROFILES=fast-start,datagen scripts/fast-start.sh build
+set -euo pipefail
+
+BACKEND_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+OUT_DIR="$BACKEND_DIR/target/fast-start"
+APP_DIR="$OUT_DIR/app"
+ARCHIVE="$OUT_DIR/app.jsa"
+MAIN_CLASS=at.ac.tuwien.sepm.assignment.individual.SepmIndividualAssignmentApplication
+PROFILES="${FAST_START_PROFILES:-fast-start}"
+
+# The archive is only used, if the class path is exactly the one of the training run, and it may only contain jars.
+# So the jar is unpacked, the application classes are packed into a plain jar
+#  and the class path is built in the order of the class path index of Spring Boot.
+class_path() {
+  local cp="$OUT_DIR/application.jar"
+  while read -r line; do
+    cp="$cp:$APP_DIR/$(echo "$line" | sed -e 's/^- "//' -e 's/"$//')"
+  done < "$APP_DIR/BOOT-INF/classpath.idx"
+  echo "$cp"
+}
+
+build() {
+  cd "$BACKEND_DIR"
+  mvn -B -q package -DskipTests -Pfast-start -Dfast-start.profiles="$PROFILES"
+  rm -rf "$OUT_DIR"
+  mkdir -p "$APP_DIR"
+  local jar
+  jar=$(ls target/*.jar | head -n 1)
+  (cd "$APP_DIR" && jar -xf "$BACKEND_DIR/$jar")
+  jar -cf "$OUT_DIR/application.jar" -C "$APP_DIR/BOOT-INF/classes" .
+
+  echo "Recording class data sharing archive in a training run"
+  java -XX:ArchiveClassesAtExit="$ARCHIVE" -Dspring.aot.enabled=true -cp "$(class_path)" "$MAIN_CLASS" \
+    --spring.profiles.active="$PROFILES" --server.port=0 --wendy.startup.training-run=true > "$OUT_DIR/training-run.log" 2>&1
+  echo "Wrote $ARCHIVE"
+}
+
+run() {
+  if [ ! -f "$ARCHIVE" ]; then
+    echo "No fast-start build found, run '$0 build' first" >&2
+    exit 1
+  fi
+  exec java -XX:SharedArchiveFile="$ARCHIVE" -Dspring.aot.enabled=true -cp "$(class_path)" "$MAIN_CLASS" \
+    --spring.profiles.active="$PROFILES" "$@"
+}
+
+case "${1:-}" in
+  build) build ;;
+  run) shift; run "$@" ;;
+  *) echo "Usage: $0 build | run [args...]" >&2; exit 2 ;;
+esac
@@ -0,0 +1,69 @@
+#!/usr/bin/env bash
+# Benchmark of horse inserts with and without group commit.
+#
+# Usage:
+#   mvn package -DskipTests
+#   scripts/insert-benchmark.sh
+#
+# Starts the backend once per mode on an empty database and runs scripts/InsertBenchmark.java against POST /horses
+#  for every number of concurrent clients in CLIENTS.
+# Environment: CLIENTS (default "1 8 32 128"), DURATION and WARMUP in seconds (default 20 and 5), PORT (default 8089),
+#  MODES (default "single group"), WINDOW_MILLIS and MAX_BATCH for the group commit (default 2 and 64).
+#
+# The concurrency limits are raised out of the way, otherwise the benchmark measures how fast they reject inserts.
+set -euo pipefail
+
+BACKEND_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+WORK_DIR="$BACKEND_DIR/target/insert-benchmark"
+CLIENTS="${CLIENTS:-1 8 32 128}"
+DURATION="${DURATION:-20}"
+WARMUP="${WARMUP:-5}"
+PORT="${PORT:-8089}"
+MODES="${MODES:-single group}"
+WINDOW_MILLIS="${WINDOW_MILLIS:-2}"
+MAX_BATCH="${MAX_BATCH:-64}"
+JAVA_OPTS="${JAVA_OPTS:-}"
+
+JAR=$(ls "$BACKEND_DIR"/target/*.jar 2>/dev/null | head -n 1 || true)
+if [ -z "$JAR" ]; then
+  echo "No jar found, run mvn package first" >&2
+  exit 1
+fi
+mkdir -p "$WORK_DIR"
+cd "$WORK_DIR"
+
+COMMON_ARGS=(
+  --server.port="$PORT"
+  --wendy.concurrency-limit.point.initial=20000 --wendy.concurrency-limit.point.max=20000
+  --wendy.concurrency-limit.query.initial=20000 --wendy.concurrency-limit.query.max=20000
+  --wendy.group-commit.window-millis="$WINDOW_MILLIS" --wendy.group-commit.max-batch="$MAX_BATCH"
+  --logging.level.at.ac.tuwien.sepm.assignment.individual=WARN
+)
+
+for mode in $MODES; do
+  case "$mode" in
+    single) group_commit=false ;;
+    group) group_commit=true ;;
+    *) echo "Unknown mode $mode" >&2; exit 2 ;;
+  esac
+
+  for clients in $CLIENTS; do
+    # every run starts on an empty database, so the table sizes are the same in both modes
+    rm -f "$WORK_DIR"/wendydb.*
+    # shellcheck disable=SC2086
+    java $JAVA_OPTS -jar "$JAR" --wendy.group-commit.enabled="$group_commit" "${COMMON_ARGS[@]}" > "$WORK_DIR/$mode.log" 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "http://localhost:$PORT/horses"; do
+      if ! kill -0 "$pid" 2>/dev/null; then
+        echo "Backend in mode $mode died, see $WORK_DIR/$mode.log" >&2
+        exit 1
+      fi
+      sleep 0.2
+    done
+
+    printf "%-7s " "$mode"
+    java "$BACKEND_DIR/scripts/InsertBenchmark.java" "http://localhost:$PORT" "$clients" "$DURATION" "$WARMUP"
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+  done
+done
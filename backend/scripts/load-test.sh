@@ -0,0 +1,75 @@
+#!/usr/bin/env bash
+# Load test comparing request execution on platform threads (Tomcat's pool) and on virtual threads.
+#
+# Usage:
+#   mvn package -DskipTests
+#   scripts/load-test.sh [path]
+#
+# Starts the backend once per mode with the test data and runs scripts/LoadTest.java against GET <path>
+#  (default /horses) for every number of concurrent clients in CLIENTS.
+# Environment: CLIENTS (default "1000 10000"), DURATION and WARMUP in seconds (default 30 and 10), PORT (default 8089),
+#  MODES (default "platform virtual").
+# The virtual mode needs Java 21 or newer and is skipped on older JVMs.
+#
+# Both modes get the same connection limits of Tomcat. The concurrency limits are raised out of the way,
+#  otherwise the test measures how fast they reject requests instead of how the thread models cope.
+# To check for pinned carrier threads, add -Djdk.tracePinnedThreads=short to JAVA_OPTS and look into the log.
+set -euo pipefail
+
+BACKEND_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+WORK_DIR="$BACKEND_DIR/target/load-test"
+PATH_UNDER_TEST="${1:-/horses}"
+CLIENTS="${CLIENTS:-1000 10000}"
+DURATION="${DURATION:-30}"
+WARMUP="${WARMUP:-10}"
+PORT="${PORT:-8089}"
+MODES="${MODES:-platform virtual}"
+JAVA_OPTS="${JAVA_OPTS:-}"
+
+JAR=$(ls "$BACKEND_DIR"/target/*.jar 2>/dev/null | head -n 1 || true)
+if [ -z "$JAR" ]; then
+  echo "No jar found, run mvn package first" >&2
+  exit 1
+fi
+JAVA_VERSION=$(java -XshowSettings:properties -version 2>&1 | sed -n 's/.*java.specification.version = //p')
+mkdir -p "$WORK_DIR"
+cd "$WORK_DIR"
+
+COMMON_ARGS=(
+  --server.port="$PORT"
+  --server.tomcat.max-connections=20000
+  --server.tomcat.accept-count=1000
+  --wendy.concurrency-limit.point.initial=20000 --wendy.concurrency-limit.point.max=20000
+  --wendy.concurrency-limit.query.initial=20000 --wendy.concurrency-limit.query.max=20000
+)
+
+for mode in $MODES; do
+  case "$mode" in
+    platform) profiles=datagen ;;
+    virtual)
+      if [ "$JAVA_VERSION" -lt 21 ]; then
+        echo "Skipping mode virtual: needs Java 21, found Java $JAVA_VERSION"
+        continue
+      fi
+      profiles=datagen,virtual-threads ;;
+    *) echo "Unknown mode $mode" >&2; exit 2 ;;
+  esac
+
+  # shellcheck disable=SC2086
+  java $JAVA_OPTS -jar "$JAR" --spring.profiles.active="$profiles" "${COMMON_ARGS[@]}" > "$WORK_DIR/$mode.log" 2>&1 &
+  pid=$!
+  until curl -sf -o /dev/null "http://localhost:$PORT$PATH_UNDER_TEST"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "Backend in mode $mode died, see $WORK_DIR/$mode.log" >&2
+      exit 1
+    fi
+    sleep 0.2
+  done
+
+  for clients in $CLIENTS; do
+    printf "%-9s " "$mode"
+    java "$BACKEND_DIR/scripts/LoadTest.java" "http://localhost:$PORT$PATH_UNDER_TEST" "$clients" "$DURATION" "$WARMUP"
+  done
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+done
@@ -0,0 +1,66 @@
+#!/usr/bin/env bash
+# Benchmark comparing the blocking read endpoints with their reactive counterparts under /reactive.
+#
+# Usage:
+#   mvn package -DskipTests
+#   scripts/reactive-benchmark.sh [path]
+#
+# Starts the backend once with the test data and runs scripts/LoadTest.java against GET <path> (default /horses)
+#  and GET /reactive<path> for every number of concurrent clients in CLIENTS, so the point where each stack stops scaling
+#  shows up as flattening throughput and growing p99.
+# Environment: CLIENTS (default "50 200 1000 5000"), DURATION and WARMUP in seconds (default 20 and 5), PORT (default 8089),
+#  THREADS, the number of Tomcat request threads (default 200, Tomcat's default), JAVA_OPTS.
+#
+# The blocking endpoints hold a request thread until the response is written, so they can't serve more than THREADS
+#  requests at once; the reactive endpoints give the thread back while waiting for the database and the connection pool.
+# Note that r2dbc-h2 runs the embedded database on the subscribing thread, so with H2 the gain comes only from the freed
+#  request threads. A network database with a truly non-blocking driver would also take the JDBC pool out of the picture.
+set -euo pipefail
+
+BACKEND_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+WORK_DIR="$BACKEND_DIR/target/reactive-benchmark"
+PATH_UNDER_TEST="${1:-/horses}"
+CLIENTS="${CLIENTS:-50 200 1000 5000}"
+DURATION="${DURATION:-20}"
+WARMUP="${WARMUP:-5}"
+PORT="${PORT:-8089}"
+THREADS="${THREADS:-200}"
+JAVA_OPTS="${JAVA_OPTS:-}"
+
+JAR=$(ls "$BACKEND_DIR"/target/*.jar 2>/dev/null | head -n 1 || true)
+if [ -z "$JAR" ]; then
+  echo "No jar found, run mvn package first" >&2
+  exit 1
+fi
+mkdir -p "$WORK_DIR"
+cd "$WORK_DIR"
+
+# shellcheck disable=SC2086
+java $JAVA_OPTS -jar "$JAR" --spring.profiles.active=datagen \
+  --server.port="$PORT" \
+  --server.tomcat.threads.max="$THREADS" \
+  --server.tomcat.max-connections=20000 \
+  --server.tomcat.accept-count=1000 \
+  --wendy.concurrency-limit.point.initial=20000 --wendy.concurrency-limit.point.max=20000 \
+  --wendy.concurrency-limit.query.initial=20000 --wendy.concurrency-limit.query.max=20000 \
+  > "$WORK_DIR/backend.log" 2>&1 &
+pid=$!
+trap 'kill "$pid" 2>/dev/null || true' EXIT
+until curl -sf -o /dev/null "http://localhost:$PORT$PATH_UNDER_TEST"; do
+  if ! kill -0 "$pid" 2>/dev/null; then
+    echo "Backend died, see $WORK_DIR/backend.log" >&2
+    exit 1
+  fi
+  sleep 0.2
+done
+
+for clients in $CLIENTS; do
+  for stack in blocking reactive; do
+    case "$stack" in
+      blocking) url="http://localhost:$PORT$PATH_UNDER_TEST" ;;
+      reactive) url="http://localhost:$PORT/reactive$PATH_UNDER_TEST" ;;
+    esac
+    printf "%-9s " "$stack"
+    java "$BACKEND_DIR/scripts/LoadTest.java" "$url" "$clients" "$DURATION" "$WARMUP"
+  done
+done
@@ -0,0 +1,80 @@
+#!/usr/bin/env bash
+# Startup benchmark: measures the time from launching the JVM until the first successful GET /horses.
+#
+# Usage:
+#   scripts/fast-start.sh build
+#   scripts/startup-benchmark.sh [runs] [modes...]
+#
+# Modes (default: all of them), each one adds a step to the one before:
+#   jar         java -jar, the way the backend is started normally
+#   lazy        java -jar with the fast-start profile (lazy beans, background test data)
+#   aot         additionally use the AOT generated bean definitions
+#   fast-start  additionally use the class data sharing archive, i.e. scripts/fast-start.sh run
+#
+# All runs share one database in target/startup-benchmark, which is created by a warm-up run.
+# The machine should be otherwise idle, startup time is mostly CPU bound.
+set -euo pipefail
+
+BACKEND_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+WORK_DIR="$BACKEND_DIR/target/startup-benchmark"
+PORT="${PORT:-8089}"
+RUNS="${1:-5}"
+shift || true
+MODES=("$@")
+if [ ${#MODES[@]} -eq 0 ]; then
+  MODES=(jar lazy aot fast-start)
+fi
+
+JAR=$(ls "$BACKEND_DIR"/target/*.jar 2>/dev/null | head -n 1 || true)
+if [ -z "$JAR" ] || [ ! -f "$BACKEND_DIR/target/fast-start/app.jsa" ]; then
+  echo "No fast-start build found, run scripts/fast-start.sh build first" >&2
+  exit 1
+fi
+if curl -s -o /dev/null "http://localhost:$PORT/"; then
+  echo "Port $PORT is in use, set PORT to a free one" >&2
+  exit 1
+fi
+mkdir -p "$WORK_DIR"
+cd "$WORK_DIR"
+
+launch() {
+  case "$1" in
+    jar) exec java -jar "$JAR" --server.port="$PORT" ;;
+    lazy) exec java -jar "$JAR" --server.port="$PORT" --spring.profiles.active=fast-start ;;
+    aot) exec java -Dspring.aot.enabled=true -jar "$JAR" --server.port="$PORT" --spring.profiles.active=fast-start ;;
+    fast-start) exec "$BACKEND_DIR/scripts/fast-start.sh" run --server.port="$PORT" ;;
+    *) echo "Unknown mode $1" >&2; exit 2 ;;
+  esac
+}
+
+# Prints the milliseconds until GET /horses answered with 200.
+measure() {
+  local mode=$1 start pid elapsed
+  start=$(date +%s%N)
+  (launch "$mode") > "$WORK_DIR/$mode.log" 2>&1 &
+  pid=$!
+  until curl -sf -o /dev/null "http://localhost:$PORT/horses"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "Backend in mode $mode died, see $WORK_DIR/$mode.log" >&2
+      exit 1
+    fi
+    sleep 0.01
+  done
+  elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  echo "$elapsed"
+}
+
+echo "Warm-up run to create the database"
+measure jar > /dev/null
+
+printf "%-12s %8s %8s %8s   %s\n" mode min median max "runs (ms)"
+for mode in "${MODES[@]}"; do
+  times=()
+  for ((i = 0; i < RUNS; i++)); do
+    times+=("$(measure "$mode")")
+  done
+  sorted=($(printf "%s\n" "${times[@]}" | sort -n))
+  printf "%-12s %8s %8s %8s   %s\n" "$mode" "${sorted[0]}" "${sorted[$((RUNS / 2))]}" "${sorted[$((RUNS - 1))]}" "${times[*]}"
+done
@@ -0,0 +1,190 @@
+package at.ac.tuwien.sepm.assignment.individual.config;
+
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Concurrency limit, that adapts itself to the observed latency of the work it guards.
+ * <p>
+ * The limit follows a gradient: a long term average of the round trip times is compared against the short term average.
+ * As long as both are equal, the system is not queueing and the limit may grow by a small headroom.
+ * If the short term latency rises above the long term one, the limit shrinks proportionally.
+ * Requests, that are dropped (e.g. because they timed out or failed), cut the limit multiplicatively.
+ * </p>
+ * <p>
+ * The state is guarded by a {@link ReentrantLock} instead of {@code synchronized}:
+ *  every request passes here twice, and a virtual thread waiting for a contended monitor pins its carrier thread.
+ * </p>
+ */
+public class AdaptiveConcurrencyLimit {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private static final double LONG_TERM_WEIGHT = 1.0 / 600;
+  private static final double SHORT_TERM_WEIGHT = 1.0 / 10;
+  private static final double MIN_GRADIENT = 0.5;
+  private static final double DROP_BACKOFF = 0.9;
+
+  private final String name;
+  private final int minLimit;
+  private final int maxLimit;
+  private final double smoothing;
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private double limit;
+  private double longTermRtt;
+  private double shortTermRtt;
+  private int inFlight;
+  private long rejected;
+
+  /**
+   * Create a new limit.
+   *
+   * @param name the name of the limit, used for logging
+   * @param initialLimit the limit to start with
+   * @param minLimit the limit never drops below this value
+   * @param maxLimit the limit never grows above this value
+   * @param smoothing how fast the limit follows the calculated target, in (0, 1]
+   */
+  public AdaptiveConcurrencyLimit(String name, int initialLimit, int minLimit, int maxLimit, double smoothing) {
+    if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+      throw new IllegalArgumentException("Limits of %s must satisfy 1 <= min <= initial <= max".formatted(name));
+    }
+    if (smoothing <= 0 || smoothing > 1) {
+      throw new IllegalArgumentException("Smoothing of %s must be in (0, 1]".formatted(name));
+    }
+    this.name = name;
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.smoothing = smoothing;
+    this.limit = initialLimit;
+  }
+
+  /**
+   * Try to reserve a slot for a new unit of work.
+   * Every successful acquire has to be followed by exactly one call to {@link #release(long, boolean)}.
+   *
+   * @return true, if the work may proceed, false if it should be rejected
+   */
+  public boolean tryAcquire() {
+    lock.lock();
+    try {
+      if (inFlight >= (int) limit) {
+        rejected++;
+        return false;
+      }
+      inFlight++;
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Release a slot previously reserved by {@link #tryAcquire()} and feed its latency into the limit.
+   *
+   * @param rttNanos the time the work took in nanoseconds
+   * @param dropped true, if the work did not complete successfully and should not count as a latency sample
+   */
+  public void release(long rttNanos, boolean dropped) {
+    lock.lock();
+    try {
+      final var observedInFlight = inFlight;
+      inFlight--;
+
+      if (dropped) {
+        limit = Math.max(minLimit, limit * DROP_BACKOFF);
+        return;
+      }
+      if (rttNanos <= 0) {
+        return;
+      }
+
+      if (longTermRtt == 0) {
+        longTermRtt = rttNanos;
+        shortTermRtt = rttNanos;
+      } else {
+        longTermRtt += (rttNanos - longTermRtt) * LONG_TERM_WEIGHT;
+        shortTermRtt += (rttNanos - shortTermRtt) * SHORT_TERM_WEIGHT;
+      }
+
+      // Don't grow the limit, if the system is not even using half of it. Otherwise it grows without bounds in idle times.
+      if (observedInFlight < limit / 2) {
+        return;
+      }
+
+      // If the long term average is far above the short term one, the system recovered from an overload.
+      // Pull the long term average down, so it does not keep the limit inflated.
+      if (longTermRtt / shortTermRtt > 2) {
+        longTermRtt *= 0.95;
+      }
+
+      var gradient = Math.max(MIN_GRADIENT, Math.min(1.0, longTermRtt / shortTermRtt));
+      var headroom = Math.sqrt(limit);
+      var target = limit * gradient + headroom;
+      var newLimit = limit * (1 - smoothing) + target * smoothing;
+      newLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+
+      if ((int) newLimit != (int) limit) {
+        LOG.debug("Concurrency limit {} changed from {} to {} (rtt short={}ms, long={}ms)",
+            name, (int) limit, (int) newLimit, shortTermRtt / 1_000_000, longTermRtt / 1_000_000);
+      }
+      limit = newLimit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Get the name of the limit, as used in the log.
+   *
+   * @return the name of the limit
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Get the current limit.
+   *
+   * @return the number of units of work allowed to run concurrently right now
+   */
+  public int getLimit() {
+    lock.lock();
+    try {
+      return (int) limit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Get the number of units of work rejected since the limit was created.
+   * The rejections are not logged one by one, as they come in bursts exactly when the server is overloaded.
+   *
+   * @return the number of calls to {@link #tryAcquire()} that returned false
+   */
+  public long getRejected() {
+    lock.lock();
+    try {
+      return rejected;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Get the number of units of work currently holding a slot.
+   *
+   * @return the number of units of work in flight
+   */
+  public int getInFlight() {
+    lock.lock();
+    try {
+      return inFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+}
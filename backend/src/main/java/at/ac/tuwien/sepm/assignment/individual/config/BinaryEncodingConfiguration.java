@@ -0,0 +1,34 @@
+package at.ac.tuwien.sepm.assignment.individual.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary alternatives to JSON for clients pulling large lists and pedigrees.
+ * <p>
+ * Every endpoint producing JSON can also produce CBOR ({@code application/cbor})
+ *  and Smile ({@code application/x-jackson-smile}), if the client asks for it in its {@code Accept} header.
+ *  JSON stays the default.
+ * Both are encoded from the same DTOs with the same Jackson settings as the JSON responses,
+ *  they are just cheaper to write and smaller, as numbers and dates don't need to be formatted as text,
+ *  and Smile additionally refers back to field names, that it already wrote.
+ * </p>
+ */
+@Configuration
+public class BinaryEncodingConfiguration {
+
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+  }
+
+  @Bean
+  public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+  }
+}
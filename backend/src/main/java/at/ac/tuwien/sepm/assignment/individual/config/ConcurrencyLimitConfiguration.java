@@ -0,0 +1,73 @@
+package at.ac.tuwien.sepm.assignment.individual.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Registers the {@link ConcurrencyLimitFilter} with the limits configured under {@code wendy.concurrency-limit}.
+ */
+@Configuration
+public class ConcurrencyLimitConfiguration {
+
+  /**
+   * Create the limit of cheap point reads and writes.
+   *
+   * @param initial the limit to start with
+   * @param min the lowest the limit may drop to
+   * @param max the highest the limit may grow to
+   * @param smoothing how fast the limit follows its target
+   * @return the limit of point operations
+   */
+  @Bean
+  public AdaptiveConcurrencyLimit pointConcurrencyLimit(
+      @Value("${wendy.concurrency-limit.point.initial:40}") int initial,
+      @Value("${wendy.concurrency-limit.point.min:4}") int min,
+      @Value("${wendy.concurrency-limit.point.max:150}") int max,
+      @Value("${wendy.concurrency-limit.smoothing:0.2}") double smoothing) {
+    return new AdaptiveConcurrencyLimit("point", initial, min, max, smoothing);
+  }
+
+  /**
+   * Create the limit of expensive queries and batches.
+   *
+   * @param initial the limit to start with
+   * @param min the lowest the limit may drop to
+   * @param max the highest the limit may grow to
+   * @param smoothing how fast the limit follows its target
+   * @return the limit of queries
+   */
+  @Bean
+  public AdaptiveConcurrencyLimit queryConcurrencyLimit(
+      @Value("${wendy.concurrency-limit.query.initial:10}") int initial,
+      @Value("${wendy.concurrency-limit.query.min:2}") int min,
+      @Value("${wendy.concurrency-limit.query.max:50}") int max,
+      @Value("${wendy.concurrency-limit.smoothing:0.2}") double smoothing) {
+    return new AdaptiveConcurrencyLimit("query", initial, min, max, smoothing);
+  }
+
+  /**
+   * Register the filter applying both limits to the horse, owner and GraphQL endpoints.
+   *
+   * @param pointConcurrencyLimit the limit of point operations
+   * @param queryConcurrencyLimit the limit of queries
+   * @param retryAfterSeconds the number of seconds rejected clients are asked to wait
+   * @return the registration of the filter
+   */
+  @Bean
+  public FilterRegistrationBean<OncePerRequestFilter> concurrencyLimitFilter(
+      @Qualifier("pointConcurrencyLimit") AdaptiveConcurrencyLimit pointConcurrencyLimit,
+      @Qualifier("queryConcurrencyLimit") AdaptiveConcurrencyLimit queryConcurrencyLimit,
+      @Value("${wendy.concurrency-limit.retry-after-seconds:1}") long retryAfterSeconds) {
+    var reg = new FilterRegistrationBean<OncePerRequestFilter>(
+        new ConcurrencyLimitFilter(pointConcurrencyLimit, queryConcurrencyLimit, retryAfterSeconds));
+    reg.addUrlPatterns("/horses", "/horses/*", "/owners", "/owners/*", "/graphql");
+    reg.setName("concurrencyLimitFilter");
+    reg.setOrder(Ordered.LOWEST_PRECEDENCE);
+    return reg;
+  }
+}
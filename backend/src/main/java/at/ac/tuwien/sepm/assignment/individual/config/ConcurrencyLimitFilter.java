@@ -0,0 +1,84 @@
+package at.ac.tuwien.sepm.assignment.individual.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * ServletFilter to shed load before requests pile up in front of the database.
+ * <p>
+ * Requests are split into cheap point operations (get, create, update or delete a single entity)
+ * and expensive queries (listing and searching horses or owners, ancestor trees, delta sync, GraphQL queries, and reading or changing many horses at once).
+ * Each group has its own {@link AdaptiveConcurrencyLimit}, so a burst of expensive queries
+ * can not starve the point operations.
+ * Requests over the limit are answered immediately with {@code 503 Service Unavailable} and a {@code Retry-After} header.
+ * </p>
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private static final Pattern LIMITED_PATHS = Pattern.compile("^/(horses|owners)(/.*)?$|^/graphql/?$");
+  private static final Pattern QUERY_PATHS = Pattern.compile("^/(horses|owners)/?$|^/horses/(changes|facets)/?$|^/horses/-?\\d+/ancestors/?$");
+  // a single GraphQL query may walk many generations, so it is treated like a batch
+  private static final Pattern BATCH_PATHS = Pattern.compile("^/horses/(batch-get|bulk)/?$|^/graphql/?$");
+
+  private final AdaptiveConcurrencyLimit pointLimit;
+  private final AdaptiveConcurrencyLimit queryLimit;
+  private final String retryAfterSeconds;
+
+  /**
+   * Create the filter.
+   *
+   * @param pointLimit the limit for cheap point reads and writes
+   * @param queryLimit the limit for expensive search and ancestor queries
+   * @param retryAfterSeconds the number of seconds rejected clients are asked to wait before retrying
+   */
+  public ConcurrencyLimitFilter(AdaptiveConcurrencyLimit pointLimit, AdaptiveConcurrencyLimit queryLimit, long retryAfterSeconds) {
+    this.pointLimit = pointLimit;
+    this.queryLimit = queryLimit;
+    this.retryAfterSeconds = Long.toString(retryAfterSeconds);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return HttpMethod.OPTIONS.matches(request.getMethod())
+        || !LIMITED_PATHS.matcher(request.getRequestURI()).matches();
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+    var limit = limitFor(request);
+    if (!limit.tryAcquire()) {
+      // only at debug level, a warning per rejection would flood the log while overloaded, see AdaptiveConcurrencyLimit.getRejected()
+      LOG.debug("Rejecting {} {}: concurrency limit {} of {} reached", request.getMethod(), request.getRequestURI(), limit.getLimit(), limit.getName());
+      response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+      response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Server is overloaded, try again later");
+      return;
+    }
+
+    var dropped = true;
+    var start = System.nanoTime();
+    try {
+      filterChain.doFilter(request, response);
+      dropped = response.getStatus() >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+    } finally {
+      limit.release(System.nanoTime() - start, dropped);
+    }
+  }
+
+  private AdaptiveConcurrencyLimit limitFor(HttpServletRequest request) {
+    return HttpMethod.GET.matches(request.getMethod()) && QUERY_PATHS.matcher(request.getRequestURI()).matches()
+        || HttpMethod.POST.matches(request.getMethod()) && BATCH_PATHS.matcher(request.getRequestURI()).matches()
+        ? queryLimit
+        : pointLimit;
+  }
+}
@@ -0,0 +1,75 @@
+package at.ac.tuwien.sepm.assignment.individual.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import jakarta.servlet.ServletRequest;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Counts how often connections are checked out of the connection pools, in total and per request.
+ * <p>
+ * Hikari reports every checkout to the metrics tracker of its pool, on the thread that borrows the connection.
+ * So the checkouts made while serving a request are counted in an attribute of that request,
+ *  which {@link LogFilter} adds to the log line of the finished request.
+ * </p>
+ * <p>
+ * The counter is installed on every {@link HikariDataSource} bean.
+ * Pools, that are not beans themselves (like the read replicas), have to be set up with it explicitly.
+ * </p>
+ */
+@Component
+public class ConnectionCheckoutCounter implements MetricsTrackerFactory, BeanPostProcessor {
+  private static final String CHECKOUTS_ATTRIBUTE = ConnectionCheckoutCounter.class.getName() + ".checkouts";
+
+  private final AtomicLong checkouts = new AtomicLong();
+
+  /**
+   * Get the number of connections checked out while serving the given request.
+   *
+   * @param request the request, that is served by the current thread or was served already
+   * @return the number of checkouts, 0 if the request did not need a connection
+   */
+  public static int checkouts(ServletRequest request) {
+    return request.getAttribute(CHECKOUTS_ATTRIBUTE) instanceof AtomicInteger count ? count.get() : 0;
+  }
+
+  /**
+   * Get the number of connections checked out since the start of the application.
+   */
+  public long getCheckouts() {
+    return checkouts.get();
+  }
+
+  @Override
+  public Object postProcessBeforeInitialization(Object bean, String beanName) {
+    if (bean instanceof HikariDataSource pool && pool.getMetricsTrackerFactory() == null) {
+      pool.setMetricsTrackerFactory(this);
+    }
+    return bean;
+  }
+
+  @Override
+  public IMetricsTracker create(String poolName, PoolStats poolStats) {
+    return new IMetricsTracker() {
+      @Override
+      public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        checkouts.incrementAndGet();
+        var attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+          if (attributes.getAttribute(CHECKOUTS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof AtomicInteger count) {
+            count.incrementAndGet();
+          } else {
+            attributes.setAttribute(CHECKOUTS_ATTRIBUTE, new AtomicInteger(1), RequestAttributes.SCOPE_REQUEST);
+          }
+        }
+      }
+    };
+  }
+}
@@ -0,0 +1,39 @@
+package at.ac.tuwien.sepm.assignment.individual.config;
+
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.execution.instrumentation.Instrumentation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Limits the queries accepted by the GraphQL endpoint, configured under {@code wendy.graphql}.
+ * Both limits are checked before a query is executed, so a rejected query does not touch the database at all.
+ * The instrumentations are picked up by the GraphQL auto configuration.
+ */
+@Configuration
+public class GraphQlConfiguration {
+
+  /**
+   * Reject queries nesting fields deeper than the limit, e.g. ancestors over too many generations.
+   *
+   * @param maxDepth the deepest nesting of fields accepted
+   * @return the instrumentation checking the depth
+   */
+  @Bean
+  public Instrumentation maxQueryDepthInstrumentation(@Value("${wendy.graphql.max-depth:15}") int maxDepth) {
+    return new MaxQueryDepthInstrumentation(maxDepth);
+  }
+
+  /**
+   * Reject queries selecting more fields than the limit, counted over all levels.
+   *
+   * @param maxComplexity the largest number of fields accepted
+   * @return the instrumentation checking the complexity
+   */
+  @Bean
+  public Instrumentation maxQueryComplexityInstrumentation(@Value("${wendy.graphql.max-complexity:500}") int maxComplexity) {
+    return new MaxQueryComplexityInstrumentation(maxComplexity);
+  }
+}
@@ -0,0 +1,49 @@
+package at.ac.tuwien.sepm.assignment.individual.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.lang.invoke.MethodHandles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Group commit of concurrent horse inserts, see {@link at.ac.tuwien.sepm.assignment.individual.persistence.impl.GroupCommitQueue}.
+ * <p>
+ * A batch is committed on its own, so only inserts without a surrounding transaction join one.
+ * Inserts within a transaction are written in that transaction, so they are rolled back with it.
+ * </p>
+ * <p>
+ * The writer gets a pool of its own, with one connection to the primary database,
+ *  so a burst of requests using the main pool can not hold up the commit of the batch they all wait for.
+ * </p>
+ * This configuration is only active, if {@code wendy.group-commit.enabled} is true.
+ */
+@Configuration
+@Profile("!memory")
+@ConditionalOnProperty(name = "wendy.group-commit.enabled", havingValue = "true")
+public class GroupCommitConfiguration {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  /**
+   * The pool of the group commit writer, with a single connection to the primary database.
+   *
+   * @param primaryProperties the properties of the primary database, the pool connects with
+   * @param checkoutCounter the counter of connection checkouts, installed explicitly, as the pool is not a bean itself
+   * @return the pool, wrapped so it is not mistaken for the main data source
+   */
+  @Bean
+  public GroupCommitDataSource groupCommitDataSource(DataSourceProperties primaryProperties, ConnectionCheckoutCounter checkoutCounter) {
+    var pool = primaryProperties.initializeDataSourceBuilder()
+        .type(HikariDataSource.class)
+        .build();
+    pool.setPoolName("group-commit");
+    pool.setMaximumPoolSize(1);
+    pool.setMetricsTrackerFactory(checkoutCounter);
+    LOG.info("Group commit of horse inserts enabled");
+    return new GroupCommitDataSource(pool);
+  }
+}
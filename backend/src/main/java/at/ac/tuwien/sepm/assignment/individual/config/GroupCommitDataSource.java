@@ -0,0 +1,26 @@
+package at.ac.tuwien.sepm.assignment.individual.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.io.Closeable;
+import javax.sql.DataSource;
+
+/**
+ * The connection pool of the group commit writers, see {@link GroupCommitConfiguration}.
+ * Not a {@link DataSource} bean itself, so it does not replace the main pool of the application.
+ */
+public class GroupCommitDataSource implements Closeable {
+  private final HikariDataSource pool;
+
+  public GroupCommitDataSource(HikariDataSource pool) {
+    this.pool = pool;
+  }
+
+  public DataSource getDataSource() {
+    return pool;
+  }
+
+  @Override
+  public void close() {
+    pool.close();
+  }
+}
@@ -79,6 +79,9 @@ public class LogFilter extends OncePerRequestFilter {
     var time = REQUEST_RUNTIME_FORMAT.format(runtime / NANOSECONDS_PER_MS);
     MDC.put("duration", time);
     b.append(" time=").append(time).append("ms");
+    var checkouts = ConnectionCheckoutCounter.checkouts(request);
+    MDC.put("db_checkouts", "" + checkouts);
+    b.append(" db_checkouts=").append(checkouts);
     logWithRightCategory(logStatus, b.toString());
   }
 
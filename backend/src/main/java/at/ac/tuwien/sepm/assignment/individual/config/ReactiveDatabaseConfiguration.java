@@ -0,0 +1,72 @@
+package at.ac.tuwien.sepm.assignment.individual.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import java.lang.invoke.MethodHandles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Sets up the R2DBC connection pool used by the reactive read endpoints.
+ * <p>
+ * Spring Boot's own R2DBC auto configuration is excluded,
+ *  and the pool is deliberately not registered as a bean, only the {@link DatabaseClient} using it:
+ *  as soon as there is a connection factory bean, the JDBC data source backs off,
+ *  but the rest of the application still needs it.
+ *  The reactive side only ever reads, so no reactive transaction manager is registered either,
+ *  which keeps {@code @Transactional} bound to the JDBC transaction manager.
+ * </p>
+ */
+@Configuration
+@Profile("!memory")
+@EnableConfigurationProperties(R2dbcProperties.class)
+public class ReactiveDatabaseConfiguration {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private ConnectionPool connectionPool;
+
+  /**
+   * Create the R2DBC connection pool and the database client of the reactive DAOs on top of it.
+   *
+   * @param properties the {@code spring.r2dbc} properties with the URL, the credentials and the pool size
+   * @return the database client using the pool
+   */
+  @Bean
+  public DatabaseClient databaseClient(R2dbcProperties properties) {
+    var options = ConnectionFactoryOptions.parse(properties.getUrl()).mutate();
+    if (properties.getUsername() != null) {
+      options.option(ConnectionFactoryOptions.USER, properties.getUsername());
+    }
+    if (properties.getPassword() != null) {
+      options.option(ConnectionFactoryOptions.PASSWORD, properties.getPassword());
+    }
+    var pool = properties.getPool();
+    LOG.debug("Creating R2DBC connection pool with at most {} connections", pool.getMaxSize());
+    connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+        .name("reactive")
+        .initialSize(pool.getInitialSize())
+        .maxSize(pool.getMaxSize())
+        .maxIdleTime(pool.getMaxIdleTime())
+        .build());
+    return DatabaseClient.create(connectionPool);
+  }
+
+  /**
+   * Close the connections of the R2DBC pool on shutdown, as it is not a bean Spring would close by itself.
+   */
+  @PreDestroy
+  public void closeConnectionPool() {
+    if (connectionPool != null) {
+      connectionPool.dispose();
+    }
+  }
+}
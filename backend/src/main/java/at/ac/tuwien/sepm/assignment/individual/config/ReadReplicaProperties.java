@@ -0,0 +1,29 @@
+package at.ac.tuwien.sepm.assignment.individual.config;
+
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * The read replicas configured under {@code wendy.datasource.replicas}.
+ * The primary database is still configured by the standard {@code spring.datasource} properties.
+ *
+ * @param replicas the connection data of each read replica
+ */
+@ConfigurationProperties("wendy.datasource")
+public record ReadReplicaProperties(
+    List<Replica> replicas
+) {
+  /**
+   * Connection data of a single read replica.
+   *
+   * @param url the JDBC url of the replica
+   * @param username the user to connect as
+   * @param password the password of the user
+   */
+  public record Replica(
+      String url,
+      String username,
+      String password
+  ) {
+  }
+}
@@ -0,0 +1,88 @@
+package at.ac.tuwien.sepm.assignment.individual.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Splits database access into a primary pool for writes and one pool per read replica for read-only transactions.
+ * This configuration is only active, if at least one replica is configured under {@code wendy.datasource.replicas}.
+ * For local testing, activate the profile {@code replica}.
+ */
+@Configuration
+@ConditionalOnProperty("wendy.datasource.replicas[0].url")
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+public class ReadWriteDataSourceConfiguration {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  /**
+   * Create the pool of the primary database from the standard {@code spring.datasource} properties.
+   * The pool settings under {@code spring.datasource.hikari} are bound onto it, just like on the pool Spring Boot would create.
+   *
+   * @param primaryProperties the {@code spring.datasource} properties
+   * @return the pool of the primary database
+   */
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties primaryProperties) {
+    var primary = primaryProperties.initializeDataSourceBuilder()
+        .type(HikariDataSource.class)
+        .build();
+    primary.setPoolName("primary");
+    return primary;
+  }
+
+  /**
+   * Create one pool per read replica and the DataSource routing between them and the primary.
+   * The replica pools take over the pool settings of the primary, only the connection data and the name differ.
+   *
+   * @param primaryDataSource the pool of the primary database
+   * @param replicaProperties the connection data of the replicas
+   * @param checkoutCounter the counter of connection checkouts, installed on the replica pools, which are no beans
+   * @return the routing DataSource
+   */
+  @Bean
+  public ReadWriteRoutingDataSource readWriteRoutingDataSource(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+      ReadReplicaProperties replicaProperties, ConnectionCheckoutCounter checkoutCounter) {
+    var replicas = new ArrayList<DataSource>();
+    for (var replica : replicaProperties.replicas()) {
+      var pool = new HikariDataSource();
+      primaryDataSource.copyStateTo(pool);
+      pool.setJdbcUrl(replica.url());
+      pool.setUsername(replica.username());
+      pool.setPassword(replica.password());
+      pool.setPoolName("replica-" + replicas.size());
+      pool.setReadOnly(true);
+      pool.setMetricsTrackerFactory(checkoutCounter);
+      replicas.add(pool);
+    }
+    LOG.info("Routing read-only transactions to {} read replica(s)", replicas.size());
+
+    return new ReadWriteRoutingDataSource(primaryDataSource, replicas);
+  }
+
+  /**
+   * Expose the routing DataSource to the rest of the application.
+   * The connection is only fetched on the first statement, when the read-only flag of the transaction is known.
+   *
+   * @param readWriteRoutingDataSource the routing DataSource
+   * @return the lazy proxy of the routing DataSource
+   */
+  @Bean
+  @Primary
+  public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+    return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+  }
+}
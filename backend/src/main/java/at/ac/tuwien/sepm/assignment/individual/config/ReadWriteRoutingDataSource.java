@@ -0,0 +1,99 @@
+package at.ac.tuwien.sepm.assignment.individual.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.io.Closeable;
+import java.lang.invoke.MethodHandles;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * DataSource, that sends read-only transactions to one of the read replicas
+ *  and everything else to the primary database.
+ * <p>
+ * Replicas are picked round robin.
+ * Once a request has started a writing transaction, all further reads of that request
+ *  are routed to the primary too, so the request always sees its own writes,
+ *  even if the replicas lag behind.
+ * </p>
+ * <p>
+ * The routing decision is made when a connection is fetched, so this DataSource has to be wrapped in a
+ *  {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ *  Otherwise the transaction manager fetches the connection before the read-only flag of the transaction is known.
+ * </p>
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final String PRIMARY = "primary";
+  private static final String WROTE_TO_PRIMARY_ATTRIBUTE = ReadWriteRoutingDataSource.class.getName() + ".wroteToPrimary";
+
+  private final DataSource primary;
+  private final List<DataSource> replicas;
+  private final AtomicInteger nextReplica = new AtomicInteger();
+
+  /**
+   * Create a new routing DataSource.
+   *
+   * @param primary the DataSource all writes go to
+   * @param replicas the DataSources read-only transactions are spread over, must not be empty
+   */
+  public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+    if (replicas.isEmpty()) {
+      throw new IllegalArgumentException("At least one read replica is needed");
+    }
+    this.primary = primary;
+    this.replicas = List.copyOf(replicas);
+
+    var targets = new HashMap<Object, Object>();
+    targets.put(PRIMARY, primary);
+    for (int i = 0; i < replicas.size(); i++) {
+      targets.put(i, replicas.get(i));
+    }
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(primary);
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    var readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    if (readOnly && !requestWroteToPrimary()) {
+      return Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+    }
+    if (!readOnly && TransactionSynchronizationManager.isActualTransactionActive()) {
+      markRequestWroteToPrimary();
+    }
+    return PRIMARY;
+  }
+
+  private boolean requestWroteToPrimary() {
+    var attributes = RequestContextHolder.getRequestAttributes();
+    return attributes != null && attributes.getAttribute(WROTE_TO_PRIMARY_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null;
+  }
+
+  private void markRequestWroteToPrimary() {
+    var attributes = RequestContextHolder.getRequestAttributes();
+    if (attributes != null) {
+      attributes.setAttribute(WROTE_TO_PRIMARY_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+    }
+  }
+
+  @Override
+  public void close() {
+    LOG.debug("Closing primary and {} read replica pools", replicas.size());
+    closePool(primary);
+    replicas.forEach(ReadWriteRoutingDataSource::closePool);
+  }
+
+  private static void closePool(DataSource dataSource) {
+    if (dataSource instanceof HikariDataSource hikari) {
+      hikari.close();
+    }
+  }
+}
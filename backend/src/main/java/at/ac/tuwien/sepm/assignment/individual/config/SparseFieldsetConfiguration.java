@@ -0,0 +1,23 @@
+package at.ac.tuwien.sepm.assignment.individual.config;
+
+import at.ac.tuwien.sepm.assignment.individual.type.HorseField;
+import at.ac.tuwien.sepm.assignment.individual.type.HorseRelation;
+import at.ac.tuwien.sepm.assignment.individual.type.OwnerField;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Lets the {@code fields} parameter of list endpoints take the JSON names of the fields, e.g. {@code fields=name,dateOfBirth},
+ *  and the {@code include} parameter of horse details the names of the relations, e.g. {@code include=children,owner.horses}.
+ */
+@Configuration
+public class SparseFieldsetConfiguration implements WebMvcConfigurer {
+
+  @Override
+  public void addFormatters(FormatterRegistry registry) {
+    registry.addConverter(String.class, HorseField.class, HorseField::fromJsonName);
+    registry.addConverter(String.class, OwnerField.class, OwnerField::fromJsonName);
+    registry.addConverter(String.class, HorseRelation.class, HorseRelation::fromParameterName);
+  }
+}
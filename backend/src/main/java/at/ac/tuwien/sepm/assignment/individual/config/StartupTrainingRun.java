@@ -0,0 +1,57 @@
+package at.ac.tuwien.sepm.assignment.individual.config;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Training run for the class data sharing archive of the fast-start mode.
+ * <p>
+ * If {@code wendy.startup.training-run} is set, the application sends one {@code GET /horses} to itself as soon as it is ready
+ *  and exits. Started with {@code -XX:ArchiveClassesAtExit}, the JVM then dumps all classes needed for startup
+ *  and the first request into the archive. See {@code scripts/fast-start.sh}.
+ * </p>
+ * The property is checked at runtime instead of with a condition, because conditions are frozen by the AOT processing.
+ */
+@Component
+@Lazy(false)
+public class StartupTrainingRun {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private final boolean trainingRun;
+
+  public StartupTrainingRun(@Value("${wendy.startup.training-run:false}") boolean trainingRun) {
+    this.trainingRun = trainingRun;
+  }
+
+  /**
+   * Send one request to the application and exit, if this is a training run.
+   *
+   * @param event the event of the ready application, to find its port and close its context
+   * @throws IOException if the request fails
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void exerciseAndExit(ApplicationReadyEvent event) throws IOException {
+    if (!trainingRun) {
+      return;
+    }
+    var port = event.getApplicationContext().getEnvironment().getProperty("local.server.port", "8080");
+    var connection = (HttpURLConnection) new URL("http://localhost:" + port + "/horses").openConnection();
+    try (var body = connection.getInputStream()) {
+      body.readAllBytes();
+      LOG.info("Training run finished with status {}, exiting", connection.getResponseCode());
+    } finally {
+      connection.disconnect();
+    }
+    System.exit(SpringApplication.exit(event.getApplicationContext(), () -> 0));
+  }
+}
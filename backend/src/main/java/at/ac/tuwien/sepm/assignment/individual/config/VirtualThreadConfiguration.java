@@ -0,0 +1,66 @@
+package at.ac.tuwien.sepm.assignment.individual.config;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Serves every request on its own virtual thread instead of a thread of Tomcat's pool.
+ * <p>
+ * The controllers, services and DAOs run on the request thread, so a request blocked on JDBC
+ *  only parks its virtual thread and does not hold on to a platform thread.
+ * The number of concurrent requests is then bounded by the connection limit of Tomcat and the concurrency limits,
+ *  not by the size of the thread pool.
+ * </p>
+ * <p>
+ * Virtual threads are final in Java 21. The backend is built for Java 17, so the executor is looked up at runtime
+ *  and the application refuses to start, if the profile is active on an older JVM.
+ * </p>
+ * This configuration is only active, if the profile {@code virtual-threads} is active.
+ */
+@Configuration
+@Profile("virtual-threads")
+public class VirtualThreadConfiguration {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  /**
+   * Create the executor starting a new virtual thread for each request.
+   *
+   * @return the virtual thread executor
+   * @throws IllegalStateException if the JVM does not support virtual threads
+   */
+  @Bean(destroyMethod = "shutdown")
+  public ExecutorService virtualThreadRequestExecutor() {
+    try {
+      var factory = MethodHandles.publicLookup()
+          .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+      var executor = (ExecutorService) factory.invoke();
+      LOG.info("Serving requests on virtual threads");
+      return executor;
+    } catch (NoSuchMethodException | IllegalAccessException | UnsupportedOperationException e) {
+      throw new IllegalStateException("Profile virtual-threads needs Java 21 or newer, running on Java %d".formatted(Runtime.version().feature()), e);
+    } catch (Throwable e) {
+      throw new IllegalStateException("Could not create virtual thread executor", e);
+    }
+  }
+
+  /**
+   * Let Tomcat run the requests on the virtual thread executor instead of its own pool.
+   *
+   * @param executor the virtual thread executor
+   * @return the customizer setting the executor of Tomcat's protocol handler
+   */
+  @Bean
+  public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(
+      @Qualifier("virtualThreadRequestExecutor") ExecutorService executor) {
+    return protocolHandler -> protocolHandler.setExecutor(executor);
+  }
+}
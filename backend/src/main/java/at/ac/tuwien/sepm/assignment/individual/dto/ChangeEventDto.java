@@ -0,0 +1,21 @@
+package at.ac.tuwien.sepm.assignment.individual.dto;
+
+import at.ac.tuwien.sepm.assignment.individual.type.ChangeType;
+
+/**
+ * DTO for a single event of the change feed.
+ *
+ * @param sequence the position of the event in the feed, strictly increasing without gaps
+ * @param entity the kind of entity that changed, {@code horse} or {@code owner}
+ * @param type what happened to the entity
+ * @param id the ID of the changed entity
+ * @param data the new state of the entity, or null if it was deleted
+ */
+public record ChangeEventDto(
+    long sequence,
+    String entity,
+    ChangeType type,
+    long id,
+    Object data
+) {
+}
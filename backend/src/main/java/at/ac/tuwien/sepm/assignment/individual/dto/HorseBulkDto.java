@@ -0,0 +1,18 @@
+package at.ac.tuwien.sepm.assignment.individual.dto;
+
+import java.util.List;
+
+/**
+ * DTO for many changes of horses, that are applied together in one transaction: either all of them or none.
+ * Every horse may be changed by only one of the operations.
+ *
+ * @param update the horses to update, each with all of its data like for a single update
+ * @param reassign horses, that get a new owner, and nothing else changed
+ * @param delete the IDs of the horses to delete
+ */
+public record HorseBulkDto(
+    List<HorseDetailDto> update,
+    HorseReassignDto reassign,
+    List<Long> delete
+) {
+}
@@ -0,0 +1,15 @@
+package at.ac.tuwien.sepm.assignment.individual.dto;
+
+/**
+ * DTO for the outcome of a bulk change of horses.
+ *
+ * @param updated the number of horses updated
+ * @param reassigned the number of horses, that got a new owner
+ * @param deleted the number of horses deleted
+ */
+public record HorseBulkResultDto(
+    int updated,
+    int reassigned,
+    int deleted
+) {
+}
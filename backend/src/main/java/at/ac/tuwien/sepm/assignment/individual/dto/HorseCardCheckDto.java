@@ -0,0 +1,15 @@
+package at.ac.tuwien.sepm.assignment.individual.dto;
+
+import java.util.List;
+
+/**
+ * DTO for the result of checking the denormalized horse cards against the horses and owners.
+ *
+ * @param cards the number of cards after the check
+ * @param rebuilt the IDs of the horses, whose cards differed and were rebuilt, ascending
+ */
+public record HorseCardCheckDto(
+    long cards,
+    List<Long> rebuilt
+) {
+}
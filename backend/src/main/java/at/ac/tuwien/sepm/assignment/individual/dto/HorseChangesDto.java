@@ -0,0 +1,21 @@
+package at.ac.tuwien.sepm.assignment.individual.dto;
+
+import java.util.List;
+
+/**
+ * DTO for one page of changes of the horse registry, for clients that keep a local copy of it.
+ *
+ * @param horses the horses created or updated since the token, with their owners
+ * @param owners the owners created or updated since the token
+ * @param deletedHorses the IDs of the horses deleted since the token
+ * @param nextToken the token to pass as {@code since} to get the changes after this page
+ * @param hasMore true, if there are more changes than fit into this page
+ */
+public record HorseChangesDto(
+    List<HorseListDto> horses,
+    List<OwnerDto> owners,
+    List<Long> deletedHorses,
+    String nextToken,
+    boolean hasMore
+) {
+}
@@ -0,0 +1,18 @@
+package at.ac.tuwien.sepm.assignment.individual.dto;
+
+import at.ac.tuwien.sepm.assignment.individual.type.Sex;
+import java.time.LocalDate;
+
+/**
+ * Horse in a compact list, referencing its owner by ID only.
+ * The owners are sent once per list, see {@link HorseCompactListDto}.
+ */
+public record HorseCompactDto(
+    Long id,
+    String name,
+    String description,
+    LocalDate dateOfBirth,
+    Sex sex,
+    Long ownerId
+) {
+}
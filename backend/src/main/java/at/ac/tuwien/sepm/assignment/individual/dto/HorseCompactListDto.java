@@ -0,0 +1,16 @@
+package at.ac.tuwien.sepm.assignment.individual.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO for a list of horses, in which every owner is included only once, no matter how many of the horses it owns.
+ *
+ * @param horses the horses, referencing their owners by ID
+ * @param owners the owners of the horses, by their ID
+ */
+public record HorseCompactListDto(
+    List<HorseCompactDto> horses,
+    Map<Long, OwnerDto> owners
+) {
+}
@@ -0,0 +1,25 @@
+package at.ac.tuwien.sepm.assignment.individual.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import java.util.List;
+
+/**
+ * DTO for the details of a horse together with the relatives requested with the {@code include} parameter.
+ * The details are serialized like a {@link HorseDetailDto}, relatives that were not requested are left out.
+ *
+ * @param horse the details of the horse
+ * @param children the foals of the horse
+ * @param siblings the horses sharing at least one parent with the horse
+ * @param pedigree the horse with its parents and grandparents
+ * @param ownerHorses the other horses of the owner of the horse
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record HorseDetailWithRelativesDto(
+    @JsonUnwrapped HorseDetailDto horse,
+    List<HorseListDto> children,
+    List<HorseListDto> siblings,
+    HorseTreeDto pedigree,
+    List<HorseListDto> ownerHorses
+) {
+}
@@ -0,0 +1,21 @@
+package at.ac.tuwien.sepm.assignment.individual.dto;
+
+import at.ac.tuwien.sepm.assignment.individual.type.Sex;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO for the facets of a horse search: how many of the matching horses fall into each sex, year of birth and owner.
+ *
+ * @param total the number of matching horses
+ * @param bySex the number of matching horses per sex
+ * @param byBirthYear the number of matching horses per year of birth, in ascending order of the years
+ * @param topOwners the owners with the most matching horses, in descending order of their numbers of horses
+ */
+public record HorseFacetsDto(
+    long total,
+    Map<Sex, Long> bySex,
+    Map<Integer, Long> byBirthYear,
+    List<OwnerFacetDto> topOwners
+) {
+}
@@ -0,0 +1,24 @@
+package at.ac.tuwien.sepm.assignment.individual.dto;
+
+import at.ac.tuwien.sepm.assignment.individual.type.Sex;
+import java.time.LocalDate;
+
+/**
+ * Horse as node of the GraphQL graph, referencing its owner and parents by ID only.
+ * The references are resolved by batched resolvers, once per level of the query.
+ *
+ * @param ownerId the ID of the owner, or null
+ * @param fatherId the ID of the father, or null
+ * @param motherId the ID of the mother, or null
+ */
+public record HorseGraphDto(
+    Long id,
+    String name,
+    String description,
+    LocalDate dateOfBirth,
+    Sex sex,
+    Long ownerId,
+    Long fatherId,
+    Long motherId
+) {
+}
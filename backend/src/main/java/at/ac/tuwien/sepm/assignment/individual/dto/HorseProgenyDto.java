@@ -0,0 +1,21 @@
+package at.ac.tuwien.sepm.assignment.individual.dto;
+
+/**
+ * DTO for the numbers of offspring of a horse.
+ *
+ * @param id the ID of the horse
+ * @param name the name of the horse
+ * @param foals the number of direct foals
+ * @param maleFoals the number of male foals
+ * @param femaleFoals the number of female foals
+ * @param grandFoals the number of foals of the foals, counted once per line of descent
+ */
+public record HorseProgenyDto(
+    long id,
+    String name,
+    long foals,
+    long maleFoals,
+    long femaleFoals,
+    long grandFoals
+) {
+}
@@ -0,0 +1,15 @@
+package at.ac.tuwien.sepm.assignment.individual.dto;
+
+import java.util.List;
+
+/**
+ * DTO to give many horses the same new owner, e.g. when a whole herd is sold.
+ *
+ * @param horseIds the IDs of the horses
+ * @param ownerId the ID of the new owner, null to leave the horses without owner
+ */
+public record HorseReassignDto(
+    List<Long> horseIds,
+    Long ownerId
+) {
+}
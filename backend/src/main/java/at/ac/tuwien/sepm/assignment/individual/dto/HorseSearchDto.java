@@ -1,12 +1,17 @@
 package at.ac.tuwien.sepm.assignment.individual.dto;
 
+import at.ac.tuwien.sepm.assignment.individual.type.HorseField;
 import at.ac.tuwien.sepm.assignment.individual.type.Sex;
 import java.time.LocalDate;
+import java.util.Set;
 import org.springframework.format.annotation.DateTimeFormat;
 
 /**
  * DTO to bundle the query parameters used in searching horses.
  * Each field can be null, in which case this field is not filtered by.
+ * {@code fields} restricts the fields of the returned horses, null means all of them.
+ * {@code ancestorOf} and {@code descendantOf} restrict the horses to the ancestors or descendants of the horse with that ID,
+ *  at most {@code maxDepth} generations away from it, or any number of generations if {@code maxDepth} is null.
  */
 public record HorseSearchDto(
     String name,
@@ -15,6 +20,30 @@ public record HorseSearchDto(
     LocalDate bornBefore,
     Sex sex,
     String ownerName,
-    Integer limit
+    Integer limit,
+    Set<HorseField> fields,
+    Long ancestorOf,
+    Long descendantOf,
+    Integer maxDepth
 ) {
+  /**
+   * Check, if any of the criteria restricts the horses.
+   * {@code limit} and {@code fields} only shape the result, so they are not criteria.
+   */
+  public boolean hasCriteria() {
+    return name != null && !name.isEmpty()
+        || description != null && !description.isEmpty()
+        || bornBefore != null
+        || sex != null
+        || ownerName != null && !ownerName.isEmpty()
+        || ancestorOf != null
+        || descendantOf != null;
+  }
+
+  /**
+   * Copy these search parameters without the {@code limit}.
+   */
+  public HorseSearchDto withoutLimit() {
+    return new HorseSearchDto(name, description, bornBefore, sex, ownerName, null, fields, ancestorOf, descendantOf, maxDepth);
+  }
 }
@@ -0,0 +1,13 @@
+package at.ac.tuwien.sepm.assignment.individual.dto;
+
+/**
+ * DTO for an owner in the facets of a horse search.
+ *
+ * @param owner the owner
+ * @param horses the number of matching horses of the owner
+ */
+public record OwnerFacetDto(
+    OwnerDto owner,
+    long horses
+) {
+}
@@ -1,14 +1,19 @@
 package at.ac.tuwien.sepm.assignment.individual.dto;
 
+import at.ac.tuwien.sepm.assignment.individual.type.OwnerField;
+import java.util.Set;
+
 /**
  * DTO to encapsulate parameters for Owner search.
  * An owner, whose name has {@code name} as a substring is considered matched.
  *
  * @param name substring of the owner's name
  * @param maxAmount the maximum number of owners to return, even if there are more matches
+ * @param fields the fields of the owners to return, null means all of them
  */
 public record OwnerSearchDto(
     String name,
-    Integer maxAmount // needs to be present always
+    Integer maxAmount, // needs to be present always
+    Set<OwnerField> fields
 ) {
 }
@@ -15,6 +15,7 @@ public class Horse {
   private Long ownerId;
   private Long fatherId;
   private Long motherId;
+  private Long version;
 
   public Long getId() {
     return id;
@@ -89,6 +90,15 @@ public class Horse {
     return this;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
+  public Horse setVersion(Long version) {
+    this.version = version;
+    return this;
+  }
+
   @Override
   public String toString() {
     return "Horse{"
@@ -100,6 +110,7 @@ public class Horse {
             + ", ownerId=" + ownerId
             + ", fatherId=" + fatherId
             + ", motherId=" + motherId
+            + ", version=" + version
             + '}';
   }
 }
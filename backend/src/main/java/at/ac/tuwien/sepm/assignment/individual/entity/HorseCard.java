@@ -0,0 +1,63 @@
+package at.ac.tuwien.sepm.assignment.individual.entity;
+
+import java.util.Map;
+
+/**
+ * A horse with everything its details show, read at once from the denormalized horse cards:
+ * its parents and the owners of all of them. Parents and owners, that do not exist, are null or missing from the owners.
+ */
+public class HorseCard {
+  private Horse horse;
+  private Horse father;
+  private Horse mother;
+  private Map<Long, Owner> owners;
+
+  public Horse getHorse() {
+    return horse;
+  }
+
+  public HorseCard setHorse(Horse horse) {
+    this.horse = horse;
+    return this;
+  }
+
+  public Horse getFather() {
+    return father;
+  }
+
+  public HorseCard setFather(Horse father) {
+    this.father = father;
+    return this;
+  }
+
+  public Horse getMother() {
+    return mother;
+  }
+
+  public HorseCard setMother(Horse mother) {
+    this.mother = mother;
+    return this;
+  }
+
+  /**
+   * Get the owners of the horse and of its parents, by their ID.
+   */
+  public Map<Long, Owner> getOwners() {
+    return owners;
+  }
+
+  public HorseCard setOwners(Map<Long, Owner> owners) {
+    this.owners = owners;
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return "HorseCard{"
+        + "horse=" + horse
+        + ", father=" + father
+        + ", mother=" + mother
+        + ", owners=" + owners
+        + '}';
+  }
+}
@@ -0,0 +1,43 @@
+package at.ac.tuwien.sepm.assignment.individual.entity;
+
+import java.util.List;
+
+/**
+ * The result of comparing the horse cards with the horses and owners they are derived from.
+ */
+public class HorseCardCheck {
+  private long cards;
+  private List<Long> rebuilt;
+
+  /**
+   * Get the number of cards after the check, one per horse.
+   */
+  public long getCards() {
+    return cards;
+  }
+
+  public HorseCardCheck setCards(long cards) {
+    this.cards = cards;
+    return this;
+  }
+
+  /**
+   * Get the IDs of the horses, whose cards were missing, left over or differing, and were rebuilt.
+   */
+  public List<Long> getRebuilt() {
+    return rebuilt;
+  }
+
+  public HorseCardCheck setRebuilt(List<Long> rebuilt) {
+    this.rebuilt = rebuilt;
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return "HorseCardCheck{"
+        + "cards=" + cards
+        + ", rebuilt=" + rebuilt
+        + '}';
+  }
+}
@@ -0,0 +1,54 @@
+package at.ac.tuwien.sepm.assignment.individual.entity;
+
+import at.ac.tuwien.sepm.assignment.individual.type.Sex;
+import java.util.Map;
+
+/**
+ * Numbers of horses per sex, per year of birth and per owner.
+ * Only values with at least one horse are contained.
+ */
+public class HorseFacetCounts {
+  private Map<Sex, Long> bySex;
+  private Map<Integer, Long> byBirthYear;
+  private Map<Long, Long> byOwner;
+
+  public Map<Sex, Long> getBySex() {
+    return bySex;
+  }
+
+  public HorseFacetCounts setBySex(Map<Sex, Long> bySex) {
+    this.bySex = bySex;
+    return this;
+  }
+
+  public Map<Integer, Long> getByBirthYear() {
+    return byBirthYear;
+  }
+
+  public HorseFacetCounts setByBirthYear(Map<Integer, Long> byBirthYear) {
+    this.byBirthYear = byBirthYear;
+    return this;
+  }
+
+  /**
+   * Get the numbers of horses of the owners with the most horses, by owner ID.
+   * The map iterates the owners in descending order of their numbers of horses.
+   */
+  public Map<Long, Long> getByOwner() {
+    return byOwner;
+  }
+
+  public HorseFacetCounts setByOwner(Map<Long, Long> byOwner) {
+    this.byOwner = byOwner;
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return "HorseFacetCounts{"
+        + "bySex=" + bySex
+        + ", byBirthYear=" + byBirthYear
+        + ", byOwner=" + byOwner
+        + '}';
+  }
+}
@@ -0,0 +1,80 @@
+package at.ac.tuwien.sepm.assignment.individual.entity;
+
+/**
+ * The numbers of offspring of a horse.
+ * Grand-foals are counted per line, so a grand-foal descending from the horse through both of its parents counts twice.
+ */
+public class HorseProgeny {
+  private long horseId;
+  private String horseName;
+  private long foals;
+  private long maleFoals;
+  private long femaleFoals;
+  private long grandFoals;
+
+  public long getHorseId() {
+    return horseId;
+  }
+
+  public HorseProgeny setHorseId(long horseId) {
+    this.horseId = horseId;
+    return this;
+  }
+
+  public String getHorseName() {
+    return horseName;
+  }
+
+  public HorseProgeny setHorseName(String horseName) {
+    this.horseName = horseName;
+    return this;
+  }
+
+  public long getFoals() {
+    return foals;
+  }
+
+  public HorseProgeny setFoals(long foals) {
+    this.foals = foals;
+    return this;
+  }
+
+  public long getMaleFoals() {
+    return maleFoals;
+  }
+
+  public HorseProgeny setMaleFoals(long maleFoals) {
+    this.maleFoals = maleFoals;
+    return this;
+  }
+
+  public long getFemaleFoals() {
+    return femaleFoals;
+  }
+
+  public HorseProgeny setFemaleFoals(long femaleFoals) {
+    this.femaleFoals = femaleFoals;
+    return this;
+  }
+
+  public long getGrandFoals() {
+    return grandFoals;
+  }
+
+  public HorseProgeny setGrandFoals(long grandFoals) {
+    this.grandFoals = grandFoals;
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return "HorseProgeny{"
+        + "horseId=" + horseId
+        + ", horseName='" + horseName + '\''
+        + ", foals=" + foals
+        + ", maleFoals=" + maleFoals
+        + ", femaleFoals=" + femaleFoals
+        + ", grandFoals=" + grandFoals
+        + '}';
+  }
+}
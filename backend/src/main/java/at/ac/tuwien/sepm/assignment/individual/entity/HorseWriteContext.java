@@ -0,0 +1,78 @@
+package at.ac.tuwien.sepm.assignment.individual.entity;
+
+import java.util.Map;
+
+/**
+ * Everything the validation of a new or changed horse needs from the persistent data store, loaded at once:
+ * the stored state of the horse, its parents, the owners of all of them and whether the horse has children.
+ * Horses and owners, that do not exist, are null or missing from the owners.
+ */
+public class HorseWriteContext {
+  private Horse horse;
+  private Horse father;
+  private Horse mother;
+  private Map<Long, Owner> owners;
+  private boolean hasChildren;
+
+  /**
+   * Get the horse as it is currently stored, null if it is created or does not exist.
+   */
+  public Horse getHorse() {
+    return horse;
+  }
+
+  public HorseWriteContext setHorse(Horse horse) {
+    this.horse = horse;
+    return this;
+  }
+
+  public Horse getFather() {
+    return father;
+  }
+
+  public HorseWriteContext setFather(Horse father) {
+    this.father = father;
+    return this;
+  }
+
+  public Horse getMother() {
+    return mother;
+  }
+
+  public HorseWriteContext setMother(Horse mother) {
+    this.mother = mother;
+    return this;
+  }
+
+  /**
+   * Get the new owner of the horse and the owners of its parents, by their ID.
+   */
+  public Map<Long, Owner> getOwners() {
+    return owners;
+  }
+
+  public HorseWriteContext setOwners(Map<Long, Owner> owners) {
+    this.owners = owners;
+    return this;
+  }
+
+  public boolean hasChildren() {
+    return hasChildren;
+  }
+
+  public HorseWriteContext setHasChildren(boolean hasChildren) {
+    this.hasChildren = hasChildren;
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return "HorseWriteContext{"
+        + "horse=" + horse
+        + ", father=" + father
+        + ", mother=" + mother
+        + ", owners=" + owners
+        + ", hasChildren=" + hasChildren
+        + '}';
+  }
+}
@@ -8,6 +8,7 @@ public class Owner {
   private String firstName;
   private String lastName;
   private String email;
+  private Long version;
 
   public long getId() {
     return id;
@@ -45,6 +46,15 @@ public class Owner {
     return this;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
+  public Owner setVersion(Long version) {
+    this.version = version;
+    return this;
+  }
+
   @Override
   public String toString() {
     return "Owner{"
@@ -52,6 +62,7 @@ public class Owner {
         + ", firstName='" + firstName + '\''
         + ", lastName='" + lastName + '\''
         + ", email='" + email + '\''
+        + ", version=" + version
         + '}';
   }
 }
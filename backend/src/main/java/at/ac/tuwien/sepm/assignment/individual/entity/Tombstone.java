@@ -0,0 +1,36 @@
+package at.ac.tuwien.sepm.assignment.individual.entity;
+
+/**
+ * Marks an entity, that has been deleted from the persistent data store,
+ * so clients that sync changes can learn about the deletion.
+ */
+public class Tombstone {
+  private long id;
+  private long version;
+
+  public long getId() {
+    return id;
+  }
+
+  public Tombstone setId(long id) {
+    this.id = id;
+    return this;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public Tombstone setVersion(long version) {
+    this.version = version;
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return "Tombstone{"
+        + "id=" + id
+        + ", version=" + version
+        + '}';
+  }
+}
@@ -1,11 +1,17 @@
 package at.ac.tuwien.sepm.assignment.individual.mapper;
 
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseCardCheckDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseCompactDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseDetailDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseDetailSimpleDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseGraphDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseListDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseProgenyDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseTreeDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.OwnerDto;
 import at.ac.tuwien.sepm.assignment.individual.entity.Horse;
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseCardCheck;
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseProgeny;
 import at.ac.tuwien.sepm.assignment.individual.exception.FatalException;
 import java.lang.invoke.MethodHandles;
 import java.util.List;
@@ -80,6 +86,81 @@ public class HorseMapper {
     );
   }
 
+  /**
+   * Convert the result of a check of the horse cards to a {@link HorseCardCheckDto}.
+   *
+   * @param check the result to convert
+   * @return the converted {@link HorseCardCheckDto}
+   */
+  public HorseCardCheckDto entityToCardCheckDto(HorseCardCheck check) {
+    LOG.trace("entityToCardCheckDto({})", check);
+    return new HorseCardCheckDto(check.getCards(), check.getRebuilt());
+  }
+
+  /**
+   * Convert the offspring counters of a horse to a {@link HorseProgenyDto}.
+   *
+   * @param progeny the counters to convert
+   * @return the converted {@link HorseProgenyDto}
+   */
+  public HorseProgenyDto entityToProgenyDto(HorseProgeny progeny) {
+    LOG.trace("entityToProgenyDto({})", progeny);
+    return new HorseProgenyDto(
+        progeny.getHorseId(),
+        progeny.getHorseName(),
+        progeny.getFoals(),
+        progeny.getMaleFoals(),
+        progeny.getFemaleFoals(),
+        progeny.getGrandFoals()
+    );
+  }
+
+  /**
+   * Convert a horse entity object to a {@link HorseCompactDto}.
+   *
+   * @param horse the horse to convert
+   * @return the converted {@link HorseCompactDto}
+   */
+  public HorseCompactDto entityToCompactDto(Horse horse) {
+    LOG.trace("entityToCompactDto({})", horse);
+    if (horse == null) {
+      return null;
+    }
+
+    return new HorseCompactDto(
+        horse.getId(),
+        horse.getName(),
+        horse.getDescription(),
+        horse.getDateOfBirth(),
+        horse.getSex(),
+        horse.getOwnerId()
+    );
+  }
+
+  /**
+   * Convert a horse entity object to a {@link HorseGraphDto}.
+   *
+   * @param horse the horse to convert
+   * @return the converted {@link HorseGraphDto}
+   */
+  public HorseGraphDto entityToGraphDto(Horse horse) {
+    LOG.trace("entityToGraphDto({})", horse);
+    if (horse == null) {
+      return null;
+    }
+
+    return new HorseGraphDto(
+        horse.getId(),
+        horse.getName(),
+        horse.getDescription(),
+        horse.getDateOfBirth(),
+        horse.getSex(),
+        horse.getOwnerId(),
+        horse.getFatherId(),
+        horse.getMotherId()
+    );
+  }
+
   /**
    * Convert a horse entity object to a {@link HorseDetailSimpleDto}.
    * The given map of owners needs to contain the owner of {@code horse}.
@@ -137,6 +218,25 @@ public class HorseMapper {
     );
   }
 
+  /**
+   * Convert the data of a horse to update into an entity, referencing its owner and parents by ID.
+   *
+   * @param horse the horse to convert
+   * @return the converted entity, without version
+   */
+  public Horse detailDtoToEntity(HorseDetailDto horse) {
+    LOG.trace("detailDtoToEntity({})", horse);
+    return new Horse()
+        .setId(horse.id())
+        .setName(horse.name())
+        .setDescription(horse.description())
+        .setDateOfBirth(horse.dateOfBirth())
+        .setSex(horse.sex())
+        .setOwnerId(horse.ownerId())
+        .setFatherId(horse.fatherId())
+        .setMotherId(horse.motherId());
+  }
+
   private OwnerDto getOwner(Horse horse, Map<Long, OwnerDto> owners) {
     OwnerDto owner = null;
     var ownerId = horse.getOwnerId();
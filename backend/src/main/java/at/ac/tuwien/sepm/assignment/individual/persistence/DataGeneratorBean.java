@@ -6,7 +6,11 @@ import java.sql.SQLException;
 import javax.sql.DataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.jdbc.datasource.init.ScriptUtils;
 import org.springframework.stereotype.Component;
@@ -14,25 +18,71 @@ import org.springframework.stereotype.Component;
 /**
  * This component is only created, if the profile {@code datagen} is active
  * You can activate this profile by adding {@code -Dspring.profiles.active=datagen} to your maven command line
+ * <p>
+ * If {@code wendy.datagen.async} is set, the data is generated in the background once the application is ready,
+ *  so it does not delay the start. Requests arriving before that see the data store without the test data.
+ * </p>
  */
 @Component
 @Profile("datagen")
+@Lazy(false)
 public class DataGeneratorBean {
   private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
   private final DataSource dataSource;
+  private final boolean async;
+  private boolean generated;
 
   /**
-   * Executed once when the component is instantiated. Inserts some dummy data.
+   * Executed once when the component is instantiated. Inserts some dummy data, unless that is deferred.
    */
-  public DataGeneratorBean(DataSource dataSource) {
+  public DataGeneratorBean(DataSource dataSource, @Value("${wendy.datagen.async:false}") boolean async) {
     this.dataSource = dataSource;
+    this.async = async;
   }
 
+  /**
+   * Insert the dummy data while the application starts, unless that is deferred.
+   *
+   * @throws SQLException if the data script fails
+   */
   @PostConstruct
-  public void generateData() throws SQLException {
+  public void generateDataOnStartup() throws SQLException {
+    if (!async) {
+      generateData();
+    }
+  }
+
+  /**
+   * Insert the dummy data on a background thread once the application is ready, if that is deferred.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void generateDataWhenReady() {
+    if (async) {
+      var thread = new Thread(() -> {
+        try {
+          generateData();
+        } catch (SQLException e) {
+          LOGGER.error("Generating data failed", e);
+        }
+      }, "datagen");
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
+
+  /**
+   * Insert the dummy data, if that did not happen yet.
+   *
+   * @throws SQLException if the data script fails
+   */
+  public synchronized void generateData() throws SQLException {
+    if (generated) {
+      return;
+    }
     LOGGER.info("Generating data…");
     try (var connection = dataSource.getConnection()) {
       ScriptUtils.executeSqlScript(connection, new ClassPathResource("sql/insertData.sql"));
+      generated = true;
       LOGGER.info("Finished generating data without error.");
     }
   }
@@ -4,8 +4,18 @@ import at.ac.tuwien.sepm.assignment.individual.dto.HorseCreateDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseDetailDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseSearchDto;
 import at.ac.tuwien.sepm.assignment.individual.entity.Horse;
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseCard;
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseCardCheck;
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseFacetCounts;
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseProgeny;
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseWriteContext;
+import at.ac.tuwien.sepm.assignment.individual.entity.Tombstone;
 import at.ac.tuwien.sepm.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepm.assignment.individual.type.HorseRelation;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Data Access Object for horses.
@@ -42,6 +52,8 @@ public interface HorseDao {
 
   /**
    * Save a new horse in the persistent data store.
+   * Within a transaction, the horse is inserted in that transaction.
+   * Without one, it is inserted in a transaction of its own, which may be shared with concurrent inserts if group commit is enabled.
    *
    * @param horse The new horse to create
    * @return The final state of the horse as saved in the persistent data store
@@ -75,10 +87,158 @@ public interface HorseDao {
   List<Horse> getAncestors(long rootId, long generations) throws NotFoundException;
 
   /**
-   * Check if a given horse has children
+   * Load everything the validation of a new or changed horse needs in one round trip:
+   *  the stored horse, the parents, the owners of all of them and whether the horse has children.
+   * Horses and owners, that do not exist, are left out instead of causing an exception,
+   *  so the caller can decide how to report them.
    *
-   * @param horseId The id of the horse to check if it is the parent of another horse
-   * @return true, if the given horse has children, false otherwise
+   * @param horseId the ID of the horse to update, or null if a horse is created
+   * @param fatherId the ID of the new father, or null
+   * @param motherId the ID of the new mother, or null
+   * @param ownerId the ID of the new owner, or null
+   * @return the loaded context
    */
-  boolean isParent(long horseId);
+  HorseWriteContext getWriteContext(Long horseId, Long fatherId, Long motherId, Long ownerId);
+
+  /**
+   * Get the horses with the given IDs in one round trip.
+   * IDs of horses, that do not exist, are left out instead of causing an exception.
+   *
+   * @param ids the IDs of the horses
+   * @return the horses, in no particular order
+   */
+  List<Horse> getAllById(Collection<Long> ids);
+
+  /**
+   * Get the horse with the given ID, its parents and the owners of all of them with a single lookup.
+   * The cards are denormalized copies of the horses and owners, kept up to date by every write of a horse.
+   *
+   * @param id the ID of the horse
+   * @return the card of the horse
+   * @throws NotFoundException if the horse does not exist
+   */
+  HorseCard getCard(long id) throws NotFoundException;
+
+  /**
+   * Compare the cards of all horses with the horses and owners they are derived from,
+   *  and rebuild the cards, that are missing, left over or differ in any field.
+   *
+   * @return the number of cards and the IDs of the rebuilt ones
+   */
+  HorseCardCheck checkCards();
+
+  /**
+   * Get the children of all the given horses in one round trip.
+   *
+   * @param parentIds the IDs of the parents
+   * @return the horses, whose father or mother is one of the given horses, in no particular order
+   */
+  List<Horse> getChildrenOfAll(Collection<Long> parentIds);
+
+  /**
+   * Get the horses of all the given owners in one round trip.
+   *
+   * @param ownerIds the IDs of the owners
+   * @return the horses owned by one of the given owners, in no particular order
+   */
+  List<Horse> getAllByOwnerId(Collection<Long> ownerIds);
+
+  /**
+   * Get the relatives of a horse in one round trip.
+   * Siblings are all horses sharing at least one parent with the horse.
+   * The other horses of the owner of the horse count as its relatives too.
+   *
+   * @param horseId the ID of the horse
+   * @param relations the relations to load
+   * @return the related horses by relation, every requested relation is contained, empty if the horse does not exist
+   */
+  Map<HorseRelation, List<Horse>> getRelatives(long horseId, Set<HorseRelation> relations);
+
+  /**
+   * Find out, which of the given horses are the father or mother of another horse.
+   *
+   * @param ids the IDs of the horses to check
+   * @return the IDs of the horses, that have children
+   */
+  Set<Long> getIdsWithChildren(Collection<Long> ids);
+
+  /**
+   * Update many horses at once, each with the data given for it, like {@link #update(HorseDetailDto)}.
+   *
+   * @param horses the horses to update, every ID at most once
+   * @throws NotFoundException if any of the horses does not exist in the persistent data store
+   */
+  void updateAll(List<HorseDetailDto> horses) throws NotFoundException;
+
+  /**
+   * Give many horses the same owner, without changing anything else about them.
+   *
+   * @param ids the IDs of the horses, every ID at most once
+   * @param ownerId the ID of the new owner, or null to remove the owner
+   * @throws NotFoundException if any of the horses does not exist in the persistent data store
+   */
+  void reassignOwner(Collection<Long> ids, Long ownerId) throws NotFoundException;
+
+  /**
+   * Delete many horses at once, like {@link #delete(long)}.
+   *
+   * @param ids the IDs of the horses, every ID at most once
+   * @throws NotFoundException if any of the horses does not exist in the persistent data store
+   */
+  void deleteAll(Collection<Long> ids) throws NotFoundException;
+
+  /**
+   * Get the horses, that were created or updated after the given version, ordered by their version.
+   *
+   * @param version only horses with a higher version are returned
+   * @param limit the maximum number of horses to return
+   * @return the changed horses, with the oldest change first
+   */
+  List<Horse> getChangedSince(long version, int limit);
+
+  /**
+   * Get the tombstones of the horses, that were deleted after the given version, ordered by their version.
+   *
+   * @param version only tombstones with a higher version are returned
+   * @param limit the maximum number of tombstones to return
+   * @return the tombstones, with the oldest deletion first
+   */
+  List<Tombstone> getDeletedSince(long version, int limit);
+
+  /**
+   * Get the highest change version, up to which all changes of horses and owners are visible.
+   * Writes, that are still in progress, may already hold higher versions, but never lower ones.
+   *
+   * @return the settled version, the delta sync must not hand out a token beyond it
+   */
+  long getSettledVersion();
+
+  /**
+   * Count the horses matching the filter per sex, per year of birth and per owner.
+   * The {@code limit} and {@code fields} of the filter are ignored.
+   * Without any filter criteria, the counts are read from counters maintained with every change, instead of scanning all horses.
+   *
+   * @param filter the search parameters, the counted horses must match
+   * @param topOwners the number of owners with the most horses to count horses for
+   * @return the numbers of matching horses
+   */
+  HorseFacetCounts getFacets(HorseSearchDto filter, int topOwners);
+
+  /**
+   * Get the numbers of offspring of a horse.
+   * They are read from counters maintained with every change, instead of scanning the children.
+   *
+   * @param horseId the ID of the horse
+   * @return the numbers of offspring, all 0 if the horse has none
+   * @throws NotFoundException if the horse does not exist
+   */
+  HorseProgeny getProgeny(long horseId) throws NotFoundException;
+
+  /**
+   * Get the male horses with the most foals, ties broken by the number of grand-foals and then by ID.
+   *
+   * @param limit the maximum number of sires to return
+   * @return the sires with their numbers of offspring, best first; horses without foals are not included
+   */
+  List<HorseProgeny> getTopSires(int limit);
 }
@@ -0,0 +1,48 @@
+package at.ac.tuwien.sepm.assignment.individual.persistence;
+
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseSearchDto;
+import at.ac.tuwien.sepm.assignment.individual.entity.Horse;
+import java.util.Collection;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking Data Access Object for reading horses.
+ * Counterpart of the read methods of {@link HorseDao}, with the same semantics.
+ * Nothing is read before the returned publisher is subscribed to, and rows are only fetched as they are requested.
+ */
+public interface HorseReactiveDao {
+  /**
+   * Get a horse by its ID from the persistent data store.
+   *
+   * @param id the ID of the horse to get
+   * @return the horse, or an empty {@code Mono} if it does not exist
+   */
+  Mono<Horse> getById(long id);
+
+  /**
+   * Get the horses with the given IDs from the persistent data store.
+   * IDs of horses, that do not exist, are ignored.
+   *
+   * @param ids the IDs of the horses to get
+   * @return the found horses
+   */
+  Flux<Horse> getAllById(Collection<Long> ids);
+
+  /**
+   * Search for horses in the persistent data store, see {@link HorseDao#search(HorseSearchDto)}.
+   *
+   * @param searchFilter the search parameters
+   * @return the matching horses
+   */
+  Flux<Horse> search(HorseSearchDto searchFilter);
+
+  /**
+   * Get the horse with ID {@code rootId} and all its ancestors up to {@code generations} generations.
+   *
+   * @param rootId the ID of the youngest horse
+   * @param generations the number of generations to include
+   * @return the horse and its ancestors, or an empty {@code Flux} if the horse does not exist
+   */
+  Flux<Horse> getAncestors(long rootId, long generations);
+}
@@ -5,6 +5,7 @@ import at.ac.tuwien.sepm.assignment.individual.dto.OwnerSearchDto;
 import at.ac.tuwien.sepm.assignment.individual.entity.Owner;
 import at.ac.tuwien.sepm.assignment.individual.exception.NotFoundException;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * Data Access Object for owners.
@@ -57,4 +58,13 @@ public interface OwnerDao {
    * @return true, if the email is already in the persistent data store, false otherwise
    */
   boolean emailExists(String email);
+
+  /**
+   * Get the owners, that were created or updated after the given version, ordered by their version.
+   *
+   * @param version only owners with a higher version are returned
+   * @param limit the maximum number of owners to return
+   * @return the changed owners, with the oldest change first
+   */
+  List<Owner> getChangedSince(long version, int limit);
 }
@@ -0,0 +1,28 @@
+package at.ac.tuwien.sepm.assignment.individual.persistence;
+
+import at.ac.tuwien.sepm.assignment.individual.dto.OwnerSearchDto;
+import at.ac.tuwien.sepm.assignment.individual.entity.Owner;
+import java.util.Collection;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking Data Access Object for reading owners.
+ * Counterpart of the read methods of {@link OwnerDao}, with the same semantics.
+ */
+public interface OwnerReactiveDao {
+  /**
+   * Fetch the owners with the given IDs. Owners, that can not be found, are simply missing in the result.
+   *
+   * @param ids the IDs of the owners to fetch
+   * @return the found owners
+   */
+  Flux<Owner> getAllById(Collection<Long> ids);
+
+  /**
+   * Search for owners, see {@link OwnerDao#search(OwnerSearchDto)}.
+   *
+   * @param searchParameters the search parameters
+   * @return the matching owners, at most {@code searchParameters.maxAmount}
+   */
+  Flux<Owner> search(OwnerSearchDto searchParameters);
+}
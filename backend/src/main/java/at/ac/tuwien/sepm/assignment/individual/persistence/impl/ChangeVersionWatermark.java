@@ -0,0 +1,104 @@
+package at.ac.tuwien.sepm.assignment.individual.persistence.impl;
+
+import java.lang.invoke.MethodHandles;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Tells up to which change version all writes are completed, so the delta sync never hands out a token
+ *  beyond a change that is not visible yet.
+ * <p>
+ * Every write draws its versions from {@code change_version_seq}, but transactions do not commit in the order of their versions.
+ * A poll could see the change with version 11 while the one with version 10 is still uncommitted,
+ *  and its token would skip version 10 for good.
+ * So before its first versioned write, every transaction registers the next value of the sequence as its lowest version,
+ *  until it completes. All versions up to just below the lowest version of any open transaction are settled,
+ *  each belongs to a transaction, that committed or rolled back already.
+ * </p>
+ * <p>
+ * Reading the sequence and registering happen under one lock, so a writer can not read the sequence before the settled version
+ *  is determined and register only after. The open transactions are only known to this instance of the application,
+ *  like the locks of the horse writes, and polls served by a read replica only see the changes the replica has caught up with.
+ * </p>
+ */
+@Component
+@Profile("!memory")
+public class ChangeVersionWatermark {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  // the next value of the sequence, without drawing it
+  private static final String SQL_NEXT_VERSION = "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'CHANGE_VERSION_SEQ'";
+
+  private final ReentrantLock lock = new ReentrantLock();
+  // the number of open transactions per lowest version, guarded by the lock; transactions registering without a draw in between share one
+  private final NavigableMap<Long, Integer> open = new TreeMap<>();
+
+  /**
+   * Register the current transaction as writer of change versions, until it completes.
+   * Has to be called before the first statement of the transaction, that draws a version. Further calls do nothing.
+   *
+   * @param template the template of the transaction, to read the sequence with
+   * @throws IllegalStateException if there is no transaction to bind the registration to
+   */
+  public void enter(JdbcTemplate template) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      throw new IllegalStateException("Change versions have to be written within a transaction");
+    }
+    if (TransactionSynchronizationManager.hasResource(this)) {
+      return;
+    }
+    long lowest;
+    lock.lock();
+    try {
+      lowest = nextVersion(template);
+      open.merge(lowest, 1, Integer::sum);
+    } finally {
+      lock.unlock();
+    }
+    LOG.trace("enter() at version {}", lowest);
+    TransactionSynchronizationManager.bindResource(this, lowest);
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(ChangeVersionWatermark.this);
+        lock.lock();
+        try {
+          open.computeIfPresent(lowest, (version, count) -> count == 1 ? null : count - 1);
+        } finally {
+          lock.unlock();
+        }
+      }
+    });
+  }
+
+  /**
+   * Get the highest version, up to which all writes are completed.
+   *
+   * @param template the template to read the sequence with
+   * @return the settled version, every change with a version up to it is committed or rolled back
+   */
+  public long getSettledVersion(JdbcTemplate template) {
+    lock.lock();
+    try {
+      var next = nextVersion(template);
+      return (open.isEmpty() ? next : Math.min(next, open.firstKey())) - 1;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private long nextVersion(JdbcTemplate template) {
+    var next = template.queryForObject(SQL_NEXT_VERSION, Long.class);
+    if (next == null) {
+      throw new IllegalStateException("Sequence change_version_seq does not exist");
+    }
+    return next;
+  }
+}
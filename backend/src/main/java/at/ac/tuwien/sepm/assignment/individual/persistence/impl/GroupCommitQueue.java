@@ -0,0 +1,170 @@
+package at.ac.tuwien.sepm.assignment.individual.persistence.impl;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Group commit of concurrent writes: items submitted at about the same time are collected for a short window
+ *  and written together by one writer thread, in one batch and one transaction.
+ * So they share the cost of the transaction commit, which dominates small writes.
+ * <p>
+ * Every submitter waits for its own result. If a batch fails, its items are written one by one,
+ *  so a single bad item does not fail the others.
+ * </p>
+ *
+ * @param <T> the type of the items written
+ * @param <R> the type of the result of each item
+ */
+public class GroupCommitQueue<T, R> implements AutoCloseable {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  /**
+   * Writes a batch of items in one transaction.
+   *
+   * @param <T> the type of the items written
+   * @param <R> the type of the result of each item
+   */
+  @FunctionalInterface
+  public interface BatchWriter<T, R> {
+    /**
+     * Write the items.
+     *
+     * @return the results, in the same order as the items
+     */
+    List<R> write(List<T> items);
+  }
+
+  private record Pending<T, R>(T item, CompletableFuture<R> result) {
+  }
+
+  private final BlockingQueue<Pending<T, R>> queue = new LinkedBlockingQueue<>();
+  private final long windowNanos;
+  private final int maxBatch;
+  private final BatchWriter<T, R> batchWriter;
+  private final Thread writer;
+  private volatile boolean closed;
+  // only written by the writer thread
+  private volatile int largestBatch;
+
+  /**
+   * Create a new queue and start its writer thread.
+   *
+   * @param name the name of the queue, used for the writer thread
+   * @param windowMillis how long to wait for more items after the first one of a batch arrived, 0 writes what is queued right away
+   * @param maxBatch the largest number of items written in one batch
+   * @param batchWriter writes the batches
+   */
+  public GroupCommitQueue(String name, int windowMillis, int maxBatch, BatchWriter<T, R> batchWriter) {
+    if (windowMillis < 0 || maxBatch < 1) {
+      throw new IllegalArgumentException("Group commit %s needs a window >= 0 and a batch size >= 1".formatted(name));
+    }
+    this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+    this.maxBatch = maxBatch;
+    this.batchWriter = batchWriter;
+    this.writer = new Thread(this::run, "group-commit-" + name);
+    this.writer.setDaemon(true);
+    this.writer.start();
+  }
+
+  /**
+   * Queue an item and wait until it is written.
+   *
+   * @param item the item to write
+   * @return the result of the item
+   * @throws IllegalStateException if the queue is closed
+   * @throws RuntimeException the exception the item failed with
+   */
+  public R submit(T item) {
+    if (closed) {
+      throw new IllegalStateException("Group commit %s is closed".formatted(writer.getName()));
+    }
+    var pending = new Pending<T, R>(item, new CompletableFuture<>());
+    queue.add(pending);
+    if (closed && queue.remove(pending)) {
+      throw new IllegalStateException("Group commit %s is closed".formatted(writer.getName()));
+    }
+    try {
+      // uninterruptible, once queued the item is written anyway
+      return pending.result().join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Get the largest number of items committed together in one batch so far.
+   */
+  public int getLargestBatch() {
+    return largestBatch;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    writer.interrupt();
+    Pending<T, R> pending;
+    while ((pending = queue.poll()) != null) {
+      pending.result().completeExceptionally(new IllegalStateException("Group commit %s is closed".formatted(writer.getName())));
+    }
+  }
+
+  private void run() {
+    var batch = new ArrayList<Pending<T, R>>(maxBatch);
+    while (!closed) {
+      try {
+        batch.add(queue.take());
+        var deadline = System.nanoTime() + windowNanos;
+        while (batch.size() < maxBatch) {
+          var remaining = deadline - System.nanoTime();
+          var next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+      } catch (InterruptedException e) {
+        batch.forEach(pending -> pending.result().completeExceptionally(new IllegalStateException("Group commit interrupted")));
+        return;
+      }
+      write(batch);
+      batch.clear();
+    }
+  }
+
+  private void write(List<Pending<T, R>> batch) {
+    List<R> results;
+    try {
+      results = batchWriter.write(batch.stream().map(Pending::item).toList());
+    } catch (RuntimeException e) {
+      if (batch.size() == 1) {
+        batch.get(0).result().completeExceptionally(e);
+        return;
+      }
+      LOG.debug("Group commit of {} items failed, writing them one by one: {}", batch.size(), e.getMessage());
+      for (var pending : batch) {
+        write(List.of(pending));
+      }
+      return;
+    }
+    if (results.size() != batch.size()) {
+      var error = new IllegalStateException("Group commit wrote %d items, but got %d results".formatted(batch.size(), results.size()));
+      batch.forEach(pending -> pending.result().completeExceptionally(error));
+      return;
+    }
+    largestBatch = Math.max(largestBatch, batch.size());
+    for (int i = 0; i < batch.size(); i++) {
+      batch.get(i).result().complete(results.get(i));
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package at.ac.tuwien.sepm.assignment.individual.persistence.impl;
+
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseCard;
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseCardCheck;
+import at.ac.tuwien.sepm.assignment.individual.entity.Owner;
+import at.ac.tuwien.sepm.assignment.individual.exception.NotFoundException;
+import java.lang.invoke.MethodHandles;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The data access object for the horse cards, a denormalized copy of each horse with its parents and owners.
+ * The writes of {@link HorseJdbcDao} refresh the cards of the horses they write, in the same transaction.
+ */
+@Repository
+@Profile("!memory")
+public class HorseCardDao {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  // the horse cards hold the rows of the view horse_card_source, which joins the same tables with the same aliases as the write context of HorseJdbcDao
+  private static final String SQL_SELECT_CARD = "SELECT * FROM horse_card WHERE h_id = ?";
+  // the cards of horses written by the caller, who holds the locks of these horses and of their parents
+  private static final String SQL_REFRESH_CARDS = "MERGE INTO horse_card KEY (h_id) SELECT * FROM horse_card_source WHERE h_id IN (:ids)";
+  // the children of written horses only refresh the columns of that parent, so concurrent writes of the father and the mother
+  //  of a horse update disjoint columns of its card. The version of the child changes when the parent is deleted
+  private static final String FATHER_CARD_COLUMNS = "h_father_id, h_version, "
+      + HorseJdbcDao.prefixed("f", HorseJdbcDao.HORSE_COLUMNS) + ", " + HorseJdbcDao.prefixed("fo", HorseJdbcDao.OWNER_COLUMNS);
+  private static final String MOTHER_CARD_COLUMNS = "h_mother_id, h_version, "
+      + HorseJdbcDao.prefixed("m", HorseJdbcDao.HORSE_COLUMNS) + ", " + HorseJdbcDao.prefixed("mo", HorseJdbcDao.OWNER_COLUMNS);
+  private static final String SQL_REFRESH_FATHER_ON_CARDS = "UPDATE horse_card c SET (" + FATHER_CARD_COLUMNS + ") = ("
+      + "SELECT " + FATHER_CARD_COLUMNS + " FROM horse_card_source s WHERE s.h_id = c.h_id) WHERE c.f_id IN (:ids)";
+  private static final String SQL_REFRESH_MOTHER_ON_CARDS = "UPDATE horse_card c SET (" + MOTHER_CARD_COLUMNS + ") = ("
+      + "SELECT " + MOTHER_CARD_COLUMNS + " FROM horse_card_source s WHERE s.h_id = c.h_id) WHERE c.m_id IN (:ids)";
+  // the IDs of cards missing, left over or differing in any column from what the normalized tables say
+  private static final String SQL_DIFFERING_CARDS = "SELECT h_id FROM (SELECT * FROM horse_card_source EXCEPT SELECT * FROM horse_card)"
+      + " UNION SELECT h_id FROM (SELECT * FROM horse_card EXCEPT SELECT * FROM horse_card_source)";
+  private static final String SQL_DELETE_CARDS = "DELETE FROM horse_card WHERE h_id IN (:ids)";
+  private static final String SQL_INSERT_CARDS = "INSERT INTO horse_card SELECT * FROM horse_card_source WHERE h_id IN (:ids)";
+  private static final String SQL_COUNT_CARDS = "SELECT COUNT(*) FROM horse_card";
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Default DI constructor.
+   *
+   * @param jdbcTemplate the template to access the database with
+   */
+  public HorseCardDao(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Bring the cards of the written horses and the parent columns of the cards of their children up to date.
+   * Runs at the end of every write of horses, in the same transaction, so readers never see a card differing from its horses.
+   *
+   * @param template the template of the transaction the write runs in
+   * @param ids the IDs of the horses written
+   */
+  public void refresh(JdbcTemplate template, List<Long> ids) {
+    var named = new NamedParameterJdbcTemplate(template);
+    var params = Map.of("ids", ids);
+    named.update(SQL_REFRESH_CARDS, params);
+    named.update(SQL_REFRESH_FATHER_ON_CARDS, params);
+    named.update(SQL_REFRESH_MOTHER_ON_CARDS, params);
+  }
+
+  /**
+   * Get the card of a horse.
+   *
+   * @param id the ID of the horse
+   * @return the card of the horse
+   * @throws NotFoundException if the horse does not exist
+   */
+  @Transactional(readOnly = true)
+  public HorseCard get(long id) throws NotFoundException {
+    LOG.trace("get({})", id);
+    var cards = jdbcTemplate.query(SQL_SELECT_CARD, (result, rownum) -> {
+      var owners = new HashMap<Long, Owner>();
+      for (var alias : List.of("o", "fo", "mo")) {
+        if (result.getObject(alias + "_id") != null) {
+          owners.put(result.getLong(alias + "_id"), HorseJdbcDao.mapOwner(result, alias + "_"));
+        }
+      }
+      return new HorseCard()
+          .setHorse(HorseJdbcDao.mapHorse(result, "h_"))
+          .setFather(result.getObject("f_id") == null ? null : HorseJdbcDao.mapHorse(result, "f_"))
+          .setMother(result.getObject("m_id") == null ? null : HorseJdbcDao.mapHorse(result, "m_"))
+          .setOwners(owners);
+    }, id);
+    if (cards.isEmpty()) {
+      throw new NotFoundException("No horse with ID %d found".formatted(id));
+    }
+    return cards.get(0);
+  }
+
+  /**
+   * Compare all cards with the horses and owners they are built from, and rebuild the cards differing from them.
+   *
+   * @return the number of cards and the IDs of the horses whose cards were rebuilt
+   */
+  @Transactional
+  public HorseCardCheck check() {
+    LOG.trace("check()");
+    var differing = jdbcTemplate.queryForList(SQL_DIFFERING_CARDS, Long.class);
+    if (!differing.isEmpty()) {
+      LOG.warn("Rebuilding {} horse cards differing from the horses and owners: {}", differing.size(), differing);
+      var named = new NamedParameterJdbcTemplate(jdbcTemplate);
+      named.update(SQL_DELETE_CARDS, Map.of("ids", differing));
+      named.update(SQL_INSERT_CARDS, Map.of("ids", differing));
+    }
+    return new HorseCardCheck()
+        .setCards(jdbcTemplate.queryForObject(SQL_COUNT_CARDS, Long.class))
+        .setRebuilt(differing.stream().sorted().toList());
+  }
+}
@@ -0,0 +1,259 @@
+package at.ac.tuwien.sepm.assignment.individual.persistence.impl;
+
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseDetailDto;
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseFacetCounts;
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseProgeny;
+import at.ac.tuwien.sepm.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepm.assignment.individual.type.Sex;
+import java.lang.invoke.MethodHandles;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The data access object for the facet and progeny counters of the horses, kept up to date by the writes of {@link HorseJdbcDao}.
+ * The methods counting writes take the template of the transaction the write runs in, as group commit writes on a connection of its own.
+ */
+@Repository
+@Profile("!memory")
+public class HorseCounterDao {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private static final String TABLE_NAME = "horse";
+  // adds the delta to the facet counters of the horses with the given IDs in their stored state, and counts the given new state once.
+  // only the net changes are applied, in a fixed order of the counters, so concurrent writes can not deadlock on them
+  private static final String SQL_COUNT_FACETS = "MERGE INTO horse_facet_count c USING ("
+      + "SELECT facet, facet_key, SUM(delta) AS delta FROM ("
+      + "SELECT 'sex' AS facet, CAST(sex AS VARCHAR) AS facet_key, CAST(:delta AS INT) AS delta FROM " + TABLE_NAME + " WHERE id IN (:ids)"
+      + " UNION ALL SELECT 'birth_year', CAST(EXTRACT(YEAR FROM date_of_birth) AS VARCHAR), CAST(:delta AS INT) FROM " + TABLE_NAME + " WHERE id IN (:ids)"
+      + " UNION ALL SELECT 'owner', CAST(owner_id AS VARCHAR), CAST(:delta AS INT) FROM " + TABLE_NAME + " WHERE id IN (:ids) AND owner_id IS NOT NULL"
+      + " UNION ALL SELECT 'sex', CAST(:sex AS VARCHAR), 1 WHERE :sex IS NOT NULL"
+      + " UNION ALL SELECT 'birth_year', CAST(EXTRACT(YEAR FROM CAST(:dateOfBirth AS DATE)) AS VARCHAR), 1 WHERE :dateOfBirth IS NOT NULL"
+      + " UNION ALL SELECT 'owner', CAST(:ownerId AS VARCHAR), 1 WHERE :ownerId IS NOT NULL"
+      + ") s GROUP BY facet, facet_key HAVING SUM(delta) <> 0 ORDER BY facet, facet_key"
+      + ") h ON c.facet = h.facet AND c.facet_key = h.facet_key"
+      + " WHEN MATCHED THEN UPDATE SET horses = c.horses + h.delta"
+      + " WHEN NOT MATCHED THEN INSERT (facet, facet_key, horses) VALUES (h.facet, h.facet_key, h.delta)";
+  private static final String SQL_COUNTED_FACET = "SELECT facet_key, horses FROM horse_facet_count WHERE facet = ? AND horses > 0";
+  private static final String SQL_COUNTED_TOP_OWNERS = "SELECT facet_key, horses FROM horse_facet_count"
+      + " WHERE facet = 'owner' AND horses > 0 ORDER BY horses DESC, CAST(facet_key AS BIGINT) LIMIT ?";
+  // the horses with the given IDs in their stored state, weighted with the delta, and the given new state of the horse with the given ID
+  private static final String PROGENY_STATES = "(SELECT id, CAST(sex AS VARCHAR) AS sex, father_id, mother_id, CAST(:delta AS INT) AS delta FROM " + TABLE_NAME
+      + " WHERE id IN (:ids) UNION ALL SELECT CAST(:id AS BIGINT), CAST(:sex AS VARCHAR), CAST(:fatherId AS BIGINT), CAST(:motherId AS BIGINT), 1"
+      + " WHERE :sex IS NOT NULL)";
+  // adjusts the progeny counters of the parents and grandparents of all these states.
+  // the parents gain the horse as foal and its foals as grand-foals, the grandparents gain the horse as grand-foal.
+  // like the facets, only the net changes are applied, ordered by the ID of the counted horse
+  private static final String SQL_COUNT_PROGENY = "MERGE INTO horse_progeny p USING ("
+      + "SELECT horse_id, SUM(foals) AS foals, SUM(male_foals) AS male_foals, SUM(female_foals) AS female_foals, SUM(grand_foals) AS grand_foals"
+      + " FROM (SELECT parent.id AS horse_id, h.delta AS foals,"
+      + "    CASE WHEN h.sex = 'MALE' THEN h.delta ELSE 0 END AS male_foals, CASE WHEN h.sex = 'FEMALE' THEN h.delta ELSE 0 END AS female_foals,"
+      + "    h.delta * COALESCE((SELECT foals FROM horse_progeny WHERE horse_id = h.id), 0) AS grand_foals"
+      + "  FROM " + PROGENY_STATES + " h JOIN " + TABLE_NAME + " parent ON parent.id IN (h.father_id, h.mother_id)"
+      + "  UNION ALL SELECT grandparent.id, 0, 0, 0, h.delta"
+      + "  FROM " + PROGENY_STATES + " h JOIN " + TABLE_NAME + " parent ON parent.id IN (h.father_id, h.mother_id)"
+      + "  JOIN " + TABLE_NAME + " grandparent ON grandparent.id IN (parent.father_id, parent.mother_id)) s"
+      + " GROUP BY horse_id HAVING SUM(foals) <> 0 OR SUM(male_foals) <> 0 OR SUM(female_foals) <> 0 OR SUM(grand_foals) <> 0"
+      + " ORDER BY horse_id"
+      + ") c ON p.horse_id = c.horse_id"
+      + " WHEN MATCHED THEN UPDATE SET foals = p.foals + c.foals, male_foals = p.male_foals + c.male_foals,"
+      + "  female_foals = p.female_foals + c.female_foals, grand_foals = p.grand_foals + c.grand_foals"
+      + " WHEN NOT MATCHED THEN INSERT (horse_id, foals, male_foals, female_foals, grand_foals)"
+      + "  VALUES (c.horse_id, c.foals, c.male_foals, c.female_foals, c.grand_foals)";
+  // counts the offspring of the given horses from scratch, ordered by their ID.
+  // bulk changes use it instead of the deltas, as the deltas of a horse and of its foal changed together would count the foal twice
+  private static final String SQL_RECOUNT_PROGENY = "MERGE INTO horse_progeny p USING ("
+      + "SELECT x.id AS horse_id,"
+      + " (SELECT COUNT(*) FROM " + TABLE_NAME + " k WHERE x.id IN (k.father_id, k.mother_id)) AS foals,"
+      + " (SELECT COUNT(*) FROM " + TABLE_NAME + " k WHERE x.id IN (k.father_id, k.mother_id) AND k.sex = 'MALE') AS male_foals,"
+      + " (SELECT COUNT(*) FROM " + TABLE_NAME + " k WHERE x.id IN (k.father_id, k.mother_id) AND k.sex = 'FEMALE') AS female_foals,"
+      + " (SELECT COUNT(*) FROM " + TABLE_NAME + " k JOIN " + TABLE_NAME + " gk ON k.id IN (gk.father_id, gk.mother_id)"
+      + "  WHERE x.id IN (k.father_id, k.mother_id)) AS grand_foals"
+      + " FROM " + TABLE_NAME + " x WHERE x.id IN (:ids) ORDER BY x.id"
+      + ") c ON p.horse_id = c.horse_id"
+      + " WHEN MATCHED THEN UPDATE SET foals = c.foals, male_foals = c.male_foals, female_foals = c.female_foals, grand_foals = c.grand_foals"
+      + " WHEN NOT MATCHED THEN INSERT (horse_id, foals, male_foals, female_foals, grand_foals)"
+      + "  VALUES (c.horse_id, c.foals, c.male_foals, c.female_foals, c.grand_foals)";
+  private static final String SQL_GET_PROGENY = "SELECT h.id, h.name, p.foals, p.male_foals, p.female_foals, p.grand_foals FROM " + TABLE_NAME
+      + " h LEFT JOIN horse_progeny p ON p.horse_id = h.id WHERE h.id = ?";
+  private static final String SQL_TOP_SIRES = "SELECT h.id, h.name, p.foals, p.male_foals, p.female_foals, p.grand_foals"
+      + " FROM horse_progeny p JOIN " + TABLE_NAME + " h ON h.id = p.horse_id"
+      + " WHERE p.foals > 0 AND h.sex = 'MALE' ORDER BY p.foals DESC, p.grand_foals DESC, h.id LIMIT ?";
+  private static final int COUNTER_MERGE_ATTEMPTS = 10;
+  private static final String SQL_PARENTS_AND_GRANDPARENTS = "SELECT parent.id FROM " + TABLE_NAME + " h"
+      + " JOIN " + TABLE_NAME + " parent ON parent.id IN (h.father_id, h.mother_id) WHERE h.id IN (:ids)"
+      + " UNION SELECT grandparent.id FROM " + TABLE_NAME + " h"
+      + " JOIN " + TABLE_NAME + " parent ON parent.id IN (h.father_id, h.mother_id)"
+      + " JOIN " + TABLE_NAME + " grandparent ON grandparent.id IN (parent.father_id, parent.mother_id) WHERE h.id IN (:ids)";
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Default DI constructor.
+   *
+   * @param jdbcTemplate the template to access the database with
+   */
+  public HorseCounterDao(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Adjust the facet counters by {@code delta} for the horses with the given IDs, as they are currently stored.
+   * Updates pass the new state of the horse too, so the old state is subtracted and the new one added in one statement.
+   *
+   * @param template the template of the transaction the write runs in
+   * @param ids the IDs of the horses written
+   * @param delta {@code 1} for inserts, {@code -1} for deletes and updates
+   * @param newState the state the horse is about to be updated to, or {@code null} for inserts and deletes
+   */
+  public void countFacets(JdbcTemplate template, List<Long> ids, int delta, HorseDetailDto newState) {
+    mergeCounters(template, SQL_COUNT_FACETS, new MapSqlParameterSource()
+        .addValue("ids", ids)
+        .addValue("delta", delta)
+        .addValue("sex", newState == null ? null : newState.sex().toString())
+        .addValue("dateOfBirth", newState == null ? null : newState.dateOfBirth())
+        .addValue("ownerId", newState == null ? null : newState.ownerId()));
+  }
+
+  /**
+   * Adjust the progeny counters by {@code delta} for the parents and grandparents of the horses with the given IDs, as they are currently stored.
+   * Updates pass the new state of the horse too, so the old state is subtracted and the new one added in one statement.
+   *
+   * @param template the template of the transaction the write runs in
+   * @param ids the IDs of the horses written
+   * @param delta {@code 1} for inserts, {@code -1} for deletes and updates
+   * @param newState the state the horse is about to be updated to, or {@code null} for inserts and deletes
+   */
+  public void countProgeny(JdbcTemplate template, List<Long> ids, int delta, HorseDetailDto newState) {
+    mergeCounters(template, SQL_COUNT_PROGENY, new MapSqlParameterSource()
+        .addValue("ids", ids)
+        .addValue("delta", delta)
+        .addValue("id", newState == null ? null : newState.id())
+        .addValue("sex", newState == null ? null : newState.sex().toString())
+        .addValue("fatherId", newState == null ? null : newState.fatherId())
+        .addValue("motherId", newState == null ? null : newState.motherId()));
+  }
+
+  /**
+   * Get the parents and grandparents of the horses with the given IDs, as they are currently stored.
+   * Bulk writes recount these horses afterwards, together with the parents and grandparents after the write.
+   *
+   * @param ids the IDs of the horses
+   * @return the IDs of their parents and grandparents
+   */
+  public Set<Long> parentsAndGrandparents(List<Long> ids) {
+    return new HashSet<>(new NamedParameterJdbcTemplate(jdbcTemplate).queryForList(SQL_PARENTS_AND_GRANDPARENTS, Map.of("ids", ids), Long.class));
+  }
+
+  /**
+   * Count the offspring of the horses with the given IDs from scratch.
+   *
+   * @param horseIds the IDs of the horses to recount
+   */
+  public void recountProgeny(Set<Long> horseIds) {
+    if (!horseIds.isEmpty()) {
+      mergeCounters(jdbcTemplate, SQL_RECOUNT_PROGENY, new MapSqlParameterSource("ids", horseIds));
+    }
+  }
+
+  /**
+   * Get the counted facets of all horses.
+   *
+   * @param topOwners the largest number of owners counted
+   * @return the number of horses per sex, per year of birth and per owner, the owner with the most horses first
+   */
+  @Transactional(readOnly = true)
+  public HorseFacetCounts getFacets(int topOwners) {
+    LOG.trace("getFacets({})", topOwners);
+    var bySex = new EnumMap<Sex, Long>(Sex.class);
+    var byBirthYear = new TreeMap<Integer, Long>();
+    var byOwner = new LinkedHashMap<Long, Long>();
+    jdbcTemplate.query(SQL_COUNTED_FACET, (RowCallbackHandler) result ->
+        bySex.put(Sex.valueOf(result.getString("facet_key")), result.getLong("horses")), "sex");
+    jdbcTemplate.query(SQL_COUNTED_FACET, (RowCallbackHandler) result ->
+        byBirthYear.put(Integer.valueOf(result.getString("facet_key")), result.getLong("horses")), "birth_year");
+    jdbcTemplate.query(SQL_COUNTED_TOP_OWNERS, (RowCallbackHandler) result ->
+        byOwner.put(Long.valueOf(result.getString("facet_key")), result.getLong("horses")), topOwners);
+    return new HorseFacetCounts()
+        .setBySex(bySex)
+        .setByBirthYear(byBirthYear)
+        .setByOwner(byOwner);
+  }
+
+  /**
+   * Get the counted offspring of a horse.
+   *
+   * @param horseId the ID of the horse
+   * @return the offspring of the horse, zero for horses without any
+   * @throws NotFoundException if the horse does not exist
+   */
+  @Transactional(readOnly = true)
+  public HorseProgeny getProgeny(long horseId) throws NotFoundException {
+    LOG.trace("getProgeny({})", horseId);
+    var progeny = jdbcTemplate.query(SQL_GET_PROGENY, this::mapProgenyRow, horseId);
+    if (progeny.isEmpty()) {
+      throw new NotFoundException("No horse with ID %d found".formatted(horseId));
+    }
+    return progeny.get(0);
+  }
+
+  /**
+   * Get the stallions with the most foals.
+   *
+   * @param limit the largest number of stallions returned
+   * @return the stallions, the one with the most foals first
+   */
+  @Transactional(readOnly = true)
+  public List<HorseProgeny> getTopSires(int limit) {
+    LOG.trace("getTopSires({})", limit);
+    return jdbcTemplate.query(SQL_TOP_SIRES, this::mapProgenyRow, limit);
+  }
+
+  private static void mergeCounters(JdbcTemplate template, String sql, MapSqlParameterSource params) {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        new NamedParameterJdbcTemplate(template).update(sql, params);
+        return;
+      } catch (DuplicateKeyException e) {
+        // A concurrent write inserted the same new counter and did not commit yet.
+        // H2 only rolled back this statement, so wait for the other write and merge again into the then existing row.
+        if (attempt == COUNTER_MERGE_ATTEMPTS) {
+          throw e;
+        }
+        LOG.debug("Counter inserted concurrently, merging again (attempt {})", attempt + 1);
+        try {
+          Thread.sleep(attempt);
+        } catch (InterruptedException interrupted) {
+          Thread.currentThread().interrupt();
+          throw e;
+        }
+      }
+    }
+  }
+
+  private HorseProgeny mapProgenyRow(ResultSet result, int rownum) throws SQLException {
+    // horses without offspring have no counters, the columns are null then, which getLong reads as 0
+    return new HorseProgeny()
+        .setHorseId(result.getLong("id"))
+        .setHorseName(result.getString("name"))
+        .setFoals(result.getLong("foals"))
+        .setMaleFoals(result.getLong("male_foals"))
+        .setFemaleFoals(result.getLong("female_foals"))
+        .setGrandFoals(result.getLong("grand_foals"));
+  }
+}
@@ -1,41 +1,77 @@
 package at.ac.tuwien.sepm.assignment.individual.persistence.impl;
 
+import at.ac.tuwien.sepm.assignment.individual.config.GroupCommitDataSource;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseCreateDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseDetailDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseSearchDto;
 import at.ac.tuwien.sepm.assignment.individual.entity.Horse;
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseCard;
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseCardCheck;
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseFacetCounts;
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseProgeny;
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseWriteContext;
+import at.ac.tuwien.sepm.assignment.individual.entity.Owner;
+import at.ac.tuwien.sepm.assignment.individual.entity.Tombstone;
 import at.ac.tuwien.sepm.assignment.individual.exception.FatalException;
 import at.ac.tuwien.sepm.assignment.individual.exception.NotFoundException;
 import at.ac.tuwien.sepm.assignment.individual.persistence.HorseDao;
+import at.ac.tuwien.sepm.assignment.individual.type.HorseField;
+import at.ac.tuwien.sepm.assignment.individual.type.HorseRelation;
 import at.ac.tuwien.sepm.assignment.individual.type.Sex;
+import jakarta.annotation.PreDestroy;
 import java.lang.invoke.MethodHandles;
 import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * The data access object for horses
  */
 @Repository
+@Profile("!memory")
 public class HorseJdbcDao implements HorseDao {
   private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
   private static final String TABLE_NAME = "horse";
+  private static final String COLUMNS = "{columns}";
   private static final String SQL_SELECT_ALL = "SELECT * FROM " + TABLE_NAME;
   private static final String SQL_SELECT_BY_ID = "SELECT * FROM " + TABLE_NAME + " WHERE id = ?";
+  private static final String SQL_LOCK_BY_ID = "SELECT id FROM " + TABLE_NAME + " WHERE id = ? FOR UPDATE";
+  private static final String SQL_SELECT_VERSION = "SELECT version FROM " + TABLE_NAME + " WHERE id = ?";
   private static final String SQL_UPDATE = "UPDATE " + TABLE_NAME
       + " SET name = ?"
       + "  , description = ?"
@@ -44,35 +80,162 @@ public class HorseJdbcDao implements HorseDao {
       + "  , owner_id = ?"
       + "  , father_id = ?"
       + "  , mother_id = ?"
+      + "  , version = NEXT VALUE FOR change_version_seq"
       + " WHERE id = ?";
   private static final String SQL_CREATE = "INSERT INTO " + TABLE_NAME
           + " (name, description, date_of_birth, sex, owner_id, father_id, mother_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
   private static final String SQL_DELETE = "DELETE FROM " + TABLE_NAME
           + " WHERE id=?";
-  private static final String SQL_SEARCH = "SELECT * FROM " + TABLE_NAME + " WHERE 1=1";
+  private static final String SQL_SEARCH = "SELECT " + COLUMNS + " FROM " + TABLE_NAME + " WHERE 1=1";
   private static final String SQL_GET_ANCESTORS = "SELECT *  FROM horse "
           + "WHERE id IN (WITH ancestors (id, name, mother_id, father_id, generation) "
           + "AS (SELECT id, name, father_id, mother_id, 0 AS generation FROM " + TABLE_NAME
           + " WHERE id = ? UNION ALL SELECT h.id, h.name, h.father_id, h.mother_id, a.generation + 1"
           + " FROM ancestors a JOIN horse h ON h.id = a.father_id OR h.id = a.mother_id WHERE a.generation < ?)"
           + " SELECT DISTINCT id FROM ancestors);";
-  private static final String SQL_GET_DIRECT_CHILDREN = "SELECT * FROM " + TABLE_NAME + " WHERE father_id = ? OR mother_id = ?";
+  // deleting a horse sets the parent references of its children to null, so they change too
+  private static final String SQL_TOUCH_CHILDREN = "UPDATE " + TABLE_NAME
+      + " SET version = NEXT VALUE FOR change_version_seq WHERE father_id = ? OR mother_id = ?";
+  private static final String SQL_SELECT_ALL_BY_ID = "SELECT * FROM " + TABLE_NAME + " WHERE id IN (:ids)";
+  private static final String SQL_CHILDREN_OF_ALL = "SELECT * FROM " + TABLE_NAME + " WHERE father_id IN (:ids) OR mother_id IN (:ids)";
+  private static final String SQL_SELECT_ALL_BY_OWNER = "SELECT * FROM " + TABLE_NAME + " WHERE owner_id IN (:ids)";
+  private static final String SQL_IDS_WITH_CHILDREN = "SELECT h.id FROM " + TABLE_NAME + " h WHERE h.id IN (:ids)"
+      + " AND EXISTS (SELECT 1 FROM " + TABLE_NAME + " c WHERE c.father_id = h.id OR c.mother_id = h.id)";
+  private static final String SQL_REASSIGN_OWNER = "UPDATE " + TABLE_NAME
+      + " SET owner_id = :ownerId, version = NEXT VALUE FOR change_version_seq WHERE id IN (:ids)";
+  private static final String SQL_DELETE_ALL = "DELETE FROM " + TABLE_NAME + " WHERE id IN (:ids)";
+  private static final String SQL_TOUCH_CHILDREN_OF_ALL = "UPDATE " + TABLE_NAME
+      + " SET version = NEXT VALUE FOR change_version_seq WHERE father_id IN (:ids) OR mother_id IN (:ids)";
+  // one part per relation, the requested ones are combined with UNION ALL, so all relatives are loaded in one query
+  private static final Map<HorseRelation, String> SQL_RELATIVES = Map.of(
+      HorseRelation.CHILDREN, "SELECT 'CHILDREN' AS relation, r.* FROM " + TABLE_NAME + " r"
+          + " WHERE r.father_id = :id OR r.mother_id = :id",
+      HorseRelation.SIBLINGS, "SELECT 'SIBLINGS' AS relation, r.* FROM " + TABLE_NAME + " h"
+          + " JOIN " + TABLE_NAME + " r ON r.id <> h.id AND (r.father_id = h.father_id OR r.mother_id = h.mother_id) WHERE h.id = :id",
+      HorseRelation.GRANDPARENTS, "SELECT 'GRANDPARENTS' AS relation, r.* FROM " + TABLE_NAME + " h"
+          + " JOIN " + TABLE_NAME + " parent ON parent.id IN (h.father_id, h.mother_id)"
+          + " JOIN " + TABLE_NAME + " r ON r.id IN (parent.father_id, parent.mother_id) WHERE h.id = :id",
+      HorseRelation.OWNER_HORSES, "SELECT 'OWNER_HORSES' AS relation, r.* FROM " + TABLE_NAME + " h"
+          + " JOIN " + TABLE_NAME + " r ON r.owner_id = h.owner_id AND r.id <> h.id WHERE h.id = :id");
+  private static final String SQL_CREATE_TOMBSTONE = "MERGE INTO horse_tombstone (id, version) KEY (id)"
+      + " VALUES (?, NEXT VALUE FOR change_version_seq)";
+  private static final String SQL_CHANGED_SINCE = "SELECT * FROM " + TABLE_NAME + " WHERE version > ? ORDER BY version LIMIT ?";
+  private static final String SQL_DELETED_SINCE = "SELECT * FROM horse_tombstone WHERE version > ? ORDER BY version LIMIT ?";
+  private static final String SQL_FACET_BY_SEX = "SELECT sex, COUNT(*) AS horses FROM " + TABLE_NAME + " WHERE 1=1{where} GROUP BY sex";
+  private static final String SQL_FACET_BY_BIRTH_YEAR = "SELECT EXTRACT(YEAR FROM date_of_birth) AS birth_year, COUNT(*) AS horses FROM "
+      + TABLE_NAME + " WHERE 1=1{where} GROUP BY EXTRACT(YEAR FROM date_of_birth)";
+  private static final String SQL_FACET_BY_OWNER = "SELECT owner_id, COUNT(*) AS horses FROM " + TABLE_NAME
+      + " WHERE owner_id IS NOT NULL{where} GROUP BY owner_id ORDER BY horses DESC, owner_id LIMIT :topOwners";
+  private static final String WHERE = "{where}";
+  // the recursive queries use UNION instead of UNION ALL, so horses reachable on several lines are only followed once per depth.
+  // H2 mixes up the indexes of parameters inside a WITH in a subquery, if parameters precede it,
+  //  so the ID and the depth are inserted as numeric literals instead
+  private static final String SQL_ANCESTORS_OF = " AND id IN (WITH ancestors_of (id, depth) AS ("
+      + "SELECT parent.id, 1 FROM " + TABLE_NAME + " child JOIN " + TABLE_NAME + " parent ON parent.id IN (child.father_id, child.mother_id)"
+      + " WHERE child.id = {id}"
+      + " UNION SELECT parent.id, a.depth + 1 FROM ancestors_of a JOIN " + TABLE_NAME + " child ON child.id = a.id"
+      + " JOIN " + TABLE_NAME + " parent ON parent.id IN (child.father_id, child.mother_id) WHERE a.depth < {maxDepth})"
+      + " SELECT id FROM ancestors_of)";
+  private static final String SQL_DESCENDANTS_OF = " AND id IN (WITH descendants_of (id, depth) AS ("
+      + "SELECT id, 1 FROM " + TABLE_NAME + " WHERE father_id = {id} OR mother_id = {id}"
+      + " UNION SELECT child.id, d.depth + 1 FROM descendants_of d JOIN " + TABLE_NAME + " child ON child.father_id = d.id OR child.mother_id = d.id"
+      + " WHERE d.depth < {maxDepth})"
+      + " SELECT id FROM descendants_of)";
+  static final String[] HORSE_COLUMNS = {"id", "name", "description", "date_of_birth", "sex", "owner_id", "father_id", "mother_id", "version"};
+  static final String[] OWNER_COLUMNS = {"id", "first_name", "last_name", "email", "version"};
+  // a single row with the horse (h), its parents (f, m), the new owner (o) and the owners of the parents (fo, mo),
+  //  every column prefixed with the alias of its table
+  private static final String SQL_WRITE_CONTEXT = "SELECT "
+      + aliased("h", HORSE_COLUMNS) + ", " + aliased("f", HORSE_COLUMNS) + ", " + aliased("m", HORSE_COLUMNS) + ", "
+      + aliased("o", OWNER_COLUMNS) + ", " + aliased("fo", OWNER_COLUMNS) + ", " + aliased("mo", OWNER_COLUMNS) + ", "
+      + " EXISTS (SELECT 1 FROM " + TABLE_NAME + " c WHERE c.father_id = h.id OR c.mother_id = h.id) AS has_children"
+      + " FROM (SELECT 1 AS one) one"
+      + " LEFT JOIN " + TABLE_NAME + " h ON h.id = :horse"
+      + " LEFT JOIN " + TABLE_NAME + " f ON f.id = :father"
+      + " LEFT JOIN " + TABLE_NAME + " m ON m.id = :mother"
+      + " LEFT JOIN owner o ON o.id = :owner"
+      + " LEFT JOIN owner fo ON fo.id = f.owner_id"
+      + " LEFT JOIN owner mo ON mo.id = m.owner_id";
   private final JdbcTemplate jdbcTemplate;
-
+  private final HorseCounterDao counters;
+  private final HorseCardDao cards;
+  private final ChangeVersionWatermark watermark;
+  private final TransactionTemplate transactionTemplate;
+  private final RequestIdentityMap<Horse> identityMap = new RequestIdentityMap<>(TABLE_NAME);
+  private final GroupCommitQueue<HorseCreateDto, Horse> insertQueue;
+
+  /**
+   * Default DI constructor.
+   *
+   * @param jdbcTemplate the template to access the database with
+   * @param counters the counters the writes keep up to date
+   * @param cards the cards the writes keep up to date
+   * @param watermark the registry of the writes, that hold change versions and did not complete yet
+   * @param transactionManager the transaction manager of the database, for inserts without a surrounding transaction
+   * @param groupCommitDataSource the pool of the group commit writer, only available if group commit is enabled
+   * @param groupCommitWindowMillis how long the group commit waits for more inserts to join a batch
+   * @param groupCommitMaxBatch the largest number of inserts the group commit writes in one batch
+   */
   public HorseJdbcDao(
-      JdbcTemplate jdbcTemplate) {
+      JdbcTemplate jdbcTemplate,
+      HorseCounterDao counters,
+      HorseCardDao cards,
+      ChangeVersionWatermark watermark,
+      PlatformTransactionManager transactionManager,
+      ObjectProvider<GroupCommitDataSource> groupCommitDataSource,
+      @Value("${wendy.group-commit.window-millis:2}") int groupCommitWindowMillis,
+      @Value("${wendy.group-commit.max-batch:64}") int groupCommitMaxBatch) {
     this.jdbcTemplate = jdbcTemplate;
+    this.counters = counters;
+    this.cards = cards;
+    this.watermark = watermark;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    var groupCommit = groupCommitDataSource.getIfAvailable();
+    if (groupCommit == null) {
+      this.insertQueue = null;
+    } else {
+      var groupCommitTemplate = new JdbcTemplate(groupCommit.getDataSource());
+      var groupCommitTransaction = new TransactionTemplate(new DataSourceTransactionManager(groupCommit.getDataSource()));
+      this.insertQueue = new GroupCommitQueue<>("horse-insert", groupCommitWindowMillis, groupCommitMaxBatch,
+          horses -> groupCommitTransaction.execute(status -> insert(groupCommitTemplate, horses)));
+    }
+  }
+
+  /**
+   * Stop the group commit writer. Inserts still waiting for a batch fail, instead of waiting for a database that is closed.
+   */
+  @PreDestroy
+  public void shutdown() {
+    if (insertQueue != null) {
+      insertQueue.close();
+    }
+  }
+
+  /**
+   * Get the largest number of horses inserted together in one group commit batch so far.
+   *
+   * @return the size of the largest batch, 0 if group commit is disabled or nothing was inserted through it yet
+   */
+  public int getLargestInsertBatch() {
+    return insertQueue == null ? 0 : insertQueue.getLargestBatch();
   }
 
   @Override
+  @Transactional(readOnly = true)
   public List<Horse> getAll() {
     LOG.trace("getAll()");
     return jdbcTemplate.query(SQL_SELECT_ALL, this::mapRow);
   }
 
+  // only joins a surrounding transaction, so horses found in the identity map do not need a connection at all
   @Override
+  @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
   public Horse getById(long id) throws NotFoundException {
     LOG.trace("getById({})", id);
+    var known = identityMap.get(id);
+    if (known != null) {
+      return known;
+    }
     List<Horse> horses;
     horses = jdbcTemplate.query(SQL_SELECT_BY_ID, this::mapRow, id);
 
@@ -84,47 +247,85 @@ public class HorseJdbcDao implements HorseDao {
       throw new FatalException("Too many horses with ID %d found".formatted(id));
     }
 
+    identityMap.put(id, horses.get(0));
     return horses.get(0);
   }
 
+  // not @Transactional, as group commit depends on whether the caller already has a transaction
   @Override
   public Horse create(HorseCreateDto horse) {
     LOG.trace("create({})", horse);
+    identityMap.clear();
 
-    GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
-    jdbcTemplate.update(con -> {
-      PreparedStatement stmt = con.prepareStatement(SQL_CREATE, Statement.RETURN_GENERATED_KEYS);
-      stmt.setString(1, horse.name());
-      stmt.setString(2, horse.description());
-      stmt.setDate(3, Date.valueOf(horse.dateOfBirth()));
-      stmt.setString(4, horse.sex().toString());
-      stmt.setObject(5, horse.ownerId());
-      stmt.setObject(6, horse.fatherId());
-      stmt.setObject(7, horse.motherId());
-      return stmt;
-    }, keyHolder);
-
-    Number key = keyHolder.getKey();
-    if (key == null) {
-      // This should never happen. If it does, something is wrong with the DB or the way the prepared statement is set up.
-      throw new FatalException("Could not extract key for newly created horse. There is probably a programming error…");
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      // a group commit batch commits on its own, so the insert would stay even if the caller rolls back
+      return insert(jdbcTemplate, List.of(horse)).get(0);
+    }
+    if (insertQueue != null) {
+      return insertQueue.submit(horse);
     }
+    return transactionTemplate.execute(status -> insert(jdbcTemplate, List.of(horse)).get(0));
+  }
 
-    return new Horse()
-            .setId(key.longValue())
-            .setName(horse.name())
-            .setDescription(horse.description())
-            .setSex(horse.sex())
-            .setDateOfBirth(horse.dateOfBirth())
-            .setOwnerId(horse.ownerId())
-            .setFatherId(horse.fatherId())
-            .setMotherId(horse.motherId());
+  /**
+   * Insert the horses in one batch, count them in the facets and progeny and add their cards.
+   * Runs in the transaction of the caller, or in the one of the group commit writer.
+   */
+  private List<Horse> insert(JdbcTemplate template, List<HorseCreateDto> horses) {
+    watermark.enter(template);
+    var created = template.execute((ConnectionCallback<List<Horse>>) con -> {
+      try (PreparedStatement stmt = con.prepareStatement(SQL_CREATE, new String[] {"id", "version"})) {
+        for (var horse : horses) {
+          stmt.setString(1, horse.name());
+          stmt.setString(2, horse.description());
+          stmt.setDate(3, Date.valueOf(horse.dateOfBirth()));
+          stmt.setString(4, horse.sex().toString());
+          stmt.setObject(5, horse.ownerId());
+          stmt.setObject(6, horse.fatherId());
+          stmt.setObject(7, horse.motherId());
+          stmt.addBatch();
+        }
+        stmt.executeBatch();
+
+        var result = new ArrayList<Horse>(horses.size());
+        try (var keys = stmt.getGeneratedKeys()) {
+          for (var horse : horses) {
+            if (!keys.next()) {
+              // This should never happen. If it does, something is wrong with the DB or the way the prepared statement is set up.
+              throw new FatalException("Could not extract key for newly created horse. There is probably a programming error…");
+            }
+            result.add(new Horse()
+                .setId(keys.getLong("id"))
+                .setVersion(keys.getLong("version"))
+                .setName(horse.name())
+                .setDescription(horse.description())
+                .setSex(horse.sex())
+                .setDateOfBirth(horse.dateOfBirth())
+                .setOwnerId(horse.ownerId())
+                .setFatherId(horse.fatherId())
+                .setMotherId(horse.motherId()));
+          }
+        }
+        return result;
+      }
+    });
+    var ids = created.stream().map(Horse::getId).toList();
+    counters.countFacets(template, ids, 1, null);
+    counters.countProgeny(template, ids, 1, null);
+    cards.refresh(template, ids);
+    return created;
   }
 
   @Override
+  @Transactional
   public void delete(long id) throws NotFoundException {
     LOG.trace("delete({})", id);
+    identityMap.clear();
+    watermark.enter(jdbcTemplate);
 
+    counters.countFacets(jdbcTemplate, List.of(id), -1, null);
+    counters.countProgeny(jdbcTemplate, List.of(id), -1, null);
+    jdbcTemplate.update(SQL_TOUCH_CHILDREN, id, id);
     int deleted = jdbcTemplate.update(SQL_DELETE, id);
 
     if (deleted == 0) {
@@ -133,16 +334,67 @@ public class HorseJdbcDao implements HorseDao {
       // This should never happen. If it does, something is wrong with the DB or the way the prepared statement is set up.
       throw new FatalException("Deleted more than one entry in the database");
     }
+    jdbcTemplate.update(SQL_CREATE_TOMBSTONE, id);
+    // the card of the horse is deleted with it, the cards of its children lose the parent
+    cards.refresh(jdbcTemplate, List.of(id));
   }
 
   @Override
+  @Transactional(readOnly = true)
   public List<Horse> search(HorseSearchDto searchFilter) {
     LOG.trace("search({})", searchFilter);
 
-    Function<String, String> like = str -> "%" + str.toLowerCase() + "%";
+    var fields = searchFilter.fields() == null || searchFilter.fields().isEmpty()
+        ? EnumSet.allOf(HorseField.class)
+        : EnumSet.copyOf(searchFilter.fields());
+    var sqlParams = new MapSqlParameterSource();
+    String sql = SQL_SEARCH.replace(COLUMNS, projection(fields)) + filterCriteria(searchFilter, sqlParams);
 
+    if (searchFilter.limit() != null) {
+      sql += " LIMIT :limit";
+      sqlParams.addValue("limit", searchFilter.limit());
+    }
+
+    return new NamedParameterJdbcTemplate(jdbcTemplate).query(sql, sqlParams, (result, rownum) -> mapProjectedRow(result, fields));
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public HorseFacetCounts getFacets(HorseSearchDto filter, int topOwners) {
+    LOG.trace("getFacets({}, {})", filter, topOwners);
     var sqlParams = new MapSqlParameterSource();
-    String sql = SQL_SEARCH;
+    var where = filterCriteria(filter, sqlParams);
+    if (where.isEmpty()) {
+      // the counters hold the facets of all horses
+      return counters.getFacets(topOwners);
+    }
+
+    var namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    sqlParams.addValue("topOwners", topOwners);
+    var bySex = new EnumMap<Sex, Long>(Sex.class);
+    var byBirthYear = new TreeMap<Integer, Long>();
+    var byOwner = new LinkedHashMap<Long, Long>();
+    namedJdbcTemplate.query(SQL_FACET_BY_SEX.replace(WHERE, where), sqlParams, (RowCallbackHandler) result ->
+        bySex.put(Sex.valueOf(result.getString("sex")), result.getLong("horses")));
+    namedJdbcTemplate.query(SQL_FACET_BY_BIRTH_YEAR.replace(WHERE, where), sqlParams, (RowCallbackHandler) result ->
+        byBirthYear.put(result.getInt("birth_year"), result.getLong("horses")));
+    namedJdbcTemplate.query(SQL_FACET_BY_OWNER.replace(WHERE, where), sqlParams, (RowCallbackHandler) result ->
+        byOwner.put(result.getLong("owner_id"), result.getLong("horses")));
+    return new HorseFacetCounts()
+        .setBySex(bySex)
+        .setByBirthYear(byBirthYear)
+        .setByOwner(byOwner);
+  }
+
+  /**
+   * Build the conditions of the search filter, to be appended to a {@code WHERE} clause.
+   * The limit and the fields of the filter are not part of the conditions.
+   *
+   * @return the conditions, each starting with {@code AND}, or an empty string, if the filter does not restrict the horses
+   */
+  private static String filterCriteria(HorseSearchDto searchFilter, MapSqlParameterSource sqlParams) {
+    Function<String, String> like = str -> "%" + str.toLowerCase() + "%";
+    var sql = "";
 
     if (searchFilter.name() != null && searchFilter.name() != "") {
       sql += " AND LOWER(name) LIKE :name";
@@ -164,19 +416,71 @@ public class HorseJdbcDao implements HorseDao {
       sql += " AND owner_id IN (SELECT id FROM owner WHERE LOWER(first_name) LIKE :owner OR LOWER(last_name) LIKE :owner)";
       sqlParams.addValue("owner", like.apply(searchFilter.ownerName()));
     }
-    if (searchFilter.limit() != null) {
-      sql += " LIMIT :limit";
-      sqlParams.addValue("limit", searchFilter.limit());
+    var maxDepth = Integer.toString(searchFilter.maxDepth() == null ? Integer.MAX_VALUE : searchFilter.maxDepth());
+    if (searchFilter.ancestorOf() != null) {
+      sql += SQL_ANCESTORS_OF.replace("{id}", Long.toString(searchFilter.ancestorOf())).replace("{maxDepth}", maxDepth);
+    }
+    if (searchFilter.descendantOf() != null) {
+      sql += SQL_DESCENDANTS_OF.replace("{id}", Long.toString(searchFilter.descendantOf())).replace("{maxDepth}", maxDepth);
     }
+    if ((searchFilter.ancestorOf() != null || searchFilter.descendantOf() != null) && searchFilter.maxDepth() != null && searchFilter.maxDepth() < 1) {
+      // no generation is close enough
+      sql += " AND 1=0";
+    }
+    return sql;
+  }
+
+
+  /**
+   * Build the column list for the given fields.
+   * The id is always selected, the parents and the version are never needed by list views.
+   */
+  private static String projection(Set<HorseField> fields) {
+    return Stream.concat(Stream.of("id"), fields.stream().filter(field -> field != HorseField.ID).map(HorseJdbcDao::column))
+        .collect(Collectors.joining(", "));
+  }
 
-    return new NamedParameterJdbcTemplate(jdbcTemplate).query(sql, sqlParams, this::mapRow);
+  private static String column(HorseField field) {
+    return switch (field) {
+      case ID -> "id";
+      case NAME -> "name";
+      case DESCRIPTION -> "description";
+      case DATE_OF_BIRTH -> "date_of_birth";
+      case SEX -> "sex";
+      case OWNER -> "owner_id";
+    };
+  }
+
+  private Horse mapProjectedRow(ResultSet result, Set<HorseField> fields) throws SQLException {
+    var horse = new Horse().setId(result.getLong("id"));
+    for (var field : fields) {
+      switch (field) {
+        case ID -> { }
+        case NAME -> horse.setName(result.getString("name"));
+        case DESCRIPTION -> horse.setDescription(result.getString("description"));
+        case DATE_OF_BIRTH -> horse.setDateOfBirth(result.getDate("date_of_birth").toLocalDate());
+        case SEX -> horse.setSex(Sex.valueOf(result.getString("sex")));
+        case OWNER -> horse.setOwnerId(result.getObject("owner_id", Long.class));
+        default -> throw new IllegalStateException("Unexpected field " + field);
+      }
+    }
+    return horse;
   }
 
 
   @Override
+  @Transactional
   public Horse update(HorseDetailDto horse) throws NotFoundException {
     LOG.trace("update({})", horse);
-    int updated = jdbcTemplate.update(SQL_UPDATE,
+    identityMap.clear();
+    watermark.enter(jdbcTemplate);
+    // checked before the counters are changed, the exception does not roll the transaction back
+    if (jdbcTemplate.queryForList(SQL_LOCK_BY_ID, Long.class, horse.id()).isEmpty()) {
+      throw new NotFoundException("Could not update horse with ID " + horse.id() + ", because it does not exist");
+    }
+    counters.countFacets(jdbcTemplate, List.of(horse.id()), -1, horse);
+    counters.countProgeny(jdbcTemplate, List.of(horse.id()), -1, horse);
+    jdbcTemplate.update(SQL_UPDATE,
         horse.name(),
         horse.description(),
         horse.dateOfBirth(),
@@ -185,12 +489,11 @@ public class HorseJdbcDao implements HorseDao {
         horse.fatherId(),
         horse.motherId(),
         horse.id());
-    if (updated == 0) {
-      throw new NotFoundException("Could not update horse with ID " + horse.id() + ", because it does not exist");
-    }
+    cards.refresh(jdbcTemplate, List.of(horse.id()));
 
     return new Horse()
         .setId(horse.id())
+        .setVersion(jdbcTemplate.queryForObject(SQL_SELECT_VERSION, Long.class, horse.id()))
         .setName(horse.name())
         .setDescription(horse.description())
         .setDateOfBirth(horse.dateOfBirth())
@@ -201,6 +504,7 @@ public class HorseJdbcDao implements HorseDao {
   }
 
   @Override
+  @Transactional(readOnly = true)
   public List<Horse> getAncestors(long rootId, long generations) throws NotFoundException {
     LOG.trace("getAncestors({},{})", rootId, generations);
 
@@ -219,28 +523,252 @@ public class HorseJdbcDao implements HorseDao {
   }
 
   @Override
-  public boolean isParent(long horseId) {
-    LOG.trace("isParent({})", horseId);
+  @Transactional(readOnly = true)
+  public HorseWriteContext getWriteContext(Long horseId, Long fatherId, Long motherId, Long ownerId) {
+    LOG.trace("getWriteContext({}, {}, {}, {})", horseId, fatherId, motherId, ownerId);
+    var params = new MapSqlParameterSource()
+        .addValue("horse", horseId)
+        .addValue("father", fatherId)
+        .addValue("mother", motherId)
+        .addValue("owner", ownerId);
+    return new NamedParameterJdbcTemplate(jdbcTemplate).queryForObject(SQL_WRITE_CONTEXT, params, (result, rownum) -> {
+      var owners = new HashMap<Long, Owner>();
+      for (var alias : List.of("o", "fo", "mo")) {
+        if (result.getObject(alias + "_id") != null) {
+          owners.put(result.getLong(alias + "_id"), mapOwner(result, alias + "_"));
+        }
+      }
+      return new HorseWriteContext()
+          .setHorse(result.getObject("h_id") == null ? null : mapHorse(result, "h_"))
+          .setFather(result.getObject("f_id") == null ? null : mapHorse(result, "f_"))
+          .setMother(result.getObject("m_id") == null ? null : mapHorse(result, "m_"))
+          .setOwners(owners)
+          .setHasChildren(result.getBoolean("has_children"));
+    });
+  }
 
-    List<Horse> horses;
-    try {
-      horses = jdbcTemplate.query(SQL_GET_DIRECT_CHILDREN, this::mapRow, horseId, horseId);
-    } catch (DataAccessException ex) {
-      throw new FatalException("The database query errored", ex);
+  @Override
+  @Transactional(readOnly = true)
+  public List<Horse> getAllById(Collection<Long> ids) {
+    LOG.trace("getAllById({})", ids);
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    return new NamedParameterJdbcTemplate(jdbcTemplate).query(SQL_SELECT_ALL_BY_ID, Map.of("ids", ids), this::mapRow);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<Horse> getChildrenOfAll(Collection<Long> parentIds) {
+    LOG.trace("getChildrenOfAll({})", parentIds);
+    if (parentIds.isEmpty()) {
+      return List.of();
     }
+    return new NamedParameterJdbcTemplate(jdbcTemplate).query(SQL_CHILDREN_OF_ALL, Map.of("ids", parentIds), this::mapRow);
+  }
 
-    return !horses.isEmpty();
+  @Override
+  @Transactional(readOnly = true)
+  public List<Horse> getAllByOwnerId(Collection<Long> ownerIds) {
+    LOG.trace("getAllByOwnerId({})", ownerIds);
+    if (ownerIds.isEmpty()) {
+      return List.of();
+    }
+    return new NamedParameterJdbcTemplate(jdbcTemplate).query(SQL_SELECT_ALL_BY_OWNER, Map.of("ids", ownerIds), this::mapRow);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Map<HorseRelation, List<Horse>> getRelatives(long horseId, Set<HorseRelation> relations) {
+    LOG.trace("getRelatives({}, {})", horseId, relations);
+    var relatives = new EnumMap<HorseRelation, List<Horse>>(HorseRelation.class);
+    relations.forEach(relation -> relatives.put(relation, new ArrayList<>()));
+    if (relations.isEmpty()) {
+      return relatives;
+    }
+    var sql = relations.stream()
+        .map(SQL_RELATIVES::get)
+        .collect(Collectors.joining(" UNION ALL "));
+    new NamedParameterJdbcTemplate(jdbcTemplate).query(sql, Map.of("id", horseId), (RowCallbackHandler) result ->
+        relatives.get(HorseRelation.valueOf(result.getString("relation"))).add(mapRow(result, 0)));
+    return relatives;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Set<Long> getIdsWithChildren(Collection<Long> ids) {
+    LOG.trace("getIdsWithChildren({})", ids);
+    if (ids.isEmpty()) {
+      return Set.of();
+    }
+    return new HashSet<>(new NamedParameterJdbcTemplate(jdbcTemplate).queryForList(SQL_IDS_WITH_CHILDREN, Map.of("ids", ids), Long.class));
+  }
+
+  @Override
+  @Transactional(rollbackFor = NotFoundException.class)
+  public void updateAll(List<HorseDetailDto> horses) throws NotFoundException {
+    LOG.trace("updateAll({} horses)", horses.size());
+    if (horses.isEmpty()) {
+      return;
+    }
+    identityMap.clear();
+    watermark.enter(jdbcTemplate);
+    var ids = horses.stream().map(HorseDetailDto::id).toList();
+    final var counted = counters.parentsAndGrandparents(ids);
+    counters.countFacets(jdbcTemplate, ids, -1, null);
+
+    var updated = jdbcTemplate.batchUpdate(SQL_UPDATE, horses.stream()
+        .map(horse -> new Object[] {
+            horse.name(),
+            horse.description(),
+            horse.dateOfBirth(),
+            horse.sex().toString(),
+            horse.ownerId(),
+            horse.fatherId(),
+            horse.motherId(),
+            horse.id()})
+        .toList());
+    for (int i = 0; i < updated.length; i++) {
+      if (updated[i] == 0) {
+        throw new NotFoundException("Could not update horse with ID " + ids.get(i) + ", because it does not exist");
+      }
+    }
+
+    counters.countFacets(jdbcTemplate, ids, 1, null);
+    counted.addAll(counters.parentsAndGrandparents(ids));
+    counters.recountProgeny(counted);
+    cards.refresh(jdbcTemplate, ids);
+  }
+
+  @Override
+  @Transactional(rollbackFor = NotFoundException.class)
+  public void reassignOwner(Collection<Long> ids, Long ownerId) throws NotFoundException {
+    LOG.trace("reassignOwner({}, {})", ids, ownerId);
+    if (ids.isEmpty()) {
+      return;
+    }
+    identityMap.clear();
+    watermark.enter(jdbcTemplate);
+    var idList = List.copyOf(ids);
+    counters.countFacets(jdbcTemplate, idList, -1, null);
+    int updated = new NamedParameterJdbcTemplate(jdbcTemplate).update(SQL_REASSIGN_OWNER, new MapSqlParameterSource()
+        .addValue("ids", idList)
+        .addValue("ownerId", ownerId));
+    if (updated != idList.size()) {
+      throw new NotFoundException("Could not reassign %d horses, because they do not exist".formatted(idList.size() - updated));
+    }
+    counters.countFacets(jdbcTemplate, idList, 1, null);
+    cards.refresh(jdbcTemplate, idList);
+  }
+
+  @Override
+  @Transactional(rollbackFor = NotFoundException.class)
+  public void deleteAll(Collection<Long> ids) throws NotFoundException {
+    LOG.trace("deleteAll({})", ids);
+    if (ids.isEmpty()) {
+      return;
+    }
+    identityMap.clear();
+    watermark.enter(jdbcTemplate);
+    var idList = List.copyOf(ids);
+    final var counted = counters.parentsAndGrandparents(idList);
+    counters.countFacets(jdbcTemplate, idList, -1, null);
+
+    var named = new NamedParameterJdbcTemplate(jdbcTemplate);
+    named.update(SQL_TOUCH_CHILDREN_OF_ALL, Map.of("ids", idList));
+    int deleted = named.update(SQL_DELETE_ALL, Map.of("ids", idList));
+    if (deleted != idList.size()) {
+      throw new NotFoundException("Could not delete %d horses, because they do not exist".formatted(idList.size() - deleted));
+    }
+    jdbcTemplate.batchUpdate(SQL_CREATE_TOMBSTONE, idList.stream().map(id -> new Object[] {id}).toList());
+
+    idList.forEach(counted::remove);
+    counters.recountProgeny(counted);
+    cards.refresh(jdbcTemplate, idList);
+  }
+
+  @Override
+  public HorseCard getCard(long id) throws NotFoundException {
+    LOG.trace("getCard({})", id);
+    return cards.get(id);
+  }
+
+  @Override
+  public HorseCardCheck checkCards() {
+    LOG.trace("checkCards()");
+    return cards.check();
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<Horse> getChangedSince(long version, int limit) {
+    LOG.trace("getChangedSince({}, {})", version, limit);
+    return jdbcTemplate.query(SQL_CHANGED_SINCE, this::mapRow, version, limit);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<Tombstone> getDeletedSince(long version, int limit) {
+    LOG.trace("getDeletedSince({}, {})", version, limit);
+    return jdbcTemplate.query(SQL_DELETED_SINCE, (result, rownum) -> new Tombstone()
+        .setId(result.getLong("id"))
+        .setVersion(result.getLong("version")), version, limit);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public long getSettledVersion() {
+    LOG.trace("getSettledVersion()");
+    return watermark.getSettledVersion(jdbcTemplate);
+  }
+
+  @Override
+  public HorseProgeny getProgeny(long horseId) throws NotFoundException {
+    LOG.trace("getProgeny({})", horseId);
+    return counters.getProgeny(horseId);
+  }
+
+  @Override
+  public List<HorseProgeny> getTopSires(int limit) {
+    LOG.trace("getTopSires({})", limit);
+    return counters.getTopSires(limit);
   }
 
   private Horse mapRow(ResultSet result, int rownum) throws SQLException {
+    return mapHorse(result, "");
+  }
+
+  static Horse mapHorse(ResultSet result, String prefix) throws SQLException {
     return new Horse()
-        .setId(result.getLong("id"))
-        .setName(result.getString("name"))
-        .setDescription(result.getString("description"))
-        .setDateOfBirth(result.getDate("date_of_birth").toLocalDate())
-        .setSex(Sex.valueOf(result.getString("sex")))
-        .setOwnerId(result.getObject("owner_id", Long.class))
-        .setFatherId(result.getObject("father_id", Long.class))
-        .setMotherId(result.getObject("mother_id", Long.class));
+        .setId(result.getLong(prefix + "id"))
+        .setName(result.getString(prefix + "name"))
+        .setDescription(result.getString(prefix + "description"))
+        .setDateOfBirth(result.getDate(prefix + "date_of_birth").toLocalDate())
+        .setSex(Sex.valueOf(result.getString(prefix + "sex")))
+        .setOwnerId(result.getObject(prefix + "owner_id", Long.class))
+        .setFatherId(result.getObject(prefix + "father_id", Long.class))
+        .setMotherId(result.getObject(prefix + "mother_id", Long.class))
+        .setVersion(result.getObject(prefix + "version", Long.class));
+  }
+
+  static Owner mapOwner(ResultSet result, String prefix) throws SQLException {
+    return new Owner()
+        .setId(result.getLong(prefix + "id"))
+        .setFirstName(result.getString(prefix + "first_name"))
+        .setLastName(result.getString(prefix + "last_name"))
+        .setEmail(result.getString(prefix + "email"))
+        .setVersion(result.getObject(prefix + "version", Long.class));
+  }
+
+  static String prefixed(String alias, String... columns) {
+    return Stream.of(columns)
+        .map(column -> alias + "_" + column)
+        .collect(Collectors.joining(", "));
+  }
+
+  private static String aliased(String alias, String... columns) {
+    return Stream.of(columns)
+        .map(column -> alias + "." + column + " AS " + alias + "_" + column)
+        .collect(Collectors.joining(", "));
   }
 }
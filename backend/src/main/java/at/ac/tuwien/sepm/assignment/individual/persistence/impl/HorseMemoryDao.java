@@ -0,0 +1,242 @@
+package at.ac.tuwien.sepm.assignment.individual.persistence.impl;
+
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseCreateDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseDetailDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseSearchDto;
+import at.ac.tuwien.sepm.assignment.individual.entity.Horse;
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseCard;
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseCardCheck;
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseFacetCounts;
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseProgeny;
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseWriteContext;
+import at.ac.tuwien.sepm.assignment.individual.entity.Tombstone;
+import at.ac.tuwien.sepm.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepm.assignment.individual.persistence.HorseDao;
+import at.ac.tuwien.sepm.assignment.individual.persistence.impl.memory.MemoryStore;
+import at.ac.tuwien.sepm.assignment.individual.type.HorseRelation;
+import java.lang.invoke.MethodHandles;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+/**
+ * The data access object for horses, backed by the {@link MemoryStore}.
+ * This component is only created, if the profile {@code memory} is active.
+ */
+@Repository
+@Profile("memory")
+public class HorseMemoryDao implements HorseDao {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private final MemoryStore store;
+
+  public HorseMemoryDao(MemoryStore store) {
+    this.store = store;
+  }
+
+  @Override
+  public List<Horse> getAll() {
+    LOG.trace("getAll()");
+    return store.allHorses();
+  }
+
+  @Override
+  public Horse update(HorseDetailDto horse) throws NotFoundException {
+    LOG.trace("update({})", horse);
+    var updated = new Horse()
+        .setId(horse.id())
+        .setName(horse.name())
+        .setDescription(horse.description())
+        .setDateOfBirth(horse.dateOfBirth())
+        .setSex(horse.sex())
+        .setOwnerId(horse.ownerId())
+        .setFatherId(horse.fatherId())
+        .setMotherId(horse.motherId());
+    if (!store.updateHorse(updated)) {
+      throw new NotFoundException("Could not update horse with ID " + horse.id() + ", because it does not exist");
+    }
+    return updated;
+  }
+
+  @Override
+  public Horse getById(long id) throws NotFoundException {
+    LOG.trace("getById({})", id);
+    var horse = store.horse(id);
+    if (horse == null) {
+      throw new NotFoundException("No horse with ID %d found".formatted(id));
+    }
+    return horse;
+  }
+
+  @Override
+  public Horse create(HorseCreateDto horse) {
+    LOG.trace("create({})", horse);
+    return store.createHorse(new Horse()
+        .setName(horse.name())
+        .setDescription(horse.description())
+        .setSex(horse.sex())
+        .setDateOfBirth(horse.dateOfBirth())
+        .setOwnerId(horse.ownerId())
+        .setFatherId(horse.fatherId())
+        .setMotherId(horse.motherId()));
+  }
+
+  @Override
+  public void delete(long id) throws NotFoundException {
+    LOG.trace("delete({})", id);
+    if (!store.deleteHorse(id)) {
+      throw new NotFoundException("No horse found to delete with id " + id);
+    }
+  }
+
+  @Override
+  public List<Horse> search(HorseSearchDto searchFilter) {
+    LOG.trace("search({})", searchFilter);
+    return store.searchHorses(searchFilter);
+  }
+
+  @Override
+  public List<Horse> getAncestors(long rootId, long generations) throws NotFoundException {
+    LOG.trace("getAncestors({},{})", rootId, generations);
+    var ancestors = store.ancestors(rootId, generations);
+    if (ancestors.isEmpty()) {
+      throw new NotFoundException("No horse with ID %d found".formatted(rootId));
+    }
+    return ancestors;
+  }
+
+  @Override
+  public HorseWriteContext getWriteContext(Long horseId, Long fatherId, Long motherId, Long ownerId) {
+    LOG.trace("getWriteContext({}, {}, {}, {})", horseId, fatherId, motherId, ownerId);
+    return store.horseWriteContext(horseId, fatherId, motherId, ownerId);
+  }
+
+  @Override
+  public List<Horse> getAllById(Collection<Long> ids) {
+    LOG.trace("getAllById({})", ids);
+    return store.horses(ids);
+  }
+
+  @Override
+  public List<Horse> getChildrenOfAll(Collection<Long> parentIds) {
+    LOG.trace("getChildrenOfAll({})", parentIds);
+    return store.horseChildren(parentIds);
+  }
+
+  @Override
+  public List<Horse> getAllByOwnerId(Collection<Long> ownerIds) {
+    LOG.trace("getAllByOwnerId({})", ownerIds);
+    return store.horsesOfOwners(ownerIds);
+  }
+
+  @Override
+  public Map<HorseRelation, List<Horse>> getRelatives(long horseId, Set<HorseRelation> relations) {
+    LOG.trace("getRelatives({}, {})", horseId, relations);
+    return store.horseRelatives(horseId, relations);
+  }
+
+  @Override
+  public Set<Long> getIdsWithChildren(Collection<Long> ids) {
+    LOG.trace("getIdsWithChildren({})", ids);
+    return store.horsesWithChildren(ids);
+  }
+
+  @Override
+  public void updateAll(List<HorseDetailDto> horses) throws NotFoundException {
+    LOG.trace("updateAll({} horses)", horses.size());
+    var updated = horses.stream()
+        .map(horse -> new Horse()
+            .setId(horse.id())
+            .setName(horse.name())
+            .setDescription(horse.description())
+            .setDateOfBirth(horse.dateOfBirth())
+            .setSex(horse.sex())
+            .setOwnerId(horse.ownerId())
+            .setFatherId(horse.fatherId())
+            .setMotherId(horse.motherId()))
+        .toList();
+    if (!store.updateHorses(updated)) {
+      throw new NotFoundException("Could not update the horses, because some of them do not exist");
+    }
+  }
+
+  @Override
+  public void reassignOwner(Collection<Long> ids, Long ownerId) throws NotFoundException {
+    LOG.trace("reassignOwner({}, {})", ids, ownerId);
+    if (!store.reassignHorses(ids, ownerId)) {
+      throw new NotFoundException("Could not reassign the horses, because some of them do not exist");
+    }
+  }
+
+  @Override
+  public void deleteAll(Collection<Long> ids) throws NotFoundException {
+    LOG.trace("deleteAll({})", ids);
+    if (!store.deleteHorses(ids)) {
+      throw new NotFoundException("Could not delete the horses, because some of them do not exist");
+    }
+  }
+
+  @Override
+  public List<Horse> getChangedSince(long version, int limit) {
+    LOG.trace("getChangedSince({}, {})", version, limit);
+    return store.horsesChangedSince(version, limit);
+  }
+
+  @Override
+  public List<Tombstone> getDeletedSince(long version, int limit) {
+    LOG.trace("getDeletedSince({}, {})", version, limit);
+    return store.horsesDeletedSince(version, limit);
+  }
+
+  @Override
+  public long getSettledVersion() {
+    LOG.trace("getSettledVersion()");
+    return store.currentVersion();
+  }
+
+  @Override
+  public HorseFacetCounts getFacets(HorseSearchDto filter, int topOwners) {
+    LOG.trace("getFacets({}, {})", filter, topOwners);
+    return store.horseFacets(filter, topOwners);
+  }
+
+  @Override
+  public HorseCard getCard(long id) throws NotFoundException {
+    LOG.trace("getCard({})", id);
+    var card = store.horseCard(id);
+    if (card == null) {
+      throw new NotFoundException("No horse with ID %d found".formatted(id));
+    }
+    return card;
+  }
+
+  // the store has no copy of the horses to get out of sync, its cards are composed on every lookup
+  @Override
+  public HorseCardCheck checkCards() {
+    LOG.trace("checkCards()");
+    return new HorseCardCheck()
+        .setCards(store.horseCount())
+        .setRebuilt(List.of());
+  }
+
+  @Override
+  public HorseProgeny getProgeny(long horseId) throws NotFoundException {
+    LOG.trace("getProgeny({})", horseId);
+    var progeny = store.horseProgeny(horseId);
+    if (progeny == null) {
+      throw new NotFoundException("No horse with ID %d found".formatted(horseId));
+    }
+    return progeny;
+  }
+
+  @Override
+  public List<HorseProgeny> getTopSires(int limit) {
+    LOG.trace("getTopSires({})", limit);
+    return store.topSires(limit);
+  }
+}
@@ -0,0 +1,153 @@
+package at.ac.tuwien.sepm.assignment.individual.persistence.impl;
+
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseSearchDto;
+import at.ac.tuwien.sepm.assignment.individual.entity.Horse;
+import at.ac.tuwien.sepm.assignment.individual.persistence.HorseReactiveDao;
+import at.ac.tuwien.sepm.assignment.individual.type.Sex;
+import io.r2dbc.spi.Readable;
+import java.lang.invoke.MethodHandles;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The non-blocking data access object for horses, using R2DBC. The queries are the same as in {@link HorseJdbcDao}.
+ */
+@Repository
+@Profile("!memory")
+public class HorseR2dbcDao implements HorseReactiveDao {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private static final String TABLE_NAME = "horse";
+  private static final String SQL_SELECT_BY_ID = "SELECT * FROM " + TABLE_NAME + " WHERE id = :id";
+  private static final String SQL_SELECT_ALL_BY_ID = "SELECT * FROM " + TABLE_NAME + " WHERE id IN (:ids)";
+  private static final String SQL_SEARCH = "SELECT * FROM " + TABLE_NAME + " WHERE 1=1";
+  private static final String SQL_GET_ANCESTORS = "SELECT *  FROM horse "
+      + "WHERE id IN (WITH ancestors (id, name, mother_id, father_id, generation) "
+      + "AS (SELECT id, name, father_id, mother_id, 0 AS generation FROM " + TABLE_NAME
+      + " WHERE id = :id UNION ALL SELECT h.id, h.name, h.father_id, h.mother_id, a.generation + 1"
+      + " FROM ancestors a JOIN horse h ON h.id = a.father_id OR h.id = a.mother_id WHERE a.generation < :generations)"
+      + " SELECT DISTINCT id FROM ancestors)";
+  // like in HorseJdbcDao, the ID and the depth are inserted as numeric literals, because H2 mixes up parameters inside a WITH in a subquery
+  private static final String SQL_ANCESTORS_OF = " AND id IN (WITH ancestors_of (id, depth) AS ("
+      + "SELECT parent.id, 1 FROM " + TABLE_NAME + " child JOIN " + TABLE_NAME + " parent ON parent.id IN (child.father_id, child.mother_id)"
+      + " WHERE child.id = {id}"
+      + " UNION SELECT parent.id, a.depth + 1 FROM ancestors_of a JOIN " + TABLE_NAME + " child ON child.id = a.id"
+      + " JOIN " + TABLE_NAME + " parent ON parent.id IN (child.father_id, child.mother_id) WHERE a.depth < {maxDepth})"
+      + " SELECT id FROM ancestors_of)";
+  private static final String SQL_DESCENDANTS_OF = " AND id IN (WITH descendants_of (id, depth) AS ("
+      + "SELECT id, 1 FROM " + TABLE_NAME + " WHERE father_id = {id} OR mother_id = {id}"
+      + " UNION SELECT child.id, d.depth + 1 FROM descendants_of d JOIN " + TABLE_NAME + " child ON child.father_id = d.id OR child.mother_id = d.id"
+      + " WHERE d.depth < {maxDepth})"
+      + " SELECT id FROM descendants_of)";
+
+  private final DatabaseClient databaseClient;
+
+  public HorseR2dbcDao(DatabaseClient databaseClient) {
+    this.databaseClient = databaseClient;
+  }
+
+  @Override
+  public Mono<Horse> getById(long id) {
+    LOG.trace("getById({})", id);
+    return databaseClient.sql(SQL_SELECT_BY_ID)
+        .bind("id", id)
+        .map(HorseR2dbcDao::mapRow)
+        .one();
+  }
+
+  @Override
+  public Flux<Horse> getAllById(Collection<Long> ids) {
+    LOG.trace("getAllById({})", ids);
+    if (ids.isEmpty()) {
+      return Flux.empty();
+    }
+    return databaseClient.sql(SQL_SELECT_ALL_BY_ID)
+        .bind("ids", ids)
+        .map(HorseR2dbcDao::mapRow)
+        .all();
+  }
+
+  @Override
+  public Flux<Horse> search(HorseSearchDto searchFilter) {
+    LOG.trace("search({})", searchFilter);
+
+    var sql = new StringBuilder(SQL_SEARCH);
+    var params = new HashMap<String, Object>();
+    if (searchFilter.name() != null && !searchFilter.name().isEmpty()) {
+      sql.append(" AND LOWER(name) LIKE :name");
+      params.put("name", like(searchFilter.name()));
+    }
+    if (searchFilter.description() != null && !searchFilter.description().isEmpty()) {
+      sql.append(" AND LOWER(description) LIKE :description");
+      params.put("description", like(searchFilter.description()));
+    }
+    if (searchFilter.sex() != null) {
+      sql.append(" AND sex = :sex");
+      params.put("sex", searchFilter.sex().name());
+    }
+    if (searchFilter.bornBefore() != null) {
+      sql.append(" AND date_of_birth < :birth");
+      params.put("birth", searchFilter.bornBefore());
+    }
+    if (searchFilter.ownerName() != null && !searchFilter.ownerName().isEmpty()) {
+      sql.append(" AND owner_id IN (SELECT id FROM owner WHERE LOWER(first_name) LIKE :owner OR LOWER(last_name) LIKE :owner)");
+      params.put("owner", like(searchFilter.ownerName()));
+    }
+    var maxDepth = Integer.toString(searchFilter.maxDepth() == null ? Integer.MAX_VALUE : searchFilter.maxDepth());
+    if (searchFilter.ancestorOf() != null) {
+      sql.append(SQL_ANCESTORS_OF.replace("{id}", Long.toString(searchFilter.ancestorOf())).replace("{maxDepth}", maxDepth));
+    }
+    if (searchFilter.descendantOf() != null) {
+      sql.append(SQL_DESCENDANTS_OF.replace("{id}", Long.toString(searchFilter.descendantOf())).replace("{maxDepth}", maxDepth));
+    }
+    if ((searchFilter.ancestorOf() != null || searchFilter.descendantOf() != null) && searchFilter.maxDepth() != null && searchFilter.maxDepth() < 1) {
+      sql.append(" AND 1=0");
+    }
+    if (searchFilter.limit() != null) {
+      sql.append(" LIMIT :limit");
+      params.put("limit", searchFilter.limit());
+    }
+
+    var spec = databaseClient.sql(sql.toString());
+    for (var param : params.entrySet()) {
+      spec = spec.bind(param.getKey(), param.getValue());
+    }
+    return spec.map(HorseR2dbcDao::mapRow).all();
+  }
+
+  @Override
+  public Flux<Horse> getAncestors(long rootId, long generations) {
+    LOG.trace("getAncestors({},{})", rootId, generations);
+    return databaseClient.sql(SQL_GET_ANCESTORS)
+        .bind("id", rootId)
+        .bind("generations", generations)
+        .map(HorseR2dbcDao::mapRow)
+        .all();
+  }
+
+  private static String like(String value) {
+    return "%" + value.toLowerCase(Locale.ROOT) + "%";
+  }
+
+  private static Horse mapRow(Readable row) {
+    return new Horse()
+        .setId(row.get("id", Long.class))
+        .setName(row.get("name", String.class))
+        .setDescription(row.get("description", String.class))
+        .setDateOfBirth(row.get("date_of_birth", LocalDate.class))
+        .setSex(Sex.valueOf(row.get("sex", String.class)))
+        .setOwnerId(row.get("owner_id", Long.class))
+        .setFatherId(row.get("father_id", Long.class))
+        .setMotherId(row.get("mother_id", Long.class))
+        .setVersion(row.get("version", Long.class));
+  }
+}
@@ -0,0 +1,55 @@
+package at.ac.tuwien.sepm.assignment.individual.persistence.impl;
+
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseSearchDto;
+import at.ac.tuwien.sepm.assignment.individual.entity.Horse;
+import at.ac.tuwien.sepm.assignment.individual.persistence.HorseReactiveDao;
+import at.ac.tuwien.sepm.assignment.individual.persistence.impl.memory.MemoryStore;
+import java.lang.invoke.MethodHandles;
+import java.util.Collection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The non-blocking data access object for horses, backed by the {@link MemoryStore}.
+ * Reading the store never waits for I/O, so the results are just wrapped.
+ * This component is only created, if the profile {@code memory} is active.
+ */
+@Repository
+@Profile("memory")
+public class HorseReactiveMemoryDao implements HorseReactiveDao {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private final MemoryStore store;
+
+  public HorseReactiveMemoryDao(MemoryStore store) {
+    this.store = store;
+  }
+
+  @Override
+  public Mono<Horse> getById(long id) {
+    LOG.trace("getById({})", id);
+    return Mono.fromSupplier(() -> store.horse(id));
+  }
+
+  @Override
+  public Flux<Horse> getAllById(Collection<Long> ids) {
+    LOG.trace("getAllById({})", ids);
+    return Flux.fromIterable(ids).mapNotNull(store::horse);
+  }
+
+  @Override
+  public Flux<Horse> search(HorseSearchDto searchFilter) {
+    LOG.trace("search({})", searchFilter);
+    return Flux.defer(() -> Flux.fromIterable(store.searchHorses(searchFilter)));
+  }
+
+  @Override
+  public Flux<Horse> getAncestors(long rootId, long generations) {
+    LOG.trace("getAncestors({},{})", rootId, generations);
+    return Flux.defer(() -> Flux.fromIterable(store.ancestors(rootId, generations)));
+  }
+}
@@ -6,46 +6,73 @@ import at.ac.tuwien.sepm.assignment.individual.entity.Owner;
 import at.ac.tuwien.sepm.assignment.individual.exception.FatalException;
 import at.ac.tuwien.sepm.assignment.individual.exception.NotFoundException;
 import at.ac.tuwien.sepm.assignment.individual.persistence.OwnerDao;
+import at.ac.tuwien.sepm.assignment.individual.type.OwnerField;
 import java.lang.invoke.MethodHandles;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
+@Profile("!memory")
 public class OwnerJdbcDao implements OwnerDao {
   private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
   private static final String TABLE_NAME = "owner";
+  private static final String COLUMNS = "{columns}";
   private static final String SQL_SELECT_BY_ID = "SELECT * FROM " + TABLE_NAME + " WHERE id = ?";
   private static final String SQL_SELECT_BY_EMAIL = "SELECT * FROM " + TABLE_NAME + " WHERE email = ?";
   private static final String SQL_SELECT_ALL = "SELECT * FROM " + TABLE_NAME + " WHERE id IN (:ids)";
-  private static final String SQL_SELECT_SEARCH = "SELECT * FROM " + TABLE_NAME
+  private static final String SQL_SELECT_SEARCH = "SELECT " + COLUMNS + " FROM " + TABLE_NAME
       + " WHERE UPPER(first_name||' '||last_name) like UPPER('%'||COALESCE(?, '')||'%')";
   private static final String SQL_SELECT_SEARCH_LIMIT_CLAUSE = " LIMIT ?";
+  private static final String SQL_CHANGED_SINCE = "SELECT * FROM " + TABLE_NAME + " WHERE version > ? ORDER BY version LIMIT ?";
   private static final String SQL_CREATE = "INSERT INTO " + TABLE_NAME + " (first_name, last_name, email) VALUES (?, ?, ?)";
 
   private final JdbcTemplate jdbcTemplate;
   private final NamedParameterJdbcTemplate jdbcNamed;
+  private final ChangeVersionWatermark watermark;
+  private final RequestIdentityMap<Owner> identityMap = new RequestIdentityMap<>(TABLE_NAME);
 
-  public OwnerJdbcDao(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate jdbcNamed) {
+  /**
+   * Default DI constructor.
+   *
+   * @param jdbcTemplate the template to access the database with
+   * @param jdbcNamed the template to access the database with named parameters
+   * @param watermark the registry of the writes, that hold change versions and did not complete yet
+   */
+  public OwnerJdbcDao(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate jdbcNamed, ChangeVersionWatermark watermark) {
     this.jdbcTemplate = jdbcTemplate;
     this.jdbcNamed = jdbcNamed;
+    this.watermark = watermark;
   }
 
 
+  // only joins a surrounding transaction, so owners found in the identity map do not need a connection at all
   @Override
+  @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
   public Owner getById(long id) throws NotFoundException {
     LOG.trace("getById({})", id);
+    var known = identityMap.get(id);
+    if (known != null) {
+      return known;
+    }
     List<Owner> owners = jdbcTemplate.query(SQL_SELECT_BY_ID, this::mapRow, id);
     if (owners.isEmpty()) {
       throw new NotFoundException("Owner with ID %d not found".formatted(id));
@@ -54,30 +81,35 @@ public class OwnerJdbcDao implements OwnerDao {
       // If this happens, something is wrong with either the DB or the select
       throw new FatalException("Found more than one owner with ID %d".formatted(id));
     }
+    identityMap.put(id, owners.get(0));
     return owners.get(0);
   }
 
   @Override
+  @Transactional
   public Owner create(OwnerCreateDto newOwner) {
     LOG.trace("create({})", newOwner);
+    identityMap.clear();
+    watermark.enter(jdbcTemplate);
 
     GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
     jdbcTemplate.update(con -> {
-      PreparedStatement stmt = con.prepareStatement(SQL_CREATE, Statement.RETURN_GENERATED_KEYS);
+      PreparedStatement stmt = con.prepareStatement(SQL_CREATE, new String[] {"id", "version"});
       stmt.setString(1, newOwner.firstName());
       stmt.setString(2, newOwner.lastName());
       stmt.setString(3, newOwner.email());
       return stmt;
     }, keyHolder);
 
-    Number key = keyHolder.getKey();
-    if (key == null) {
+    var keys = keyHolder.getKeys();
+    if (keys == null || !(keys.get("id") instanceof Number key) || !(keys.get("version") instanceof Number version)) {
       // This should never happen. If it does, something is wrong with the DB or the way the prepared statement is set up.
       throw new FatalException("Could not extract key for newly created owner. There is probably a programming error…");
     }
 
     return new Owner()
         .setId(key.longValue())
+        .setVersion(version.longValue())
         .setFirstName(newOwner.firstName())
         .setLastName(newOwner.lastName())
         .setEmail(newOwner.email())
@@ -85,6 +117,7 @@ public class OwnerJdbcDao implements OwnerDao {
   }
 
   @Override
+  @Transactional(readOnly = true)
   public boolean emailExists(String email) {
     LOG.trace("getByEmail({})", email);
     List<Owner> owners = jdbcTemplate.query(SQL_SELECT_BY_EMAIL, this::mapRow, email);
@@ -99,16 +132,37 @@ public class OwnerJdbcDao implements OwnerDao {
   }
 
   @Override
+  @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
   public Collection<Owner> getAllById(Collection<Long> ids) {
     LOG.trace("getAllById({})", ids);
-    var statementParams = Collections.singletonMap("ids", ids);
-    return jdbcNamed.query(SQL_SELECT_ALL, statementParams, this::mapRow);
+    var owners = new ArrayList<Owner>(ids.size());
+    var missing = new ArrayList<Long>();
+    for (var id : new LinkedHashSet<>(ids)) {
+      var known = identityMap.get(id);
+      if (known != null) {
+        owners.add(known);
+      } else {
+        missing.add(id);
+      }
+    }
+    if (!missing.isEmpty()) {
+      var statementParams = Collections.singletonMap("ids", missing);
+      for (var owner : jdbcNamed.query(SQL_SELECT_ALL, statementParams, this::mapRow)) {
+        identityMap.put(owner.getId(), owner);
+        owners.add(owner);
+      }
+    }
+    return owners;
   }
 
   @Override
+  @Transactional(readOnly = true)
   public Collection<Owner> search(OwnerSearchDto searchParameters) {
     LOG.trace("search({})", searchParameters);
-    var query = SQL_SELECT_SEARCH;
+    var fields = searchParameters.fields() == null || searchParameters.fields().isEmpty()
+        ? EnumSet.allOf(OwnerField.class)
+        : EnumSet.copyOf(searchParameters.fields());
+    var query = SQL_SELECT_SEARCH.replace(COLUMNS, projection(fields));
     var params = new ArrayList<>();
     params.add(searchParameters.name());
     var maxAmount = searchParameters.maxAmount();
@@ -116,7 +170,42 @@ public class OwnerJdbcDao implements OwnerDao {
       query += SQL_SELECT_SEARCH_LIMIT_CLAUSE;
       params.add(maxAmount);
     }
-    return jdbcTemplate.query(query, this::mapRow, params.toArray());
+    return jdbcTemplate.query(query, (result, rownum) -> mapProjectedRow(result, fields), params.toArray());
+  }
+
+  private static String projection(Set<OwnerField> fields) {
+    return Stream.concat(Stream.of("id"), fields.stream().filter(field -> field != OwnerField.ID).map(OwnerJdbcDao::column))
+        .collect(Collectors.joining(", "));
+  }
+
+  private static String column(OwnerField field) {
+    return switch (field) {
+      case ID -> "id";
+      case FIRST_NAME -> "first_name";
+      case LAST_NAME -> "last_name";
+      case EMAIL -> "email";
+    };
+  }
+
+  private Owner mapProjectedRow(ResultSet resultSet, Set<OwnerField> fields) throws SQLException {
+    var owner = new Owner().setId(resultSet.getLong("id"));
+    for (var field : fields) {
+      switch (field) {
+        case ID -> { }
+        case FIRST_NAME -> owner.setFirstName(resultSet.getString("first_name"));
+        case LAST_NAME -> owner.setLastName(resultSet.getString("last_name"));
+        case EMAIL -> owner.setEmail(resultSet.getString("email"));
+        default -> throw new IllegalStateException("Unexpected field " + field);
+      }
+    }
+    return owner;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<Owner> getChangedSince(long version, int limit) {
+    LOG.trace("getChangedSince({}, {})", version, limit);
+    return jdbcTemplate.query(SQL_CHANGED_SINCE, this::mapRow, version, limit);
   }
 
   private Owner mapRow(ResultSet resultSet, int i) throws SQLException {
@@ -125,6 +214,7 @@ public class OwnerJdbcDao implements OwnerDao {
         .setFirstName(resultSet.getString("first_name"))
         .setLastName(resultSet.getString("last_name"))
         .setEmail(resultSet.getString("email"))
+        .setVersion(resultSet.getObject("version", Long.class))
         ;
   }
 }
@@ -0,0 +1,74 @@
+package at.ac.tuwien.sepm.assignment.individual.persistence.impl;
+
+import at.ac.tuwien.sepm.assignment.individual.dto.OwnerCreateDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.OwnerSearchDto;
+import at.ac.tuwien.sepm.assignment.individual.entity.Owner;
+import at.ac.tuwien.sepm.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepm.assignment.individual.persistence.OwnerDao;
+import at.ac.tuwien.sepm.assignment.individual.persistence.impl.memory.MemoryStore;
+import java.lang.invoke.MethodHandles;
+import java.util.Collection;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+/**
+ * The data access object for owners, backed by the {@link MemoryStore}.
+ * This component is only created, if the profile {@code memory} is active.
+ */
+@Repository
+@Profile("memory")
+public class OwnerMemoryDao implements OwnerDao {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private final MemoryStore store;
+
+  public OwnerMemoryDao(MemoryStore store) {
+    this.store = store;
+  }
+
+  @Override
+  public Owner getById(long id) throws NotFoundException {
+    LOG.trace("getById({})", id);
+    var owner = store.owner(id);
+    if (owner == null) {
+      throw new NotFoundException("Owner with ID %d not found".formatted(id));
+    }
+    return owner;
+  }
+
+  @Override
+  public Collection<Owner> getAllById(Collection<Long> ids) {
+    LOG.trace("getAllById({})", ids);
+    return store.owners(ids);
+  }
+
+  @Override
+  public Collection<Owner> search(OwnerSearchDto searchParameters) {
+    LOG.trace("search({})", searchParameters);
+    return store.searchOwners(searchParameters.name(), searchParameters.maxAmount());
+  }
+
+  @Override
+  public Owner create(OwnerCreateDto newOwner) {
+    LOG.trace("create({})", newOwner);
+    return store.createOwner(new Owner()
+        .setFirstName(newOwner.firstName())
+        .setLastName(newOwner.lastName())
+        .setEmail(newOwner.email()));
+  }
+
+  @Override
+  public boolean emailExists(String email) {
+    LOG.trace("emailExists({})", email);
+    return store.ownerEmailExists(email);
+  }
+
+  @Override
+  public List<Owner> getChangedSince(long version, int limit) {
+    LOG.trace("getChangedSince({}, {})", version, limit);
+    return store.ownersChangedSince(version, limit);
+  }
+}
@@ -0,0 +1,69 @@
+package at.ac.tuwien.sepm.assignment.individual.persistence.impl;
+
+import at.ac.tuwien.sepm.assignment.individual.dto.OwnerSearchDto;
+import at.ac.tuwien.sepm.assignment.individual.entity.Owner;
+import at.ac.tuwien.sepm.assignment.individual.persistence.OwnerReactiveDao;
+import io.r2dbc.spi.Readable;
+import java.lang.invoke.MethodHandles;
+import java.util.Collection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * The non-blocking data access object for owners, using R2DBC. The queries are the same as in {@link OwnerJdbcDao}.
+ */
+@Repository
+@Profile("!memory")
+public class OwnerR2dbcDao implements OwnerReactiveDao {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final String TABLE_NAME = "owner";
+  private static final String SQL_SELECT_ALL = "SELECT * FROM " + TABLE_NAME + " WHERE id IN (:ids)";
+  private static final String SQL_SELECT_SEARCH = "SELECT * FROM " + TABLE_NAME
+      + " WHERE UPPER(first_name||' '||last_name) like UPPER('%'||COALESCE(:name, '')||'%')";
+  private static final String SQL_SELECT_SEARCH_LIMIT_CLAUSE = " LIMIT :limit";
+
+  private final DatabaseClient databaseClient;
+
+  public OwnerR2dbcDao(DatabaseClient databaseClient) {
+    this.databaseClient = databaseClient;
+  }
+
+  @Override
+  public Flux<Owner> getAllById(Collection<Long> ids) {
+    LOG.trace("getAllById({})", ids);
+    if (ids.isEmpty()) {
+      return Flux.empty();
+    }
+    return databaseClient.sql(SQL_SELECT_ALL)
+        .bind("ids", ids)
+        .map(OwnerR2dbcDao::mapRow)
+        .all();
+  }
+
+  @Override
+  public Flux<Owner> search(OwnerSearchDto searchParameters) {
+    LOG.trace("search({})", searchParameters);
+    var maxAmount = searchParameters.maxAmount();
+    var spec = databaseClient.sql(maxAmount == null ? SQL_SELECT_SEARCH : SQL_SELECT_SEARCH + SQL_SELECT_SEARCH_LIMIT_CLAUSE);
+    spec = searchParameters.name() == null
+        ? spec.bindNull("name", String.class)
+        : spec.bind("name", searchParameters.name());
+    if (maxAmount != null) {
+      spec = spec.bind("limit", maxAmount);
+    }
+    return spec.map(OwnerR2dbcDao::mapRow).all();
+  }
+
+  private static Owner mapRow(Readable row) {
+    return new Owner()
+        .setId(row.get("id", Long.class))
+        .setFirstName(row.get("first_name", String.class))
+        .setLastName(row.get("last_name", String.class))
+        .setEmail(row.get("email", String.class))
+        .setVersion(row.get("version", Long.class));
+  }
+}
@@ -0,0 +1,41 @@
+package at.ac.tuwien.sepm.assignment.individual.persistence.impl;
+
+import at.ac.tuwien.sepm.assignment.individual.dto.OwnerSearchDto;
+import at.ac.tuwien.sepm.assignment.individual.entity.Owner;
+import at.ac.tuwien.sepm.assignment.individual.persistence.OwnerReactiveDao;
+import at.ac.tuwien.sepm.assignment.individual.persistence.impl.memory.MemoryStore;
+import java.lang.invoke.MethodHandles;
+import java.util.Collection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * The non-blocking data access object for owners, backed by the {@link MemoryStore}.
+ * This component is only created, if the profile {@code memory} is active.
+ */
+@Repository
+@Profile("memory")
+public class OwnerReactiveMemoryDao implements OwnerReactiveDao {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private final MemoryStore store;
+
+  public OwnerReactiveMemoryDao(MemoryStore store) {
+    this.store = store;
+  }
+
+  @Override
+  public Flux<Owner> getAllById(Collection<Long> ids) {
+    LOG.trace("getAllById({})", ids);
+    return Flux.defer(() -> Flux.fromIterable(store.owners(ids)));
+  }
+
+  @Override
+  public Flux<Owner> search(OwnerSearchDto searchParameters) {
+    LOG.trace("search({})", searchParameters);
+    return Flux.defer(() -> Flux.fromIterable(store.searchOwners(searchParameters.name(), searchParameters.maxAmount())));
+  }
+}
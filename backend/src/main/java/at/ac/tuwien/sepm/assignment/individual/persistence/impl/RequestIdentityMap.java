@@ -0,0 +1,78 @@
+package at.ac.tuwien.sepm.assignment.individual.persistence.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Identity map of the entities loaded while serving the current request.
+ * Looking up the same entity twice in one request returns the instance loaded first, without going back to the database.
+ * <p>
+ * The map is kept in the attributes of the request, outside of requests (e.g. during data generation) it is always empty.
+ * Only entities read outside of writing transactions are kept, so it never holds data, that might be rolled back.
+ * Writes clear the map of their entity type, as they may change other entities too (like the parents of deleted horses).
+ * </p>
+ *
+ * @param <T> the type of the entities
+ */
+class RequestIdentityMap<T> {
+  private final String attribute;
+
+  /**
+   * Create a new identity map.
+   *
+   * @param entity the name of the entity type, distinguishes the maps in the request attributes
+   */
+  RequestIdentityMap(String entity) {
+    this.attribute = RequestIdentityMap.class.getName() + "." + entity;
+  }
+
+  /**
+   * Get the entity with the given ID, if it was loaded before in this request.
+   *
+   * @return the entity or {@code null}
+   */
+  T get(long id) {
+    var entities = entities(false);
+    return entities == null ? null : entities.get(id);
+  }
+
+  /**
+   * Remember an entity just loaded from the database.
+   */
+  void put(long id, T entity) {
+    var writing = TransactionSynchronizationManager.isActualTransactionActive() && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    if (!writing) {
+      var entities = entities(true);
+      if (entities != null) {
+        entities.put(id, entity);
+      }
+    }
+  }
+
+  /**
+   * Forget all entities of this type, needed after every write.
+   */
+  void clear() {
+    var entities = entities(false);
+    if (entities != null) {
+      entities.clear();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<Long, T> entities(boolean create) {
+    var attributes = RequestContextHolder.getRequestAttributes();
+    if (attributes == null) {
+      return null;
+    }
+    var entities = (Map<Long, T>) attributes.getAttribute(attribute, RequestAttributes.SCOPE_REQUEST);
+    if (entities == null && create) {
+      entities = new HashMap<>();
+      attributes.setAttribute(attribute, entities, RequestAttributes.SCOPE_REQUEST);
+    }
+    return entities;
+  }
+}
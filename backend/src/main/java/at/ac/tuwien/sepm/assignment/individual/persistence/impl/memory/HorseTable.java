@@ -0,0 +1,697 @@
+package at.ac.tuwien.sepm.assignment.individual.persistence.impl.memory;
+
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseSearchDto;
+import at.ac.tuwien.sepm.assignment.individual.entity.Horse;
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseFacetCounts;
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseProgeny;
+import at.ac.tuwien.sepm.assignment.individual.entity.Tombstone;
+import at.ac.tuwien.sepm.assignment.individual.type.HorseRelation;
+import at.ac.tuwien.sepm.assignment.individual.type.Sex;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+import java.util.function.LongSupplier;
+
+/**
+ * Column oriented in-memory table of horses.
+ * <p>
+ * Every column is a primitive array (or a {@code String} array), indexed by the slot of the horse.
+ * Slots of deleted horses are reused for new ones.
+ * The primary key and the numbers of foals, male foals and grand-foals of every parent are kept in primitive hash indexes.
+ * Secondary indexes from parents to the slots of their children and from owners to the slots of their horses
+ *  let children, relatives, descendants and the horses of owners be found without scanning the table.
+ * The numbers of horses per sex, year of birth and owner are counted along with every change, for the facets of the registry.
+ * Deleted horses leave a tombstone, so clients syncing changes learn about the deletion.
+ * </p>
+ * This class is not thread safe, {@link MemoryStore} guards all access.
+ */
+final class HorseTable {
+  private static final long NULL = Long.MIN_VALUE;
+  private static final byte MALE = 0;
+  private static final byte FEMALE = 1;
+
+  private long[] ids;
+  private String[] names;
+  private String[] lowerNames;
+  private String[] descriptions;
+  private String[] lowerDescriptions;
+  private int[] birthDays;
+  private byte[] sexes;
+  private long[] ownerIds;
+  private long[] fatherIds;
+  private long[] motherIds;
+  private long[] versions;
+
+  private long[] tombstoneIds = new long[16];
+  private long[] tombstoneVersions = new long[16];
+  private int tombstoneCount;
+
+  private int highWater;
+  private int[] freeSlots = new int[16];
+  private int freeCount;
+  private long nextId = 1;
+
+  private final LongIntHashMap slotById;
+  private final LongIntHashMap childCountByParent;
+  private final LongIntHashMap maleChildCountByParent;
+  private final LongIntHashMap grandChildCountByGrandparent;
+  private final long[] countBySex = new long[2];
+  private final LongIntHashMap countByBirthYear;
+  private final LongIntHashMap countByOwner;
+  private final Map<Long, Set<Integer>> slotsByParent = new HashMap<>();
+  private final Map<Long, Set<Integer>> slotsByOwner = new HashMap<>();
+
+  HorseTable(int initialCapacity) {
+    allocate(Math.max(16, initialCapacity));
+    slotById = new LongIntHashMap(initialCapacity);
+    childCountByParent = new LongIntHashMap(initialCapacity / 2);
+    maleChildCountByParent = new LongIntHashMap(initialCapacity / 2);
+    grandChildCountByGrandparent = new LongIntHashMap(initialCapacity / 2);
+    countByBirthYear = new LongIntHashMap(64);
+    countByOwner = new LongIntHashMap(initialCapacity / 4);
+  }
+
+  int size() {
+    return slotById.size();
+  }
+
+  long nextId() {
+    return nextId++;
+  }
+
+  boolean contains(long id) {
+    return slotById.containsKey(id);
+  }
+
+  Horse get(long id) {
+    var slot = slotById.get(id, -1);
+    return slot < 0 ? null : toEntity(slot);
+  }
+
+  boolean hasChildren(long id) {
+    return childCountByParent.containsKey(id);
+  }
+
+  /**
+   * Insert the given horse, or replace the stored horse with the same ID.
+   */
+  void put(Horse horse) {
+    var slot = slotById.get(horse.getId(), -1);
+    if (slot < 0) {
+      slot = allocateSlot();
+      slotById.put(horse.getId(), slot);
+    } else {
+      countProgeny(slot, -1);
+      countFacets(slot, -1);
+      unindex(slot);
+    }
+
+    ids[slot] = horse.getId();
+    names[slot] = horse.getName();
+    lowerNames[slot] = lower(horse.getName());
+    descriptions[slot] = horse.getDescription();
+    lowerDescriptions[slot] = lower(horse.getDescription());
+    birthDays[slot] = (int) horse.getDateOfBirth().toEpochDay();
+    sexes[slot] = horse.getSex() == Sex.MALE ? MALE : FEMALE;
+    ownerIds[slot] = fromNullable(horse.getOwnerId());
+    fatherIds[slot] = fromNullable(horse.getFatherId());
+    motherIds[slot] = fromNullable(horse.getMotherId());
+    versions[slot] = horse.getVersion();
+    countProgeny(slot, 1);
+    countFacets(slot, 1);
+    index(slot);
+
+    if (horse.getId() >= nextId) {
+      nextId = horse.getId() + 1;
+    }
+  }
+
+  /**
+   * Delete the horse with the given ID and leave a tombstone.
+   * Like the foreign keys of the relational schema, references to it from its children are set to null.
+   * The children get new versions, in the order of their IDs, then the tombstone gets the next version.
+   *
+   * @param id the ID of the horse to delete
+   * @param nextVersion hands out the new versions
+   * @return true, if the horse existed
+   */
+  boolean delete(long id, LongSupplier nextVersion) {
+    var slot = slotById.get(id, -1);
+    if (slot < 0) {
+      return false;
+    }
+    countProgeny(slot, -1);
+    countFacets(slot, -1);
+    unindex(slot);
+
+    var childSlots = slotsByParent.remove(id);
+    if (childSlots != null) {
+      var children = new ArrayList<>(childSlots);
+      children.sort(Comparator.comparingLong(child -> ids[child]));
+      for (var child : children) {
+        if (fatherIds[child] == id) {
+          fatherIds[child] = NULL;
+        }
+        if (motherIds[child] == id) {
+          motherIds[child] = NULL;
+        }
+        versions[child] = nextVersion.getAsLong();
+      }
+    }
+    childCountByParent.remove(id);
+    maleChildCountByParent.remove(id);
+    grandChildCountByGrandparent.remove(id);
+    addTombstone(id, nextVersion.getAsLong());
+
+    slotById.remove(id);
+    ids[slot] = NULL;
+    names[slot] = null;
+    lowerNames[slot] = null;
+    descriptions[slot] = null;
+    lowerDescriptions[slot] = null;
+    if (freeCount == freeSlots.length) {
+      freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+    }
+    freeSlots[freeCount++] = slot;
+    return true;
+  }
+
+  /**
+   * Find all horses matching the filter, ordered by ID.
+   *
+   * @param filter the search parameters, with the same semantics as the relational implementation
+   * @param ownerFilter decides which owner IDs match {@code filter.ownerName()}, only used if that is set
+   * @return the matching horses, at most {@code filter.limit()}
+   */
+  List<Horse> search(HorseSearchDto filter, LongPredicate ownerFilter) {
+    var name = isSet(filter.name()) ? lower(filter.name()) : null;
+    var description = isSet(filter.description()) ? lower(filter.description()) : null;
+    var sex = filter.sex() == null ? -1 : filter.sex() == Sex.MALE ? MALE : FEMALE;
+    var bornBefore = filter.bornBefore() == null ? Integer.MAX_VALUE : filter.bornBefore().toEpochDay();
+    var filterOwner = isSet(filter.ownerName());
+    var maxDepth = filter.maxDepth() == null ? Integer.MAX_VALUE : filter.maxDepth();
+    var ancestors = filter.ancestorOf() == null ? null : ancestorIds(filter.ancestorOf(), maxDepth);
+    var descendants = filter.descendantOf() == null ? null : descendantIds(filter.descendantOf(), maxDepth);
+    // within a pedigree only its members are checked, other searches have to scan the whole table
+    var candidates = ancestors == null ? descendants
+        : descendants == null || ancestors.size() <= descendants.size() ? ancestors
+        : descendants;
+    var candidateSlots = candidates == null ? null : slotsOf(candidates);
+    var end = candidateSlots == null ? highWater : candidateSlots.length;
+
+    var matches = new ArrayList<Horse>();
+    for (int i = 0; i < end; i++) {
+      var slot = candidateSlots == null ? i : candidateSlots[i];
+      if (ids[slot] == NULL
+          || name != null && !lowerNames[slot].contains(name)
+          || description != null && (lowerDescriptions[slot] == null || !lowerDescriptions[slot].contains(description))
+          || sex >= 0 && sexes[slot] != sex
+          || birthDays[slot] >= bornBefore
+          || filterOwner && (ownerIds[slot] == NULL || !ownerFilter.test(ownerIds[slot]))
+          || ancestors != null && !ancestors.containsKey(ids[slot])
+          || descendants != null && !descendants.containsKey(ids[slot])) {
+        continue;
+      }
+      matches.add(toEntity(slot));
+    }
+    matches.sort(Comparator.comparing(Horse::getId));
+    if (filter.limit() != null && filter.limit() >= 0 && matches.size() > filter.limit()) {
+      return new ArrayList<>(matches.subList(0, filter.limit()));
+    }
+    return matches;
+  }
+
+  /**
+   * Count the horses matching the filter per sex, per year of birth and per owner.
+   * Without any filter criteria, the counters maintained with every change are read, instead of scanning all horses.
+   *
+   * @param filter the search parameters, {@code limit} and {@code fields} are ignored
+   * @param ownerFilter decides which owner IDs match {@code filter.ownerName()}, only used if that is set
+   * @param topOwners the number of owners with the most horses to count horses for
+   */
+  HorseFacetCounts facets(HorseSearchDto filter, LongPredicate ownerFilter, int topOwners) {
+    var bySex = new EnumMap<Sex, Long>(Sex.class);
+    var byBirthYear = new TreeMap<Integer, Long>();
+    var byOwner = new HashMap<Long, Long>();
+    if (filter.hasCriteria()) {
+      for (var horse : search(filter.withoutLimit(), ownerFilter)) {
+        bySex.merge(horse.getSex(), 1L, Long::sum);
+        byBirthYear.merge(horse.getDateOfBirth().getYear(), 1L, Long::sum);
+        if (horse.getOwnerId() != null) {
+          byOwner.merge(horse.getOwnerId(), 1L, Long::sum);
+        }
+      }
+    } else {
+      if (countBySex[MALE] > 0) {
+        bySex.put(Sex.MALE, countBySex[MALE]);
+      }
+      if (countBySex[FEMALE] > 0) {
+        bySex.put(Sex.FEMALE, countBySex[FEMALE]);
+      }
+      countByBirthYear.forEach((year, count) -> byBirthYear.put((int) year, (long) count));
+      countByOwner.forEach((ownerId, count) -> byOwner.put(ownerId, (long) count));
+    }
+
+    var topByOwner = new LinkedHashMap<Long, Long>();
+    byOwner.entrySet().stream()
+        .sorted(Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+        .limit(topOwners)
+        .forEach(entry -> topByOwner.put(entry.getKey(), entry.getValue()));
+    return new HorseFacetCounts()
+        .setBySex(bySex)
+        .setByBirthYear(byBirthYear)
+        .setByOwner(topByOwner);
+  }
+
+  /**
+   * Collect the IDs of the ancestors of the horse with ID {@code id}, at most {@code maxDepth} generations back.
+   * The parents are looked up by their slots, so every generation costs as much as the size of the previous one.
+   */
+  private LongIntHashMap ancestorIds(long id, int maxDepth) {
+    var result = new LongIntHashMap(16);
+    var current = new long[] {id};
+    for (int depth = 1; depth <= maxDepth && current.length > 0; depth++) {
+      var next = new long[current.length * 2];
+      var nextCount = 0;
+      for (var childId : current) {
+        var slot = slotById.get(childId, -1);
+        if (slot < 0) {
+          continue;
+        }
+        for (var parentId : new long[] {fatherIds[slot], motherIds[slot]}) {
+          if (parentId != NULL && !result.containsKey(parentId)) {
+            result.put(parentId, depth);
+            next[nextCount++] = parentId;
+          }
+        }
+      }
+      current = Arrays.copyOf(next, nextCount);
+    }
+    return result;
+  }
+
+  /**
+   * Collect the IDs of the descendants of the horse with ID {@code id}, at most {@code maxDepth} generations down.
+   * The children are looked up in the parent index, so every generation costs as much as the size of the next one.
+   */
+  private LongIntHashMap descendantIds(long id, int maxDepth) {
+    var result = new LongIntHashMap(16);
+    var current = new long[] {id};
+    for (int depth = 1; depth <= maxDepth && current.length > 0; depth++) {
+      var next = new long[16];
+      var nextCount = 0;
+      for (var parentId : current) {
+        for (var child : slotsByParent.getOrDefault(parentId, Set.of())) {
+          if (!result.containsKey(ids[child])) {
+            result.put(ids[child], depth);
+            if (nextCount == next.length) {
+              next = Arrays.copyOf(next, nextCount * 2);
+            }
+            next[nextCount++] = ids[child];
+          }
+        }
+      }
+      current = Arrays.copyOf(next, nextCount);
+    }
+    return result;
+  }
+
+  /**
+   * Get the horses, whose father or mother is one of the given horses, from the parent index.
+   */
+  List<Horse> childrenOf(Set<Long> parentIds) {
+    return indexed(slotsByParent, parentIds.stream().mapToLong(Long::longValue).toArray(), -1);
+  }
+
+  /**
+   * Get the horses owned by one of the given owners, from the owner index.
+   */
+  List<Horse> ownedBy(Set<Long> owners) {
+    return indexed(slotsByOwner, owners.stream().mapToLong(Long::longValue).toArray(), -1);
+  }
+
+  /**
+   * Collect the relatives of the horse with the given ID, all found through the indexes.
+   *
+   * @return the related horses by relation, every requested relation is contained, empty if the horse does not exist
+   */
+  Map<HorseRelation, List<Horse>> relatives(long id, Set<HorseRelation> relations) {
+    var relatives = new EnumMap<HorseRelation, List<Horse>>(HorseRelation.class);
+    relations.forEach(relation -> relatives.put(relation, new ArrayList<>()));
+    var slot = slotById.get(id, -1);
+    if (slot < 0) {
+      return relatives;
+    }
+    var father = fatherIds[slot];
+    var mother = motherIds[slot];
+    var owner = ownerIds[slot];
+
+    if (relations.contains(HorseRelation.GRANDPARENTS)) {
+      for (var parent : new long[] {father, mother}) {
+        var parentSlot = parent == NULL ? -1 : slotById.get(parent, -1);
+        if (parentSlot >= 0) {
+          for (var grandparent : new long[] {fatherIds[parentSlot], motherIds[parentSlot]}) {
+            var grandparentSlot = grandparent == NULL ? -1 : slotById.get(grandparent, -1);
+            if (grandparentSlot >= 0) {
+              relatives.get(HorseRelation.GRANDPARENTS).add(toEntity(grandparentSlot));
+            }
+          }
+        }
+      }
+    }
+
+    if (relations.contains(HorseRelation.CHILDREN)) {
+      relatives.get(HorseRelation.CHILDREN).addAll(indexed(slotsByParent, new long[] {id}, slot));
+    }
+    if (relations.contains(HorseRelation.SIBLINGS)) {
+      relatives.get(HorseRelation.SIBLINGS).addAll(indexed(slotsByParent, new long[] {father, mother}, slot));
+    }
+    if (relations.contains(HorseRelation.OWNER_HORSES)) {
+      relatives.get(HorseRelation.OWNER_HORSES).addAll(indexed(slotsByOwner, new long[] {owner}, slot));
+    }
+    return relatives;
+  }
+
+  /**
+   * Get the numbers of offspring of the horse with the given ID, or null if it does not exist.
+   */
+  HorseProgeny progeny(long id) {
+    var slot = slotById.get(id, -1);
+    return slot < 0 ? null : toProgeny(slot);
+  }
+
+  /**
+   * Get the male horses with the most foals, ties broken by the number of grand-foals and then by ID.
+   */
+  List<HorseProgeny> topSires(int limit) {
+    var sires = new ArrayList<HorseProgeny>();
+    childCountByParent.forEach((parentId, foals) -> {
+      var slot = slotById.get(parentId, -1);
+      if (slot >= 0 && sexes[slot] == MALE) {
+        sires.add(toProgeny(slot));
+      }
+    });
+    return sires.stream()
+        .sorted(Comparator.comparingLong(HorseProgeny::getFoals).reversed()
+            .thenComparing(Comparator.comparingLong(HorseProgeny::getGrandFoals).reversed())
+            .thenComparingLong(HorseProgeny::getHorseId))
+        .limit(limit)
+        .toList();
+  }
+
+  /**
+   * Collect the horse with ID {@code rootId} and all its ancestors up to {@code generations} generations.
+   */
+  List<Horse> ancestors(long rootId, long generations) {
+    var result = new ArrayList<Horse>();
+    var visited = new LongIntHashMap(16);
+    var current = new long[] {rootId};
+    for (long generation = 0; generation <= generations && current.length > 0; generation++) {
+      var next = new long[current.length * 2];
+      var nextCount = 0;
+      for (var id : current) {
+        var slot = slotById.get(id, -1);
+        if (slot < 0 || visited.containsKey(id)) {
+          continue;
+        }
+        visited.put(id, slot);
+        result.add(toEntity(slot));
+        if (fatherIds[slot] != NULL) {
+          next[nextCount++] = fatherIds[slot];
+        }
+        if (motherIds[slot] != NULL) {
+          next[nextCount++] = motherIds[slot];
+        }
+      }
+      current = Arrays.copyOf(next, nextCount);
+    }
+    return result;
+  }
+
+  /**
+   * Find all horses with a version higher than {@code version}, ordered by version.
+   */
+  List<Horse> changedSince(long version, int limit) {
+    var changed = new ArrayList<Integer>();
+    for (int slot = 0; slot < highWater; slot++) {
+      if (ids[slot] != NULL && versions[slot] > version) {
+        changed.add(slot);
+      }
+    }
+    changed.sort(Comparator.comparingLong(slot -> versions[slot]));
+    return changed.stream().limit(limit).map(this::toEntity).toList();
+  }
+
+  /**
+   * Find all tombstones with a version higher than {@code version}, ordered by version.
+   */
+  List<Tombstone> deletedSince(long version, int limit) {
+    // tombstones are appended in version order
+    var from = 0;
+    while (from < tombstoneCount && tombstoneVersions[from] <= version) {
+      from++;
+    }
+    var result = new ArrayList<Tombstone>();
+    for (int i = from; i < tombstoneCount && result.size() < limit; i++) {
+      result.add(new Tombstone().setId(tombstoneIds[i]).setVersion(tombstoneVersions[i]));
+    }
+    return result;
+  }
+
+  void addTombstone(long id, long version) {
+    if (tombstoneCount == tombstoneIds.length) {
+      tombstoneIds = Arrays.copyOf(tombstoneIds, tombstoneCount * 2);
+      tombstoneVersions = Arrays.copyOf(tombstoneVersions, tombstoneCount * 2);
+    }
+    tombstoneIds[tombstoneCount] = id;
+    tombstoneVersions[tombstoneCount] = version;
+    tombstoneCount++;
+  }
+
+  void forEachTombstone(Consumer<Tombstone> action) {
+    for (int i = 0; i < tombstoneCount; i++) {
+      action.accept(new Tombstone().setId(tombstoneIds[i]).setVersion(tombstoneVersions[i]));
+    }
+  }
+
+  int tombstoneCount() {
+    return tombstoneCount;
+  }
+
+  void forEach(Consumer<Horse> action) {
+    for (int slot = 0; slot < highWater; slot++) {
+      if (ids[slot] != NULL) {
+        action.accept(toEntity(slot));
+      }
+    }
+  }
+
+  void clear() {
+    Arrays.fill(ids, 0, highWater, NULL);
+    Arrays.fill(names, null);
+    Arrays.fill(lowerNames, null);
+    Arrays.fill(descriptions, null);
+    Arrays.fill(lowerDescriptions, null);
+    highWater = 0;
+    freeCount = 0;
+    tombstoneCount = 0;
+    nextId = 1;
+    slotById.clear();
+    childCountByParent.clear();
+    maleChildCountByParent.clear();
+    grandChildCountByGrandparent.clear();
+    Arrays.fill(countBySex, 0);
+    countByBirthYear.clear();
+    countByOwner.clear();
+    slotsByParent.clear();
+    slotsByOwner.clear();
+  }
+
+  private Horse toEntity(int slot) {
+    return new Horse()
+        .setId(ids[slot])
+        .setName(names[slot])
+        .setDescription(descriptions[slot])
+        .setDateOfBirth(LocalDate.ofEpochDay(birthDays[slot]))
+        .setSex(sexes[slot] == MALE ? Sex.MALE : Sex.FEMALE)
+        .setOwnerId(toNullable(ownerIds[slot]))
+        .setFatherId(toNullable(fatherIds[slot]))
+        .setMotherId(toNullable(motherIds[slot]))
+        .setVersion(versions[slot]);
+  }
+
+  private HorseProgeny toProgeny(int slot) {
+    var foals = childCountByParent.get(ids[slot], 0);
+    var maleFoals = maleChildCountByParent.get(ids[slot], 0);
+    return new HorseProgeny()
+        .setHorseId(ids[slot])
+        .setHorseName(names[slot])
+        .setFoals(foals)
+        .setMaleFoals(maleFoals)
+        .setFemaleFoals(foals - maleFoals)
+        .setGrandFoals(grandChildCountByGrandparent.get(ids[slot], 0));
+  }
+
+  /**
+   * Add {@code delta} to the progeny counters of the parents and grandparents of the horse in the slot.
+   * The parents gain the horse as foal and its foals as grand-foals, the grandparents gain the horse as grand-foal.
+   * Grandparents are only found, if the parent is already stored;
+   *  otherwise the parent brings the horse along as grand-foal of its parents, once it is stored.
+   */
+  private void countProgeny(int slot, int delta) {
+    var foals = childCountByParent.get(ids[slot], 0);
+    for (var parentId : new long[] {fatherIds[slot], motherIds[slot]}) {
+      if (parentId == NULL) {
+        continue;
+      }
+      childCountByParent.add(parentId, delta);
+      if (sexes[slot] == MALE) {
+        maleChildCountByParent.add(parentId, delta);
+      }
+      grandChildCountByGrandparent.add(parentId, delta * foals);
+      var parentSlot = slotById.get(parentId, -1);
+      if (parentSlot >= 0) {
+        countGrandChild(fatherIds[parentSlot], delta);
+        countGrandChild(motherIds[parentSlot], delta);
+      }
+    }
+  }
+
+  private void countGrandChild(long grandparentId, int delta) {
+    if (grandparentId != NULL) {
+      grandChildCountByGrandparent.add(grandparentId, delta);
+    }
+  }
+
+  private void countFacets(int slot, int delta) {
+    countBySex[sexes[slot]] += delta;
+    countByBirthYear.add(LocalDate.ofEpochDay(birthDays[slot]).getYear(), delta);
+    if (ownerIds[slot] != NULL) {
+      countByOwner.add(ownerIds[slot], delta);
+    }
+  }
+
+  /**
+   * Get the horses in the slots indexed under any of the given keys, ordered by slot, leaving out {@code excludedSlot}.
+   */
+  private List<Horse> indexed(Map<Long, Set<Integer>> index, long[] keys, int excludedSlot) {
+    var slots = new TreeSet<Integer>();
+    for (var key : keys) {
+      if (key != NULL) {
+        slots.addAll(index.getOrDefault(key, Set.of()));
+      }
+    }
+    slots.remove(excludedSlot);
+    return slots.stream().map(this::toEntity).toList();
+  }
+
+  private int[] slotsOf(LongIntHashMap horseIds) {
+    var slots = new int[horseIds.size()];
+    var count = new int[1];
+    horseIds.forEach((id, value) -> {
+      var slot = slotById.get(id, -1);
+      if (slot >= 0) {
+        slots[count[0]++] = slot;
+      }
+    });
+    return Arrays.copyOf(slots, count[0]);
+  }
+
+  private void index(int slot) {
+    addToIndex(slotsByParent, fatherIds[slot], slot);
+    addToIndex(slotsByParent, motherIds[slot], slot);
+    addToIndex(slotsByOwner, ownerIds[slot], slot);
+  }
+
+  private void unindex(int slot) {
+    removeFromIndex(slotsByParent, fatherIds[slot], slot);
+    removeFromIndex(slotsByParent, motherIds[slot], slot);
+    removeFromIndex(slotsByOwner, ownerIds[slot], slot);
+  }
+
+  private static void addToIndex(Map<Long, Set<Integer>> index, long key, int slot) {
+    if (key != NULL) {
+      index.computeIfAbsent(key, k -> new HashSet<>()).add(slot);
+    }
+  }
+
+  private static void removeFromIndex(Map<Long, Set<Integer>> index, long key, int slot) {
+    var slots = key == NULL ? null : index.get(key);
+    if (slots != null) {
+      slots.remove(slot);
+      if (slots.isEmpty()) {
+        index.remove(key);
+      }
+    }
+  }
+
+  private int allocateSlot() {
+    if (freeCount > 0) {
+      return freeSlots[--freeCount];
+    }
+    if (highWater == ids.length) {
+      grow(ids.length * 2);
+    }
+    return highWater++;
+  }
+
+  private void allocate(int capacity) {
+    ids = new long[capacity];
+    Arrays.fill(ids, NULL);
+    names = new String[capacity];
+    lowerNames = new String[capacity];
+    descriptions = new String[capacity];
+    lowerDescriptions = new String[capacity];
+    birthDays = new int[capacity];
+    sexes = new byte[capacity];
+    ownerIds = new long[capacity];
+    fatherIds = new long[capacity];
+    motherIds = new long[capacity];
+    versions = new long[capacity];
+  }
+
+  private void grow(int capacity) {
+    var oldLength = ids.length;
+    ids = Arrays.copyOf(ids, capacity);
+    Arrays.fill(ids, oldLength, capacity, NULL);
+    names = Arrays.copyOf(names, capacity);
+    lowerNames = Arrays.copyOf(lowerNames, capacity);
+    descriptions = Arrays.copyOf(descriptions, capacity);
+    lowerDescriptions = Arrays.copyOf(lowerDescriptions, capacity);
+    birthDays = Arrays.copyOf(birthDays, capacity);
+    sexes = Arrays.copyOf(sexes, capacity);
+    ownerIds = Arrays.copyOf(ownerIds, capacity);
+    fatherIds = Arrays.copyOf(fatherIds, capacity);
+    motherIds = Arrays.copyOf(motherIds, capacity);
+    versions = Arrays.copyOf(versions, capacity);
+  }
+
+  private static boolean isSet(String value) {
+    return value != null && !value.isEmpty();
+  }
+
+  private static String lower(String value) {
+    return value == null ? null : value.toLowerCase(Locale.ROOT);
+  }
+
+  private static long fromNullable(Long value) {
+    return value == null ? NULL : value;
+  }
+
+  private static Long toNullable(long value) {
+    return value == NULL ? null : value;
+  }
+}
@@ -0,0 +1,146 @@
+package at.ac.tuwien.sepm.assignment.individual.persistence.impl.memory;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from {@code long} keys to {@code int} values without boxing.
+ * Uses open addressing with linear probing and backward shift deletion.
+ * {@link Long#MIN_VALUE} is reserved and can not be used as key.
+ * This class is not thread safe.
+ */
+final class LongIntHashMap {
+  private static final long EMPTY = Long.MIN_VALUE;
+  private static final double MAX_LOAD = 0.6;
+
+  private long[] keys;
+  private int[] values;
+  private int size;
+  private int mask;
+
+  LongIntHashMap(int expectedSize) {
+    var capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / MAX_LOAD)) * 2 - 1);
+    allocate(capacity);
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean containsKey(long key) {
+    return indexOf(key) >= 0;
+  }
+
+  int get(long key, int missingValue) {
+    var index = indexOf(key);
+    return index < 0 ? missingValue : values[index];
+  }
+
+  void put(long key, int value) {
+    if (key == EMPTY) {
+      throw new IllegalArgumentException("Key %d is reserved".formatted(key));
+    }
+    var index = slot(key);
+    while (keys[index] != EMPTY) {
+      if (keys[index] == key) {
+        values[index] = value;
+        return;
+      }
+      index = (index + 1) & mask;
+    }
+    keys[index] = key;
+    values[index] = value;
+    if (++size > keys.length * MAX_LOAD) {
+      rehash(keys.length * 2);
+    }
+  }
+
+  /**
+   * Add {@code delta} to the value stored for {@code key}, treating a missing key as 0.
+   * If the result is 0, the key is removed.
+   */
+  void add(long key, int delta) {
+    var value = get(key, 0) + delta;
+    if (value == 0) {
+      remove(key);
+    } else {
+      put(key, value);
+    }
+  }
+
+  void remove(long key) {
+    var index = indexOf(key);
+    if (index < 0) {
+      return;
+    }
+    size--;
+    // shift following entries of the same probe sequence back, so lookups never stop at the hole
+    var hole = index;
+    var next = (hole + 1) & mask;
+    while (keys[next] != EMPTY) {
+      var home = slot(keys[next]);
+      if (((next - home) & mask) >= ((next - hole) & mask)) {
+        keys[hole] = keys[next];
+        values[hole] = values[next];
+        hole = next;
+      }
+      next = (next + 1) & mask;
+    }
+    keys[hole] = EMPTY;
+  }
+
+  void forEach(EntryConsumer action) {
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != EMPTY) {
+        action.accept(keys[i], values[i]);
+      }
+    }
+  }
+
+  void clear() {
+    Arrays.fill(keys, EMPTY);
+    size = 0;
+  }
+
+  private int indexOf(long key) {
+    var index = slot(key);
+    while (keys[index] != EMPTY) {
+      if (keys[index] == key) {
+        return index;
+      }
+      index = (index + 1) & mask;
+    }
+    return -1;
+  }
+
+  private int slot(long key) {
+    var hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32)) & mask;
+  }
+
+  private void rehash(int capacity) {
+    var oldKeys = keys;
+    var oldValues = values;
+    allocate(capacity);
+    size = 0;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != EMPTY) {
+        put(oldKeys[i], oldValues[i]);
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = new int[capacity];
+    mask = capacity - 1;
+    Arrays.fill(keys, EMPTY);
+  }
+
+  /**
+   * Receives the entries of the map, without boxing them.
+   */
+  @FunctionalInterface
+  interface EntryConsumer {
+    void accept(long key, int value);
+  }
+}
@@ -0,0 +1,683 @@
+package at.ac.tuwien.sepm.assignment.individual.persistence.impl.memory;
+
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseSearchDto;
+import at.ac.tuwien.sepm.assignment.individual.entity.Horse;
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseCard;
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseFacetCounts;
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseProgeny;
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseWriteContext;
+import at.ac.tuwien.sepm.assignment.individual.entity.Owner;
+import at.ac.tuwien.sepm.assignment.individual.entity.Tombstone;
+import at.ac.tuwien.sepm.assignment.individual.exception.FatalException;
+import at.ac.tuwien.sepm.assignment.individual.persistence.DataGeneratorBean;
+import at.ac.tuwien.sepm.assignment.individual.type.HorseRelation;
+import at.ac.tuwien.sepm.assignment.individual.type.Sex;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps all horses and owners in memory, in column oriented tables with primitive indexes.
+ * <p>
+ * Durability comes from a write-ahead log: every change is appended to the log before it is applied in memory.
+ * Every {@code wendy.memory.snapshot-every} changes, and on shutdown, the whole state is written to a snapshot
+ *  and the log is truncated. On startup the latest snapshot is loaded and the log is replayed on top of it.
+ * If {@code wendy.memory.data-dir} is empty, nothing is persisted.
+ * </p>
+ * <p>
+ * All tables are guarded by one global read-write lock: reads run concurrently, but every write excludes all reads and other writes,
+ *  so writes do not scale with more threads.
+ * </p>
+ * <p>
+ * Like the rows of the relational schema, every change gives the changed horse or owner a new, increasing version,
+ *  and deleted horses leave a tombstone. Versions are assigned deterministically, so replaying the log reproduces them.
+ * </p>
+ * <p>
+ * If the store is empty after recovery, it is filled once from the relational database,
+ *  so existing data (and the data of the {@code datagen} profile) is taken over.
+ * </p>
+ * This component is only created, if the profile {@code memory} is active.
+ * It is never initialized lazily, so recovery happens during startup and not in the first request.
+ */
+@Component
+@Profile("memory")
+@Lazy(false)
+public class MemoryStore {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final int SNAPSHOT_MAGIC = 0x57454e44;
+  private static final int SNAPSHOT_VERSION = 2;
+  private static final String SNAPSHOT_FILE = "snapshot.bin";
+  private static final String LOG_FILE = "wal.log";
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final HorseTable horses = new HorseTable(1024);
+  private final OwnerTable owners = new OwnerTable(256);
+  private long version;
+
+  private final Path dataDir;
+  private final long snapshotEvery;
+  private final boolean fsync;
+  private final JdbcTemplate jdbcTemplate;
+  private WriteAheadLog log;
+
+  /**
+   * Create the store. The data is loaded in {@link #recover()}.
+   *
+   * @param dataDir the directory of the snapshot and the write-ahead log, or empty to keep the data in memory only
+   * @param snapshotEvery number of logged changes, after which a new snapshot is taken
+   * @param fsync whether every change is forced to disk before it is acknowledged
+   * @param jdbcTemplate access to the relational database, to take over its data when the store is empty
+   * @param dataGenerator generates the test data before it is taken over, even if it is configured to do that in the background
+   */
+  public MemoryStore(
+      @Value("${wendy.memory.data-dir:}") String dataDir,
+      @Value("${wendy.memory.snapshot-every:10000}") long snapshotEvery,
+      @Value("${wendy.memory.fsync:true}") boolean fsync,
+      JdbcTemplate jdbcTemplate,
+      ObjectProvider<DataGeneratorBean> dataGenerator) {
+    this.dataDir = dataDir.isBlank() ? null : Path.of(dataDir);
+    this.snapshotEvery = snapshotEvery;
+    this.fsync = fsync;
+    this.jdbcTemplate = jdbcTemplate;
+    dataGenerator.ifAvailable(generator -> {
+      try {
+        generator.generateData();
+      } catch (SQLException e) {
+        throw new FatalException("Could not generate test data for the memory store", e);
+      }
+    });
+  }
+
+  /**
+   * Load the latest snapshot and replay the write-ahead log.
+   */
+  @PostConstruct
+  public void recover() throws IOException {
+    var start = System.nanoTime();
+    if (dataDir != null) {
+      Files.createDirectories(dataDir);
+      var snapshot = dataDir.resolve(SNAPSHOT_FILE);
+      if (Files.exists(snapshot)) {
+        loadSnapshot(snapshot);
+      }
+      log = new WriteAheadLog(dataDir.resolve(LOG_FILE), fsync);
+      var replayed = log.replay(this::applyRecord);
+      LOG.info("Replayed {} write-ahead log records", replayed);
+    }
+
+    if (horses.size() == 0 && owners.size() == 0) {
+      importFromDatabase();
+      if (log != null) {
+        snapshot();
+      }
+    }
+    LOG.info("Memory store ready with {} horses and {} owners after {}ms",
+        horses.size(), owners.size(), (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * Write a final snapshot, so the next start does not have to replay the log.
+   */
+  @PreDestroy
+  public void close() throws IOException {
+    if (log == null) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      snapshot();
+      log.close();
+      log = null;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Get all stored horses.
+   */
+  public List<Horse> allHorses() {
+    return read(() -> horses.search(new HorseSearchDto(null, null, null, null, null, null, null, null, null, null), id -> true));
+  }
+
+  /**
+   * Get the horse with the given ID, or null if it does not exist.
+   */
+  public Horse horse(long id) {
+    return read(() -> horses.get(id));
+  }
+
+  /**
+   * Get the horses matching {@code filter}, the owner name is matched against the owner table under the same lock.
+   */
+  public List<Horse> searchHorses(HorseSearchDto filter) {
+    return read(() -> horses.search(filter, filter.ownerName() == null || filter.ownerName().isEmpty()
+        ? id -> true
+        : owners.nameFilter(filter.ownerName())));
+  }
+
+  /**
+   * Count the horses matching {@code filter} by sex, birth year and owner, keeping the {@code topOwners} owners with the most horses.
+   */
+  public HorseFacetCounts horseFacets(HorseSearchDto filter, int topOwners) {
+    return read(() -> horses.facets(filter, filter.ownerName() == null || filter.ownerName().isEmpty()
+        ? id -> true
+        : owners.nameFilter(filter.ownerName()), topOwners));
+  }
+
+  /**
+   * Look up the horse, its parents, the owners of all of them and whether the horse has children, under one lock.
+   */
+  public HorseWriteContext horseWriteContext(Long horseId, Long fatherId, Long motherId, Long ownerId) {
+    return read(() -> {
+      var context = new HorseWriteContext()
+          .setHorse(horseId == null ? null : horses.get(horseId))
+          .setFather(fatherId == null ? null : horses.get(fatherId))
+          .setMother(motherId == null ? null : horses.get(motherId))
+          .setHasChildren(horseId != null && horses.hasChildren(horseId));
+      var ownerMap = new HashMap<Long, Owner>();
+      for (var id : Arrays.asList(ownerId,
+          context.getFather() == null ? null : context.getFather().getOwnerId(),
+          context.getMother() == null ? null : context.getMother().getOwnerId())) {
+        var owner = id == null ? null : owners.get(id);
+        if (owner != null) {
+          ownerMap.put(id, owner);
+        }
+      }
+      return context.setOwners(ownerMap);
+    });
+  }
+
+  /**
+   * Look up the horse, its parents and the owners of all of them under one lock, or null if the horse does not exist.
+   */
+  public HorseCard horseCard(long id) {
+    return read(() -> {
+      var horse = horses.get(id);
+      if (horse == null) {
+        return null;
+      }
+      var card = new HorseCard()
+          .setHorse(horse)
+          .setFather(horse.getFatherId() == null ? null : horses.get(horse.getFatherId()))
+          .setMother(horse.getMotherId() == null ? null : horses.get(horse.getMotherId()));
+      var ownerMap = new HashMap<Long, Owner>();
+      for (var member : Arrays.asList(card.getHorse(), card.getFather(), card.getMother())) {
+        var owner = member == null || member.getOwnerId() == null ? null : owners.get(member.getOwnerId());
+        if (owner != null) {
+          ownerMap.put(owner.getId(), owner);
+        }
+      }
+      return card.setOwners(ownerMap);
+    });
+  }
+
+  /**
+   * Get the number of stored horses.
+   */
+  public int horseCount() {
+    return read(horses::size);
+  }
+
+  /**
+   * Get the children of all of the given horses.
+   */
+  public List<Horse> horseChildren(Collection<Long> parentIds) {
+    var parents = Set.copyOf(parentIds);
+    return read(() -> horses.childrenOf(parents));
+  }
+
+  /**
+   * Get the horses owned by any of the given owners.
+   */
+  public List<Horse> horsesOfOwners(Collection<Long> ownerIds) {
+    var owners = Set.copyOf(ownerIds);
+    return read(() -> horses.ownedBy(owners));
+  }
+
+  /**
+   * Get the requested relatives of the horse with the given ID, by relation.
+   */
+  public Map<HorseRelation, List<Horse>> horseRelatives(long id, Set<HorseRelation> relations) {
+    return read(() -> horses.relatives(id, relations));
+  }
+
+  /**
+   * Get the progeny counters of the horse with the given ID, or null if it does not exist.
+   */
+  public HorseProgeny horseProgeny(long id) {
+    return read(() -> horses.progeny(id));
+  }
+
+  /**
+   * Get the {@code limit} sires with the most foals, best first.
+   */
+  public List<HorseProgeny> topSires(int limit) {
+    return read(() -> horses.topSires(limit));
+  }
+
+  /**
+   * Get the horse with the given ID and its ancestors up to the given number of generations.
+   */
+  public List<Horse> ancestors(long rootId, long generations) {
+    return read(() -> horses.ancestors(rootId, generations));
+  }
+
+  /**
+   * Get at most {@code limit} horses changed after {@code version}, ordered by version.
+   */
+  public List<Horse> horsesChangedSince(long version, int limit) {
+    return read(() -> horses.changedSince(version, limit));
+  }
+
+  /**
+   * Get at most {@code limit} horses deleted after {@code version}, ordered by version.
+   */
+  public List<Tombstone> horsesDeletedSince(long version, int limit) {
+    return read(() -> horses.deletedSince(version, limit));
+  }
+
+  /**
+   * Get the version of the latest change. Changes are versioned and applied under the write lock, so all of them are visible.
+   */
+  public long currentVersion() {
+    return read(() -> version);
+  }
+
+  /**
+   * Store a new horse. The ID of {@code horse} is ignored and a new one is assigned.
+   *
+   * @return the stored horse with its new ID
+   */
+  public Horse createHorse(Horse horse) {
+    return write(() -> {
+      horse.setId(horses.nextId()).setVersion(++version);
+      logChange(StoreCodec.PUT_HORSE, out -> StoreCodec.writeHorse(out, horse));
+      horses.put(horse);
+      return horse;
+    });
+  }
+
+  /**
+   * Replace the stored horse with the same ID as {@code horse}.
+   *
+   * @return true, if the horse existed
+   */
+  public boolean updateHorse(Horse horse) {
+    return write(() -> {
+      if (!horses.contains(horse.getId())) {
+        return false;
+      }
+      horse.setVersion(++version);
+      logChange(StoreCodec.PUT_HORSE, out -> StoreCodec.writeHorse(out, horse));
+      horses.put(horse);
+      return true;
+    });
+  }
+
+  /**
+   * Delete the horse with the given ID.
+   *
+   * @return true, if the horse existed
+   */
+  public boolean deleteHorse(long id) {
+    return write(() -> {
+      if (!horses.contains(id)) {
+        return false;
+      }
+      logChange(StoreCodec.DELETE_HORSE, out -> out.writeLong(id));
+      horses.delete(id, () -> ++version);
+      return true;
+    });
+  }
+
+  /**
+   * Get the horses with the given IDs under one lock. IDs of horses that do not exist are skipped.
+   */
+  public List<Horse> horses(Collection<Long> ids) {
+    return read(() -> {
+      var result = new ArrayList<Horse>(ids.size());
+      for (var id : ids) {
+        var horse = horses.get(id);
+        if (horse != null) {
+          result.add(horse);
+        }
+      }
+      return result;
+    });
+  }
+
+  /**
+   * Get those of the given IDs whose horses have children.
+   */
+  public Set<Long> horsesWithChildren(Collection<Long> ids) {
+    return read(() -> ids.stream().filter(horses::hasChildren).collect(Collectors.toSet()));
+  }
+
+  /**
+   * Replace the stored horses with the same IDs, under one lock, so no reader sees only some of them changed.
+   *
+   * @return true, if all of the horses existed; if not, none is changed
+   */
+  public boolean updateHorses(List<Horse> changed) {
+    return write(() -> {
+      if (!changed.stream().allMatch(horse -> horses.contains(horse.getId()))) {
+        return false;
+      }
+      putHorses(changed);
+      return true;
+    });
+  }
+
+  /**
+   * Give all horses with the given IDs the same owner, under one lock.
+   *
+   * @return true, if all of the horses existed; if not, none is changed
+   */
+  public boolean reassignHorses(Collection<Long> ids, Long ownerId) {
+    return write(() -> {
+      if (!ids.stream().allMatch(horses::contains)) {
+        return false;
+      }
+      putHorses(ids.stream().map(id -> horses.get(id).setOwnerId(ownerId)).toList());
+      return true;
+    });
+  }
+
+  /**
+   * Delete the horses with the given IDs, under one lock.
+   *
+   * @return true, if all of the horses existed; if not, none is deleted
+   */
+  public boolean deleteHorses(Collection<Long> ids) {
+    return write(() -> {
+      if (!ids.stream().allMatch(horses::contains)) {
+        return false;
+      }
+      var records = new ArrayList<byte[]>(ids.size());
+      for (var id : ids) {
+        records.add(encode(StoreCodec.DELETE_HORSE, out -> out.writeLong(id)));
+      }
+      logChanges(records);
+      for (var id : ids) {
+        horses.delete(id, () -> ++version);
+      }
+      return true;
+    });
+  }
+
+  /**
+   * Get the owner with the given ID, or null if it does not exist.
+   */
+  public Owner owner(long id) {
+    return read(() -> owners.get(id));
+  }
+
+  /**
+   * Get the owners with the given IDs under one lock. IDs of owners that do not exist are skipped.
+   */
+  public List<Owner> owners(Collection<Long> ids) {
+    return read(() -> {
+      var result = new ArrayList<Owner>(ids.size());
+      for (var id : ids) {
+        var owner = owners.get(id);
+        if (owner != null) {
+          result.add(owner);
+        }
+      }
+      return result;
+    });
+  }
+
+  /**
+   * Get at most {@code maxAmount} owners whose full name contains {@code name}, ignoring case.
+   */
+  public List<Owner> searchOwners(String name, Integer maxAmount) {
+    return read(() -> owners.search(name, maxAmount));
+  }
+
+  /**
+   * Check whether an owner already has the given email address.
+   */
+  public boolean ownerEmailExists(String email) {
+    return read(() -> owners.emailExists(email));
+  }
+
+  /**
+   * Get at most {@code limit} owners changed after {@code version}, ordered by version.
+   */
+  public List<Owner> ownersChangedSince(long version, int limit) {
+    return read(() -> owners.changedSince(version, limit));
+  }
+
+  /**
+   * Store a new owner. The ID of {@code owner} is ignored and a new one is assigned.
+   *
+   * @return the stored owner with its new ID
+   */
+  public Owner createOwner(Owner owner) {
+    return write(() -> {
+      owner.setId(owners.nextId()).setVersion(++version);
+      logChange(StoreCodec.PUT_OWNER, out -> StoreCodec.writeOwner(out, owner));
+      owners.put(owner);
+      return owner;
+    });
+  }
+
+  private void putHorses(List<Horse> changed) {
+    var records = new ArrayList<byte[]>(changed.size());
+    for (var horse : changed) {
+      horse.setVersion(++version);
+      records.add(encode(StoreCodec.PUT_HORSE, out -> StoreCodec.writeHorse(out, horse)));
+    }
+    logChanges(records);
+    changed.forEach(horses::put);
+  }
+
+  private <T> T read(Supplier<T> action) {
+    lock.readLock().lock();
+    try {
+      return action.get();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private <T> T write(Supplier<T> action) {
+    lock.writeLock().lock();
+    try {
+      var result = action.get();
+      if (log != null && log.records() >= snapshotEvery) {
+        snapshot();
+      }
+      return result;
+    } catch (IOException e) {
+      throw new FatalException("Could not take snapshot of memory store", e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @FunctionalInterface
+  private interface RecordWriter {
+    void write(DataOutputStream out) throws IOException;
+  }
+
+  private void logChange(byte type, RecordWriter writer) {
+    if (log == null) {
+      return;
+    }
+    try {
+      log.append(encode(type, writer));
+    } catch (IOException e) {
+      throw new FatalException("Could not write change to write-ahead log", e);
+    }
+  }
+
+  /**
+   * Log the changes of a bulk operation with one write to the log, forced to disk only once.
+   */
+  private void logChanges(List<byte[]> records) {
+    if (log == null) {
+      return;
+    }
+    try {
+      log.appendAll(records);
+    } catch (IOException e) {
+      throw new FatalException("Could not write changes to write-ahead log", e);
+    }
+  }
+
+  private static byte[] encode(byte type, RecordWriter writer) {
+    try {
+      var bytes = new ByteArrayOutputStream(128);
+      var out = new DataOutputStream(bytes);
+      out.writeByte(type);
+      writer.write(out);
+      out.flush();
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      throw new FatalException("Could not encode change for write-ahead log", e);
+    }
+  }
+
+  private void applyRecord(DataInputStream in) throws IOException {
+    var type = in.readByte();
+    switch (type) {
+      case StoreCodec.PUT_HORSE -> horses.put(seenVersion(StoreCodec.readHorse(in)));
+      case StoreCodec.DELETE_HORSE -> horses.delete(in.readLong(), () -> ++version);
+      case StoreCodec.PUT_OWNER -> owners.put(seenVersion(StoreCodec.readOwner(in)));
+      default -> throw new IOException("Unknown write-ahead log record type " + type);
+    }
+  }
+
+  private Horse seenVersion(Horse horse) {
+    version = Math.max(version, horse.getVersion());
+    return horse;
+  }
+
+  private Owner seenVersion(Owner owner) {
+    version = Math.max(version, owner.getVersion());
+    return owner;
+  }
+
+  private void snapshot() throws IOException {
+    final var start = System.nanoTime();
+    var snapshot = dataDir.resolve(SNAPSHOT_FILE);
+    var temporary = dataDir.resolve(SNAPSHOT_FILE + ".tmp");
+    try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+      out.writeInt(SNAPSHOT_MAGIC);
+      out.writeInt(SNAPSHOT_VERSION);
+      out.writeLong(version);
+      out.writeInt(owners.size());
+      owners.forEach(owner -> writeUnchecked(() -> StoreCodec.writeOwner(out, owner)));
+      out.writeInt(horses.size());
+      horses.forEach(horse -> writeUnchecked(() -> StoreCodec.writeHorse(out, horse)));
+      out.writeInt(horses.tombstoneCount());
+      horses.forEachTombstone(tombstone -> writeUnchecked(() -> {
+        out.writeLong(tombstone.getId());
+        out.writeLong(tombstone.getVersion());
+      }));
+    }
+    try (var channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+      channel.force(true);
+    }
+    Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    // A crash right here replays the log on top of the new snapshot. That is harmless, because replaying is idempotent.
+    log.truncate();
+    LOG.debug("Took snapshot of {} horses and {} owners in {}ms", horses.size(), owners.size(), (System.nanoTime() - start) / 1_000_000);
+  }
+
+  private void loadSnapshot(Path snapshot) throws IOException {
+    try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+      if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+        throw new FatalException("File %s is not a memory store snapshot of version %d".formatted(snapshot, SNAPSHOT_VERSION));
+      }
+      version = in.readLong();
+      var ownerCount = in.readInt();
+      for (int i = 0; i < ownerCount; i++) {
+        owners.put(StoreCodec.readOwner(in));
+      }
+      var horseCount = in.readInt();
+      for (int i = 0; i < horseCount; i++) {
+        horses.put(StoreCodec.readHorse(in));
+      }
+      var tombstoneCount = in.readInt();
+      for (int i = 0; i < tombstoneCount; i++) {
+        horses.addTombstone(in.readLong(), in.readLong());
+      }
+    }
+    LOG.info("Loaded snapshot with {} horses and {} owners", horses.size(), owners.size());
+  }
+
+  private void importFromDatabase() {
+    jdbcTemplate.query("SELECT * FROM owner", (result, rownum) -> new Owner()
+            .setId(result.getLong("id"))
+            .setFirstName(result.getString("first_name"))
+            .setLastName(result.getString("last_name"))
+            .setEmail(result.getString("email"))
+            .setVersion(result.getLong("version")))
+        .forEach(owner -> owners.put(seenVersion(owner)));
+    jdbcTemplate.query("SELECT * FROM horse", (result, rownum) -> new Horse()
+            .setId(result.getLong("id"))
+            .setName(result.getString("name"))
+            .setDescription(result.getString("description"))
+            .setDateOfBirth(result.getDate("date_of_birth").toLocalDate())
+            .setSex(Sex.valueOf(result.getString("sex")))
+            .setOwnerId(result.getObject("owner_id", Long.class))
+            .setFatherId(result.getObject("father_id", Long.class))
+            .setMotherId(result.getObject("mother_id", Long.class))
+            .setVersion(result.getLong("version")))
+        .forEach(horse -> horses.put(seenVersion(horse)));
+    jdbcTemplate.query("SELECT id, version FROM horse_tombstone ORDER BY version", (result, rownum) -> {
+      horses.addTombstone(result.getLong("id"), result.getLong("version"));
+      version = Math.max(version, result.getLong("version"));
+      return null;
+    });
+    LOG.info("Took over {} horses and {} owners from the relational database", horses.size(), owners.size());
+  }
+
+  private static void writeUnchecked(RecordWriterAction action) {
+    try {
+      action.run();
+    } catch (IOException e) {
+      throw new FatalException("Could not write snapshot", e);
+    }
+  }
+
+  @FunctionalInterface
+  private interface RecordWriterAction {
+    void run() throws IOException;
+  }
+}
@@ -0,0 +1,171 @@
+package at.ac.tuwien.sepm.assignment.individual.persistence.impl.memory;
+
+import at.ac.tuwien.sepm.assignment.individual.entity.Owner;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+
+/**
+ * Column oriented in-memory table of owners.
+ * Owners are never deleted, so slots are handed out in insertion order.
+ * Besides the primary key, the table keeps an index on the email address.
+ * This class is not thread safe, {@link MemoryStore} guards all access.
+ */
+final class OwnerTable {
+  private long[] ids;
+  private String[] firstNames;
+  private String[] lastNames;
+  private String[] emails;
+  private String[] upperFullNames;
+  private long[] versions;
+  private int count;
+  private long nextId = 1;
+
+  private final LongIntHashMap slotById;
+  private final Map<String, Integer> slotByEmail = new HashMap<>();
+
+  OwnerTable(int initialCapacity) {
+    allocate(Math.max(16, initialCapacity));
+    slotById = new LongIntHashMap(initialCapacity);
+  }
+
+  int size() {
+    return count;
+  }
+
+  long nextId() {
+    return nextId++;
+  }
+
+  Owner get(long id) {
+    var slot = slotById.get(id, -1);
+    return slot < 0 ? null : toEntity(slot);
+  }
+
+  boolean emailExists(String email) {
+    return slotByEmail.containsKey(email);
+  }
+
+  /**
+   * Insert the given owner, or replace the stored owner with the same ID.
+   */
+  void put(Owner owner) {
+    var slot = slotById.get(owner.getId(), -1);
+    if (slot < 0) {
+      if (count == ids.length) {
+        grow(count * 2);
+      }
+      slot = count++;
+      slotById.put(owner.getId(), slot);
+    } else if (emails[slot] != null) {
+      slotByEmail.remove(emails[slot]);
+    }
+
+    ids[slot] = owner.getId();
+    firstNames[slot] = owner.getFirstName();
+    lastNames[slot] = owner.getLastName();
+    emails[slot] = owner.getEmail();
+    versions[slot] = owner.getVersion();
+    upperFullNames[slot] = (owner.getFirstName() + " " + owner.getLastName()).toUpperCase(Locale.ROOT);
+    if (owner.getEmail() != null) {
+      slotByEmail.put(owner.getEmail(), slot);
+    }
+
+    if (owner.getId() >= nextId) {
+      nextId = owner.getId() + 1;
+    }
+  }
+
+  /**
+   * Find all owners whose full name contains {@code name}, ignoring case, ordered by ID.
+   */
+  List<Owner> search(String name, Integer maxAmount) {
+    var part = name == null ? "" : name.toUpperCase(Locale.ROOT);
+    var limit = maxAmount == null ? Integer.MAX_VALUE : maxAmount;
+    var matches = new ArrayList<Owner>();
+    for (int slot = 0; slot < count && matches.size() < limit; slot++) {
+      if (upperFullNames[slot].contains(part)) {
+        matches.add(toEntity(slot));
+      }
+    }
+    return matches;
+  }
+
+  /**
+   * Create a predicate, that matches the IDs of all owners whose first or last name contains {@code name}, ignoring case.
+   */
+  LongPredicate nameFilter(String name) {
+    var part = name.toLowerCase(Locale.ROOT);
+    var matching = new LongIntHashMap(16);
+    for (int slot = 0; slot < count; slot++) {
+      if (firstNames[slot].toLowerCase(Locale.ROOT).contains(part) || lastNames[slot].toLowerCase(Locale.ROOT).contains(part)) {
+        matching.put(ids[slot], slot);
+      }
+    }
+    return matching::containsKey;
+  }
+
+  /**
+   * Find all owners with a version higher than {@code version}, ordered by version.
+   */
+  List<Owner> changedSince(long version, int limit) {
+    var changed = new ArrayList<Integer>();
+    for (int slot = 0; slot < count; slot++) {
+      if (versions[slot] > version) {
+        changed.add(slot);
+      }
+    }
+    changed.sort(Comparator.comparingLong(slot -> versions[slot]));
+    return changed.stream().limit(limit).map(this::toEntity).toList();
+  }
+
+  void forEach(Consumer<Owner> action) {
+    for (int slot = 0; slot < count; slot++) {
+      action.accept(toEntity(slot));
+    }
+  }
+
+  void clear() {
+    Arrays.fill(firstNames, null);
+    Arrays.fill(lastNames, null);
+    Arrays.fill(emails, null);
+    Arrays.fill(upperFullNames, null);
+    count = 0;
+    nextId = 1;
+    slotById.clear();
+    slotByEmail.clear();
+  }
+
+  private Owner toEntity(int slot) {
+    return new Owner()
+        .setId(ids[slot])
+        .setFirstName(firstNames[slot])
+        .setLastName(lastNames[slot])
+        .setEmail(emails[slot])
+        .setVersion(versions[slot]);
+  }
+
+  private void allocate(int capacity) {
+    ids = new long[capacity];
+    firstNames = new String[capacity];
+    lastNames = new String[capacity];
+    emails = new String[capacity];
+    upperFullNames = new String[capacity];
+    versions = new long[capacity];
+  }
+
+  private void grow(int capacity) {
+    ids = Arrays.copyOf(ids, capacity);
+    firstNames = Arrays.copyOf(firstNames, capacity);
+    lastNames = Arrays.copyOf(lastNames, capacity);
+    emails = Arrays.copyOf(emails, capacity);
+    upperFullNames = Arrays.copyOf(upperFullNames, capacity);
+    versions = Arrays.copyOf(versions, capacity);
+  }
+}
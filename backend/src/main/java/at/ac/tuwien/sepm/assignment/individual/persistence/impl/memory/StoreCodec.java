@@ -0,0 +1,85 @@
+package at.ac.tuwien.sepm.assignment.individual.persistence.impl.memory;
+
+import at.ac.tuwien.sepm.assignment.individual.entity.Horse;
+import at.ac.tuwien.sepm.assignment.individual.entity.Owner;
+import at.ac.tuwien.sepm.assignment.individual.type.Sex;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Binary encoding of horses and owners, shared by the write-ahead log and the snapshots.
+ */
+final class StoreCodec {
+  static final byte PUT_HORSE = 1;
+  static final byte DELETE_HORSE = 2;
+  static final byte PUT_OWNER = 3;
+
+  private static final long NULL = Long.MIN_VALUE;
+
+  private StoreCodec() {
+  }
+
+  static void writeHorse(DataOutput out, Horse horse) throws IOException {
+    out.writeLong(horse.getId());
+    out.writeUTF(horse.getName());
+    writeNullableString(out, horse.getDescription());
+    out.writeInt((int) horse.getDateOfBirth().toEpochDay());
+    out.writeByte(horse.getSex().ordinal());
+    writeNullableLong(out, horse.getOwnerId());
+    writeNullableLong(out, horse.getFatherId());
+    writeNullableLong(out, horse.getMotherId());
+    out.writeLong(horse.getVersion());
+  }
+
+  static Horse readHorse(DataInput in) throws IOException {
+    return new Horse()
+        .setId(in.readLong())
+        .setName(in.readUTF())
+        .setDescription(readNullableString(in))
+        .setDateOfBirth(LocalDate.ofEpochDay(in.readInt()))
+        .setSex(Sex.values()[in.readByte()])
+        .setOwnerId(readNullableLong(in))
+        .setFatherId(readNullableLong(in))
+        .setMotherId(readNullableLong(in))
+        .setVersion(in.readLong());
+  }
+
+  static void writeOwner(DataOutput out, Owner owner) throws IOException {
+    out.writeLong(owner.getId());
+    out.writeUTF(owner.getFirstName());
+    out.writeUTF(owner.getLastName());
+    writeNullableString(out, owner.getEmail());
+    out.writeLong(owner.getVersion());
+  }
+
+  static Owner readOwner(DataInput in) throws IOException {
+    return new Owner()
+        .setId(in.readLong())
+        .setFirstName(in.readUTF())
+        .setLastName(in.readUTF())
+        .setEmail(readNullableString(in))
+        .setVersion(in.readLong());
+  }
+
+  private static void writeNullableString(DataOutput out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readNullableString(DataInput in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  private static void writeNullableLong(DataOutput out, Long value) throws IOException {
+    out.writeLong(value == null ? NULL : value);
+  }
+
+  private static Long readNullableLong(DataInput in) throws IOException {
+    var value = in.readLong();
+    return value == NULL ? null : value;
+  }
+}
@@ -0,0 +1,130 @@
+package at.ac.tuwien.sepm.assignment.individual.persistence.impl.memory;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only log of the changes applied to the {@link MemoryStore}.
+ * <p>
+ * Every record is framed by its length and a CRC32 checksum.
+ * A record, that was only partially written when the process died, is detected on replay
+ *  and cut off, together with everything after it.
+ * </p>
+ */
+final class WriteAheadLog implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final int HEADER_SIZE = Integer.BYTES * 2;
+
+  /**
+   * Applies a single replayed record.
+   */
+  @FunctionalInterface
+  interface RecordHandler {
+    void apply(DataInputStream record) throws IOException;
+  }
+
+  private final FileChannel channel;
+  private final boolean fsync;
+  private long records;
+
+  WriteAheadLog(Path file, boolean fsync) throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    this.fsync = fsync;
+  }
+
+  /**
+   * Number of records in the log since it was last truncated.
+   */
+  long records() {
+    return records;
+  }
+
+  void append(byte[] record) throws IOException {
+    appendAll(List.of(record));
+  }
+
+  /**
+   * Append several records with a single write, forced to disk once for all of them.
+   */
+  void appendAll(List<byte[]> records) throws IOException {
+    var size = records.stream().mapToInt(record -> HEADER_SIZE + record.length).sum();
+    var buffer = ByteBuffer.allocate(size);
+    for (var record : records) {
+      var crc = new CRC32();
+      crc.update(record);
+      buffer.putInt(record.length)
+          .putInt((int) crc.getValue())
+          .put(record);
+    }
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer, channel.size());
+    }
+    if (fsync) {
+      channel.force(false);
+    }
+    this.records += records.size();
+  }
+
+  /**
+   * Feed every intact record of the log to {@code handler}, in the order they were appended.
+   *
+   * @return the number of replayed records
+   */
+  long replay(RecordHandler handler) throws IOException {
+    var position = 0L;
+    var size = channel.size();
+    var header = ByteBuffer.allocate(HEADER_SIZE);
+    records = 0;
+    while (position + HEADER_SIZE <= size) {
+      header.clear();
+      channel.read(header, position);
+      header.flip();
+      var length = header.getInt();
+      final var checksum = header.getInt();
+      if (length < 0 || position + HEADER_SIZE + length > size) {
+        break;
+      }
+      var record = ByteBuffer.allocate(length);
+      channel.read(record, position + HEADER_SIZE);
+      var crc = new CRC32();
+      crc.update(record.array());
+      if ((int) crc.getValue() != checksum) {
+        break;
+      }
+      handler.apply(new DataInputStream(new ByteArrayInputStream(record.array())));
+      position += HEADER_SIZE + length;
+      records++;
+    }
+    if (position < size) {
+      LOG.warn("Write-ahead log has a torn tail of {} bytes after {} records, discarding it", size - position, records);
+      channel.truncate(position);
+    }
+    return records;
+  }
+
+  /**
+   * Drop all records, because their changes are contained in a snapshot now.
+   */
+  void truncate() throws IOException {
+    channel.truncate(0);
+    channel.force(true);
+    records = 0;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
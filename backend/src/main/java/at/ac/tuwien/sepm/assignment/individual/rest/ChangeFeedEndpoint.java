@@ -0,0 +1,74 @@
+package at.ac.tuwien.sepm.assignment.individual.rest;
+
+import at.ac.tuwien.sepm.assignment.individual.dto.ChangeEventDto;
+import at.ac.tuwien.sepm.assignment.individual.service.ChangeFeedService;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * The rest endpoint to follow changes of horses and owners as Server-Sent Events
+ */
+@RestController
+@RequestMapping(path = ChangeFeedEndpoint.BASE_PATH)
+public class ChangeFeedEndpoint {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  static final String BASE_PATH = "/events";
+  static final String RESYNC_EVENT = "resync";
+
+  private final ChangeFeedService service;
+  private final Duration timeout;
+
+  public ChangeFeedEndpoint(ChangeFeedService service, @Value("${wendy.change-feed.timeout:30m}") Duration timeout) {
+    this.service = service;
+    this.timeout = timeout;
+  }
+
+  /**
+   * Subscribe to the change feed.
+   * Every event is named after its change type ({@code CREATED}, {@code UPDATED}, {@code DELETED})
+   *  and carries its sequence number as event ID.
+   * If the client missed events, it receives a {@code resync} event and has to reload its state.
+   * Browsers reconnect automatically and send the ID of the last received event in the {@code Last-Event-ID} header.
+   *
+   * @param lastEventId the sequence number of the last event the client has seen
+   * @return the event stream
+   */
+  @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter subscribe(@RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+    LOG.info("GET " + BASE_PATH);
+    LOG.debug("request parameters: lastEventId={}", lastEventId);
+
+    var emitter = new SseEmitter(timeout.toMillis());
+    var subscription = service.subscribe(lastEventId, new ChangeFeedService.Subscriber() {
+      @Override
+      public void onEvent(ChangeEventDto event) throws IOException {
+        emitter.send(SseEmitter.event()
+            .id(Long.toString(event.sequence()))
+            .name(event.type().name())
+            .data(event, MediaType.APPLICATION_JSON));
+      }
+
+      @Override
+      public void onResync(long sequence) throws IOException {
+        emitter.send(SseEmitter.event()
+            .id(Long.toString(sequence))
+            .name(RESYNC_EVENT)
+            .data(sequence));
+      }
+    });
+    emitter.onCompletion(subscription::cancel);
+    emitter.onTimeout(subscription::cancel);
+    emitter.onError(e -> subscription.cancel());
+    return emitter;
+  }
+}
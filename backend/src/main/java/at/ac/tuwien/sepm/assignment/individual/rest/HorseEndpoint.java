@@ -1,19 +1,31 @@
 package at.ac.tuwien.sepm.assignment.individual.rest;
 
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseBulkDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseBulkResultDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseCardCheckDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseChangesDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseCreateDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseDetailDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseFacetsDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseListDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseProgenyDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseSearchDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseTreeDto;
 import at.ac.tuwien.sepm.assignment.individual.exception.ConflictException;
 import at.ac.tuwien.sepm.assignment.individual.exception.NotFoundException;
 import at.ac.tuwien.sepm.assignment.individual.exception.ValidationException;
+import at.ac.tuwien.sepm.assignment.individual.service.DeltaSyncService;
 import at.ac.tuwien.sepm.assignment.individual.service.HorseService;
+import at.ac.tuwien.sepm.assignment.individual.service.Versioned;
+import at.ac.tuwien.sepm.assignment.individual.type.HorseRelation;
 import java.lang.invoke.MethodHandles;
+import java.util.List;
+import java.util.Set;
 import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -21,8 +33,10 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 /**
@@ -35,9 +49,11 @@ public class HorseEndpoint {
   static final String BASE_PATH = "/horses";
 
   private final HorseService service;
+  private final DeltaSyncService deltaSyncService;
 
-  public HorseEndpoint(HorseService service) {
+  public HorseEndpoint(HorseService service, DeltaSyncService deltaSyncService) {
     this.service = service;
+    this.deltaSyncService = deltaSyncService;
   }
 
   /**
@@ -45,16 +61,18 @@ public class HorseEndpoint {
    *
    * @param id the id of the horse to retrieve the generation tree from
    * @param generations the amount of generations to be contained in the tree. The horse itself is generation 0, their parents 1 and so on
-   * @return A ancestor tree with the given horse at the root of it
+   * @param request the request, to check its {@code If-None-Match} header
+   * @return A ancestor tree with the given horse at the root of it, or nothing with a 304, if it matches the {@code If-None-Match} header
    * @throws ValidationException If validation errors occur
    */
   @GetMapping("{id}/ancestors")
-  public HorseTreeDto getAncestors(@PathVariable Long id, Integer generations) throws ValidationException {
+  public HorseTreeDto getAncestors(@PathVariable Long id, Integer generations, WebRequest request) throws ValidationException {
     LOG.info("GET " + BASE_PATH + "/{}/ancestors", id);
     LOG.debug("request parameters: generations={}", generations);
 
     try {
-      return service.getAncestors(id, generations);
+      var tree = service.getVersionedAncestors(id, generations);
+      return request.checkNotModified(tree.etag()) ? null : tree.content().get();
     } catch (NotFoundException e) {
       HttpStatus status = HttpStatus.NOT_FOUND;
       logClientError(status, "Horse to get ancestors of not found", e);
@@ -66,28 +84,114 @@ public class HorseEndpoint {
   /**
    * Retrieve horses based on a set of search criteria
    *
-   * @param searchParameters The search criteria to narrow the amount of horses
-   * @return All horses which mach the search criteria
+   * @param searchParameters The search criteria to narrow the amount of horses, and the fields to return
+   * @return All horses which mach the search criteria, with only the requested fields
    */
   @GetMapping
-  public Stream<HorseListDto> searchHorses(HorseSearchDto searchParameters) {
+  public Stream<?> searchHorses(HorseSearchDto searchParameters) {
     LOG.info("GET " + BASE_PATH);
     LOG.debug("request parameters: {}", searchParameters);
 
-    return service.search(searchParameters);
+    return SparseFieldsets.horses(service.search(searchParameters), searchParameters.fields());
+  }
+
+  /**
+   * Retrieve horses based on a set of search criteria, in the compact format:
+   *  the horses reference their owners by ID, and every owner is sent only once.
+   *
+   * @param searchParameters The search criteria to narrow the amount of horses, and the fields to return
+   * @return All horses which mach the search criteria, with only the requested fields, and their owners
+   */
+  @GetMapping(params = "compact=true")
+  public Object searchHorsesCompact(HorseSearchDto searchParameters) {
+    LOG.info("GET " + BASE_PATH + "?compact=true");
+    LOG.debug("request parameters: {}", searchParameters);
+
+    return SparseFieldsets.compactHorses(service.searchCompact(searchParameters), searchParameters.fields());
+  }
+
+  /**
+   * Count the horses matching a set of search criteria per sex, per year of birth and for the owners with the most horses.
+   *
+   * @param searchParameters The search criteria to narrow the counted horses, the limit and the fields are ignored
+   * @return the numbers of matching horses
+   */
+  @GetMapping("facets")
+  public HorseFacetsDto getFacets(HorseSearchDto searchParameters) {
+    LOG.info("GET " + BASE_PATH + "/facets");
+    LOG.debug("request parameters: {}", searchParameters);
+
+    return service.getFacets(searchParameters);
+  }
+
+  /**
+   * Retrieve the horses and owners, that were created, updated or deleted after the given token.
+   * Clients keeping a local copy of the registry call this repeatedly, passing the {@code nextToken} of the last page,
+   *  instead of downloading all horses again.
+   *
+   * @param since the token of the last sync, or nothing to get everything
+   * @param limit the maximum number of changes in the returned page
+   * @return one page of changes
+   * @throws ValidationException If the token or the limit are invalid
+   */
+  @GetMapping("changes")
+  public HorseChangesDto getChanges(String since, Integer limit) throws ValidationException {
+    LOG.info("GET " + BASE_PATH + "/changes");
+    LOG.debug("request parameters: since={}, limit={}", since, limit);
+
+    return deltaSyncService.changesSince(since, limit);
+  }
+
+  /**
+   * Rank the sires by their numbers of foals, ties broken by their numbers of grand-foals.
+   *
+   * @param limit the maximum number of sires to return
+   * @return the sires with the most foals, best first
+   * @throws ValidationException If the limit is out of range
+   */
+  @GetMapping("top-sires")
+  public List<HorseProgenyDto> getTopSires(Integer limit) throws ValidationException {
+    LOG.info("GET " + BASE_PATH + "/top-sires");
+    LOG.debug("request parameters: limit={}", limit);
+
+    return service.getTopSires(limit);
+  }
+
+  /**
+   * Retrieve the numbers of foals and grand-foals of a horse
+   *
+   * @param id The id of the horse
+   * @return The numbers of offspring of the horse, or an 404 if it was not found
+   */
+  @GetMapping("{id}/progeny")
+  public HorseProgenyDto getProgeny(@PathVariable long id) {
+    LOG.info("GET " + BASE_PATH + "/{}/progeny", id);
+    try {
+      return service.getProgeny(id);
+    } catch (NotFoundException e) {
+      HttpStatus status = HttpStatus.NOT_FOUND;
+      logClientError(status, "Horse to get progeny of not found", e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    }
   }
 
   /**
    * Retrieve a single horse by its id
    *
    * @param id The id of the horse
-   * @return The corresponding horse with the same id, or an 404 if none were found
+   * @param include relations of the horse to return along with it, e.g. {@code include=children,grandparents}
+   * @param request the request, to check its {@code If-None-Match} header
+   * @return The corresponding horse with the same id, or an 404 if none were found,
+   *     or nothing with a 304, if it matches the {@code If-None-Match} header
    */
   @GetMapping("{id}")
-  public HorseDetailDto getById(@PathVariable long id) {
-    LOG.info("GET " + BASE_PATH + "/{}", id);
+  public Object getById(@PathVariable long id, @RequestParam(required = false) Set<HorseRelation> include, WebRequest request) {
+    LOG.info("GET " + BASE_PATH + "/{}?include={}", id, include);
     try {
-      return service.getById(id);
+      Versioned<?> horse = include == null || include.isEmpty()
+          ? service.getVersionedById(id)
+          : service.getVersionedById(id, include);
+      return request.checkNotModified(horse.etag()) ? null : horse.content().get();
     } catch (NotFoundException e) {
       HttpStatus status = HttpStatus.NOT_FOUND;
       logClientError(status, "Horse to get details of not found", e);
@@ -96,21 +200,37 @@ public class HorseEndpoint {
   }
 
 
+  /**
+   * Get the details of many horses at once, e.g. for comparing them side by side.
+   * Horses, that do not exist, are left out of the result.
+   *
+   * @param ids the IDs of the horses to get
+   * @return the horses, in the order of their IDs
+   * @throws ValidationException If an ID is missing or too many horses are requested
+   */
+  @PostMapping("batch-get")
+  public List<HorseDetailDto> getAllById(@RequestBody List<Long> ids) throws ValidationException {
+    LOG.info("POST " + BASE_PATH + "/batch-get");
+    LOG.debug("Body of request:\n{}", ids);
+    return service.getAllById(ids);
+  }
+
   /**
    * Update the vlaues of a horse
    *
    * @param id The unique id of the horse to manipulate
    * @param toUpdate The new values
-   * @return The resulting horse as saved in the persistent data store
+   * @return The resulting horse as saved in the persistent data store, with the {@code ETag} a {@code GET} of it would have
    * @throws ValidationException If validation errors occur
    * @throws ConflictException If conflicts occur with dependent objects
    */
   @PutMapping("{id}")
-  public HorseDetailDto update(@PathVariable long id, @RequestBody HorseDetailDto toUpdate) throws ValidationException, ConflictException {
+  public ResponseEntity<HorseDetailDto> update(@PathVariable long id, @RequestBody HorseDetailDto toUpdate) throws ValidationException, ConflictException {
     LOG.info("PUT " + BASE_PATH + "/{}", toUpdate);
     LOG.debug("Body of request:\n{}", toUpdate);
     try {
-      return service.update(toUpdate.withId(id));
+      var updated = service.updateVersioned(toUpdate.withId(id));
+      return ResponseEntity.ok().eTag(updated.etag()).body(updated.content().get());
     } catch (NotFoundException e) {
       HttpStatus status = HttpStatus.NOT_FOUND;
       logClientError(status, "Horse to update not found", e);
@@ -134,6 +254,40 @@ public class HorseEndpoint {
     return service.create(toCreate);
   }
 
+  /**
+   * Apply many updates, owner reassignments and deletions of horses at once, e.g. to move a whole herd to a new owner.
+   * Either all of the changes are applied or none.
+   *
+   * @param bulk the changes to apply
+   * @return the numbers of changed horses
+   * @throws ValidationException If validation errors occur
+   * @throws ConflictException If conflicts occur with dependent objects
+   */
+  @PostMapping("bulk")
+  public HorseBulkResultDto bulk(@RequestBody HorseBulkDto bulk) throws ValidationException, ConflictException {
+    LOG.info("POST " + BASE_PATH + "/bulk");
+    LOG.debug("Body of request:\n{}", bulk);
+    try {
+      return service.bulk(bulk);
+    } catch (NotFoundException e) {
+      HttpStatus status = HttpStatus.NOT_FOUND;
+      logClientError(status, "Horse or owner to change not found", e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Compare the cards, that the details of horses are served from, with the horses and owners, and rebuild those differing.
+   * Meant for maintenance: every write keeps the cards up to date, so a check should not find anything to rebuild.
+   *
+   * @return the number of cards and the IDs of the horses, whose cards were rebuilt
+   */
+  @PostMapping("cards/check")
+  public HorseCardCheckDto checkCards() {
+    LOG.info("POST " + BASE_PATH + "/cards/check");
+    return service.checkCards();
+  }
+
   /**
    * Delete a horse
    *
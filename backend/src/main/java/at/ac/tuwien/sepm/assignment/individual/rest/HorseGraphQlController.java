@@ -0,0 +1,146 @@
+package at.ac.tuwien.sepm.assignment.individual.rest;
+
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseGraphDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.OwnerDto;
+import at.ac.tuwien.sepm.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepm.assignment.individual.service.HorseService;
+import at.ac.tuwien.sepm.assignment.individual.service.OwnerService;
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.dataloader.DataLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
+
+/**
+ * GraphQL read API over horses and owners, served at {@code /graphql}, see {@code graphql/schema.graphqls}.
+ * <p>
+ * The references between horses and owners are resolved by data loaders, which live as long as one request.
+ * They collect the references of all horses on one level of the query and resolve them with a single lookup,
+ *  so a query over five generations of ancestors with their owners needs two lookups per generation, not two per horse.
+ * Fathers and mothers share one data loader, so both parents of a level are loaded together.
+ * </p>
+ */
+@Controller
+public class HorseGraphQlController {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private final HorseService service;
+  private final OwnerService ownerService;
+
+  /**
+   * Default DI constructor, registers the data loaders of horses and owners for each request.
+   *
+   * @param service the service resolving horses
+   * @param ownerService the service resolving owners
+   * @param registry the registry of the data loaders
+   */
+  public HorseGraphQlController(HorseService service, OwnerService ownerService, BatchLoaderRegistry registry) {
+    this.service = service;
+    this.ownerService = ownerService;
+    registry.forTypePair(Long.class, HorseGraphDto.class)
+        .registerMappedBatchLoader((ids, environment) -> Mono.fromCallable(() -> service.getGraphNodes(ids)));
+    registry.forTypePair(Long.class, OwnerDto.class)
+        .registerMappedBatchLoader((ids, environment) -> Mono.fromCallable(() -> ownerService.getAllById(ids)));
+  }
+
+  /**
+   * Get a single horse by its ID.
+   *
+   * @param id the ID of the horse
+   * @return the horse, or null if it does not exist
+   */
+  @QueryMapping
+  public HorseGraphDto horse(@Argument long id) {
+    LOG.info("GraphQL horse({})", id);
+    return service.getGraphNodes(List.of(id)).get(id);
+  }
+
+  /**
+   * Get a single owner by its ID.
+   *
+   * @param id the ID of the owner
+   * @return the owner, or null if it does not exist
+   */
+  @QueryMapping
+  public OwnerDto owner(@Argument long id) {
+    LOG.info("GraphQL owner({})", id);
+    try {
+      return ownerService.getById(id);
+    } catch (NotFoundException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Resolve the father of a horse through the data loader of horses.
+   *
+   * @param horse the horse whose father is asked for
+   * @param horses the data loader of horses of this request
+   * @return the father, or null if the horse has none
+   */
+  @SchemaMapping(typeName = "Horse")
+  public CompletableFuture<HorseGraphDto> father(HorseGraphDto horse, DataLoader<Long, HorseGraphDto> horses) {
+    return horse.fatherId() == null ? CompletableFuture.completedFuture(null) : horses.load(horse.fatherId());
+  }
+
+  /**
+   * Resolve the mother of a horse through the data loader of horses.
+   *
+   * @param horse the horse whose mother is asked for
+   * @param horses the data loader of horses of this request
+   * @return the mother, or null if the horse has none
+   */
+  @SchemaMapping(typeName = "Horse")
+  public CompletableFuture<HorseGraphDto> mother(HorseGraphDto horse, DataLoader<Long, HorseGraphDto> horses) {
+    return horse.motherId() == null ? CompletableFuture.completedFuture(null) : horses.load(horse.motherId());
+  }
+
+  /**
+   * Resolve the owner of a horse through the data loader of owners.
+   *
+   * @param horse the horse whose owner is asked for
+   * @param owners the data loader of owners of this request
+   * @return the owner, or null if the horse has none
+   */
+  @SchemaMapping(typeName = "Horse")
+  public CompletableFuture<OwnerDto> owner(HorseGraphDto horse, DataLoader<Long, OwnerDto> owners) {
+    return horse.ownerId() == null ? CompletableFuture.completedFuture(null) : owners.load(horse.ownerId());
+  }
+
+  /**
+   * Get the children of all horses on one level of the query with a single lookup.
+   *
+   * @param horses the horses whose children are asked for
+   * @return the children of each horse, empty if it has none
+   */
+  @BatchMapping(typeName = "Horse")
+  public Map<HorseGraphDto, List<HorseGraphDto>> children(List<HorseGraphDto> horses) {
+    var children = service.getGraphChildren(horses.stream().map(HorseGraphDto::id).toList());
+    return horses.stream()
+        .collect(Collectors.toMap(Function.identity(), horse -> children.getOrDefault(horse.id(), List.of()), (first, second) -> first));
+  }
+
+  /**
+   * Get the horses of all owners on one level of the query with a single lookup.
+   *
+   * @param owners the owners whose horses are asked for
+   * @return the horses of each owner, empty if they own none
+   */
+  @BatchMapping(typeName = "Owner")
+  public Map<OwnerDto, List<HorseGraphDto>> horses(List<OwnerDto> owners) {
+    var horses = service.getGraphHorsesOfOwners(owners.stream().map(OwnerDto::id).toList());
+    return owners.stream()
+        .collect(Collectors.toMap(Function.identity(), owner -> horses.getOrDefault(owner.id(), List.of()), (first, second) -> first));
+  }
+}
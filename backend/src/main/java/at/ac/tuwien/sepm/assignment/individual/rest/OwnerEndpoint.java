@@ -33,13 +33,13 @@ public class OwnerEndpoint {
   /**
    * Search for owners based on the given parameters
    *
-   * @param searchParameters the search parameters to search for
-   * @return all owners which math the given search parameters
+   * @param searchParameters the search parameters to search for, and the fields to return
+   * @return all owners which math the given search parameters, with only the requested fields
    */
   @GetMapping
-  public Stream<OwnerDto> search(OwnerSearchDto searchParameters) {
+  public Stream<?> search(OwnerSearchDto searchParameters) {
     LOG.info("GET " + BASE_PATH + " query parameters: {}", searchParameters);
-    return service.search(searchParameters);
+    return SparseFieldsets.owners(service.search(searchParameters), searchParameters.fields());
   }
 
   /**
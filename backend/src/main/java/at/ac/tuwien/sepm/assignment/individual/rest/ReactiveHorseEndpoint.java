@@ -0,0 +1,95 @@
+package at.ac.tuwien.sepm.assignment.individual.rest;
+
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseDetailDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseListDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseSearchDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseTreeDto;
+import at.ac.tuwien.sepm.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepm.assignment.individual.service.ReactiveHorseService;
+import java.lang.invoke.MethodHandles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variant of the read operations of {@link HorseEndpoint}.
+ * <p>
+ * The request thread is released while the database is queried.
+ * Search results are sent as a JSON array by default;
+ *  clients accepting {@code application/x-ndjson} get them streamed one horse per line,
+ *  and the database is only read as fast as the client consumes the response.
+ * </p>
+ */
+@RestController
+@RequestMapping(path = ReactiveHorseEndpoint.BASE_PATH)
+public class ReactiveHorseEndpoint {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  static final String BASE_PATH = "/reactive/horses";
+
+  private final ReactiveHorseService service;
+
+  public ReactiveHorseEndpoint(ReactiveHorseService service) {
+    this.service = service;
+  }
+
+  /**
+   * Retrieve horses based on a set of search criteria
+   *
+   * @param searchParameters The search criteria to narrow the amount of horses
+   * @return All horses which mach the search criteria
+   */
+  @GetMapping
+  public Flux<HorseListDto> searchHorses(HorseSearchDto searchParameters) {
+    LOG.info("GET " + BASE_PATH);
+    LOG.debug("request parameters: {}", searchParameters);
+
+    return service.search(searchParameters);
+  }
+
+  /**
+   * Retrieve a single horse by its id
+   *
+   * @param id The id of the horse
+   * @return The corresponding horse with the same id, or an 404 if none were found
+   */
+  @GetMapping("{id}")
+  public Mono<HorseDetailDto> getById(@PathVariable long id) {
+    LOG.info("GET " + BASE_PATH + "/{}", id);
+
+    return service.getById(id)
+        .onErrorMap(NotFoundException.class, e -> notFound("Horse to get details of not found", e));
+  }
+
+  /**
+   * Retrieve the ancestor tree of a given horse
+   *
+   * @param id the id of the horse to retrieve the generation tree from
+   * @param generations the amount of generations to be contained in the tree
+   * @return A ancestor tree with the given horse at the root of it, or a 422 if validation errors occur
+   */
+  @GetMapping("{id}/ancestors")
+  public Mono<HorseTreeDto> getAncestors(@PathVariable Long id, Integer generations) {
+    LOG.info("GET " + BASE_PATH + "/{}/ancestors", id);
+    LOG.debug("request parameters: generations={}", generations);
+
+    return service.getAncestors(id, generations)
+        .onErrorMap(NotFoundException.class, e -> notFound("Horse to get ancestors of not found", e));
+  }
+
+  private ResponseStatusException notFound(String message, NotFoundException e) {
+    HttpStatus status = HttpStatus.NOT_FOUND;
+    logClientError(status, message, e);
+    return new ResponseStatusException(status, e.getMessage(), e);
+  }
+
+  private void logClientError(HttpStatus status, String message, Exception e) {
+    LOG.warn("{} {}: {}: {}", status.value(), message, e.getClass().getSimpleName(), e.getMessage());
+  }
+}
@@ -0,0 +1,40 @@
+package at.ac.tuwien.sepm.assignment.individual.rest;
+
+import at.ac.tuwien.sepm.assignment.individual.dto.OwnerDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.OwnerSearchDto;
+import at.ac.tuwien.sepm.assignment.individual.service.ReactiveOwnerService;
+import java.lang.invoke.MethodHandles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking variant of the owner search of {@link OwnerEndpoint}, see {@link ReactiveHorseEndpoint}.
+ */
+@RestController
+@RequestMapping(ReactiveOwnerEndpoint.BASE_PATH)
+public class ReactiveOwnerEndpoint {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  static final String BASE_PATH = "/reactive/owners";
+
+  private final ReactiveOwnerService service;
+
+  public ReactiveOwnerEndpoint(ReactiveOwnerService service) {
+    this.service = service;
+  }
+
+  /**
+   * Search for owners based on the given parameters
+   *
+   * @param searchParameters the search parameters to search for
+   * @return all owners which math the given search parameters
+   */
+  @GetMapping
+  public Flux<OwnerDto> search(OwnerSearchDto searchParameters) {
+    LOG.info("GET " + BASE_PATH + " query parameters: {}", searchParameters);
+    return service.search(searchParameters);
+  }
+}
@@ -0,0 +1,106 @@
+package at.ac.tuwien.sepm.assignment.individual.rest;
+
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseCompactListDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseListDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.OwnerDto;
+import at.ac.tuwien.sepm.assignment.individual.type.HorseField;
+import at.ac.tuwien.sepm.assignment.individual.type.OwnerField;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Restricts list responses to the fields requested with the {@code fields} parameter.
+ * The entries are turned into maps containing only those fields, so nothing else is serialized.
+ * The id is always included, so clients can still tell the entries apart.
+ */
+final class SparseFieldsets {
+  private SparseFieldsets() {
+  }
+
+  /**
+   * Restrict the given horses to the requested fields.
+   *
+   * @param horses the horses to return
+   * @param fields the requested fields, null or empty for all of them
+   * @return {@code horses} itself, if all fields are requested, otherwise one map per horse
+   */
+  static Stream<?> horses(Stream<HorseListDto> horses, Set<HorseField> fields) {
+    if (fields == null || fields.isEmpty()) {
+      return horses;
+    }
+    return horses.map(horse -> {
+      Map<String, Object> values = new LinkedHashMap<>();
+      values.put(HorseField.ID.getJsonName(), horse.id());
+      for (var field : fields) {
+        values.put(field.getJsonName(), switch (field) {
+          case ID -> horse.id();
+          case NAME -> horse.name();
+          case DESCRIPTION -> horse.description();
+          case DATE_OF_BIRTH -> horse.dateOfBirth();
+          case SEX -> horse.sex();
+          case OWNER -> horse.owner();
+        });
+      }
+      return values;
+    });
+  }
+
+  /**
+   * Restrict the horses of the given compact list to the requested fields.
+   * The field {@code owner} stands for the {@code ownerId} of the horses.
+   *
+   * @param list the compact list of horses to return
+   * @param fields the requested fields, null or empty for all of them
+   * @return {@code list} itself, if all fields are requested, otherwise a map with the restricted horses and the owners
+   */
+  static Object compactHorses(HorseCompactListDto list, Set<HorseField> fields) {
+    if (fields == null || fields.isEmpty()) {
+      return list;
+    }
+    var horses = list.horses().stream().map(horse -> {
+      Map<String, Object> values = new LinkedHashMap<>();
+      values.put(HorseField.ID.getJsonName(), horse.id());
+      for (var field : fields) {
+        switch (field) {
+          case ID -> { }
+          case NAME -> values.put(field.getJsonName(), horse.name());
+          case DESCRIPTION -> values.put(field.getJsonName(), horse.description());
+          case DATE_OF_BIRTH -> values.put(field.getJsonName(), horse.dateOfBirth());
+          case SEX -> values.put(field.getJsonName(), horse.sex());
+          case OWNER -> values.put("ownerId", horse.ownerId());
+          default -> throw new IllegalStateException("Unexpected field " + field);
+        }
+      }
+      return values;
+    }).toList();
+    return Map.of("horses", horses, "owners", list.owners());
+  }
+
+  /**
+   * Restrict the given owners to the requested fields.
+   *
+   * @param owners the owners to return
+   * @param fields the requested fields, null or empty for all of them
+   * @return {@code owners} itself, if all fields are requested, otherwise one map per owner
+   */
+  static Stream<?> owners(Stream<OwnerDto> owners, Set<OwnerField> fields) {
+    if (fields == null || fields.isEmpty()) {
+      return owners;
+    }
+    return owners.map(owner -> {
+      Map<String, Object> values = new LinkedHashMap<>();
+      values.put(OwnerField.ID.getJsonName(), owner.id());
+      for (var field : fields) {
+        values.put(field.getJsonName(), switch (field) {
+          case ID -> owner.id();
+          case FIRST_NAME -> owner.firstName();
+          case LAST_NAME -> owner.lastName();
+          case EMAIL -> owner.email();
+        });
+      }
+      return values;
+    });
+  }
+}
@@ -0,0 +1,79 @@
+package at.ac.tuwien.sepm.assignment.individual.service;
+
+import at.ac.tuwien.sepm.assignment.individual.dto.ChangeEventDto;
+import at.ac.tuwien.sepm.assignment.individual.type.ChangeType;
+import java.io.IOException;
+
+/**
+ * Service to publish changes of horses and owners to all interested clients.
+ * <p>
+ * Publishing never blocks: every subscriber has a bounded buffer, that is drained on a separate thread.
+ * If a subscriber falls so far behind, that its buffer overflows, the buffered events are dropped
+ *  and the subscriber is told to resync its whole state instead.
+ * </p>
+ */
+public interface ChangeFeedService {
+  String HORSE = "horse";
+  String OWNER = "owner";
+
+  /**
+   * Receives the events of the change feed. The callbacks of one subscriber are never called concurrently.
+   */
+  interface Subscriber {
+    /**
+     * Deliver a single event.
+     *
+     * @param event the event
+     * @throws IOException if the event can not be delivered, which ends the subscription
+     */
+    void onEvent(ChangeEventDto event) throws IOException;
+
+    /**
+     * Tell the subscriber, that it missed events and has to reload its whole state.
+     * Afterwards it keeps receiving events with a sequence number higher than {@code sequence}.
+     *
+     * @param sequence the sequence number of the last event, that is contained in a reload from now on
+     * @throws IOException if the message can not be delivered, which ends the subscription
+     */
+    void onResync(long sequence) throws IOException;
+  }
+
+  /**
+   * Handle to end a subscription.
+   */
+  interface Subscription {
+    void cancel();
+  }
+
+  /**
+   * Publish a change to all current subscribers.
+   *
+   * @param entity the kind of entity, {@link #HORSE} or {@link #OWNER}
+   * @param type what happened to the entity
+   * @param id the ID of the entity
+   * @param data the new state of the entity, or null if it was deleted
+   */
+  void publish(String entity, ChangeType type, long id, Object data);
+
+  /**
+   * Publish a change like {@link #publish(String, ChangeType, long, Object)}, but only once the current transaction commits.
+   * Nothing is published, if it rolls back. Without a transaction, the change is published right away.
+   *
+   * @param entity the kind of entity, {@link #HORSE} or {@link #OWNER}
+   * @param type what happened to the entity
+   * @param id the ID of the entity
+   * @param data the new state of the entity, or null if it was deleted
+   */
+  void publishAfterCommit(String entity, ChangeType type, long id, Object data);
+
+  /**
+   * Subscribe to the change feed.
+   * If {@code lastSequence} is given and the events after it are still known, they are delivered first.
+   * If they are not known anymore, the subscriber is asked to resync first.
+   *
+   * @param lastSequence the sequence number of the last event the subscriber has seen, or null to start with the next event
+   * @param subscriber the receiver of the events
+   * @return the handle to end the subscription
+   */
+  Subscription subscribe(Long lastSequence, Subscriber subscriber);
+}
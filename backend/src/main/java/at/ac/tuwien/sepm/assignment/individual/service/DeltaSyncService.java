@@ -0,0 +1,24 @@
+package at.ac.tuwien.sepm.assignment.individual.service;
+
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseChangesDto;
+import at.ac.tuwien.sepm.assignment.individual.exception.ValidationException;
+
+/**
+ * Service for clients, that keep a local copy of the horses and owners and only want to download what changed.
+ * <p>
+ * Every change of a horse or owner gives it a new, increasing version, and every deleted horse leaves a tombstone.
+ * The token handed to the client is the highest version it has seen.
+ * </p>
+ */
+public interface DeltaSyncService {
+  /**
+   * Get the changes after the given token, ordered by version.
+   * Without a token, all horses and owners are returned, page by page.
+   *
+   * @param since the {@code nextToken} of the previous page, or null for a full sync
+   * @param limit the maximum number of changes in the returned page, or null for the default
+   * @return the changes after {@code since}
+   * @throws ValidationException if the token or the limit are invalid
+   */
+  HorseChangesDto changesSince(String since, Integer limit) throws ValidationException;
+}
@@ -1,13 +1,26 @@
 package at.ac.tuwien.sepm.assignment.individual.service;
 
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseBulkDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseBulkResultDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseCardCheckDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseCompactListDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseCreateDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseDetailDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseDetailWithRelativesDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseFacetsDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseGraphDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseListDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseProgenyDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseSearchDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseTreeDto;
 import at.ac.tuwien.sepm.assignment.individual.exception.ConflictException;
 import at.ac.tuwien.sepm.assignment.individual.exception.NotFoundException;
 import at.ac.tuwien.sepm.assignment.individual.exception.ValidationException;
+import at.ac.tuwien.sepm.assignment.individual.type.HorseRelation;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Stream;
 
 /**
@@ -35,6 +48,18 @@ public interface HorseService {
    */
   HorseDetailDto update(HorseDetailDto horse) throws NotFoundException, ValidationException, ConflictException;
 
+  /**
+   * Update the horse like {@link #update(HorseDetailDto)}, tagged with its new version.
+   * The tag is the same {@link #getVersionedById(long)} gives for the updated horse.
+   *
+   * @param horse the horse to update
+   * @return the updated horse and its entity tag
+   * @throws NotFoundException if the horse with given ID does not exist in the persistent data store
+   * @throws ValidationException if the update data given for the horse is in itself incorrect (description too long, no name, …)
+   * @throws ConflictException if the update data given for the horse is in conflict the data currently in the system (owner does not exist, …)
+   */
+  Versioned<HorseDetailDto> updateVersioned(HorseDetailDto horse) throws NotFoundException, ValidationException, ConflictException;
+
 
   /**
    * Get the horse with given ID, with more detail information.
@@ -47,6 +72,65 @@ public interface HorseService {
    */
   HorseDetailDto getById(long id) throws NotFoundException;
 
+  /**
+   * Get the horses with the given IDs with the same detail information as {@link #getById(long)},
+   *  loaded together in a fixed number of queries, no matter how many horses are requested.
+   *
+   * @param ids the IDs of the horses to get, duplicates are ignored
+   * @return the horses in the order of their IDs, horses that do not exist are left out
+   * @throws ValidationException if an ID is missing or too many horses are requested
+   */
+  List<HorseDetailDto> getAllById(List<Long> ids) throws ValidationException;
+
+  /**
+   * Get the horses with the given IDs as nodes of the GraphQL graph, with a single lookup.
+   * IDs of horses, that do not exist, are left out.
+   *
+   * @param ids the IDs of the horses
+   * @return the horses by their ID
+   */
+  Map<Long, HorseGraphDto> getGraphNodes(Collection<Long> ids);
+
+  /**
+   * Get the children of all the given horses as nodes of the GraphQL graph, with a single lookup.
+   *
+   * @param parentIds the IDs of the parents
+   * @return the children by the ID of their parent, sorted by ID; parents without children are left out
+   */
+  Map<Long, List<HorseGraphDto>> getGraphChildren(Collection<Long> parentIds);
+
+  /**
+   * Get the horses of all the given owners as nodes of the GraphQL graph, with a single lookup.
+   *
+   * @param ownerIds the IDs of the owners
+   * @return the horses by the ID of their owner, sorted by ID; owners without horses are left out
+   */
+  Map<Long, List<HorseGraphDto>> getGraphHorsesOfOwners(Collection<Long> ownerIds);
+
+  /**
+   * Get the horse with given ID like {@link #getById(long)}, tagged with its version.
+   * The horse, its parents and their owners are read with a single lookup of the card of the horse.
+   * The tag is derived from the versions of the horse and its parents,
+   *  so it changes whenever any of them is updated.
+   *
+   * @param id the ID of the horse to get
+   * @return the horse with ID {@code id}, not mapped yet, and its entity tag
+   * @throws NotFoundException if the horse with the given ID does not exist in the persistent data store
+   */
+  Versioned<HorseDetailDto> getVersionedById(long id) throws NotFoundException;
+
+  /**
+   * Get the horse with given ID like {@link #getVersionedById(long)}, together with the requested relatives.
+   * All relatives are loaded with one query, no matter how many relations are requested.
+   * The tag changes whenever the horse, its parents or any of the included relatives change.
+   *
+   * @param id the ID of the horse to get
+   * @param include the relations to include
+   * @return the horse with ID {@code id} and its relatives, not mapped yet, and its entity tag
+   * @throws NotFoundException if the horse with the given ID does not exist in the persistent data store
+   */
+  Versioned<HorseDetailWithRelativesDto> getVersionedById(long id, Set<HorseRelation> include) throws NotFoundException;
+
   /**
    * Save the given horse in the database.
    *
@@ -64,6 +148,18 @@ public interface HorseService {
    */
   void delete(long id) throws NotFoundException;
 
+  /**
+   * Apply many updates, owner reassignments and deletions of horses together, in one transaction.
+   * Everything is validated before the first change is written, so either all of the changes are applied or none.
+   *
+   * @param bulk the changes to apply
+   * @return the numbers of changed horses
+   * @throws NotFoundException if a horse, parent or owner referenced by the changes does not exist
+   * @throws ValidationException if the changes are malformed, or the data given for any horse is in itself incorrect
+   * @throws ConflictException if any of the changed horses would end up with an illegal constellation of parents
+   */
+  HorseBulkResultDto bulk(HorseBulkDto bulk) throws NotFoundException, ValidationException, ConflictException;
+
   /**
    * Search for horses based on search parameters which are connected using AND Operations
    *
@@ -72,6 +168,50 @@ public interface HorseService {
    */
   Stream<HorseListDto> search(HorseSearchDto searchParameters);
 
+  /**
+   * Search for horses like {@link #search(HorseSearchDto)},
+   *  but return the owners of the found horses separately, each of them once.
+   *
+   * @param searchParameters The parameters, that the returned horses must match
+   * @return All horses which match the search parameters, and their owners
+   */
+  HorseCompactListDto searchCompact(HorseSearchDto searchParameters);
+
+  /**
+   * Count the horses matching the search parameters per sex, per year of birth and for the owners with the most horses.
+   * The limit and the fields of the search parameters are ignored.
+   *
+   * @param searchParameters The parameters, that the counted horses must match
+   * @return the numbers of matching horses
+   */
+  HorseFacetsDto getFacets(HorseSearchDto searchParameters);
+
+  /**
+   * Compare the denormalized cards, that the details of horses are read from, with the horses and owners,
+   *  and rebuild those differing.
+   *
+   * @return the number of cards and the IDs of the rebuilt ones
+   */
+  HorseCardCheckDto checkCards();
+
+  /**
+   * Get the numbers of foals and grand-foals of the horse with the given ID.
+   *
+   * @param id the ID of the horse
+   * @return the numbers of offspring of the horse
+   * @throws NotFoundException if the horse with the given ID does not exist in the persistent data store
+   */
+  HorseProgenyDto getProgeny(long id) throws NotFoundException;
+
+  /**
+   * Rank the sires by their numbers of foals, ties broken by their numbers of grand-foals.
+   *
+   * @param limit the maximum number of sires to return, or null for the default
+   * @return the sires with the most foals, best first
+   * @throws ValidationException if the limit is out of range
+   */
+  List<HorseProgenyDto> getTopSires(Integer limit) throws ValidationException;
+
   /**
    * Retrieve all ancestors for the given horse. The horse itself is part of generation 0,
    * the parents generation 1 and so on.
@@ -83,4 +223,16 @@ public interface HorseService {
    * @throws ValidationException If the given parameters fail validation checks for constraints
    */
   HorseTreeDto getAncestors(Long id, Integer generations) throws NotFoundException, ValidationException;
+
+  /**
+   * Retrieve the ancestor tree like {@link #getAncestors(Long, Integer)}, tagged with its version.
+   * The tag is derived from the versions of all horses in the tree.
+   *
+   * @param id the id of the horse of which we want to receive the ancestor tree
+   * @param generations the number of generations to be included in the tree (>0)
+   * @return the ancestor tree, not mapped yet, and its entity tag
+   * @throws NotFoundException If no horse with the given id was found
+   * @throws ValidationException If the given parameters fail validation checks for constraints
+   */
+  Versioned<HorseTreeDto> getVersionedAncestors(Long id, Integer generations) throws NotFoundException, ValidationException;
 }
@@ -0,0 +1,42 @@
+package at.ac.tuwien.sepm.assignment.individual.service;
+
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseDetailDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseListDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseSearchDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseTreeDto;
+import at.ac.tuwien.sepm.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepm.assignment.individual.exception.ValidationException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking service for reading horses.
+ * The results are the same as those of the corresponding methods of {@link HorseService},
+ *  errors are signalled through the returned publisher instead of being thrown.
+ */
+public interface ReactiveHorseService {
+  /**
+   * Search for horses, see {@link HorseService#search(HorseSearchDto)}.
+   *
+   * @param searchParameters The parameters, that the returned horses must match
+   * @return All horses which match the search parameters
+   */
+  Flux<HorseListDto> search(HorseSearchDto searchParameters);
+
+  /**
+   * Get the horse with given ID, with its owner and its parents, see {@link HorseService#getById(long)}.
+   *
+   * @param id the ID of the horse to get
+   * @return the horse with ID {@code id}, or a {@link NotFoundException} if it does not exist
+   */
+  Mono<HorseDetailDto> getById(long id);
+
+  /**
+   * Retrieve the ancestor tree of the given horse, see {@link HorseService#getAncestors(Long, Integer)}.
+   *
+   * @param id the id of the horse of which we want to receive the ancestor tree
+   * @param generations the number of generations to be included in the tree
+   * @return the ancestor tree, or a {@link NotFoundException} or {@link ValidationException}
+   */
+  Mono<HorseTreeDto> getAncestors(Long id, Integer generations);
+}
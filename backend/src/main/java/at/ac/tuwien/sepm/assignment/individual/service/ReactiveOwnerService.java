@@ -0,0 +1,31 @@
+package at.ac.tuwien.sepm.assignment.individual.service;
+
+import at.ac.tuwien.sepm.assignment.individual.dto.OwnerDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.OwnerSearchDto;
+import at.ac.tuwien.sepm.assignment.individual.exception.NotFoundException;
+import java.util.Collection;
+import java.util.Map;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking service for reading owners.
+ * The results are the same as those of the corresponding methods of {@link OwnerService}.
+ */
+public interface ReactiveOwnerService {
+  /**
+   * Fetch all owners referenced by the IDs in {@code ids}.
+   *
+   * @param ids the IDs of the owners, that should be fetched
+   * @return a map that contains the requested owners with their IDs as key, or a {@link NotFoundException} if any is missing
+   */
+  Mono<Map<Long, OwnerDto>> getAllById(Collection<Long> ids);
+
+  /**
+   * Search for owners, see {@link OwnerService#search(OwnerSearchDto)}.
+   *
+   * @param searchParameters object containing the search parameters to match
+   * @return the owners matching the criteria in {@code searchParameters}
+   */
+  Flux<OwnerDto> search(OwnerSearchDto searchParameters);
+}
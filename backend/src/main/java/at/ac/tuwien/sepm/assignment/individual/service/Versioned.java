@@ -0,0 +1,14 @@
+package at.ac.tuwien.sepm.assignment.individual.service;
+
+import java.util.function.Supplier;
+
+/**
+ * A representation of some data together with a strong entity tag identifying its current version.
+ * The content is only built, when it is requested, so callers can answer conditional requests without it.
+ *
+ * @param etag the quoted entity tag, it changes whenever the content would change
+ * @param content builds the content, may be called at most once
+ * @param <T> the type of the content
+ */
+public record Versioned<T>(String etag, Supplier<T> content) {
+}
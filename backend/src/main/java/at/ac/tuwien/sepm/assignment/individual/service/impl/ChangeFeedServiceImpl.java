@@ -0,0 +1,203 @@
+package at.ac.tuwien.sepm.assignment.individual.service.impl;
+
+import at.ac.tuwien.sepm.assignment.individual.dto.ChangeEventDto;
+import at.ac.tuwien.sepm.assignment.individual.service.ChangeFeedService;
+import at.ac.tuwien.sepm.assignment.individual.type.ChangeType;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * The implementation of the change feed.
+ * The most recent events are kept in a ring buffer, so reconnecting subscribers can catch up without a full resync.
+ */
+@Service
+public class ChangeFeedServiceImpl implements ChangeFeedService {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private final int bufferSize;
+  private final ChangeEventDto[] history;
+  private final Set<SubscriptionImpl> subscriptions = ConcurrentHashMap.newKeySet();
+  private final ExecutorService dispatcher;
+  // not a monitor, so virtual threads publishing concurrently do not pin their carrier threads
+  private final ReentrantLock lock = new ReentrantLock();
+  private long sequence;
+
+  /**
+   * Default DI constructor.
+   *
+   * @param bufferSize the maximum number of undelivered events per subscriber
+   * @param historySize the number of recent events kept for reconnecting subscribers
+   * @param dispatcherThreads the number of threads delivering events to subscribers
+   */
+  public ChangeFeedServiceImpl(
+      @Value("${wendy.change-feed.buffer-size:256}") int bufferSize,
+      @Value("${wendy.change-feed.history-size:1024}") int historySize,
+      @Value("${wendy.change-feed.dispatcher-threads:4}") int dispatcherThreads) {
+    this.bufferSize = bufferSize;
+    this.history = new ChangeEventDto[historySize];
+    var threadNumber = new AtomicInteger();
+    this.dispatcher = Executors.newFixedThreadPool(dispatcherThreads, runnable -> {
+      var thread = new Thread(runnable, "change-feed-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    subscriptions.forEach(SubscriptionImpl::cancel);
+    dispatcher.shutdownNow();
+  }
+
+  @Override
+  public void publish(String entity, ChangeType type, long id, Object data) {
+    LOG.trace("publish({}, {}, {})", entity, type, id);
+    // Offering to the buffers never blocks, so doing it under the lock is cheap
+    //  and guarantees, that every subscriber sees the events in sequence order.
+    lock.lock();
+    try {
+      var event = new ChangeEventDto(++sequence, entity, type, id, data);
+      history[(int) (event.sequence() % history.length)] = event;
+      for (var subscription : subscriptions) {
+        subscription.offer(event);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void publishAfterCommit(String entity, ChangeType type, long id, Object data) {
+    LOG.trace("publishAfterCommit({}, {}, {})", entity, type, id);
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      publish(entity, type, id, data);
+      return;
+    }
+    // runs before the write locks of the transaction are released in afterCompletion,
+    //  so changes of the same horse are still published in the order they were committed
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        publish(entity, type, id, data);
+      }
+    });
+  }
+
+  @Override
+  public Subscription subscribe(Long lastSequence, Subscriber subscriber) {
+    LOG.trace("subscribe({})", lastSequence);
+    var subscription = new SubscriptionImpl(subscriber);
+    lock.lock();
+    try {
+      if (lastSequence != null && lastSequence != sequence) {
+        var oldestKnown = Math.max(1, sequence - history.length + 1);
+        // a sequence number from the future stems from before a restart of the backend
+        if (lastSequence > sequence || lastSequence + 1 < oldestKnown || sequence - lastSequence > bufferSize) {
+          subscription.overflow();
+        } else {
+          for (var s = lastSequence + 1; s <= sequence; s++) {
+            subscription.offer(history[(int) (s % history.length)]);
+          }
+        }
+      }
+      subscriptions.add(subscription);
+    } finally {
+      lock.unlock();
+    }
+    subscription.schedule();
+    return subscription;
+  }
+
+  private long currentSequence() {
+    lock.lock();
+    try {
+      return sequence;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private final class SubscriptionImpl implements Subscription {
+    private final Subscriber subscriber;
+    private final ArrayBlockingQueue<ChangeEventDto> buffer = new ArrayBlockingQueue<>(bufferSize);
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+    private volatile boolean cancelled;
+    // only read and written by drain, which never runs concurrently for the same subscription
+    private long resyncSequence;
+
+    SubscriptionImpl(Subscriber subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    void offer(ChangeEventDto event) {
+      if (!buffer.offer(event)) {
+        overflow();
+      }
+      schedule();
+    }
+
+    void overflow() {
+      if (overflowed.compareAndSet(false, true)) {
+        LOG.debug("Subscriber of change feed is too slow, dropping its buffered events");
+      }
+      buffer.clear();
+    }
+
+    void schedule() {
+      if (!cancelled && scheduled.compareAndSet(false, true)) {
+        dispatcher.execute(this::drain);
+      }
+    }
+
+    private void drain() {
+      try {
+        ChangeEventDto event;
+        while (!cancelled) {
+          if (overflowed.getAndSet(false)) {
+            resyncSequence = currentSequence();
+            subscriber.onResync(resyncSequence);
+          }
+          event = buffer.poll();
+          if (event == null) {
+            break;
+          }
+          // the state the subscriber resyncs to already contains the events up to the resync sequence
+          if (event.sequence() > resyncSequence) {
+            subscriber.onEvent(event);
+          }
+        }
+      } catch (IOException | RuntimeException e) {
+        LOG.debug("Could not deliver change event, ending subscription: {}", e.getMessage());
+        cancel();
+      } finally {
+        scheduled.set(false);
+      }
+      if (!cancelled && (overflowed.get() || !buffer.isEmpty())) {
+        schedule();
+      }
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      subscriptions.remove(this);
+      buffer.clear();
+    }
+  }
+}
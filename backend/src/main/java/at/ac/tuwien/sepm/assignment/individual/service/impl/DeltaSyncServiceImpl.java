@@ -0,0 +1,157 @@
+package at.ac.tuwien.sepm.assignment.individual.service.impl;
+
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseChangesDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.OwnerDto;
+import at.ac.tuwien.sepm.assignment.individual.entity.Horse;
+import at.ac.tuwien.sepm.assignment.individual.entity.Owner;
+import at.ac.tuwien.sepm.assignment.individual.entity.Tombstone;
+import at.ac.tuwien.sepm.assignment.individual.exception.FatalException;
+import at.ac.tuwien.sepm.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepm.assignment.individual.exception.ValidationException;
+import at.ac.tuwien.sepm.assignment.individual.mapper.HorseMapper;
+import at.ac.tuwien.sepm.assignment.individual.mapper.OwnerMapper;
+import at.ac.tuwien.sepm.assignment.individual.persistence.HorseDao;
+import at.ac.tuwien.sepm.assignment.individual.persistence.OwnerDao;
+import at.ac.tuwien.sepm.assignment.individual.service.DeltaSyncService;
+import at.ac.tuwien.sepm.assignment.individual.service.OwnerService;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The implementation of the delta sync.
+ * <p>
+ * The changed horses, the changed owners and the tombstones are each fetched ordered by version,
+ *  at most one more than fits into the page, and merged. So the page always contains the changes with the lowest versions,
+ *  and its token never skips a change.
+ * </p>
+ * <p>
+ * Versions are drawn when a write runs, but become visible only when its transaction commits, not necessarily in the order of the versions.
+ * So the page only takes changes up to the settled version, below every write still in progress,
+ *  and changes above it are left for the next poll, even if they are visible already.
+ * All reads of a poll run in one transaction, on one connection.
+ * </p>
+ */
+@Service
+public class DeltaSyncServiceImpl implements DeltaSyncService {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private final HorseDao horseDao;
+  private final OwnerDao ownerDao;
+  private final HorseMapper horseMapper;
+  private final OwnerMapper ownerMapper;
+  private final OwnerService ownerService;
+  private final int defaultLimit;
+  private final int maxLimit;
+
+  /**
+   * Default DI constructor.
+   *
+   * @param horseDao the DAO to read changed and deleted horses from
+   * @param ownerDao the DAO to read changed owners from
+   * @param horseMapper the mapper to convert horses to DTOs
+   * @param ownerMapper the mapper to convert owners to DTOs
+   * @param ownerService the owner service to look up the owners of changed horses
+   * @param defaultLimit the page size, if the client does not ask for one
+   * @param maxLimit the largest page size a client may ask for
+   */
+  public DeltaSyncServiceImpl(
+      HorseDao horseDao,
+      OwnerDao ownerDao,
+      HorseMapper horseMapper,
+      OwnerMapper ownerMapper,
+      OwnerService ownerService,
+      @Value("${wendy.delta-sync.default-limit:500}") int defaultLimit,
+      @Value("${wendy.delta-sync.max-limit:5000}") int maxLimit) {
+    this.horseDao = horseDao;
+    this.ownerDao = ownerDao;
+    this.horseMapper = horseMapper;
+    this.ownerMapper = ownerMapper;
+    this.ownerService = ownerService;
+    this.defaultLimit = defaultLimit;
+    this.maxLimit = maxLimit;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public HorseChangesDto changesSince(String since, Integer limit) throws ValidationException {
+    LOG.trace("changesSince({}, {})", since, limit);
+
+    var validationErrors = new ArrayList<String>();
+    long version = 0;
+    if (since != null && !since.isEmpty()) {
+      try {
+        version = Long.parseLong(since);
+        if (version < 0) {
+          validationErrors.add("Sync token must not be negative");
+        }
+      } catch (NumberFormatException e) {
+        validationErrors.add("Sync token is not valid");
+      }
+    }
+    if (limit != null && (limit < 1 || limit > maxLimit)) {
+      validationErrors.add("Limit must be between 1 and %d".formatted(maxLimit));
+    }
+    if (!validationErrors.isEmpty()) {
+      throw new ValidationException("Validation of sync request failed", validationErrors);
+    }
+    var pageSize = limit == null ? Math.min(defaultLimit, maxLimit) : limit;
+
+    var settled = horseDao.getSettledVersion();
+    var horses = horseDao.getChangedSince(version, pageSize + 1);
+    var owners = ownerDao.getChangedSince(version, pageSize + 1);
+    var tombstones = horseDao.getDeletedSince(version, pageSize + 1);
+
+    var pageHorses = new ArrayList<Horse>();
+    var pageOwners = new ArrayList<Owner>();
+    var pageTombstones = new ArrayList<Tombstone>();
+    int h = 0;
+    int o = 0;
+    int t = 0;
+    var lastVersion = version;
+    while (pageHorses.size() + pageOwners.size() + pageTombstones.size() < pageSize) {
+      var horseVersion = h < horses.size() && horses.get(h).getVersion() <= settled ? horses.get(h).getVersion() : Long.MAX_VALUE;
+      var ownerVersion = o < owners.size() && owners.get(o).getVersion() <= settled ? owners.get(o).getVersion() : Long.MAX_VALUE;
+      var tombstoneVersion = t < tombstones.size() && tombstones.get(t).getVersion() <= settled ? tombstones.get(t).getVersion() : Long.MAX_VALUE;
+      if (horseVersion <= ownerVersion && horseVersion <= tombstoneVersion && horseVersion != Long.MAX_VALUE) {
+        pageHorses.add(horses.get(h++));
+        lastVersion = horseVersion;
+      } else if (ownerVersion <= tombstoneVersion && ownerVersion != Long.MAX_VALUE) {
+        pageOwners.add(owners.get(o++));
+        lastVersion = ownerVersion;
+      } else if (tombstoneVersion != Long.MAX_VALUE) {
+        pageTombstones.add(tombstones.get(t++));
+        lastVersion = tombstoneVersion;
+      } else {
+        break;
+      }
+    }
+    // also if the rest is not settled yet, the client should poll again soon
+    var hasMore = h < horses.size() || o < owners.size() || t < tombstones.size();
+
+    var ownerIds = pageHorses.stream()
+        .map(Horse::getOwnerId)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toUnmodifiableSet());
+    Map<Long, OwnerDto> ownerMap;
+    try {
+      ownerMap = ownerService.getAllById(ownerIds);
+    } catch (NotFoundException e) {
+      throw new FatalException("Horse, that is already persisted, refers to non-existing owner", e);
+    }
+
+    return new HorseChangesDto(
+        pageHorses.stream().map(horse -> horseMapper.entityToListDto(horse, ownerMap)).toList(),
+        pageOwners.stream().map(ownerMapper::entityToDto).toList(),
+        pageTombstones.stream().map(Tombstone::getId).toList(),
+        Long.toString(lastVersion),
+        hasMore);
+  }
+}
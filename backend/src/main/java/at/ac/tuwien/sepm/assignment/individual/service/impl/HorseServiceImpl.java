@@ -1,30 +1,64 @@
 package at.ac.tuwien.sepm.assignment.individual.service.impl;
 
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseBulkDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseBulkResultDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseCardCheckDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseCompactListDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseCreateDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseDetailDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseDetailSimpleDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseDetailWithRelativesDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseFacetsDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseGraphDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseListDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseProgenyDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseSearchDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseTreeDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.OwnerDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.OwnerFacetDto;
 import at.ac.tuwien.sepm.assignment.individual.entity.Horse;
+import at.ac.tuwien.sepm.assignment.individual.entity.HorseWriteContext;
 import at.ac.tuwien.sepm.assignment.individual.exception.ConflictException;
 import at.ac.tuwien.sepm.assignment.individual.exception.FatalException;
 import at.ac.tuwien.sepm.assignment.individual.exception.NotFoundException;
 import at.ac.tuwien.sepm.assignment.individual.exception.ValidationException;
 import at.ac.tuwien.sepm.assignment.individual.mapper.HorseMapper;
+import at.ac.tuwien.sepm.assignment.individual.mapper.OwnerMapper;
 import at.ac.tuwien.sepm.assignment.individual.persistence.HorseDao;
+import at.ac.tuwien.sepm.assignment.individual.service.ChangeFeedService;
 import at.ac.tuwien.sepm.assignment.individual.service.HorseService;
-import at.ac.tuwien.sepm.assignment.individual.service.OwnerService;
+import at.ac.tuwien.sepm.assignment.individual.service.Versioned;
+import at.ac.tuwien.sepm.assignment.individual.type.ChangeType;
+import at.ac.tuwien.sepm.assignment.individual.type.HorseRelation;
 import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * The implementation of the horse service to manage horses
@@ -34,121 +68,474 @@ public class HorseServiceImpl implements HorseService {
   private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
   private final HorseDao dao;
   private final HorseMapper mapper;
+  private final OwnerMapper ownerMapper;
   private final HorseValidator validator;
-  private final OwnerService ownerService;
+  private final OwnerLoader ownerLoader;
+  private final ChangeFeedService changeFeed;
+  private final HorseWriteLocks writeLocks;
+  private final TransactionTemplate createTransaction;
+  private final int facetTopOwners;
+  private final int topSiresDefaultLimit;
+  private final int topSiresMaxLimit;
+  private final int bulkMaxChanges;
+  private final int batchGetMaxIds;
 
   /**
    * Default DI constructor.
    *
    * @param dao The DAO to manipulate saved horses
    * @param mapper The mapper to convert between DTO's and entities
+   * @param ownerMapper The mapper to convert the owners loaded along with horses
    * @param validator The validator to validate entities
-   * @param ownerService The owner service to look up owner references from horses
+   * @param ownerLoader The loader to look up owner references from horses, batched per request
+   * @param changeFeed The change feed to publish changes of horses to
+   * @param writeLocks The locks coordinating concurrent writes on the same horses
+   * @param transactionManager The transaction manager to run creates with
+   * @param groupCommit Whether concurrent creates share the commit of their inserts, see {@link HorseDao#create(HorseCreateDto)}
+   * @param facetTopOwners The number of owners with the most horses, that are included in the facets
+   * @param topSiresDefaultLimit The number of sires ranked, if the client does not ask for a number
+   * @param topSiresMaxLimit The largest number of sires a client may ask for
+   * @param bulkMaxChanges The largest number of horses changed in one bulk change
+   * @param batchGetMaxIds The largest number of horses a client may get at once
    */
-  public HorseServiceImpl(HorseDao dao, HorseMapper mapper, HorseValidator validator, OwnerService ownerService) {
+  public HorseServiceImpl(HorseDao dao, HorseMapper mapper, OwnerMapper ownerMapper, HorseValidator validator, OwnerLoader ownerLoader,
+      ChangeFeedService changeFeed, HorseWriteLocks writeLocks, PlatformTransactionManager transactionManager,
+      @Value("${wendy.group-commit.enabled:false}") boolean groupCommit,
+      @Value("${wendy.facets.top-owners:10}") int facetTopOwners,
+      @Value("${wendy.progeny.top-sires.default-limit:10}") int topSiresDefaultLimit,
+      @Value("${wendy.progeny.top-sires.max-limit:100}") int topSiresMaxLimit,
+      @Value("${wendy.bulk.max-changes:10000}") int bulkMaxChanges,
+      @Value("${wendy.batch-get.max-ids:1000}") int batchGetMaxIds) {
     this.dao = dao;
     this.mapper = mapper;
+    this.ownerMapper = ownerMapper;
     this.validator = validator;
-    this.ownerService = ownerService;
+    this.ownerLoader = ownerLoader;
+    this.changeFeed = changeFeed;
+    this.writeLocks = writeLocks;
+    this.createTransaction = new TransactionTemplate(transactionManager);
+    this.createTransaction.setPropagationBehavior(groupCommit ? TransactionDefinition.PROPAGATION_SUPPORTS : TransactionDefinition.PROPAGATION_REQUIRED);
+    this.facetTopOwners = facetTopOwners;
+    this.topSiresDefaultLimit = topSiresDefaultLimit;
+    this.topSiresMaxLimit = topSiresMaxLimit;
+    this.bulkMaxChanges = bulkMaxChanges;
+    this.batchGetMaxIds = batchGetMaxIds;
   }
 
   @Override
+  @Transactional(readOnly = true)
   public Stream<HorseListDto> allHorses() {
     LOG.trace("allHorses()");
     var horses = dao.getAll();
-    var ownerIds = horses.stream()
-        .map(Horse::getOwnerId)
-        .filter(Objects::nonNull)
-        .collect(Collectors.toUnmodifiableSet());
-    Map<Long, OwnerDto> ownerMap;
-    try {
-      ownerMap = ownerService.getAllById(ownerIds);
-    } catch (NotFoundException e) {
-      throw new FatalException("Horse, that is already persisted, refers to non-existing owner", e);
-    }
+    var ownerMap = ownerLoader.loadOwnersOf(horses);
     return horses.stream()
         .map(horse -> mapper.entityToListDto(horse, ownerMap));
   }
 
 
   @Override
+  @Transactional
   public HorseDetailDto update(HorseDetailDto horse) throws NotFoundException, ValidationException, ConflictException {
     LOG.trace("update({})", horse);
+    return updateVersioned(horse).content().get();
+  }
 
-    var simpleHorse = horse.withoutParents();
-    var father = horse.father() == null ? null : dao.getById(horse.father().id());
-    var mother = horse.mother() == null ? null : dao.getById(horse.mother().id());
-
-    var owners = ownerMap(horse.ownerId(), father == null ? null : father.getOwnerId(), mother == null ? null : mother.getOwnerId());
-    var fatherDto = father == null ? null : mapper.entityToDetailDto(father, owners);
-    var motherDto = mother == null ? null : mapper.entityToDetailDto(mother, owners);
+  @Override
+  @Transactional
+  public Versioned<HorseDetailDto> updateVersioned(HorseDetailDto horse) throws NotFoundException, ValidationException, ConflictException {
+    LOG.trace("updateVersioned({})", horse);
+
+    writeLocks.lockUntilCompletion(Collections.singletonList(horse.id()), Arrays.asList(horse.fatherId(), horse.motherId()));
+    var context = dao.getWriteContext(horse.id(), horse.fatherId(), horse.motherId(), horse.ownerId());
+    if (horse.id() != null && context.getHorse() == null) {
+      throw new NotFoundException("No horse with ID %d found".formatted(horse.id()));
+    }
+    var owners = ownerMap(context, horse.ownerId());
+    var fatherDto = parentDto(horse.fatherId(), context.getFather(), owners);
+    var motherDto = parentDto(horse.motherId(), context.getMother(), owners);
 
-    validator.validateForUpdate(horse, fatherDto, motherDto, dao.isParent(horse.id()), dao.getById(horse.id()).getSex());
+    validator.validateForUpdate(horse, fatherDto, motherDto, context.hasChildren(), context.getHorse() == null ? null : context.getHorse().getSex());
 
 
     var updatedHorse = dao.update(horse);
 
-
-
-    return mapper.entityToDetailDto(
+    var updated = mapper.entityToDetailDto(
         updatedHorse, fatherDto, motherDto,
         owners);
+    changeFeed.publishAfterCommit(ChangeFeedService.HORSE, ChangeType.UPDATED, updated.id(), updated);
+    // tagged like the card of the horse in getVersionedById(long)
+    return new Versioned<>(versionTag("", Stream.of(updatedHorse, context.getFather(), context.getMother())), () -> updated);
   }
 
 
   @Override
   public HorseDetailDto getById(long id) throws NotFoundException {
     LOG.trace("getById({})", id);
+    return getVersionedById(id).content().get();
+  }
 
-    var horse = dao.getById(id);
-    var father = horse.getFatherId() == null ? null : dao.getById(horse.getFatherId());
-    var mother = horse.getMotherId() == null ? null : dao.getById(horse.getMotherId());
+  @Override
+  @Transactional(readOnly = true)
+  public List<HorseDetailDto> getAllById(List<Long> ids) throws ValidationException {
+    LOG.trace("getAllById({})", ids);
+    validator.validateForBatchGet(ids, batchGetMaxIds);
+    return detailsOf(ids);
+  }
 
-    var owners = ownerMap(horse.getOwnerId(), father == null ? null : father.getOwnerId(), mother == null ? null : mother.getOwnerId());
-    return mapper.entityToDetailDto(
+  /**
+   * Get the details of the horses with the given IDs, in the order of the IDs, leaving out horses that do not exist.
+   * Needs one query for the horses, one for their parents not requested themselves and one for all owners.
+   */
+  private List<HorseDetailDto> detailsOf(Collection<Long> ids) {
+    var horses = new HashMap<Long, Horse>();
+    dao.getAllById(new LinkedHashSet<>(ids)).forEach(horse -> horses.put(horse.getId(), horse));
+    var requested = ids.stream()
+        .distinct()
+        .map(horses::get)
+        .filter(Objects::nonNull)
+        .toList();
+    var parentIds = requested.stream()
+        .flatMap(horse -> Stream.of(horse.getFatherId(), horse.getMotherId()))
+        .filter(id -> id != null && !horses.containsKey(id))
+        .collect(Collectors.toSet());
+    dao.getAllById(parentIds).forEach(horse -> horses.put(horse.getId(), horse));
+    var owners = ownerLoader.loadOwnersOf(horses.values());
+
+    return requested.stream()
+        .map(horse -> mapper.entityToDetailDto(
             horse,
-            mapper.entityToDetailDto(father, owners),
-            mapper.entityToDetailDto(mother, owners),
-            owners);
+            mapper.entityToDetailDto(horse.getFatherId() == null ? null : horses.get(horse.getFatherId()), owners),
+            mapper.entityToDetailDto(horse.getMotherId() == null ? null : horses.get(horse.getMotherId()), owners),
+            owners))
+        .toList();
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Map<Long, HorseGraphDto> getGraphNodes(Collection<Long> ids) {
+    LOG.trace("getGraphNodes({})", ids);
+    return dao.getAllById(ids).stream()
+        .collect(Collectors.toMap(Horse::getId, mapper::entityToGraphDto));
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Map<Long, List<HorseGraphDto>> getGraphChildren(Collection<Long> parentIds) {
+    LOG.trace("getGraphChildren({})", parentIds);
+    var children = new HashMap<Long, List<HorseGraphDto>>();
+    dao.getChildrenOfAll(parentIds).stream()
+        .sorted(Comparator.comparing(Horse::getId))
+        .forEach(child -> Stream.of(child.getFatherId(), child.getMotherId())
+            .filter(parentIds::contains)
+            .forEach(parentId -> children.computeIfAbsent(parentId, id -> new ArrayList<>()).add(mapper.entityToGraphDto(child))));
+    return children;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Map<Long, List<HorseGraphDto>> getGraphHorsesOfOwners(Collection<Long> ownerIds) {
+    LOG.trace("getGraphHorsesOfOwners({})", ownerIds);
+    return dao.getAllByOwnerId(ownerIds).stream()
+        .sorted(Comparator.comparing(Horse::getId))
+        .collect(Collectors.groupingBy(Horse::getOwnerId, Collectors.mapping(mapper::entityToGraphDto, Collectors.toList())));
   }
 
+  @Override
+  @Transactional(readOnly = true)
+  public Versioned<HorseDetailDto> getVersionedById(long id) throws NotFoundException {
+    LOG.trace("getVersionedById({})", id);
+
+    // one lookup of the card, which holds the horse, its parents and all their owners
+    var card = dao.getCard(id);
+
+    // Owners can't be changed once created, the owner references are covered by the versions of the horses.
+    return new Versioned<>(versionTag("", Stream.of(card.getHorse(), card.getFather(), card.getMother())), () -> {
+      var owners = new HashMap<Long, OwnerDto>();
+      card.getOwners().forEach((ownerId, owner) -> owners.put(ownerId, ownerMapper.entityToDto(owner)));
+      return mapper.entityToDetailDto(
+              card.getHorse(),
+              mapper.entityToDetailDto(card.getFather(), owners),
+              mapper.entityToDetailDto(card.getMother(), owners),
+              owners);
+    });
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Versioned<HorseDetailWithRelativesDto> getVersionedById(long id, Set<HorseRelation> include) throws NotFoundException {
+    LOG.trace("getVersionedById({}, {})", id, include);
+
+    var horse = dao.getById(id);
+    // both parents with one lookup
+    var parents = new HashMap<Long, Horse>();
+    dao.getAllById(Stream.of(horse.getFatherId(), horse.getMotherId()).filter(Objects::nonNull).toList())
+        .forEach(parent -> parents.put(parent.getId(), parent));
+    var father = parents.get(horse.getFatherId());
+    var mother = parents.get(horse.getMotherId());
+    var relatives = dao.getRelatives(id, include);
+    // a horse can be related in more than one way, e.g. a grandparent over both parents
+    var loaded = Stream.concat(Stream.of(horse, father, mother).filter(Objects::nonNull), relatives.values().stream().flatMap(List::stream))
+        .collect(Collectors.toMap(Horse::getId, Function.identity(), (first, second) -> first, LinkedHashMap::new));
+
+    var variant = include.stream().map(HorseRelation::getParameterName).sorted().collect(Collectors.joining(","));
+    return new Versioned<>(versionTag(variant, loaded.values().stream()), () -> {
+      var owners = ownerLoader.loadOwnersOf(loaded.values());
+      Function<HorseRelation, List<HorseListDto>> list = relation -> !relatives.containsKey(relation) ? null : relatives.get(relation).stream()
+          .map(Horse::getId)
+          .distinct()
+          .sorted()
+          .map(relative -> mapper.entityToListDto(loaded.get(relative), owners))
+          .toList();
+      return new HorseDetailWithRelativesDto(
+          mapper.entityToDetailDto(horse, mapper.entityToDetailDto(father, owners), mapper.entityToDetailDto(mother, owners), owners),
+          list.apply(HorseRelation.CHILDREN),
+          list.apply(HorseRelation.SIBLINGS),
+          relatives.containsKey(HorseRelation.GRANDPARENTS)
+              ? mapper.entityListToTreeDto(horse, Stream.concat(Stream.of(father, mother).filter(Objects::nonNull),
+                  relatives.get(HorseRelation.GRANDPARENTS).stream().map(grandparent -> loaded.get(grandparent.getId()))).distinct().toList())
+              : null,
+          list.apply(HorseRelation.OWNER_HORSES));
+    });
+  }
+
+  // Without group commit, validation and insert run in one transaction, like every other write.
+  // With group commit, the create only joins a surrounding transaction: without one, the horse is inserted in a transaction of its own,
+  //  which concurrent creates share, see HorseDao#create. The validation still holds up:
+  //  the parents stay locked until the create returns, which is after the batch is committed, so no update or delete of a parent
+  //  slips in between validation and insert. And the insert checks the foreign keys of the parents once more within the batch.
   @Override
   public HorseDetailDto create(HorseCreateDto toCreate) throws ValidationException, ConflictException, NotFoundException {
     LOG.trace("create({})", toCreate);
+    try {
+      return createTransaction.execute(status -> {
+        try {
+          return createLocked(toCreate);
+        } catch (ValidationException | ConflictException | NotFoundException e) {
+          throw new CreateFailure(e);
+        }
+      });
+    } catch (CreateFailure failure) {
+      if (failure.getCause() instanceof ValidationException e) {
+        throw e;
+      }
+      if (failure.getCause() instanceof ConflictException e) {
+        throw e;
+      }
+      throw (NotFoundException) failure.getCause();
+    }
+  }
 
-    var father = toCreate.fatherId() == null ? null : dao.getById(toCreate.fatherId());
-    var mother = toCreate.motherId() == null ? null : dao.getById(toCreate.motherId());
-    var owners = ownerMap(toCreate.ownerId(), father == null ? null : father.getOwnerId(), mother == null ? null : mother.getOwnerId());
-    var fatherDto = father == null ? null : mapper.entityToDetailDto(father, ownerMapForSingleId(father.getOwnerId()));
-    var motherDto = mother == null ? null : mapper.entityToDetailDto(mother, ownerMapForSingleId(mother.getOwnerId()));
+  private HorseDetailDto createLocked(HorseCreateDto toCreate) throws ValidationException, ConflictException, NotFoundException {
+    writeLocks.lockUntilCompletion(List.of(), Arrays.asList(toCreate.fatherId(), toCreate.motherId()));
+    var context = dao.getWriteContext(null, toCreate.fatherId(), toCreate.motherId(), toCreate.ownerId());
+    var owners = ownerMap(context, toCreate.ownerId());
+    var fatherDto = parentDto(toCreate.fatherId(), context.getFather(), owners);
+    var motherDto = parentDto(toCreate.motherId(), context.getMother(), owners);
 
     validator.validateForCreate(toCreate, fatherDto, motherDto);
     Horse horse = dao.create(toCreate);
 
-    return mapper.entityToDetailDto(
+    var created = mapper.entityToDetailDto(
             horse,
-            mapper.entityToDetailDto(father, owners),
-            mapper.entityToDetailDto(mother, owners),
+            fatherDto,
+            motherDto,
             owners);
+    changeFeed.publishAfterCommit(ChangeFeedService.HORSE, ChangeType.CREATED, created.id(), created);
+    return created;
   }
 
   @Override
+  @Transactional
   public void delete(long id) throws NotFoundException {
     LOG.trace("delete({})", id);
 
+    writeLocks.lockUntilCompletion(List.of(id), List.of());
+    // the children lose the horse as parent, so they are published as updated too
+    var childIds = childIdsOf(List.of(id));
     dao.delete(id);
+    changeFeed.publishAfterCommit(ChangeFeedService.HORSE, ChangeType.DELETED, id, null);
+    detailsOf(childIds).forEach(child -> changeFeed.publishAfterCommit(ChangeFeedService.HORSE, ChangeType.UPDATED, child.id(), child));
+  }
+
+  private List<Long> childIdsOf(Collection<Long> parentIds) {
+    return parentIds.isEmpty() ? List.of() : dao.getChildrenOfAll(parentIds).stream()
+        .map(Horse::getId)
+        .sorted()
+        .toList();
   }
 
   @Override
+  @Transactional(rollbackFor = Exception.class)
+  public HorseBulkResultDto bulk(HorseBulkDto bulk) throws NotFoundException, ValidationException, ConflictException {
+    LOG.trace("bulk({})", bulk);
+    validator.validateForBulk(bulk, bulkMaxChanges);
+    var updates = bulk.update() == null ? List.<HorseDetailDto>of() : bulk.update();
+    var reassigned = bulk.reassign() == null ? List.<Long>of() : bulk.reassign().horseIds();
+    final var newOwnerId = bulk.reassign() == null ? null : bulk.reassign().ownerId();
+    var deleted = bulk.delete() == null ? List.<Long>of() : bulk.delete();
+
+    // like the single writes, lock every horse changed exclusively and every parent the updates are validated against shared
+    var changedIds = new LinkedHashSet<Long>();
+    var parentIds = new LinkedHashSet<Long>();
+    for (var horse : updates) {
+      changedIds.add(horse.id());
+      parentIds.addAll(Arrays.asList(horse.fatherId(), horse.motherId()));
+    }
+    changedIds.addAll(reassigned);
+    changedIds.addAll(deleted);
+    writeLocks.lockUntilCompletion(changedIds, parentIds);
+    var lockedIds = new LinkedHashSet<>(changedIds);
+    lockedIds.addAll(parentIds);
+    lockedIds.remove(null);
+
+    var stored = new HashMap<Long, Horse>();
+    dao.getAllById(lockedIds).forEach(horse -> stored.put(horse.getId(), horse));
+    var missing = lockedIds.stream().filter(id -> !stored.containsKey(id)).toList();
+    if (!missing.isEmpty()) {
+      throw new NotFoundException("No horses with IDs %s found".formatted(missing));
+    }
+
+    // the state of the horses after all changes, the parents of the updated horses are validated against it
+    var changed = new HashMap<>(stored);
+    updates.forEach(horse -> changed.put(horse.id(), mapper.detailDtoToEntity(horse)));
+    reassigned.forEach(id -> changed.get(id).setOwnerId(newOwnerId));
+    deleted.forEach(changed::remove);
+    var parentsOfReassigned = reassigned.stream()
+        .flatMap(id -> Stream.of(changed.get(id).getFatherId(), changed.get(id).getMotherId()))
+        .filter(id -> id != null && !stored.containsKey(id))
+        .collect(Collectors.toSet());
+    dao.getAllById(parentsOfReassigned).forEach(horse -> changed.put(horse.getId(), horse));
+    // also checks, that the new owners exist
+    var owners = ownerLoader.load(changed.values().stream().map(Horse::getOwnerId).toList());
+
+    var sexChanged = updates.stream()
+        .filter(horse -> horse.sex() != stored.get(horse.id()).getSex())
+        .map(HorseDetailDto::id)
+        .toList();
+    var withChildren = sexChanged.isEmpty() ? Set.<Long>of() : dao.getIdsWithChildren(sexChanged);
+    var validationErrors = new ArrayList<String>();
+    var conflictErrors = new ArrayList<String>();
+    for (var horse : updates) {
+      var father = horse.fatherId() == null ? null : changed.get(horse.fatherId());
+      var mother = horse.motherId() == null ? null : changed.get(horse.motherId());
+      if (horse.fatherId() != null && father == null || horse.motherId() != null && mother == null) {
+        conflictErrors.add("Horse %d: A parent of the horse is deleted".formatted(horse.id()));
+        continue;
+      }
+      try {
+        validator.validateForUpdate(horse, mapper.entityToDetailDto(father, owners), mapper.entityToDetailDto(mother, owners),
+            withChildren.contains(horse.id()), stored.get(horse.id()).getSex());
+      } catch (ValidationException e) {
+        e.errors().forEach(error -> validationErrors.add("Horse %d: %s".formatted(horse.id(), error)));
+      } catch (ConflictException e) {
+        e.errors().forEach(error -> conflictErrors.add("Horse %d: %s".formatted(horse.id(), error)));
+      }
+    }
+    if (!validationErrors.isEmpty()) {
+      throw new ValidationException("Validation of bulk change of horses failed", validationErrors);
+    }
+    if (!conflictErrors.isEmpty()) {
+      throw new ConflictException("Bulk change of horses has conflicts", conflictErrors);
+    }
+
+    // the children of deleted horses, that are not published as changed anyway
+    var published = new HashSet<Long>(deleted);
+    updates.forEach(horse -> published.add(horse.id()));
+    published.addAll(reassigned);
+    final var orphanedIds = childIdsOf(deleted).stream().filter(id -> !published.contains(id)).toList();
+    dao.updateAll(updates);
+    dao.reassignOwner(reassigned, newOwnerId);
+    dao.deleteAll(deleted);
+
+    Stream.concat(updates.stream().map(HorseDetailDto::id), reassigned.stream()).forEach(id -> {
+      var horse = changed.get(id);
+      var father = horse.getFatherId() == null ? null : changed.get(horse.getFatherId());
+      var mother = horse.getMotherId() == null ? null : changed.get(horse.getMotherId());
+      changeFeed.publishAfterCommit(ChangeFeedService.HORSE, ChangeType.UPDATED, id,
+          mapper.entityToDetailDto(horse, mapper.entityToDetailDto(father, owners), mapper.entityToDetailDto(mother, owners), owners));
+    });
+    deleted.forEach(id -> changeFeed.publishAfterCommit(ChangeFeedService.HORSE, ChangeType.DELETED, id, null));
+    detailsOf(orphanedIds).forEach(child -> changeFeed.publishAfterCommit(ChangeFeedService.HORSE, ChangeType.UPDATED, child.id(), child));
+    return new HorseBulkResultDto(updates.size(), reassigned.size(), deleted.size());
+  }
+
+  @Override
+  @Transactional(readOnly = true)
   public Stream<HorseListDto> search(HorseSearchDto searchParameters) {
     LOG.trace("search({})", searchParameters);
 
-    return dao.search(searchParameters).stream().map(horse -> mapper.entityToListDto(horse, ownerMapForSingleId(horse.getOwnerId())));
+    var horses = dao.search(searchParameters);
+    var ownerMap = ownerLoader.loadOwnersOf(horses);
+    return horses.stream().map(horse -> mapper.entityToListDto(horse, ownerMap));
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public HorseCompactListDto searchCompact(HorseSearchDto searchParameters) {
+    LOG.trace("searchCompact({})", searchParameters);
+
+    var horses = dao.search(searchParameters);
+    var owners = ownerLoader.loadOwnersOf(horses);
+    return new HorseCompactListDto(horses.stream().map(mapper::entityToCompactDto).toList(), owners);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public HorseFacetsDto getFacets(HorseSearchDto searchParameters) {
+    LOG.trace("getFacets({})", searchParameters);
+
+    var facets = dao.getFacets(searchParameters, facetTopOwners);
+    Map<Long, OwnerDto> owners;
+    try {
+      owners = ownerLoader.load(facets.getByOwner().keySet());
+    } catch (NotFoundException e) {
+      throw new FatalException("Horse, that is already persisted, refers to non-existing owner", e);
+    }
+    var topOwners = facets.getByOwner().entrySet().stream()
+        .map(entry -> new OwnerFacetDto(owners.get(entry.getKey()), entry.getValue()))
+        .toList();
+    var total = facets.getBySex().values().stream().mapToLong(Long::longValue).sum();
+    return new HorseFacetsDto(total, facets.getBySex(), facets.getByBirthYear(), topOwners);
+  }
+
+  @Override
+  @Transactional
+  public HorseCardCheckDto checkCards() {
+    LOG.trace("checkCards()");
+    return mapper.entityToCardCheckDto(dao.checkCards());
   }
 
+  @Override
+  @Transactional(readOnly = true)
+  public HorseProgenyDto getProgeny(long id) throws NotFoundException {
+    LOG.trace("getProgeny({})", id);
+    return mapper.entityToProgenyDto(dao.getProgeny(id));
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<HorseProgenyDto> getTopSires(Integer limit) throws ValidationException {
+    LOG.trace("getTopSires({})", limit);
+    if (limit != null && (limit < 1 || limit > topSiresMaxLimit)) {
+      throw new ValidationException("Validation of sire ranking request failed",
+          List.of("Limit must be between 1 and %d".formatted(topSiresMaxLimit)));
+    }
+    return dao.getTopSires(limit == null ? Math.min(topSiresDefaultLimit, topSiresMaxLimit) : limit).stream()
+        .map(mapper::entityToProgenyDto)
+        .toList();
+  }
+
+
   @Override
   public HorseTreeDto getAncestors(Long id, Integer generations) throws NotFoundException, ValidationException {
     LOG.trace("getAncestors({}, {})", id, generations);
+    return getVersionedAncestors(id, generations).content().get();
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Versioned<HorseTreeDto> getVersionedAncestors(Long id, Integer generations) throws NotFoundException, ValidationException {
+    LOG.trace("getVersionedAncestors({}, {})", id, generations);
 
     validator.validateForAncestorRetrieval(id, generations);
 
@@ -156,36 +543,61 @@ public class HorseServiceImpl implements HorseService {
     var root = horses.stream().filter(horse -> horse.getId() == id).findAny()
             .orElseThrow(() -> new FatalException("Horse ancestors are missing horse itself"));
 
-    return mapper.entityListToTreeDto(root, horses);
+    return new Versioned<>(versionTag("", horses.stream()), () -> mapper.entityListToTreeDto(root, horses));
   }
 
-
-  private Map<Long, OwnerDto> ownerMapForSingleId(Long ownerId) {
+  /**
+   * Build a strong entity tag from the ids and versions of the given horses.
+   * The versions are unique across all horses, so the tag changes, as soon as any of the horses changes.
+   */
+  private static String versionTag(String variant, Stream<Horse> horses) {
+    var versions = horses
+        .filter(Objects::nonNull)
+        .sorted(Comparator.comparing(Horse::getId))
+        .map(horse -> horse.getId() + ":" + horse.getVersion())
+        .distinct()
+        .collect(Collectors.joining(","));
+    if (!variant.isEmpty()) {
+      versions = variant + ";" + versions;
+    }
     try {
-      return ownerId == null
-              ? null
-              : Collections.singletonMap(ownerId, ownerService.getById(ownerId));
-    } catch (NotFoundException e) {
-      throw new FatalException("Owner %d referenced by horse not found".formatted(ownerId));
+      var digest = MessageDigest.getInstance("SHA-256").digest(versions.getBytes(StandardCharsets.UTF_8));
+      return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + '"';
+    } catch (NoSuchAlgorithmException e) {
+      throw new FatalException("SHA-256 is not available", e);
     }
   }
 
-  private Map<Long, OwnerDto> ownerMap(Long... ownerIds) {
-    if (ownerIds == null) {
-      return null;
+
+
+  /**
+   * Map the owners of a write context, which must contain the new owner of the horse.
+   */
+  private Map<Long, OwnerDto> ownerMap(HorseWriteContext context, Long ownerId) throws NotFoundException {
+    if (ownerId != null && !context.getOwners().containsKey(ownerId)) {
+      throw new NotFoundException("Owner with ID %d not found".formatted(ownerId));
     }
+    var owners = new HashMap<Long, OwnerDto>();
+    context.getOwners().forEach((id, owner) -> owners.put(id, ownerMapper.entityToDto(owner)));
+    return owners;
+  }
 
-    var map = new HashMap<Long, OwnerDto>();
-    for (var ownerId : ownerIds) {
-      if (ownerId != null) {
-        try {
-          map.put(ownerId, ownerService.getById(ownerId));
-        } catch (NotFoundException e) {
-          throw new FatalException("Owner %d referenced by horse not found".formatted(ownerId));
-        }
-      }
+  /**
+   * Map a parent of a write context, which must exist, if an ID is given for it.
+   */
+  private HorseDetailSimpleDto parentDto(Long parentId, Horse parent, Map<Long, OwnerDto> owners) throws NotFoundException {
+    if (parentId != null && parent == null) {
+      throw new NotFoundException("No horse with ID %d found".formatted(parentId));
     }
+    return parent == null ? null : mapper.entityToDetailDto(parent, owners);
+  }
 
-    return map;
+  /**
+   * Carries the checked exceptions of a create out of its transaction callback.
+   */
+  private static final class CreateFailure extends RuntimeException {
+    CreateFailure(Exception cause) {
+      super(cause);
+    }
   }
 }
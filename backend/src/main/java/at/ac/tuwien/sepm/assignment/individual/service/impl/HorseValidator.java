@@ -1,5 +1,6 @@
 package at.ac.tuwien.sepm.assignment.individual.service.impl;
 
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseBulkDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseCreateDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseDetailDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseDetailSimpleDto;
@@ -8,8 +9,10 @@ import at.ac.tuwien.sepm.assignment.individual.exception.ValidationException;
 import java.lang.invoke.MethodHandles;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 import at.ac.tuwien.sepm.assignment.individual.type.Sex;
 import org.slf4j.Logger;
@@ -110,6 +113,86 @@ public class HorseValidator {
     }
   }
 
+  /**
+   * Validate the IDs of horses to get at once.
+   *
+   * @param ids the IDs of the horses
+   * @param maxIds the maximum number of IDs in one request
+   * @throws ValidationException if a parameter is failing validation checks
+   */
+  public void validateForBatchGet(List<Long> ids, int maxIds) throws ValidationException {
+    LOG.trace("validateForBatchGet({})", ids);
+    List<String> validationErrors = new ArrayList<>();
+
+    if (ids == null) {
+      validationErrors.add("No IDs given");
+    } else {
+      if (ids.stream().anyMatch(Objects::isNull)) {
+        validationErrors.add("An ID is missing");
+      }
+      if (ids.size() > maxIds) {
+        validationErrors.add("At most %d horses can be requested at once".formatted(maxIds));
+      }
+    }
+
+    if (!validationErrors.isEmpty()) {
+      throw new ValidationException("Validation of horses to get failed", validationErrors);
+    }
+  }
+
+  /**
+   * Validate the structure of a bulk change of horses, before anything is loaded for it.
+   * The single updates are validated with {@link #validateForUpdate} afterwards.
+   *
+   * @param bulk the changes to apply together
+   * @param maxChanges the maximum number of horses changed in one bulk change
+   * @throws ValidationException if a parameter is failing validation checks
+   */
+  public void validateForBulk(HorseBulkDto bulk, int maxChanges) throws ValidationException {
+    LOG.trace("validateForBulk({})", bulk);
+    List<String> validationErrors = new ArrayList<>();
+
+    var changedIds = new ArrayList<Long>();
+    if (bulk.update() != null) {
+      for (var horse : bulk.update()) {
+        if (horse == null || horse.id() == null) {
+          validationErrors.add("Horse to update has no ID");
+        } else {
+          changedIds.add(horse.id());
+        }
+      }
+    }
+    if (bulk.reassign() != null) {
+      if (bulk.reassign().horseIds() == null) {
+        validationErrors.add("No horses given to reassign");
+      } else if (bulk.reassign().horseIds().stream().anyMatch(Objects::isNull)) {
+        validationErrors.add("Horse to reassign has no ID");
+      } else {
+        changedIds.addAll(bulk.reassign().horseIds());
+      }
+    }
+    if (bulk.delete() != null) {
+      if (bulk.delete().stream().anyMatch(Objects::isNull)) {
+        validationErrors.add("Horse to delete has no ID");
+      } else {
+        changedIds.addAll(bulk.delete());
+      }
+    }
+
+    if (changedIds.size() > maxChanges) {
+      validationErrors.add("At most %d horses can be changed at once".formatted(maxChanges));
+    }
+    var seen = new HashSet<Long>();
+    changedIds.stream()
+        .filter(id -> !seen.add(id))
+        .distinct()
+        .forEach(id -> validationErrors.add("Horse %d is changed more than once".formatted(id)));
+
+    if (!validationErrors.isEmpty()) {
+      throw new ValidationException("Validation of bulk change of horses failed", validationErrors);
+    }
+  }
+
   private void validateParents(List<String> validationErrors, Long horseId, LocalDate horseBirthDay, HorseDetailSimpleDto father, HorseDetailSimpleDto mother) {
     if (father != null) {
       if (horseId != null && horseId == father.id()) {
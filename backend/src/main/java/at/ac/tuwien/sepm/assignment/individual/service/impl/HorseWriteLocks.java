@@ -0,0 +1,115 @@
+package at.ac.tuwien.sepm.assignment.individual.service.impl;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Striped locks, that coordinate writes touching the same horses.
+ * <p>
+ * Validating a horse reads its parents and whether it has children.
+ * Two concurrent writes could both pass validation and together leave an invalid pedigree,
+ *  e.g. changing the sex of a horse while a foal referring to it as father is created.
+ * Every write therefore locks the ids of the horse and its parents, until its transaction completes.
+ * The horses written are locked exclusively, the parents only read for validation are locked shared.
+ * So foals of the same parents are still created in parallel, and can share a group commit,
+ *  while a change of one of the parents waits for them, and they wait for it.
+ * Writes on unrelated horses mostly hit different stripes and still run in parallel.
+ * </p>
+ * <p>
+ * The stripes are locked in ascending order, so writes locking several of them can not deadlock.
+ * A stripe needed both exclusively and shared, because two of the horses hash to it, is only locked exclusively.
+ * They are {@link ReentrantReadWriteLock}s, so virtual threads waiting for a stripe do not pin their carrier threads.
+ * </p>
+ */
+@Component
+public class HorseWriteLocks {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private final ReentrantReadWriteLock[] stripes;
+
+  /**
+   * Default DI constructor.
+   *
+   * @param stripes the number of locks the horse ids are spread over
+   */
+  public HorseWriteLocks(@Value("${wendy.write-locks.stripes:64}") int stripes) {
+    if (stripes < 1) {
+      throw new IllegalArgumentException("At least one lock stripe is needed");
+    }
+    this.stripes = new ReentrantReadWriteLock[stripes];
+    for (int i = 0; i < stripes; i++) {
+      this.stripes[i] = new ReentrantReadWriteLock();
+    }
+  }
+
+  /**
+   * Lock the given horses until the current transaction completes.
+   * Only the committed state is visible to other writes, so releasing the locks any earlier would not help.
+   *
+   * @param written the ids of the horses updated or deleted, locked exclusively, {@code null} entries are ignored
+   * @param read the ids of the horses only read to validate the write, locked shared, {@code null} entries are ignored
+   * @throws IllegalStateException if there is no transaction to bind the locks to,
+   *     or if the transaction already holds a stripe shared, that it now needs exclusively
+   */
+  public void lockUntilCompletion(Collection<Long> written, Collection<Long> read) {
+    LOG.trace("lockUntilCompletion({}, {})", written, read);
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      throw new IllegalStateException("Horse write locks have to be taken within a transaction");
+    }
+    var exclusive = stripesOf(written);
+    // sorted by stripe, true if the stripe is locked exclusively
+    var needed = new TreeMap<Integer, Boolean>();
+    stripesOf(read).forEach(stripe -> needed.put(stripe, false));
+    exclusive.forEach(stripe -> needed.put(stripe, true));
+
+    var locked = new ArrayList<Lock>(needed.size());
+    needed.forEach((stripe, isExclusive) -> {
+      var lock = stripes[stripe];
+      if (isExclusive && lock.getReadHoldCount() > 0) {
+        // a shared lock can not be upgraded, waiting for the exclusive one would wait for ourselves
+        unlock(locked);
+        throw new IllegalStateException("Horse write lock stripe %d is already locked shared by this transaction".formatted(stripe));
+      }
+      var taken = isExclusive ? lock.writeLock() : lock.readLock();
+      taken.lock();
+      locked.add(taken);
+    });
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        unlock(locked);
+      }
+    });
+  }
+
+  private Set<Integer> stripesOf(Collection<Long> horseIds) {
+    return horseIds.stream()
+        .filter(Objects::nonNull)
+        .map(this::stripe)
+        .collect(Collectors.toSet());
+  }
+
+  private static void unlock(List<Lock> locked) {
+    for (int i = locked.size() - 1; i >= 0; i--) {
+      locked.get(i).unlock();
+    }
+  }
+
+  private int stripe(long horseId) {
+    return Math.floorMod(Long.hashCode(horseId), stripes.length);
+  }
+}
@@ -0,0 +1,127 @@
+package at.ac.tuwien.sepm.assignment.individual.service.impl;
+
+import at.ac.tuwien.sepm.assignment.individual.dto.OwnerDto;
+import at.ac.tuwien.sepm.assignment.individual.entity.Horse;
+import at.ac.tuwien.sepm.assignment.individual.exception.FatalException;
+import at.ac.tuwien.sepm.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepm.assignment.individual.service.OwnerService;
+import java.lang.invoke.MethodHandles;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Batching loader of the owners referenced while serving the current request.
+ * Owner IDs can be registered up front with {@link #register}, they are resolved together with the next {@link #load},
+ *  in a single lookup of all IDs not resolved before in this request.
+ * <p>
+ * The state is kept in the attributes of the request, so owners are loaded at most once per request, no matter how many
+ *  service methods ask for them. Outside of requests (e.g. during data generation) every {@link #load} is a lookup of its own.
+ * Owners can't be changed once created, so resolved owners never become stale during a request.
+ * </p>
+ */
+@Component
+public class OwnerLoader {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final String ATTRIBUTE = OwnerLoader.class.getName();
+
+  private final OwnerService ownerService;
+
+  /**
+   * Default DI constructor.
+   *
+   * @param ownerService the service the owners are looked up with
+   */
+  public OwnerLoader(OwnerService ownerService) {
+    this.ownerService = ownerService;
+  }
+
+  /**
+   * Remember owner IDs to resolve with the next {@link #load}, without looking them up yet.
+   * Does nothing outside of requests.
+   *
+   * @param ownerIds the IDs of the owners, null entries are ignored
+   */
+  public void register(Collection<Long> ownerIds) {
+    var batch = batch(false);
+    if (batch != null) {
+      synchronized (batch) {
+        batch.enqueue(ownerIds);
+      }
+    }
+  }
+
+  /**
+   * Get the owners with the given IDs, resolving them and all registered IDs in a single lookup.
+   *
+   * @param ownerIds the IDs of the owners, null entries are ignored
+   * @return the owners with the given IDs by their ID
+   * @throws NotFoundException if any of the owners, given or registered, does not exist
+   */
+  public Map<Long, OwnerDto> load(Collection<Long> ownerIds) throws NotFoundException {
+    var batch = batch(true);
+    // a request may be served by more than one thread, e.g. when streaming its response
+    synchronized (batch) {
+      batch.enqueue(ownerIds);
+      if (!batch.pending.isEmpty()) {
+        LOG.trace("load(): resolving {} owners", batch.pending.size());
+        try {
+          batch.loaded.putAll(ownerService.getAllById(batch.pending));
+        } finally {
+          batch.pending.clear();
+        }
+      }
+      return ownerIds.stream()
+          .filter(Objects::nonNull)
+          .distinct()
+          .collect(Collectors.toUnmodifiableMap(id -> id, batch.loaded::get));
+    }
+  }
+
+  /**
+   * Get the owners referenced by the given horses, like {@link #load}.
+   *
+   * @param horses horses, that are already persisted
+   * @return the owners of the horses by their ID
+   */
+  public Map<Long, OwnerDto> loadOwnersOf(Collection<Horse> horses) {
+    try {
+      return load(horses.stream().map(Horse::getOwnerId).toList());
+    } catch (NotFoundException e) {
+      throw new FatalException("Horse, that is already persisted, refers to non-existing owner", e);
+    }
+  }
+
+  private Batch batch(boolean create) {
+    var attributes = RequestContextHolder.getRequestAttributes();
+    if (attributes == null) {
+      return create ? new Batch() : null;
+    }
+    var batch = (Batch) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    if (batch == null) {
+      batch = new Batch();
+      attributes.setAttribute(ATTRIBUTE, batch, RequestAttributes.SCOPE_REQUEST);
+    }
+    return batch;
+  }
+
+  private static class Batch {
+    private final Set<Long> pending = new LinkedHashSet<>();
+    private final Map<Long, OwnerDto> loaded = new HashMap<>();
+
+    void enqueue(Collection<Long> ownerIds) {
+      ownerIds.stream()
+          .filter(id -> id != null && !loaded.containsKey(id))
+          .forEach(pending::add);
+    }
+  }
+}
@@ -8,7 +8,9 @@ import at.ac.tuwien.sepm.assignment.individual.exception.NotFoundException;
 import at.ac.tuwien.sepm.assignment.individual.exception.ValidationException;
 import at.ac.tuwien.sepm.assignment.individual.mapper.OwnerMapper;
 import at.ac.tuwien.sepm.assignment.individual.persistence.OwnerDao;
+import at.ac.tuwien.sepm.assignment.individual.service.ChangeFeedService;
 import at.ac.tuwien.sepm.assignment.individual.service.OwnerService;
+import at.ac.tuwien.sepm.assignment.individual.type.ChangeType;
 import java.lang.invoke.MethodHandles;
 import java.util.Collection;
 import java.util.List;
@@ -19,6 +21,7 @@ import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class OwnerServiceImpl implements OwnerService {
@@ -27,14 +30,17 @@ public class OwnerServiceImpl implements OwnerService {
   private final OwnerDao dao;
   private final OwnerMapper mapper;
   private final OwnerValidator validator;
+  private final ChangeFeedService changeFeed;
 
   public OwnerServiceImpl(
           OwnerDao dao,
           OwnerMapper mapper,
-          OwnerValidator validator) {
+          OwnerValidator validator,
+          ChangeFeedService changeFeed) {
     this.dao = dao;
     this.mapper = mapper;
     this.validator = validator;
+    this.changeFeed = changeFeed;
   }
 
   @Override
@@ -66,6 +72,7 @@ public class OwnerServiceImpl implements OwnerService {
   }
 
   @Override
+  @Transactional
   public OwnerDto create(OwnerCreateDto newOwner) throws ValidationException, ConflictException {
     LOG.trace("create({})", newOwner);
 
@@ -75,6 +82,8 @@ public class OwnerServiceImpl implements OwnerService {
       throw new ConflictException("Data of owner for create has conflicts", List.of("The provided email is already in use"));
     }
 
-    return mapper.entityToDto(dao.create(newOwner));
+    var created = mapper.entityToDto(dao.create(newOwner));
+    changeFeed.publishAfterCommit(ChangeFeedService.OWNER, ChangeType.CREATED, created.id(), created);
+    return created;
   }
 }
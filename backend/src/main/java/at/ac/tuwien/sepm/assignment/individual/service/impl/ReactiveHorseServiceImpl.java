@@ -0,0 +1,120 @@
+package at.ac.tuwien.sepm.assignment.individual.service.impl;
+
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseDetailDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseListDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseSearchDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseTreeDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.OwnerDto;
+import at.ac.tuwien.sepm.assignment.individual.entity.Horse;
+import at.ac.tuwien.sepm.assignment.individual.exception.FatalException;
+import at.ac.tuwien.sepm.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepm.assignment.individual.exception.ValidationException;
+import at.ac.tuwien.sepm.assignment.individual.mapper.HorseMapper;
+import at.ac.tuwien.sepm.assignment.individual.persistence.HorseReactiveDao;
+import at.ac.tuwien.sepm.assignment.individual.service.ReactiveHorseService;
+import at.ac.tuwien.sepm.assignment.individual.service.ReactiveOwnerService;
+import java.lang.invoke.MethodHandles;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The implementation of the non-blocking horse service.
+ * <p>
+ * Search results are streamed in batches: the owners of each batch of horses are fetched with one query,
+ *  and the next batch is only read from the database, when the client has consumed the previous one.
+ * </p>
+ */
+@Service
+public class ReactiveHorseServiceImpl implements ReactiveHorseService {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final int OWNER_BATCH_SIZE = 64;
+
+  private final HorseReactiveDao dao;
+  private final HorseMapper mapper;
+  private final HorseValidator validator;
+  private final ReactiveOwnerService ownerService;
+
+  /**
+   * Default DI constructor.
+   *
+   * @param dao The DAO to read horses with
+   * @param mapper The mapper to convert entities to DTOs
+   * @param validator The validator to validate parameters
+   * @param ownerService The owner service to look up owner references from horses
+   */
+  public ReactiveHorseServiceImpl(HorseReactiveDao dao, HorseMapper mapper, HorseValidator validator, ReactiveOwnerService ownerService) {
+    this.dao = dao;
+    this.mapper = mapper;
+    this.validator = validator;
+    this.ownerService = ownerService;
+  }
+
+  @Override
+  public Flux<HorseListDto> search(HorseSearchDto searchParameters) {
+    LOG.trace("search({})", searchParameters);
+    return dao.search(searchParameters)
+        .buffer(OWNER_BATCH_SIZE)
+        .concatMap(horses -> ownerMap(horses.stream())
+            .flatMapIterable(owners -> horses.stream().map(horse -> mapper.entityToListDto(horse, owners)).toList()), 1);
+  }
+
+  @Override
+  public Mono<HorseDetailDto> getById(long id) {
+    LOG.trace("getById({})", id);
+    return dao.getById(id)
+        .switchIfEmpty(Mono.error(() -> new NotFoundException("No horse with ID %d found".formatted(id))))
+        .flatMap(horse -> dao.getAllById(parentIds(horse))
+            .collectMap(Horse::getId)
+            .flatMap(parents -> {
+              var father = horse.getFatherId() == null ? null : parents.get(horse.getFatherId());
+              var mother = horse.getMotherId() == null ? null : parents.get(horse.getMotherId());
+              return ownerMap(Stream.of(horse, father, mother).filter(Objects::nonNull))
+                  .map(owners -> mapper.entityToDetailDto(
+                      horse,
+                      mapper.entityToDetailDto(father, owners),
+                      mapper.entityToDetailDto(mother, owners),
+                      owners));
+            }));
+  }
+
+  @Override
+  public Mono<HorseTreeDto> getAncestors(Long id, Integer generations) {
+    LOG.trace("getAncestors({}, {})", id, generations);
+    try {
+      validator.validateForAncestorRetrieval(id, generations);
+    } catch (ValidationException e) {
+      return Mono.error(e);
+    }
+
+    return dao.getAncestors(id, generations)
+        .collectList()
+        .flatMap(horses -> horses.stream()
+            .filter(horse -> horse.getId().equals(id))
+            .findAny()
+            .map(root -> Mono.just(mapper.entityListToTreeDto(root, horses)))
+            .orElseGet(() -> Mono.error(new NotFoundException("No horse with ID %d found".formatted(id)))));
+  }
+
+  private static Collection<Long> parentIds(Horse horse) {
+    return Stream.of(horse.getFatherId(), horse.getMotherId())
+        .filter(Objects::nonNull)
+        .collect(Collectors.toUnmodifiableSet());
+  }
+
+  private Mono<Map<Long, OwnerDto>> ownerMap(Stream<Horse> horses) {
+    var ownerIds = horses
+        .map(Horse::getOwnerId)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toUnmodifiableSet());
+    return ownerService.getAllById(ownerIds)
+        .onErrorMap(NotFoundException.class, e -> new FatalException("Horse, that is already persisted, refers to non-existing owner", e));
+  }
+}
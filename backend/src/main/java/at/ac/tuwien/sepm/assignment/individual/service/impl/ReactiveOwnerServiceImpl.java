@@ -0,0 +1,55 @@
+package at.ac.tuwien.sepm.assignment.individual.service.impl;
+
+import at.ac.tuwien.sepm.assignment.individual.dto.OwnerDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.OwnerSearchDto;
+import at.ac.tuwien.sepm.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepm.assignment.individual.mapper.OwnerMapper;
+import at.ac.tuwien.sepm.assignment.individual.persistence.OwnerReactiveDao;
+import at.ac.tuwien.sepm.assignment.individual.service.ReactiveOwnerService;
+import java.lang.invoke.MethodHandles;
+import java.util.Collection;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The implementation of the non-blocking owner service, which only reads.
+ */
+@Service
+public class ReactiveOwnerServiceImpl implements ReactiveOwnerService {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private final OwnerReactiveDao dao;
+  private final OwnerMapper mapper;
+
+  public ReactiveOwnerServiceImpl(OwnerReactiveDao dao, OwnerMapper mapper) {
+    this.dao = dao;
+    this.mapper = mapper;
+  }
+
+  @Override
+  public Mono<Map<Long, OwnerDto>> getAllById(Collection<Long> ids) {
+    LOG.trace("getAllById({})", ids);
+    return dao.getAllById(ids)
+        .map(mapper::entityToDto)
+        .collectMap(OwnerDto::id)
+        .flatMap(owners -> {
+          for (final var id : ids) {
+            if (!owners.containsKey(id)) {
+              return Mono.error(new NotFoundException("Owner with ID %d not found".formatted(id)));
+            }
+          }
+          return Mono.just(owners);
+        });
+  }
+
+  @Override
+  public Flux<OwnerDto> search(OwnerSearchDto searchParameters) {
+    LOG.trace("search({})", searchParameters);
+    return dao.search(searchParameters)
+        .map(mapper::entityToDto);
+  }
+}
@@ -0,0 +1,10 @@
+package at.ac.tuwien.sepm.assignment.individual.type;
+
+/**
+ * Kind of change published on the change feed
+ */
+public enum ChangeType {
+  CREATED,
+  UPDATED,
+  DELETED
+}
@@ -0,0 +1,42 @@
+package at.ac.tuwien.sepm.assignment.individual.type;
+
+import java.util.Arrays;
+
+/**
+ * Fields of a horse in list views, that can be requested with a sparse fieldset
+ */
+public enum HorseField {
+  ID("id"),
+  NAME("name"),
+  DESCRIPTION("description"),
+  DATE_OF_BIRTH("dateOfBirth"),
+  SEX("sex"),
+  OWNER("owner");
+
+  private final String jsonName;
+
+  HorseField(String jsonName) {
+    this.jsonName = jsonName;
+  }
+
+  /**
+   * Get the name of the field in JSON representations of horses.
+   */
+  public String getJsonName() {
+    return jsonName;
+  }
+
+  /**
+   * Get the field with the given JSON name.
+   *
+   * @param jsonName the name of the field in JSON representations of horses
+   * @return the field
+   * @throws IllegalArgumentException if there is no such field
+   */
+  public static HorseField fromJsonName(String jsonName) {
+    return Arrays.stream(values())
+        .filter(field -> field.jsonName.equals(jsonName.trim()))
+        .findAny()
+        .orElseThrow(() -> new IllegalArgumentException("Unknown horse field: " + jsonName));
+  }
+}
@@ -0,0 +1,41 @@
+package at.ac.tuwien.sepm.assignment.individual.type;
+
+import java.util.Arrays;
+
+/**
+ * Relatives of a horse, that can be included in its details with the {@code include} parameter,
+ *  e.g. {@code include=children,siblings}.
+ */
+public enum HorseRelation {
+  CHILDREN("children"),
+  SIBLINGS("siblings"),
+  GRANDPARENTS("grandparents"),
+  OWNER_HORSES("owner.horses");
+
+  private final String parameterName;
+
+  HorseRelation(String parameterName) {
+    this.parameterName = parameterName;
+  }
+
+  /**
+   * Get the name of the relation in the {@code include} parameter.
+   */
+  public String getParameterName() {
+    return parameterName;
+  }
+
+  /**
+   * Get the relation with the given name.
+   *
+   * @param parameterName the name of the relation in the {@code include} parameter
+   * @return the relation
+   * @throws IllegalArgumentException if there is no such relation
+   */
+  public static HorseRelation fromParameterName(String parameterName) {
+    return Arrays.stream(values())
+        .filter(relation -> relation.parameterName.equals(parameterName.trim()))
+        .findAny()
+        .orElseThrow(() -> new IllegalArgumentException("Unknown horse relation: " + parameterName));
+  }
+}
@@ -0,0 +1,40 @@
+package at.ac.tuwien.sepm.assignment.individual.type;
+
+import java.util.Arrays;
+
+/**
+ * Fields of an owner in list views, that can be requested with a sparse fieldset
+ */
+public enum OwnerField {
+  ID("id"),
+  FIRST_NAME("firstName"),
+  LAST_NAME("lastName"),
+  EMAIL("email");
+
+  private final String jsonName;
+
+  OwnerField(String jsonName) {
+    this.jsonName = jsonName;
+  }
+
+  /**
+   * Get the name of the field in JSON representations of owners.
+   */
+  public String getJsonName() {
+    return jsonName;
+  }
+
+  /**
+   * Get the field with the given JSON name.
+   *
+   * @param jsonName the name of the field in JSON representations of owners
+   * @return the field
+   * @throws IllegalArgumentException if there is no such field
+   */
+  public static OwnerField fromJsonName(String jsonName) {
+    return Arrays.stream(values())
+        .filter(field -> field.jsonName.equals(jsonName.trim()))
+        .findAny()
+        .orElseThrow(() -> new IllegalArgumentException("Unknown owner field: " + jsonName));
+  }
+}
@@ -26,3 +26,136 @@ CREATE TABLE IF NOT EXISTS horse
           REFERENCES horse (id)
           ON DELETE SET NULL
 );
+
+-- every insert, update and delete of a horse or owner draws a new value from this sequence,
+-- so clients can ask for everything that changed after the last version they have seen
+CREATE SEQUENCE IF NOT EXISTS change_version_seq;
+
+ALTER TABLE owner ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT NEXT VALUE FOR change_version_seq NOT NULL;
+ALTER TABLE horse ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT NEXT VALUE FOR change_version_seq NOT NULL;
+CREATE INDEX IF NOT EXISTS owner_version ON owner (version);
+CREATE INDEX IF NOT EXISTS horse_version ON horse (version);
+
+CREATE TABLE IF NOT EXISTS horse_tombstone
+(
+  id                BIGINT PRIMARY KEY,
+  version           BIGINT NOT NULL
+);
+CREATE INDEX IF NOT EXISTS horse_tombstone_version ON horse_tombstone (version);
+
+-- numbers of horses per sex, year of birth and owner, adjusted by every insert, update and delete of a horse,
+-- so the unfiltered facets of the registry can be read without scanning all horses
+CREATE TABLE IF NOT EXISTS horse_facet_count
+(
+  facet             VARCHAR(16) NOT NULL,
+  facet_key         VARCHAR(32) NOT NULL,
+  horses            BIGINT NOT NULL,
+  PRIMARY KEY (facet, facet_key)
+);
+-- fill the counters of databases, that already contained horses before they were introduced
+INSERT INTO horse_facet_count (facet, facet_key, horses)
+SELECT * FROM (
+  SELECT 'sex', CAST(sex AS VARCHAR), COUNT(*) FROM horse GROUP BY sex
+  UNION ALL SELECT 'birth_year', CAST(birth_year AS VARCHAR), COUNT(*) FROM (SELECT EXTRACT(YEAR FROM date_of_birth) AS birth_year FROM horse) GROUP BY birth_year
+  UNION ALL SELECT 'owner', CAST(owner_id AS VARCHAR), COUNT(*) FROM horse WHERE owner_id IS NOT NULL GROUP BY owner_id
+) WHERE NOT EXISTS (SELECT 1 FROM horse_facet_count);
+
+-- numbers of foals and grand-foals of every horse, that has any, adjusted whenever a horse is inserted, updated or deleted,
+-- so the progeny of a horse and the ranking of the sires can be read without scanning the children.
+-- grand-foals are counted per line: a grand-foal descending from a horse through both of its parents counts twice
+CREATE TABLE IF NOT EXISTS horse_progeny
+(
+  horse_id          BIGINT PRIMARY KEY,
+  foals             BIGINT NOT NULL,
+  male_foals        BIGINT NOT NULL,
+  female_foals      BIGINT NOT NULL,
+  grand_foals       BIGINT NOT NULL,
+
+  CONSTRAINT progeny_of
+    FOREIGN KEY (horse_id)
+      REFERENCES horse (id)
+      ON DELETE CASCADE
+);
+CREATE INDEX IF NOT EXISTS horse_progeny_foals ON horse_progeny (foals, grand_foals);
+-- fill the counters of databases, that already contained horses before they were introduced
+INSERT INTO horse_progeny (horse_id, foals, male_foals, female_foals, grand_foals)
+SELECT * FROM (
+  SELECT p.id, COUNT(*), SUM(CASE WHEN c.sex = 'MALE' THEN 1 ELSE 0 END), SUM(CASE WHEN c.sex = 'FEMALE' THEN 1 ELSE 0 END),
+    (SELECT COUNT(*) FROM horse pc JOIN horse gc ON pc.id IN (gc.father_id, gc.mother_id) WHERE p.id IN (pc.father_id, pc.mother_id))
+  FROM horse p JOIN horse c ON p.id IN (c.father_id, c.mother_id) GROUP BY p.id
+) WHERE NOT EXISTS (SELECT 1 FROM horse_progeny);
+
+-- every horse with its owner, its parents and their owners in one row, the source of the horse cards below
+CREATE VIEW IF NOT EXISTS horse_card_source AS
+SELECT
+  h.id AS h_id, h.name AS h_name, h.description AS h_description, h.date_of_birth AS h_date_of_birth, h.sex AS h_sex, h.owner_id AS h_owner_id, h.father_id AS h_father_id, h.mother_id AS h_mother_id, h.version AS h_version,
+  f.id AS f_id, f.name AS f_name, f.description AS f_description, f.date_of_birth AS f_date_of_birth, f.sex AS f_sex, f.owner_id AS f_owner_id, f.father_id AS f_father_id, f.mother_id AS f_mother_id, f.version AS f_version,
+  m.id AS m_id, m.name AS m_name, m.description AS m_description, m.date_of_birth AS m_date_of_birth, m.sex AS m_sex, m.owner_id AS m_owner_id, m.father_id AS m_father_id, m.mother_id AS m_mother_id, m.version AS m_version,
+  o.id AS o_id, o.first_name AS o_first_name, o.last_name AS o_last_name, o.email AS o_email, o.version AS o_version,
+  fo.id AS fo_id, fo.first_name AS fo_first_name, fo.last_name AS fo_last_name, fo.email AS fo_email, fo.version AS fo_version,
+  mo.id AS mo_id, mo.first_name AS mo_first_name, mo.last_name AS mo_last_name, mo.email AS mo_email, mo.version AS mo_version
+FROM horse h
+  LEFT JOIN horse f ON f.id = h.father_id
+  LEFT JOIN horse m ON m.id = h.mother_id
+  LEFT JOIN owner o ON o.id = h.owner_id
+  LEFT JOIN owner fo ON fo.id = f.owner_id
+  LEFT JOIN owner mo ON mo.id = m.owner_id;
+
+-- denormalized copy of horse_card_source, the columns in the same order, kept up to date by every write of a horse,
+-- so the details of a horse with its parents and their owners can be read with a single lookup of the primary key.
+-- owners can't be changed once created, so only writes of horses change the cards
+CREATE TABLE IF NOT EXISTS horse_card
+(
+  h_id              BIGINT PRIMARY KEY,
+  h_name            VARCHAR(255) NOT NULL,
+  h_description     VARCHAR(4095),
+  h_date_of_birth   DATE NOT NULL,
+  h_sex             ENUM('MALE', 'FEMALE') NOT NULL,
+  h_owner_id        BIGINT,
+  h_father_id       BIGINT,
+  h_mother_id       BIGINT,
+  h_version         BIGINT NOT NULL,
+  f_id              BIGINT,
+  f_name            VARCHAR(255),
+  f_description     VARCHAR(4095),
+  f_date_of_birth   DATE,
+  f_sex             ENUM('MALE', 'FEMALE'),
+  f_owner_id        BIGINT,
+  f_father_id       BIGINT,
+  f_mother_id       BIGINT,
+  f_version         BIGINT,
+  m_id              BIGINT,
+  m_name            VARCHAR(255),
+  m_description     VARCHAR(4095),
+  m_date_of_birth   DATE,
+  m_sex             ENUM('MALE', 'FEMALE'),
+  m_owner_id        BIGINT,
+  m_father_id       BIGINT,
+  m_mother_id       BIGINT,
+  m_version         BIGINT,
+  o_id              BIGINT,
+  o_first_name      VARCHAR(255),
+  o_last_name       VARCHAR(255),
+  o_email           VARCHAR(255),
+  o_version         BIGINT,
+  fo_id             BIGINT,
+  fo_first_name     VARCHAR(255),
+  fo_last_name      VARCHAR(255),
+  fo_email          VARCHAR(255),
+  fo_version        BIGINT,
+  mo_id             BIGINT,
+  mo_first_name     VARCHAR(255),
+  mo_last_name      VARCHAR(255),
+  mo_email          VARCHAR(255),
+  mo_version        BIGINT,
+
+  CONSTRAINT card_of
+    FOREIGN KEY (h_id)
+      REFERENCES horse (id)
+      ON DELETE CASCADE
+);
+CREATE INDEX IF NOT EXISTS horse_card_father ON horse_card (f_id);
+CREATE INDEX IF NOT EXISTS horse_card_mother ON horse_card (m_id);
+-- fill the cards of databases, that already contained horses before they were introduced
+INSERT INTO horse_card
+SELECT * FROM horse_card_source WHERE NOT EXISTS (SELECT 1 FROM horse_card);
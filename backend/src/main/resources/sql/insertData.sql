@@ -10,3 +10,17 @@ VALUES
     (-2, 'Tom', 'The famous father!', '2012-12-12', 'MALE', NULL, NULL, NULL),
     (-3, 'Paul', 'The famous son!', '2016-12-12', 'MALE', NULL, -2, -1)
 ;
+
+-- the statements above bypass the application, so the facet and progeny counters have to be recounted, and the horse cards rebuilt
+DELETE FROM horse_facet_count;
+INSERT INTO horse_facet_count (facet, facet_key, horses)
+  SELECT 'sex', CAST(sex AS VARCHAR), COUNT(*) FROM horse GROUP BY sex
+  UNION ALL SELECT 'birth_year', CAST(birth_year AS VARCHAR), COUNT(*) FROM (SELECT EXTRACT(YEAR FROM date_of_birth) AS birth_year FROM horse) GROUP BY birth_year
+  UNION ALL SELECT 'owner', CAST(owner_id AS VARCHAR), COUNT(*) FROM horse WHERE owner_id IS NOT NULL GROUP BY owner_id;
+DELETE FROM horse_progeny;
+INSERT INTO horse_progeny (horse_id, foals, male_foals, female_foals, grand_foals)
+  SELECT p.id, COUNT(*), SUM(CASE WHEN c.sex = 'MALE' THEN 1 ELSE 0 END), SUM(CASE WHEN c.sex = 'FEMALE' THEN 1 ELSE 0 END),
+    (SELECT COUNT(*) FROM horse pc JOIN horse gc ON pc.id IN (gc.father_id, gc.mother_id) WHERE p.id IN (pc.father_id, pc.mother_id))
+  FROM horse p JOIN horse c ON p.id IN (c.father_id, c.mother_id) GROUP BY p.id;
+DELETE FROM horse_card;
+INSERT INTO horse_card SELECT * FROM horse_card_source;
@@ -0,0 +1,96 @@
+package at.ac.tuwien.sepm.assignment.individual.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Feeds latency samples into the limit directly, without any clock.
+ */
+public class AdaptiveConcurrencyLimitTest {
+  private static final long MILLIS = 1_000_000;
+
+  @Test
+  public void rejectsWorkOverTheLimitAndCountsIt() {
+    var limit = new AdaptiveConcurrencyLimit("test", 2, 1, 10, 0.2);
+    assertThat(limit.tryAcquire()).isTrue();
+    assertThat(limit.tryAcquire()).isTrue();
+    assertThat(limit.tryAcquire()).isFalse();
+    assertThat(limit.tryAcquire()).isFalse();
+    assertThat(limit.getInFlight()).isEqualTo(2);
+    assertThat(limit.getRejected()).isEqualTo(2);
+
+    // without a latency sample, releasing only frees the slot
+    limit.release(0, false);
+    assertThat(limit.getInFlight()).isEqualTo(1);
+    assertThat(limit.getLimit()).isEqualTo(2);
+    assertThat(limit.tryAcquire()).isTrue();
+    assertThat(limit.getRejected()).isEqualTo(2);
+  }
+
+  @Test
+  public void droppedWorkCutsTheLimitDownToTheMinimum() {
+    var limit = new AdaptiveConcurrencyLimit("test", 20, 15, 30, 0.2);
+    limit.tryAcquire();
+    limit.release(MILLIS, true);
+    assertThat(limit.getLimit()).isEqualTo(18);
+    for (int i = 0; i < 10; i++) {
+      limit.tryAcquire();
+      limit.release(MILLIS, true);
+    }
+    assertThat(limit.getLimit()).isEqualTo(15);
+    assertThat(limit.getInFlight()).isZero();
+  }
+
+  @Test
+  public void steadyLatencyUnderLoadGrowsTheLimitUpToTheMaximum() {
+    var limit = new AdaptiveConcurrencyLimit("test", 10, 1, 40, 1);
+    for (int round = 0; round < 20; round++) {
+      var acquired = fill(limit);
+      assertThat(limit.getInFlight()).isEqualTo(acquired);
+      for (int i = 0; i < acquired; i++) {
+        limit.release(MILLIS, false);
+      }
+    }
+    assertThat(limit.getLimit()).isEqualTo(40);
+  }
+
+  @Test
+  public void idleLimitDoesNotGrow() {
+    var limit = new AdaptiveConcurrencyLimit("test", 10, 1, 40, 1);
+    for (int i = 0; i < 100; i++) {
+      limit.tryAcquire();
+      limit.release(MILLIS, false);
+    }
+    assertThat(limit.getLimit()).isEqualTo(10);
+  }
+
+  @Test
+  public void risingLatencyShrinksTheLimit() {
+    var limit = new AdaptiveConcurrencyLimit("test", 100, 1, 100, 1);
+    var acquired = fill(limit);
+    assertThat(acquired).isEqualTo(100);
+    limit.release(MILLIS, false);
+    assertThat(limit.getLimit()).isEqualTo(100);
+    for (int i = 1; i < acquired; i++) {
+      limit.release(100 * MILLIS, false);
+    }
+    assertThat(limit.getLimit()).isLessThan(100).isGreaterThanOrEqualTo(1);
+  }
+
+  @Test
+  public void invalidLimitsAreRefused() {
+    assertThatThrownBy(() -> new AdaptiveConcurrencyLimit("test", 5, 0, 10, 0.2)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new AdaptiveConcurrencyLimit("test", 20, 1, 10, 0.2)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new AdaptiveConcurrencyLimit("test", 5, 1, 10, 0)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static int fill(AdaptiveConcurrencyLimit limit) {
+    var acquired = 0;
+    while (limit.tryAcquire()) {
+      acquired++;
+    }
+    return acquired;
+  }
+}
@@ -0,0 +1,43 @@
+package at.ac.tuwien.sepm.assignment.individual.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+/**
+ * Starts only the data source configuration, with a replica configured.
+ */
+public class ReadWriteDataSourceConfigurationTest {
+  private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+      .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class))
+      .withUserConfiguration(ReadWriteDataSourceConfiguration.class, ConnectionCheckoutCounter.class)
+      .withPropertyValues(
+          "spring.datasource.url=jdbc:h2:mem:configured-primary",
+          "spring.datasource.username=sa",
+          "spring.datasource.hikari.maximum-pool-size=7",
+          "spring.datasource.hikari.connection-timeout=1234",
+          "wendy.datasource.replicas[0].url=jdbc:h2:mem:configured-replica",
+          "wendy.datasource.replicas[0].username=sa");
+
+  @Test
+  public void hikariSettingsApplyToThePrimaryAndTheReplicas() {
+    contextRunner.run(context -> {
+      var primary = context.getBean("primaryDataSource", HikariDataSource.class);
+      assertThat(primary.getMaximumPoolSize()).isEqualTo(7);
+      assertThat(primary.getConnectionTimeout()).isEqualTo(1234);
+      assertThat(primary.getPoolName()).isEqualTo("primary");
+      assertThat(primary.getMetricsTrackerFactory()).isSameAs(context.getBean(ConnectionCheckoutCounter.class));
+
+      var replica = (HikariDataSource) context.getBean(ReadWriteRoutingDataSource.class).getResolvedDataSources().get(0);
+      assertThat(replica.getJdbcUrl()).isEqualTo("jdbc:h2:mem:configured-replica");
+      assertThat(replica.getPoolName()).isEqualTo("replica-0");
+      assertThat(replica.isReadOnly()).isTrue();
+      assertThat(replica.getMaximumPoolSize()).isEqualTo(7);
+      assertThat(replica.getConnectionTimeout()).isEqualTo(1234);
+    });
+  }
+}
@@ -0,0 +1,110 @@
+package at.ac.tuwien.sepm.assignment.individual.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Routes through the same lazy proxy and transaction manager as the application, but to separate in-memory databases.
+ * The replicas never receive any writes, like replicas lagging behind for good.
+ */
+public class ReadWriteRoutingDataSourceTest {
+  private JdbcTemplate jdbcTemplate;
+  private TransactionTemplate readOnly;
+  private TransactionTemplate readWrite;
+
+  /**
+   * Set up a primary and two replicas, each with a marker row holding its name, and start a request.
+   */
+  @BeforeEach
+  public void setup() {
+    var primary = database("primary");
+    var routing = new ReadWriteRoutingDataSource(primary, List.of(database("replica-0"), database("replica-1")));
+    routing.afterPropertiesSet();
+    var dataSource = new LazyConnectionDataSourceProxy(routing);
+    var transactionManager = new DataSourceTransactionManager(dataSource);
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+    readWrite = new TransactionTemplate(transactionManager);
+    readWrite.setReadOnly(false);
+    startRequest();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Test
+  public void readOnlyTransactionsGoToTheReplicasInTurn() {
+    assertThat(databaseOf(readOnly)).isEqualTo("replica-0");
+    assertThat(databaseOf(readOnly)).isEqualTo("replica-1");
+    assertThat(databaseOf(readOnly)).isEqualTo("replica-0");
+  }
+
+  @Test
+  public void writingTransactionsGoToThePrimary() {
+    assertThat(databaseOf(readWrite)).isEqualTo("primary");
+  }
+
+  @Test
+  public void statementsWithoutTransactionGoToThePrimary() {
+    assertThat(jdbcTemplate.queryForObject("SELECT name FROM marker", String.class)).isEqualTo("primary");
+  }
+
+  @Test
+  public void readsAfterAWriteStayOnThePrimaryForTheRestOfTheRequest() {
+    assertThat(databaseOf(readOnly)).startsWith("replica");
+    readWrite.executeWithoutResult(status -> jdbcTemplate.update("INSERT INTO note (text) VALUES ('written')"));
+
+    // the request reads its own write, which the replicas do not have yet
+    assertThat(notes(readOnly)).containsExactly("written");
+    assertThat(databaseOf(readOnly)).isEqualTo("primary");
+
+    startRequest();
+    assertThat(notes(readOnly)).isEmpty();
+  }
+
+  @Test
+  public void readOnlyTransactionsWithoutRequestGoToTheReplicas() {
+    RequestContextHolder.resetRequestAttributes();
+    readWrite.executeWithoutResult(status -> jdbcTemplate.update("INSERT INTO note (text) VALUES ('written')"));
+    assertThat(databaseOf(readOnly)).startsWith("replica");
+  }
+
+  private String databaseOf(TransactionTemplate transaction) {
+    return transaction.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM marker", String.class));
+  }
+
+  private List<String> notes(TransactionTemplate transaction) {
+    return transaction.execute(status -> jdbcTemplate.queryForList("SELECT text FROM note", String.class));
+  }
+
+  private static void startRequest() {
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+  }
+
+  private static DataSource database(String name) {
+    var dataSource = new DriverManagerDataSource("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    var jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute("DROP TABLE IF EXISTS marker");
+    jdbcTemplate.execute("DROP TABLE IF EXISTS note");
+    jdbcTemplate.execute("CREATE TABLE marker (name VARCHAR(255))");
+    jdbcTemplate.execute("CREATE TABLE note (text VARCHAR(255))");
+    jdbcTemplate.update("INSERT INTO marker (name) VALUES (?)", name);
+    return dataSource;
+  }
+}
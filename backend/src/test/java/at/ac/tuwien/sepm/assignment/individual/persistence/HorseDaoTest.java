@@ -39,6 +39,7 @@ public class HorseDaoTest {
   @Test
   @DirtiesContext
   public void updateHors() throws NotFoundException {
+    var version = horseDao.getById(-2).getVersion();
     var newValues = new HorseDetailDto(-2L, "Tom", "The legend!",
             LocalDate.of(2012, 12, 13), Sex.MALE, null, null, null);
     var updated = horseDao.update(newValues);
@@ -47,6 +48,7 @@ public class HorseDaoTest {
     assertThat(updated.getName()).isEqualTo(newValues.name());
     assertThat(updated.getDescription()).isEqualTo(newValues.description());
     assertThat(updated.getDateOfBirth()).isEqualTo(newValues.dateOfBirth());
+    assertThat(updated.getVersion()).isGreaterThan(version);
   }
 
   @Test
@@ -61,4 +63,21 @@ public class HorseDaoTest {
     assertThat(horse).isNotNull();
     assertThat(horse.getName()).isEqualTo("Wendy");
   }
+
+  @Test
+  public void writeContextContainsHorseParentsAndChildFlag() {
+    var context = horseDao.getWriteContext(-2L, null, -1L, 0L);
+
+    assertThat(context.getHorse().getName()).isEqualTo("Tom");
+    assertThat(context.hasChildren()).isTrue();
+    assertThat(context.getFather()).isNull();
+    assertThat(context.getMother().getName()).isEqualTo("Wendy");
+    assertThat(context.getOwners()).isEmpty();
+
+    context = horseDao.getWriteContext(null, -2L, null, null);
+
+    assertThat(context.getHorse()).isNull();
+    assertThat(context.hasChildren()).isFalse();
+    assertThat(context.getFather().getName()).isEqualTo("Tom");
+  }
 }
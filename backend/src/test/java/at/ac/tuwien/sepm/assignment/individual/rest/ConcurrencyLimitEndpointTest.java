@@ -0,0 +1,94 @@
+package at.ac.tuwien.sepm.assignment.individual.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import at.ac.tuwien.sepm.assignment.individual.config.AdaptiveConcurrencyLimit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+/**
+ * Runs the requests through the {@link at.ac.tuwien.sepm.assignment.individual.config.ConcurrencyLimitFilter},
+ *  which the other endpoint tests leave out.
+ */
+@ActiveProfiles({"test", "datagen"}) // enable "test" spring profile during test execution in order to pick up configuration from application-test.yml
+@SpringBootTest
+@EnableWebMvc
+@WebAppConfiguration
+public class ConcurrencyLimitEndpointTest {
+
+  @Autowired
+  private WebApplicationContext webAppContext;
+  private MockMvc mockMvc;
+
+  @Autowired
+  @Qualifier("concurrencyLimitFilter")
+  private FilterRegistrationBean<OncePerRequestFilter> concurrencyLimitFilter;
+
+  @Autowired
+  @Qualifier("pointConcurrencyLimit")
+  private AdaptiveConcurrencyLimit pointLimit;
+
+  /**
+   * Set up MockMvc with the concurrency limit filter.
+   */
+  @BeforeEach
+  public void setup() {
+    this.mockMvc = MockMvcBuilders.webAppContextSetup(webAppContext)
+        .addFilters(concurrencyLimitFilter.getFilter())
+        .build();
+  }
+
+  @Test
+  public void requestsOverTheFullLimitAreRejectedWithRetryAfter() throws Exception {
+    // hold all slots of the point limit, as if that many requests were running
+    var held = 0;
+    while (pointLimit.tryAcquire()) {
+      held++;
+    }
+    var rejected = pointLimit.getRejected();
+    try {
+      mockMvc
+          .perform(MockMvcRequestBuilders
+              .get("/horses/-1")
+              .accept(MediaType.APPLICATION_JSON)
+          ).andExpect(status().isServiceUnavailable())
+          .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+      assertThat(pointLimit.getRejected()).isEqualTo(rejected + 1);
+
+      // queries have a limit of their own
+      mockMvc
+          .perform(MockMvcRequestBuilders
+              .get("/horses")
+              .accept(MediaType.APPLICATION_JSON)
+          ).andExpect(status().isOk());
+    } finally {
+      for (int i = 0; i < held; i++) {
+        pointLimit.release(0, false);
+      }
+    }
+
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses/-1")
+            .accept(MediaType.APPLICATION_JSON)
+        ).andExpect(status().isOk())
+        .andExpect(header().doesNotExist(HttpHeaders.RETRY_AFTER));
+    assertThat(pointLimit.getInFlight()).isZero();
+  }
+}
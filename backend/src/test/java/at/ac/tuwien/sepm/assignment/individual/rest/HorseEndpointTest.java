@@ -2,23 +2,50 @@ package at.ac.tuwien.sepm.assignment.individual.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import at.ac.tuwien.sepm.assignment.individual.config.ConnectionCheckoutCounter;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseBulkResultDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseCardCheckDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseChangesDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseCompactDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseCompactListDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseDetailDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseFacetsDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseListDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseProgenyDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseTreeDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.OwnerDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.OwnerFacetDto;
+import at.ac.tuwien.sepm.assignment.individual.service.HorseService;
+import at.ac.tuwien.sepm.assignment.individual.type.Sex;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.context.WebApplicationContext;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 
@@ -35,6 +62,12 @@ public class HorseEndpointTest {
   @Autowired
   ObjectMapper objectMapper;
 
+  @Autowired
+  HorseService horseService;
+
+  @Autowired
+  PlatformTransactionManager transactionManager;
+
   @BeforeEach
   public void setup() {
     this.mockMvc = MockMvcBuilders.webAppContextSetup(webAppContext).build();
@@ -58,6 +91,431 @@ public class HorseEndpointTest {
         .contains(tuple(-1L, "Wendy"));
   }
 
+  @Test
+  public void gettingHorseDetailsChecksOutOneConnection() throws Exception {
+    // the horse and both of its parents are read in one read-only transaction
+    var request = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses/-3")
+            .accept(MediaType.APPLICATION_JSON)
+        ).andExpect(status().isOk())
+        .andReturn().getRequest();
+
+    assertThat(ConnectionCheckoutCounter.checkouts(request)).isEqualTo(1);
+  }
+
+  @Test
+  @DirtiesContext
+  public void horseDetailsFollowWritesOfParents() throws Exception {
+    var father = (ObjectNode) objectMapper.readTree(mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses/-2")
+            .accept(MediaType.APPLICATION_JSON)
+        ).andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray());
+    father.put("name", "Thomas");
+    mockMvc.perform(MockMvcRequestBuilders
+            .put("/horses/-2")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsBytes(father))
+        ).andExpect(status().isOk());
+    mockMvc.perform(MockMvcRequestBuilders
+            .delete("/horses/-1")
+        ).andExpect(status().isNoContent());
+
+    var horse = objectMapper.readValue(mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses/-3")
+            .accept(MediaType.APPLICATION_JSON)
+        ).andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray(), HorseDetailDto.class);
+    assertThat(horse.father().name()).isEqualTo("Thomas");
+    assertThat(horse.mother()).isNull();
+
+    // the writes kept the cards the details are served from up to date, so the check has nothing to rebuild
+    var check = objectMapper.readValue(mockMvc
+        .perform(MockMvcRequestBuilders
+            .post("/horses/cards/check")
+            .accept(MediaType.APPLICATION_JSON)
+        ).andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray(), HorseCardCheckDto.class);
+    assertThat(check).isEqualTo(new HorseCardCheckDto(2, List.of()));
+  }
+
+  @Test
+  public void batchGetReturnsRequestedHorsesWithParents() throws Exception {
+    var result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .post("/horses/batch-get")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[-3, 4711, -1, -3]")
+            .accept(MediaType.APPLICATION_JSON)
+        ).andExpect(status().isOk())
+        .andReturn();
+
+    var horses = objectMapper.readValue(result.getResponse().getContentAsByteArray(), HorseDetailDto[].class);
+    assertThat(horses)
+        .extracting(HorseDetailDto::id, HorseDetailDto::fatherId, HorseDetailDto::motherId)
+        .containsExactly(tuple(-3L, -2L, -1L), tuple(-1L, null, null));
+    assertThat(horses[0].father().name()).isEqualTo("Tom");
+    assertThat(ConnectionCheckoutCounter.checkouts(result.getRequest())).isEqualTo(1);
+  }
+
+  @Test
+  public void gettingHorseWithRelatives() throws Exception {
+    var result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses/-1?include=children,siblings,grandparents,owner.horses")
+            .accept(MediaType.APPLICATION_JSON)
+        ).andExpect(status().isOk())
+        .andReturn();
+
+    var horse = objectMapper.readTree(result.getResponse().getContentAsByteArray());
+    assertThat(horse.get("name").asText()).isEqualTo("Wendy");
+    assertThat(horse.get("children").findValuesAsText("id")).containsExactly("-3");
+    assertThat(horse.get("siblings")).isEmpty();
+    assertThat(horse.get("ownerHorses")).isEmpty();
+    assertThat(horse.get("pedigree").get("father").isNull()).isTrue();
+    assertThat(ConnectionCheckoutCounter.checkouts(result.getRequest())).isEqualTo(1);
+
+    byte[] body = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses/-3?include=grandparents")
+            .accept(MediaType.APPLICATION_JSON)
+        ).andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+
+    horse = objectMapper.readTree(body);
+    assertThat(horse.get("father").get("name").asText()).isEqualTo("Tom");
+    assertThat(horse.get("pedigree").get("mother").get("name").asText()).isEqualTo("Wendy");
+    assertThat(horse.has("children")).isFalse();
+
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses/-3?include=cousins")
+            .accept(MediaType.APPLICATION_JSON)
+        ).andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void graphQlResolvesPedigreeOneLevelAtATime() throws Exception {
+    var result = graphQl("{ horse(id: -3) { name father { name children { id } } mother { name owner { lastName } } } }");
+
+    var response = objectMapper.readTree(result.getResponse().getContentAsByteArray());
+    assertThat(response.has("errors")).isFalse();
+    var horse = response.get("data").get("horse");
+    assertThat(horse.get("name").asText()).isEqualTo("Paul");
+    assertThat(horse.get("father").get("name").asText()).isEqualTo("Tom");
+    assertThat(horse.get("father").get("children").findValuesAsText("id")).containsExactly("-3");
+    assertThat(horse.get("mother").get("name").asText()).isEqualTo("Wendy");
+    assertThat(horse.get("mother").get("owner").isNull()).isTrue();
+    // the horse, both parents together, the children of the father
+    assertThat(ConnectionCheckoutCounter.checkouts(result.getRequest())).isEqualTo(3);
+
+    var tooDeep = graphQl("{ horse(id: -3) { " + "father { ".repeat(20) + "name" + " }".repeat(20) + " } }");
+    assertThat(objectMapper.readTree(tooDeep.getResponse().getContentAsByteArray()).get("errors").findValuesAsText("message"))
+        .anyMatch(message -> message.contains("depth"));
+    assertThat(ConnectionCheckoutCounter.checkouts(tooDeep.getRequest())).isZero();
+  }
+
+  private MvcResult graphQl(String query) throws Exception {
+    var result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .post("/graphql")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsBytes(Map.of("query", query)))
+            .accept(MediaType.APPLICATION_JSON)
+        ).andExpect(request().asyncStarted())
+        .andReturn();
+    return mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andReturn();
+  }
+
+  @Test
+  public void searchingWithinPedigree() throws Exception {
+    assertThat(searchIds("descendantOf=-2")).containsExactly(-3L);
+    assertThat(searchIds("ancestorOf=-3&sex=FEMALE")).containsExactly(-1L);
+    assertThat(searchIds("ancestorOf=-3&bornBefore=2013-01-01&limit=1")).hasSize(1);
+    assertThat(searchIds("ancestorOf=-3&maxDepth=0")).isEmpty();
+  }
+
+  private List<Long> searchIds(String query) throws Exception {
+    byte[] body = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses?" + query)
+            .accept(MediaType.APPLICATION_JSON)
+        ).andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+    return objectMapper.readerFor(HorseListDto.class).<HorseListDto>readValues(body).readAll().stream()
+        .map(HorseListDto::id)
+        .toList();
+  }
+
+  @Test
+  public void gettingAllHorsesAsCbor() throws Exception {
+    byte[] body = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses")
+            .accept(MediaType.valueOf("application/cbor"))
+        ).andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/cbor"))
+        .andReturn().getResponse().getContentAsByteArray();
+
+    List<HorseListDto> horseResult = new CBORMapper().findAndRegisterModules()
+        .readerFor(HorseListDto.class).<HorseListDto>readValues(body).readAll();
+
+    assertThat(horseResult)
+        .extracting(HorseListDto::id, HorseListDto::name, HorseListDto::dateOfBirth)
+        .contains(tuple(-1L, "Wendy", LocalDate.of(2012, 12, 12)));
+  }
+
+  @Test
+  public void gettingHorsesWithSparseFieldset() throws Exception {
+    byte[] body = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses?fields=name,sex")
+            .accept(MediaType.APPLICATION_JSON)
+        ).andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+
+    var horses = objectMapper.readTree(body);
+    assertThat(horses).hasSize(3);
+    horses.forEach(horse -> assertThat(horse.fieldNames()).toIterable().containsExactlyInAnyOrder("id", "name", "sex"));
+  }
+
+  @Test
+  @DirtiesContext
+  public void compactListContainsEveryOwnerOnce() throws Exception {
+    byte[] owner = mockMvc
+        .perform(MockMvcRequestBuilders
+            .post("/owners")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"firstName\": \"Stud\", \"lastName\": \"Farm\"}")
+        ).andExpect(status().isCreated())
+        .andReturn().getResponse().getContentAsByteArray();
+    var ownerId = objectMapper.readTree(owner).get("id").asLong();
+    for (var horseId : List.of(-1, -2)) {
+      var horse = (ObjectNode) objectMapper.readTree(mockMvc
+          .perform(MockMvcRequestBuilders.get("/horses/" + horseId))
+          .andReturn().getResponse().getContentAsByteArray());
+      horse.putObject("owner").put("id", ownerId);
+      mockMvc.perform(MockMvcRequestBuilders
+              .put("/horses/" + horseId)
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(objectMapper.writeValueAsBytes(horse))
+          ).andExpect(status().isOk());
+    }
+
+    byte[] body = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses?compact=true")
+            .accept(MediaType.APPLICATION_JSON)
+        ).andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+
+    var list = objectMapper.readValue(body, HorseCompactListDto.class);
+    assertThat(list.horses())
+        .extracting(HorseCompactDto::id, HorseCompactDto::ownerId)
+        .containsExactlyInAnyOrder(tuple(-1L, ownerId), tuple(-2L, ownerId), tuple(-3L, null));
+    assertThat(list.owners()).containsOnlyKeys(ownerId);
+  }
+
+  @Test
+  @DirtiesContext
+  public void facetsCountMatchingHorsesAfterUpdates() throws Exception {
+    byte[] owner = mockMvc
+        .perform(MockMvcRequestBuilders
+            .post("/owners")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"firstName\": \"Stud\", \"lastName\": \"Farm\"}")
+        ).andExpect(status().isCreated())
+        .andReturn().getResponse().getContentAsByteArray();
+    var ownerId = objectMapper.readTree(owner).get("id").asLong();
+    var horse = (ObjectNode) objectMapper.readTree(mockMvc
+        .perform(MockMvcRequestBuilders.get("/horses/-2"))
+        .andReturn().getResponse().getContentAsByteArray());
+    horse.putObject("owner").put("id", ownerId);
+    mockMvc.perform(MockMvcRequestBuilders
+            .put("/horses/-2")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsBytes(horse))
+        ).andExpect(status().isOk());
+
+    byte[] body = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses/facets")
+            .accept(MediaType.APPLICATION_JSON)
+        ).andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+
+    var facets = objectMapper.readValue(body, HorseFacetsDto.class);
+    assertThat(facets.total()).isEqualTo(3);
+    assertThat(facets.bySex()).containsExactlyInAnyOrderEntriesOf(Map.of(Sex.MALE, 2L, Sex.FEMALE, 1L));
+    assertThat(facets.byBirthYear()).containsExactlyInAnyOrderEntriesOf(Map.of(2012, 2L, 2016, 1L));
+    assertThat(facets.topOwners())
+        .extracting(facet -> facet.owner().id(), OwnerFacetDto::horses)
+        .containsExactly(tuple(ownerId, 1L));
+
+    body = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses/facets?sex=FEMALE")
+            .accept(MediaType.APPLICATION_JSON)
+        ).andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+
+    facets = objectMapper.readValue(body, HorseFacetsDto.class);
+    assertThat(facets.total()).isEqualTo(1);
+    assertThat(facets.bySex()).containsExactlyInAnyOrderEntriesOf(Map.of(Sex.FEMALE, 1L));
+    assertThat(facets.byBirthYear()).containsExactlyInAnyOrderEntriesOf(Map.of(2012, 1L));
+    assertThat(facets.topOwners()).isEmpty();
+  }
+
+  @Test
+  @DirtiesContext
+  public void progenyAndTopSiresFollowChangedParents() throws Exception {
+    byte[] created = mockMvc
+        .perform(MockMvcRequestBuilders
+            .post("/horses")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"name\": \"Pauline\", \"dateOfBirth\": \"2020-05-05\", \"sex\": \"FEMALE\", \"father\": {\"id\": -3}}")
+        ).andExpect(status().isCreated())
+        .andReturn().getResponse().getContentAsByteArray();
+    var foal = (ObjectNode) objectMapper.readTree(created);
+
+    assertThat(progeny(-3)).isEqualTo(new HorseProgenyDto(-3, "Paul", 1, 0, 1, 0));
+    assertThat(progeny(-2)).isEqualTo(new HorseProgenyDto(-2, "Tom", 1, 1, 0, 1));
+    assertThat(progeny(-1)).isEqualTo(new HorseProgenyDto(-1, "Wendy", 1, 1, 0, 1));
+    assertThat(topSires()).extracting(HorseProgenyDto::id).containsExactly(-2L, -3L);
+
+    foal.putObject("father").put("id", -2);
+    mockMvc.perform(MockMvcRequestBuilders
+            .put("/horses/" + foal.get("id").asLong())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsBytes(foal))
+        ).andExpect(status().isOk());
+
+    assertThat(progeny(-3)).isEqualTo(new HorseProgenyDto(-3, "Paul", 0, 0, 0, 0));
+    assertThat(progeny(-2)).isEqualTo(new HorseProgenyDto(-2, "Tom", 2, 1, 1, 0));
+    assertThat(progeny(-1)).isEqualTo(new HorseProgenyDto(-1, "Wendy", 1, 1, 0, 0));
+    assertThat(topSires()).extracting(HorseProgenyDto::id).containsExactly(-2L);
+  }
+
+  @Test
+  @DirtiesContext
+  public void bulkChangeUpdatesReassignsAndDeletesHorses() throws Exception {
+    byte[] owner = mockMvc
+        .perform(MockMvcRequestBuilders
+            .post("/owners")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"firstName\": \"Stud\", \"lastName\": \"Farm\"}")
+        ).andExpect(status().isCreated())
+        .andReturn().getResponse().getContentAsByteArray();
+    var ownerId = objectMapper.readTree(owner).get("id").asLong();
+    var paul = (ObjectNode) objectMapper.readTree(mockMvc
+        .perform(MockMvcRequestBuilders.get("/horses/-3"))
+        .andReturn().getResponse().getContentAsByteArray());
+    paul.put("name", "Paulo");
+    byte[] created = mockMvc
+        .perform(MockMvcRequestBuilders
+            .post("/horses")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"name\": \"Pauline\", \"dateOfBirth\": \"2020-05-05\", \"sex\": \"FEMALE\", \"father\": {\"id\": -3}}")
+        ).andExpect(status().isCreated())
+        .andReturn().getResponse().getContentAsByteArray();
+    var foalId = objectMapper.readTree(created).get("id").asLong();
+    var bulk = objectMapper.createObjectNode();
+    bulk.putArray("update").add(paul);
+    bulk.putObject("reassign").put("ownerId", ownerId).putArray("horseIds").add(-1).add(-2);
+    bulk.putArray("delete").add(foalId);
+    byte[] body = mockMvc
+        .perform(MockMvcRequestBuilders
+            .post("/horses/bulk")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsBytes(bulk))
+        ).andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+
+    assertThat(objectMapper.readValue(body, HorseBulkResultDto.class)).isEqualTo(new HorseBulkResultDto(1, 2, 1));
+    mockMvc.perform(MockMvcRequestBuilders.get("/horses/" + foalId)).andExpect(status().isNotFound());
+    assertThat(progeny(-3)).isEqualTo(new HorseProgenyDto(-3, "Paulo", 0, 0, 0, 0));
+    assertThat(progeny(-2)).isEqualTo(new HorseProgenyDto(-2, "Tom", 1, 1, 0, 0));
+    var facets = objectMapper.readValue(mockMvc
+        .perform(MockMvcRequestBuilders.get("/horses/facets"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray(), HorseFacetsDto.class);
+    assertThat(facets.total()).isEqualTo(3);
+    assertThat(facets.topOwners())
+        .extracting(facet -> facet.owner().id(), OwnerFacetDto::horses)
+        .containsExactly(tuple(ownerId, 2L));
+  }
+
+  @Test
+  public void bulkChangeWithConflictChangesNothing() throws Exception {
+    var paul = (ObjectNode) objectMapper.readTree(mockMvc
+        .perform(MockMvcRequestBuilders.get("/horses/-3"))
+        .andReturn().getResponse().getContentAsByteArray());
+    paul.put("name", "Paulo");
+    var tom = (ObjectNode) objectMapper.readTree(mockMvc
+        .perform(MockMvcRequestBuilders.get("/horses/-2"))
+        .andReturn().getResponse().getContentAsByteArray());
+    tom.put("sex", "FEMALE");
+
+    var bulk = objectMapper.createObjectNode();
+    bulk.putArray("update").add(paul).add(tom);
+    bulk.putArray("delete").add(-1);
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .post("/horses/bulk")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsBytes(bulk))
+        ).andExpect(status().isConflict());
+
+    assertThat(objectMapper.readTree(mockMvc
+        .perform(MockMvcRequestBuilders.get("/horses/-3"))
+        .andReturn().getResponse().getContentAsByteArray()).get("name").asText()).isEqualTo("Paul");
+    mockMvc.perform(MockMvcRequestBuilders.get("/horses/-1")).andExpect(status().isOk());
+  }
+
+  private HorseProgenyDto progeny(long horseId) throws Exception {
+    byte[] body = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses/" + horseId + "/progeny")
+            .accept(MediaType.APPLICATION_JSON)
+        ).andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+    return objectMapper.readValue(body, HorseProgenyDto.class);
+  }
+
+  private List<HorseProgenyDto> topSires() throws Exception {
+    byte[] body = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses/top-sires")
+            .accept(MediaType.APPLICATION_JSON)
+        ).andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+    return List.of(objectMapper.readValue(body, HorseProgenyDto[].class));
+  }
+
+  @Test
+  public void gettingAllHorsesReactively() throws Exception {
+    var result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/reactive/horses")
+            .accept(MediaType.APPLICATION_JSON)
+        ).andExpect(request().asyncStarted())
+        .andReturn();
+    byte[] body = mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+
+    List<HorseListDto> horseResult = objectMapper.readerFor(HorseListDto.class).<HorseListDto>readValues(body).readAll();
+
+    assertThat(horseResult)
+        .extracting(HorseListDto::id, HorseListDto::name)
+        .containsExactlyInAnyOrder(tuple(-1L, "Wendy"), tuple(-2L, "Tom"), tuple(-3L, "Paul"));
+  }
+
   @Test
   public void getAncestors() throws Exception {
     byte[] body = mockMvc
@@ -102,6 +560,143 @@ public class HorseEndpointTest {
   }
 
 
+  @Test
+  @DirtiesContext
+  public void changesSinceTokenContainDeletedHorseAndItsChildren() throws Exception {
+    var firstPage = getChanges("/horses/changes?limit=2");
+    assertThat(firstPage.horses()).hasSize(2);
+    assertThat(firstPage.hasMore()).isTrue();
+    var secondPage = getChanges("/horses/changes?since=" + firstPage.nextToken());
+    assertThat(secondPage.horses()).hasSize(1);
+    assertThat(secondPage.hasMore()).isFalse();
+
+    mockMvc.perform(MockMvcRequestBuilders
+            .delete("/horses/-2")
+        ).andExpect(status().isNoContent());
+
+    var changes = getChanges("/horses/changes?since=" + secondPage.nextToken());
+    assertThat(changes.deletedHorses()).containsExactly(-2L);
+    assertThat(changes.horses()).extracting(HorseListDto::id).containsExactly(-3L);
+    assertThat(getChanges("/horses/changes?since=" + changes.nextToken()).horses()).isEmpty();
+  }
+
+  @Test
+  @DirtiesContext
+  public void changesSinceTokenDoesNotSkipAnUncommittedUpdate() throws Exception {
+    var since = getChanges("/horses/changes").nextToken();
+    var wendy = horseService.getById(-1);
+    var updated = new CountDownLatch(1);
+    var commit = new CountDownLatch(1);
+    var executor = Executors.newSingleThreadExecutor();
+    try {
+      // the update of Wendy draws its version first, but stays uncommitted until a new owner is committed and polled
+      final var pending = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+        try {
+          horseService.update(wendy);
+          updated.countDown();
+          commit.await();
+        } catch (Exception e) {
+          throw new IllegalStateException(e);
+        }
+      }));
+      updated.await();
+      final var owner = objectMapper.readValue(mockMvc
+          .perform(MockMvcRequestBuilders
+              .post("/owners")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content("{\"firstName\": \"Sync\", \"lastName\": \"Poller\"}")
+          ).andExpect(status().isCreated())
+          .andReturn().getResponse().getContentAsByteArray(), OwnerDto.class);
+
+      var during = getChanges("/horses/changes?since=" + since);
+      if (during.horses().isEmpty()) {
+        // a store without uncommitted writes shows Wendy right away, otherwise the token must stay below her version
+        assertThat(during.owners()).isEmpty();
+        assertThat(during.nextToken()).isEqualTo(since);
+        assertThat(during.hasMore()).isTrue();
+      }
+
+      commit.countDown();
+      pending.get();
+      var after = getChanges("/horses/changes?since=" + during.nextToken());
+      assertThat(Stream.concat(during.horses().stream(), after.horses().stream())).extracting(HorseListDto::id).containsExactly(-1L);
+      assertThat(Stream.concat(during.owners().stream(), after.owners().stream())).extracting(OwnerDto::id).containsExactly(owner.id());
+    } finally {
+      commit.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  @DirtiesContext
+  public void ancestorsAreNotModifiedUntilAnAncestorIsUpdated() throws Exception {
+    var etag = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses/-3/ancestors?generations=2")
+        ).andExpect(status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    assertThat(etag).isNotBlank();
+
+    var notModified = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses/-3/ancestors?generations=2")
+            .header(HttpHeaders.IF_NONE_MATCH, etag)
+        ).andExpect(status().isNotModified())
+        .andReturn().getResponse();
+    assertThat(notModified.getContentLength()).isZero();
+
+    byte[] father = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses/-2")
+        ).andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+    mockMvc.perform(MockMvcRequestBuilders
+            .put("/horses/-2")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(father)
+        ).andExpect(status().isOk());
+
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses/-3/ancestors?generations=2")
+            .header(HttpHeaders.IF_NONE_MATCH, etag)
+        ).andExpect(status().isOk())
+        .andExpect(header().exists(HttpHeaders.ETAG));
+  }
+
+  @Test
+  @DirtiesContext
+  public void updateAnswersWithTheETagOfTheUpdatedHorse() throws Exception {
+    var before = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses/-2")
+        ).andExpect(status().isOk())
+        .andReturn().getResponse();
+    var etag = mockMvc
+        .perform(MockMvcRequestBuilders
+            .put("/horses/-2")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(before.getContentAsByteArray())
+        ).andExpect(status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    assertThat(etag).isNotBlank().isNotEqualTo(before.getHeader(HttpHeaders.ETAG));
+
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses/-2")
+            .header(HttpHeaders.IF_NONE_MATCH, etag)
+        ).andExpect(status().isNotModified());
+  }
+
+  private HorseChangesDto getChanges(String url) throws Exception {
+    byte[] body = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(url)
+            .accept(MediaType.APPLICATION_JSON)
+        ).andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+    return objectMapper.readValue(body, HorseChangesDto.class);
+  }
 
   @Test
   public void gettingNonexistentUrlReturns404() throws Exception {
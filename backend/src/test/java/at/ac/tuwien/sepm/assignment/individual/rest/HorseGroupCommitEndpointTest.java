@@ -0,0 +1,139 @@
+package at.ac.tuwien.sepm.assignment.individual.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseCardCheckDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseDetailDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseFacetsDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.HorseProgenyDto;
+import at.ac.tuwien.sepm.assignment.individual.persistence.impl.HorseJdbcDao;
+import at.ac.tuwien.sepm.assignment.individual.type.Sex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+/**
+ * Concurrent creates through the endpoint with group commit enabled.
+ */
+@ActiveProfiles({"test", "datagen"}) // enable "test" spring profile during test execution in order to pick up configuration from application-test.yml
+// a database of its own, so the created horses do not show up in the tests sharing the default test database
+@SpringBootTest(properties = {
+    "wendy.group-commit.enabled=true",
+    // long enough for the concurrent creates to meet in one batch
+    "wendy.group-commit.window-millis=200",
+    "spring.datasource.url=jdbc:h2:mem:groupcommit;INIT=RUNSCRIPT FROM 'classpath:sql/createSchema.sql'"
+})
+@EnableWebMvc
+@WebAppConfiguration
+@DirtiesContext
+public class HorseGroupCommitEndpointTest {
+  private static final int CREATES = 8;
+
+  @Autowired
+  private WebApplicationContext webAppContext;
+  private MockMvc mockMvc;
+
+  @Autowired
+  ObjectMapper objectMapper;
+
+  // group commit is only done by the relational database, not the memory store
+  @Autowired
+  ObjectProvider<HorseJdbcDao> horseDao;
+
+  @BeforeEach
+  public void setup() {
+    this.mockMvc = MockMvcBuilders.webAppContextSetup(webAppContext).build();
+  }
+
+  @Test
+  public void concurrentCreatesAreCountedAndCarded() throws Exception {
+    var start = new CountDownLatch(1);
+    var executor = Executors.newFixedThreadPool(CREATES);
+    var results = new ArrayList<Future<HorseDetailDto>>();
+    try {
+      for (int i = 0; i < CREATES; i++) {
+        var name = "Foal " + i;
+        results.add(executor.submit((Callable<HorseDetailDto>) () -> {
+          start.await();
+          byte[] body = mockMvc
+              .perform(MockMvcRequestBuilders
+                  .post("/horses")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content("{\"name\": \"" + name + "\", \"dateOfBirth\": \"2020-05-05\", \"sex\": \"FEMALE\","
+                      + " \"father\": {\"id\": -2}, \"mother\": {\"id\": -1}}")
+              ).andExpect(status().isCreated())
+              .andReturn().getResponse().getContentAsByteArray();
+          return objectMapper.readValue(body, HorseDetailDto.class);
+        }));
+      }
+      start.countDown();
+      var ids = new HashSet<Long>();
+      for (var result : results) {
+        ids.add(result.get().id());
+      }
+      assertThat(ids).hasSize(CREATES).doesNotContainNull();
+      // the foals share their parents, which are only locked shared, so their inserts are committed together
+      horseDao.ifAvailable(dao -> assertThat(dao.getLargestInsertBatch()).isGreaterThan(1));
+
+      for (var id : ids) {
+        var horse = objectMapper.readValue(mockMvc
+            .perform(MockMvcRequestBuilders
+                .get("/horses/" + id)
+                .accept(MediaType.APPLICATION_JSON)
+            ).andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsByteArray(), HorseDetailDto.class);
+        assertThat(horse.father().name()).isEqualTo("Tom");
+        assertThat(horse.mother().name()).isEqualTo("Wendy");
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(progeny(-2)).isEqualTo(new HorseProgenyDto(-2, "Tom", 1 + CREATES, 1, CREATES, 0));
+    assertThat(progeny(-1)).isEqualTo(new HorseProgenyDto(-1, "Wendy", 1 + CREATES, 1, CREATES, 0));
+    var facets = objectMapper.readValue(mockMvc
+        .perform(MockMvcRequestBuilders.get("/horses/facets"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray(), HorseFacetsDto.class);
+    assertThat(facets.total()).isEqualTo(3 + CREATES);
+    assertThat(facets.bySex()).containsExactlyInAnyOrderEntriesOf(Map.of(Sex.MALE, 2L, Sex.FEMALE, 1L + CREATES));
+    var check = objectMapper.readValue(mockMvc
+        .perform(MockMvcRequestBuilders
+            .post("/horses/cards/check")
+            .accept(MediaType.APPLICATION_JSON)
+        ).andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray(), HorseCardCheckDto.class);
+    assertThat(check).isEqualTo(new HorseCardCheckDto(3 + CREATES, List.of()));
+  }
+
+  private HorseProgenyDto progeny(long horseId) throws Exception {
+    byte[] body = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses/" + horseId + "/progeny")
+            .accept(MediaType.APPLICATION_JSON)
+        ).andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+    return objectMapper.readValue(body, HorseProgenyDto.class);
+  }
+}
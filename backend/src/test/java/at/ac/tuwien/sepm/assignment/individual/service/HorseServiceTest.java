@@ -1,33 +1,63 @@
 package at.ac.tuwien.sepm.assignment.individual.service;
 
+import at.ac.tuwien.sepm.assignment.individual.dto.ChangeEventDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseCreateDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseDetailDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseListDto;
 import at.ac.tuwien.sepm.assignment.individual.dto.HorseSearchDto;
+import at.ac.tuwien.sepm.assignment.individual.dto.OwnerCreateDto;
 import at.ac.tuwien.sepm.assignment.individual.exception.ConflictException;
 import at.ac.tuwien.sepm.assignment.individual.exception.NotFoundException;
 import at.ac.tuwien.sepm.assignment.individual.exception.ValidationException;
+import at.ac.tuwien.sepm.assignment.individual.service.impl.OwnerLoader;
+import at.ac.tuwien.sepm.assignment.individual.type.ChangeType;
 import at.ac.tuwien.sepm.assignment.individual.type.Sex;
 
+import java.lang.invoke.MethodHandles;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @ActiveProfiles({"test", "datagen"}) // enable "test" spring profile during test execution in order to pick up configuration from application-test.yml
 @SpringBootTest
 public class HorseServiceTest {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
   @Autowired
   HorseService horseService;
 
+  @Autowired
+  ChangeFeedService changeFeedService;
+
+  @Autowired
+  OwnerService ownerService;
+
   @Test
   public void getAllReturnsAllStoredHorses() {
     List<HorseListDto> horses = horseService.allHorses()
@@ -43,7 +73,7 @@ public class HorseServiceTest {
   @Test
   public void getAllMaleHorses() {
     List<HorseListDto> horses = horseService.search(
-            new HorseSearchDto(null, null, null, Sex.MALE, null, null))
+            new HorseSearchDto(null, null, null, Sex.MALE, null, null, null, null, null, null))
             .toList();
     assertThat(horses.size()).isEqualTo(2);
     assertThat(horses)
@@ -66,6 +96,51 @@ public class HorseServiceTest {
     assertThat(createdHorse.dateOfBirth()).isEqualTo(birthday);
   }
 
+  @Test
+  @DirtiesContext
+  public void createHorsePublishesChangeEvent() throws Exception {
+    var events = new LinkedBlockingQueue<ChangeEventDto>();
+    var subscription = changeFeedService.subscribe(null, new ChangeFeedService.Subscriber() {
+      @Override
+      public void onEvent(ChangeEventDto event) {
+        events.add(event);
+      }
+
+      @Override
+      public void onResync(long sequence) {
+      }
+    });
+
+    final var createdHorse = horseService.create(new HorseCreateDto("Hans", null, LocalDate.now().minusDays(1), Sex.FEMALE, null, null, null));
+    var event = events.poll(5, TimeUnit.SECONDS);
+    subscription.cancel();
+
+    assertThat(event).isNotNull();
+    assertThat(event.entity()).isEqualTo(ChangeFeedService.HORSE);
+    assertThat(event.type()).isEqualTo(ChangeType.CREATED);
+    assertThat(event.id()).isEqualTo(createdHorse.id());
+  }
+
+  @Test
+  @DirtiesContext
+  public void ownersAreLoadedOncePerRequest() throws Exception {
+    var anna = ownerService.create(new OwnerCreateDto("Anna", "Huber", null));
+    var bert = ownerService.create(new OwnerCreateDto("Bert", "Huber", null));
+    var countingOwnerService = mock(OwnerService.class, delegatesTo(ownerService));
+    var loader = new OwnerLoader(countingOwnerService);
+
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    try {
+      loader.register(List.of(bert.id()));
+      assertThat(loader.load(Arrays.asList(anna.id(), null))).containsOnlyKeys(anna.id());
+      assertThat(loader.load(List.of(anna.id(), bert.id()))).containsValues(anna, bert);
+    } finally {
+      RequestContextHolder.resetRequestAttributes();
+    }
+    verify(countingOwnerService, times(1)).getAllById(any());
+    assertThatExceptionOfType(NotFoundException.class).isThrownBy(() -> loader.load(List.of(-4711L)));
+  }
+
   @Test
   public void updateNonexistantHors() {
     var toUpdate = new HorseDetailDto(0L, "Panwascher", "The real one!",
@@ -73,4 +148,71 @@ public class HorseServiceTest {
 
     assertThatExceptionOfType(NotFoundException.class).isThrownBy(() -> horseService.update(toUpdate));
   }
+
+  @Test
+  @DirtiesContext
+  public void concurrentWritesKeepPedigreeValid() throws Exception {
+    var sire = horseService.create(new HorseCreateDto("Sire", null, LocalDate.of(2010, 1, 1), Sex.MALE, null, null, null));
+    var others = new ArrayList<HorseDetailDto>();
+    for (int i = 0; i < 4; i++) {
+      others.add(horseService.create(new HorseCreateDto("Other " + i, null, LocalDate.of(2010, 1, 1), Sex.FEMALE, null, null, null)));
+    }
+    var sireAsFather = new HorseDetailDto(sire.id(), sire.name(), null, sire.dateOfBirth(), Sex.MALE, null, null, null);
+
+    // While some writers try to change the sex of the sire, others create foals of it and others update unrelated horses.
+    // Validation of each write only holds, if no other write on the same horses slips in between.
+    var writes = new AtomicInteger();
+    var foals = new AtomicInteger();
+    var start = new CountDownLatch(1);
+    var tasks = new ArrayList<Callable<Void>>();
+    for (int t = 0; t < 8; t++) {
+      final var thread = t;
+      tasks.add(() -> {
+        start.await();
+        for (int i = 0; i < 50; i++) {
+          try {
+            switch (thread % 4) {
+              case 0 -> horseService.update(new HorseDetailDto(sire.id(), sire.name(), null, sire.dateOfBirth(),
+                  i % 2 == 0 ? Sex.FEMALE : Sex.MALE, null, null, null));
+              case 1 -> {
+                horseService.create(new HorseCreateDto("Foal " + thread + "-" + i, null, LocalDate.of(2015, 1, 1), Sex.FEMALE, null, sireAsFather, null));
+                foals.incrementAndGet();
+              }
+              default -> {
+                var other = others.get((thread + i) % others.size());
+                horseService.update(new HorseDetailDto(other.id(), other.name() + " " + i, null, other.dateOfBirth(), other.sex(), null, null, null));
+              }
+            }
+            writes.incrementAndGet();
+          } catch (ConflictException e) {
+            // the sire has foals or is not male at the moment, rejecting the write is fine
+          }
+        }
+        return null;
+      });
+    }
+
+    var startedAt = System.nanoTime();
+    var executor = Executors.newFixedThreadPool(tasks.size());
+    try {
+      var futures = tasks.stream().map(executor::submit).toList();
+      start.countDown();
+      for (var future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    var elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    LOG.info("{} of {} concurrent writes succeeded in {} ms, {} writes/s", writes.get(), 8 * 50, elapsedMillis, writes.get() * 1000L / elapsedMillis);
+
+    var sireAfter = horseService.getById(sire.id());
+    var foalsOfSire = horseService.search(new HorseSearchDto(null, null, null, null, null, null, null, null, sire.id(), 1))
+        .count();
+    assertThat(foalsOfSire).isEqualTo(foals.get());
+    if (foalsOfSire > 0) {
+      assertThat(sireAfter.sex()).isEqualTo(Sex.MALE);
+    }
+    assertThat(writes.get()).isGreaterThanOrEqualTo(4 * 50);
+  }
 }
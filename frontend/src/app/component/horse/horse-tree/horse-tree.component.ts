@@ -1,23 +1,28 @@
-import {Component, OnInit} from '@angular/core';
-import {Observable} from 'rxjs';
-import {HorseTreeNode} from '../../../dto/horse';
+import {Component, OnDestroy, OnInit} from '@angular/core';
+import {Subscription} from 'rxjs';
+import {Horse, HorseTreeNode} from '../../../dto/horse';
 import {ActivatedRoute, Router} from '@angular/router';
 import {ToastrService} from 'ngx-toastr';
 import {HorseService} from '../../../service/horse.service';
 import {HttpErrorResponse} from '@angular/common/http';
+import {ChangeFeedService} from 'src/app/service/change-feed.service';
+import {ChangeEvent, ResyncEvent} from 'src/app/dto/change-event';
 
 @Component({
   selector: 'app-horse-tree',
   templateUrl: './horse-tree.component.html',
   styleUrls: ['./horse-tree.component.scss']
 })
-export class HorseTreeComponent implements OnInit {
+export class HorseTreeComponent implements OnInit, OnDestroy {
 
-  public horseTreeRoot?: Observable<HorseTreeNode>;
+  public horseTreeRoot?: HorseTreeNode;
   public generations = 1;
+  private shownGenerations = 1;
+  private changeFeed?: Subscription;
 
   constructor(
     private service: HorseService,
+    private changeFeedService: ChangeFeedService,
     private router: Router,
     private route: ActivatedRoute,
     private notification: ToastrService,
@@ -25,9 +30,13 @@ export class HorseTreeComponent implements OnInit {
   }
   loadTree() {
     const id = Number(this.route.snapshot.paramMap.get('id'));
+    const generations = this.generations;
 
-    this.horseTreeRoot = this.service.tree(id, this.generations);
-    this.horseTreeRoot.subscribe({
+    this.service.tree(id, generations).subscribe({
+      next: tree => {
+        this.horseTreeRoot = tree;
+        this.shownGenerations = generations;
+      },
       error: (errorResponse: HttpErrorResponse) => {
         this.notification.error(`Could not find horse`);
         this.router.navigate(['/horses']);
@@ -46,13 +55,41 @@ export class HorseTreeComponent implements OnInit {
     }
 
     this.loadTree();
+    this.changeFeed = this.changeFeedService.changes.subscribe(event => this.applyChange(event));
+  }
+
+  ngOnDestroy(): void {
+    this.changeFeed?.unsubscribe();
+  }
+
+  /**
+   * Patch the shown tree with a change from the backend, instead of reloading it.
+   * New horses can not be ancestors of shown horses yet, so only updates and deletions matter.
+   * If a shown horse gets a different parent, the ancestors of that parent are not known here, so the tree is reloaded.
+   */
+  applyChange(event: ChangeEvent | ResyncEvent) {
+    if (event.type === 'RESYNC') {
+      this.loadTree();
+      return;
+    }
+    if (event.entity !== 'horse') {
+      return;
+    }
+    switch (event.type) {
+      case 'DELETED':
+        this.removeHorse(event.id);
+        break;
+      case 'UPDATED':
+        this.updateHorse(event.data as Horse);
+        break;
+    }
   }
 
   deleteHorse(horse: HorseTreeNode) {
     this.service.delete(horse.id).subscribe({
       next: () => {
         this.notification.success(`Horse ${horse.name} successfully deleted.`);
-        this.loadTree();
+        this.removeHorse(horse.id);
       },
       error: (errorResponse: HttpErrorResponse) => {
         this.notification.error(`Could not delete horse: ${errorResponse.error.errors}`);
@@ -60,4 +97,54 @@ export class HorseTreeComponent implements OnInit {
       }
     });
   }
+
+  private removeHorse(id: number) {
+    if (!this.horseTreeRoot) {
+      return;
+    }
+    if (this.horseTreeRoot.id === id) {
+      this.horseTreeRoot = undefined;
+      this.router.navigate(['/horses']);
+      return;
+    }
+    const remove = (node: HorseTreeNode): HorseTreeNode => ({
+      ...node,
+      father: node.father?.id === id ? undefined : node.father && remove(node.father),
+      mother: node.mother?.id === id ? undefined : node.mother && remove(node.mother),
+    });
+    this.horseTreeRoot = remove(this.horseTreeRoot);
+  }
+
+  private updateHorse(horse: Horse) {
+    if (!this.horseTreeRoot) {
+      return;
+    }
+    let reload = false;
+    // the horse may appear more than once in the tree, the parents are only shown up to the loaded generation
+    const patch = (node: HorseTreeNode, generation: number): HorseTreeNode => {
+      let father = node.father && patch(node.father, generation + 1);
+      let mother = node.mother && patch(node.mother, generation + 1);
+      if (node.id !== horse.id) {
+        return {...node, father, mother};
+      }
+      if (generation < this.shownGenerations) {
+        if (horse.father?.id !== father?.id) {
+          reload = reload || !!horse.father;
+          father = undefined;
+        }
+        if (horse.mother?.id !== mother?.id) {
+          reload = reload || !!horse.mother;
+          mother = undefined;
+        }
+      }
+      return {...node, name: horse.name, dateOfBirth: horse.dateOfBirth, sex: horse.sex, father, mother};
+    };
+
+    const patched = patch(this.horseTreeRoot, 0);
+    if (reload) {
+      this.loadTree();
+    } else {
+      this.horseTreeRoot = patched;
+    }
+  }
 }
@@ -7,6 +7,8 @@ import {Horse, HorseSearch} from 'src/app/dto/horse';
 import {Owner} from 'src/app/dto/owner';
 import {HttpErrorResponse} from '@angular/common/http';
 import {NgForm} from '@angular/forms';
+import {ChangeFeedService} from 'src/app/service/change-feed.service';
+import {ChangeEvent, ResyncEvent} from 'src/app/dto/change-event';
 
 
 @Component({
@@ -21,15 +23,18 @@ export class HorseComponent implements OnInit, AfterViewInit, OnDestroy {
   bannerError: string | null = null;
   searchData: HorseSearch = {};
   searchUpdate?: Subscription;
+  changeFeed?: Subscription;
 
   constructor(
     private horseService: HorseService,
     private ownerService: OwnerService,
+    private changeFeedService: ChangeFeedService,
     private notification: ToastrService,
   ) { }
 
   ngOnInit(): void {
     this.reloadHorses();
+    this.changeFeed = this.changeFeedService.changes.subscribe(event => this.applyChange(event));
   }
 
   ngAfterViewInit(): void {
@@ -40,6 +45,41 @@ export class HorseComponent implements OnInit, AfterViewInit, OnDestroy {
 
   ngOnDestroy(): void {
     this.searchUpdate?.unsubscribe();
+    this.changeFeed?.unsubscribe();
+  }
+
+  /**
+   * Patch the shown list with a change from the backend, instead of reloading it.
+   * New horses are only added directly, if no search filter is active,
+   * because the filter semantics are only known to the backend.
+   */
+  applyChange(event: ChangeEvent | ResyncEvent) {
+    if (event.type === 'RESYNC') {
+      this.reloadHorses();
+      return;
+    }
+    if (event.entity !== 'horse') {
+      return;
+    }
+    switch (event.type) {
+      case 'DELETED':
+        this.horses = this.horses.filter(horse => horse.id !== event.id);
+        break;
+      case 'UPDATED':
+        this.horses = this.horses.map(horse => horse.id === event.id ? event.data as Horse : horse);
+        break;
+      case 'CREATED':
+        if (this.hasSearchFilter()) {
+          this.reloadHorses();
+        } else if (!this.horses.some(horse => horse.id === event.id)) {
+          this.horses = [...this.horses, event.data as Horse];
+        }
+        break;
+    }
+  }
+
+  hasSearchFilter(): boolean {
+    return Object.values(this.searchData).some(value => value !== undefined && value !== null && value !== '');
   }
 
   reloadHorses() {
@@ -85,7 +125,7 @@ export class HorseComponent implements OnInit, AfterViewInit, OnDestroy {
   delete(id: number): void {
     this.horseService.delete(id).subscribe({
       next: () => {
-        this.reloadHorses();
+        this.horses = this.horses.filter(horse => horse.id !== id);
         this.notification.info('Horse deleted successfully.');
       },
       error: (errorResponse: HttpErrorResponse) => {
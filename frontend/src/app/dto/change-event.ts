@@ -0,0 +1,14 @@
+export type ChangeType = 'CREATED' | 'UPDATED' | 'DELETED';
+
+export interface ChangeEvent<T = unknown> {
+  sequence: number;
+  entity: 'horse' | 'owner';
+  type: ChangeType;
+  id: number;
+  data: T | null;
+}
+
+export interface ResyncEvent {
+  type: 'RESYNC';
+  sequence: number;
+}
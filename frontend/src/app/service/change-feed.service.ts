@@ -0,0 +1,34 @@
+import {Injectable, NgZone} from '@angular/core';
+import {Observable, share} from 'rxjs';
+import {environment} from 'src/environments/environment';
+import {ChangeEvent, ChangeType, ResyncEvent} from '../dto/change-event';
+
+const baseUri = environment.backendUrl + '/events';
+const changeTypes: ChangeType[] = ['CREATED', 'UPDATED', 'DELETED'];
+
+@Injectable({
+  providedIn: 'root'
+})
+export class ChangeFeedService {
+
+  /**
+   * Stream of all changes of horses and owners.
+   * A single connection to the backend is shared by all subscribers.
+   * The browser reconnects automatically and continues after the last received event.
+   * If events were missed, a RESYNC event is emitted and the subscriber has to reload its state.
+   */
+  readonly changes: Observable<ChangeEvent | ResyncEvent> = new Observable<ChangeEvent | ResyncEvent>(subscriber => {
+    const source = new EventSource(baseUri);
+    const onChange = (message: MessageEvent) => this.zone.run(() => subscriber.next(JSON.parse(message.data)));
+    const onResync = (message: MessageEvent) =>
+      this.zone.run(() => subscriber.next({type: 'RESYNC', sequence: Number(message.data)}));
+
+    changeTypes.forEach(type => source.addEventListener(type, onChange));
+    source.addEventListener('resync', onResync);
+    return () => source.close();
+  }).pipe(share());
+
+  constructor(
+    private zone: NgZone,
+  ) { }
+}